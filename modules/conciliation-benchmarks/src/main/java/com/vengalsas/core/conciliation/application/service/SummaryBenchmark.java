@@ -0,0 +1,63 @@
+package com.vengalsas.core.conciliation.application.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vengalsas.core.conciliation.application.matching.MatchOutcome;
+import com.vengalsas.core.conciliation.application.matching.MatchingEngine;
+import com.vengalsas.core.conciliation.benchmark.BenchmarkServices;
+import com.vengalsas.core.conciliation.benchmark.SyntheticDataGenerator;
+import com.vengalsas.core.conciliation.domain.model.BancolombiaStatement;
+import com.vengalsas.core.conciliation.domain.model.TransactionTotals;
+import com.vengalsas.core.conciliation.web.dto.ReconciliationSummaryDTO;
+
+/**
+ * Sólo la generación del resumen, sobre un emparejamiento y unos totales ya
+ * calculados. Está en el paquete del servicio porque {@code generateSummary}
+ * no es público.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SummaryBenchmark {
+
+  @Param({ "1000", "10000", "100000" })
+  public int rows;
+
+  private ReconciliationService service;
+  private SyntheticDataGenerator.Dataset dataset;
+  private MatchOutcome outcome;
+  private TransactionTotals linixTotals;
+  private TransactionTotals bancoTotals;
+  private BancolombiaStatement statement;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    service = BenchmarkServices.reconciliationService();
+    dataset = new SyntheticDataGenerator(42).generate(rows, 0.9);
+    outcome = new MatchingEngine().match(dataset.linix(), dataset.bancolombia());
+    linixTotals = TransactionTotals.of(dataset.linix());
+    bancoTotals = TransactionTotals.of(dataset.bancolombia());
+    statement = SyntheticDataGenerator.bancolombiaStatement(dataset.bancolombia());
+  }
+
+  @Benchmark
+  public ReconciliationSummaryDTO generateSummary() {
+    return service.generateSummary(linixTotals, bancoTotals, outcome, statement);
+  }
+}
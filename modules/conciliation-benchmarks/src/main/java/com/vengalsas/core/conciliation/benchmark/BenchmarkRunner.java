@@ -0,0 +1,74 @@
+package com.vengalsas.core.conciliation.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Punto de entrada de {@code benchmarks.jar}. Acepta las mismas opciones que
+ * JMH y, si no se indica {@code -rf}/{@code -rff}, guarda los resultados en
+ * JSON como {@code jmh-results/<fecha>-<commit>.json} para compararlos entre
+ * commits.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar                      # todos
+ * java -jar target/benchmarks.jar Reader -p rows=10000 # un subconjunto
+ * </pre>
+ */
+public final class BenchmarkRunner {
+
+  private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+  private BenchmarkRunner() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    CommandLineOptions cli = new CommandLineOptions(args);
+    if (cli.shouldHelp() || cli.shouldList() || cli.shouldListWithParams() || cli.shouldListProfilers()
+        || cli.shouldListResultFormats()) {
+      org.openjdk.jmh.Main.main(args);
+      return;
+    }
+
+    ChainedOptionsBuilder options = new OptionsBuilder().parent(cli);
+    if (!cli.getResultFormat().hasValue() && !cli.getResult().hasValue()) {
+      Path dir = Files.createDirectories(Path.of("jmh-results"));
+      Path file = dir.resolve(LocalDateTime.now().format(FILE_TIMESTAMP) + "-" + commit() + ".json");
+      options.resultFormat(ResultFormatType.JSON).result(file.toString());
+      System.out.println("Resultados JSON en " + file.toAbsolutePath());
+    }
+    new Runner(options.build()).run();
+  }
+
+  // Commit actual para nombrar el archivo; "local" si no hay git a mano
+  private static String commit() {
+    String fromProperty = System.getProperty("benchmark.commit");
+    if (fromProperty != null && !fromProperty.isBlank())
+      return fromProperty;
+    try {
+      Process git = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").redirectErrorStream(true).start();
+      try (BufferedReader out = new BufferedReader(
+          new InputStreamReader(git.getInputStream(), StandardCharsets.UTF_8))) {
+        String line = out.readLine();
+        if (git.waitFor() == 0 && line != null && !line.isBlank())
+          return line.trim();
+      }
+    } catch (IOException e) {
+      // Sin git en el PATH
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return "local";
+  }
+}
@@ -0,0 +1,52 @@
+package com.vengalsas.core.conciliation.benchmark;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.ForkJoinPool;
+
+import org.springframework.core.io.DefaultResourceLoader;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vengalsas.core.conciliation.application.classification.DiscrepancyClassifier;
+import com.vengalsas.core.conciliation.application.matching.GroupedMatcher;
+import com.vengalsas.core.conciliation.application.matching.MatchingEngine;
+import com.vengalsas.core.conciliation.application.matching.PartitionedMatchingEngine;
+import com.vengalsas.core.conciliation.application.service.BalanceDivergenceLocator;
+import com.vengalsas.core.conciliation.application.service.ReconciliationService;
+import com.vengalsas.core.conciliation.infrastructure.adapter.BancolombiaExcelReader;
+import com.vengalsas.core.conciliation.infrastructure.adapter.LinixTxtReader;
+import com.vengalsas.core.conciliation.infrastructure.cache.ParsedFileCache;
+import com.vengalsas.core.conciliation.infrastructure.metrics.ReconciliationMetrics;
+import com.vengalsas.core.conciliation.infrastructure.persistence.InMemoryIncrementalStateStore;
+import com.vengalsas.core.conciliation.infrastructure.persistence.InMemoryReconciliationRunStore;
+import com.vengalsas.core.conciliation.infrastructure.persistence.NoOpReconciliationArchive;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Arma el {@link ReconciliationService} con los mismos componentes que crea
+ * Spring, sin contexto ni base de datos: sesiones en memoria, sin archivo y
+ * sin caché de archivos analizados, para medir sólo el trabajo de cada etapa.
+ */
+public final class BenchmarkServices {
+
+  private BenchmarkServices() {
+  }
+
+  public static ReconciliationService reconciliationService() throws IOException {
+    MatchingEngine matchingEngine = new MatchingEngine();
+    return new ReconciliationService(
+        new BancolombiaExcelReader(),
+        new LinixTxtReader(),
+        matchingEngine,
+        new PartitionedMatchingEngine(matchingEngine, ForkJoinPool.commonPool(), 7),
+        new GroupedMatcher(10, 3, BigDecimal.ZERO, 40, 2000, false),
+        new InMemoryReconciliationRunStore(10, 60),
+        new NoOpReconciliationArchive(),
+        new ParsedFileCache(new ObjectMapper(), false, 0, "", 0),
+        new InMemoryIncrementalStateStore(100, 60),
+        new DiscrepancyClassifier(new DefaultResourceLoader(), "classpath:discrepancy-rules.txt", 100_000),
+        new ReconciliationMetrics(new SimpleMeterRegistry()),
+        new BalanceDivergenceLocator(false));
+  }
+}
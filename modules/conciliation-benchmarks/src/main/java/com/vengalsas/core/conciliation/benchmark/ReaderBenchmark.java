@@ -0,0 +1,62 @@
+package com.vengalsas.core.conciliation.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vengalsas.core.conciliation.domain.model.BancolombiaStatement;
+import com.vengalsas.core.conciliation.domain.model.Transaction;
+import com.vengalsas.core.conciliation.infrastructure.adapter.BancolombiaExcelReader;
+import com.vengalsas.core.conciliation.infrastructure.adapter.LinixTxtReader;
+
+/**
+ * Lectura de los archivos de entrada desde memoria: el extracto .xlsx con
+ * {@link BancolombiaExcelReader} y el export TXT con {@link LinixTxtReader}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReaderBenchmark {
+
+  @Param({ "1000", "10000", "100000" })
+  public int rows;
+
+  private final BancolombiaExcelReader bancolombiaReader = new BancolombiaExcelReader();
+  private final LinixTxtReader linixReader = new LinixTxtReader();
+
+  private byte[] bancolombiaFile;
+  private byte[] linixFile;
+
+  @Setup(Level.Trial)
+  public void generateFiles() throws Exception {
+    SyntheticDataGenerator.Dataset dataset = new SyntheticDataGenerator(42).generate(rows, 0.9);
+    bancolombiaFile = SyntheticDataGenerator.bancolombiaXlsx(dataset.bancolombia());
+    linixFile = SyntheticDataGenerator.linixTxt(dataset.linix());
+  }
+
+  @Benchmark
+  public BancolombiaStatement readBancolombiaXlsx() throws Exception {
+    return bancolombiaReader.read(new ByteArrayInputStream(bancolombiaFile));
+  }
+
+  @Benchmark
+  public List<Transaction> readLinixTxt() {
+    return linixReader.read(new ByteArrayInputStream(linixFile));
+  }
+}
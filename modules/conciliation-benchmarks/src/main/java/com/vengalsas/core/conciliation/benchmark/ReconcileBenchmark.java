@@ -0,0 +1,63 @@
+package com.vengalsas.core.conciliation.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vengalsas.core.conciliation.application.matching.MatchingMode;
+import com.vengalsas.core.conciliation.application.service.ReconciliationService;
+import com.vengalsas.core.conciliation.web.dto.ReconciliationRequestDTO;
+import com.vengalsas.core.conciliation.web.dto.ReconciliationResponseDTO;
+
+/**
+ * {@link ReconciliationService#reconcileTransactions} completo (emparejamiento,
+ * clasificación de discrepancias y resumen) con distintas proporciones de
+ * movimientos con pareja: menos parejas exactas dejan más trabajo a la pasada
+ * flexible y más filas para clasificar.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReconcileBenchmark {
+
+  @Param({ "1000", "10000", "100000" })
+  public int rows;
+
+  @Param({ "0.5", "0.9", "1.0" })
+  public double matchRatio;
+
+  @Param({ "GREEDY", "OPTIMAL" })
+  public MatchingMode matchingMode;
+
+  private ReconciliationService service;
+  private ReconciliationRequestDTO request;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    service = BenchmarkServices.reconciliationService();
+    SyntheticDataGenerator.Dataset dataset = new SyntheticDataGenerator(42).generate(rows, matchRatio);
+    request = new ReconciliationRequestDTO();
+    request.setLinixTransactions(dataset.linix());
+    request.setBancolombiaTransactions(dataset.bancolombia());
+    request.setMatchingMode(matchingMode);
+  }
+
+  @Benchmark
+  public ReconciliationResponseDTO reconcileTransactions() {
+    return service.reconcileTransactions(request);
+  }
+}
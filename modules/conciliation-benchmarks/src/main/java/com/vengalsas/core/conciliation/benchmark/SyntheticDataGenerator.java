@@ -0,0 +1,220 @@
+package com.vengalsas.core.conciliation.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import com.vengalsas.core.conciliation.domain.model.BancolombiaStatement;
+import com.vengalsas.core.conciliation.domain.model.SourceSystem;
+import com.vengalsas.core.conciliation.domain.model.Transaction;
+import com.vengalsas.core.conciliation.domain.model.TransactionType;
+
+/**
+ * Genera movimientos Linix y Bancolombia de un mes y los escribe en los
+ * formatos reales de cada sistema (TXT tabulado del export Linix y extracto
+ * .xlsx con saldos en el encabezado). Con la misma semilla produce siempre
+ * los mismos datos, así que los resultados son comparables entre commits.
+ */
+public final class SyntheticDataGenerator {
+
+  public static final LocalDate PERIOD_START = LocalDate.of(2025, 3, 1);
+  public static final int PERIOD_DAYS = 31;
+
+  // De las filas con pareja, esta fracción coincide exacta; el resto cae en la ventana flexible
+  private static final double EXACT_SHARE = 0.8;
+  private static final BigDecimal STARTING_BALANCE = new BigDecimal("150000000.00");
+
+  private static final String[] DESCRIPTIONS = {
+      "PAGO PROVEEDOR", "ABONO TRANSFERENCIA", "RECAUDO CUOTA", "CONSIGNACION SUCURSAL",
+      "PAGO NOMINA", "TRASLADO ENTRE CUENTAS", "COMISION MANEJO", "IVA COMISION",
+      "INTERESES AHORRO", "CHEQUE PENDIENTE", "AJUSTE SALDO", "PAGO PSE", "RETIRO CAJERO" };
+
+  private static final DateTimeFormatter LINIX_DATE = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+  private static final DateTimeFormatter BANCOLOMBIA_DATE = DateTimeFormatter.ofPattern("d/M/yyyy");
+  private static final int LINIX_FIELDS = 20;
+
+  private final Random random;
+
+  public SyntheticDataGenerator(long seed) {
+    this.random = new Random(seed);
+  }
+
+  /**
+   * Conjunto de {@code rows} movimientos por lado en el que una fracción
+   * {@code matchRatio} de los Linix tiene pareja en el banco. Ambos lados
+   * quedan ordenados por fecha, como llegan en los archivos.
+   */
+  public Dataset generate(int rows, double matchRatio) {
+    return generate(rows, matchRatio, EXACT_SHARE);
+  }
+
+  /**
+   * Igual que {@link #generate(int, double)} con la fracción de parejas
+   * exactas indicada; con 1 cada pareja repite fecha, monto y tipo.
+   */
+  public Dataset generate(int rows, double matchRatio, double exactShare) {
+    List<Transaction> linix = new ArrayList<>(rows);
+    List<Transaction> banco = new ArrayList<>(rows);
+    int paired = (int) Math.round(rows * matchRatio);
+
+    for (int i = 0; i < rows; i++) {
+      Transaction tx = randomTransaction(SourceSystem.LINIX);
+      linix.add(tx);
+      if (i < paired)
+        banco.add(counterpart(tx, exactShare));
+    }
+    while (banco.size() < rows)
+      banco.add(randomTransaction(SourceSystem.BANCOLOMBIA));
+
+    // Orden estable por fecha: las parejas no quedan en la misma posición en ambos lados
+    linix.sort(Comparator.comparing(Transaction::getDate));
+    banco.sort(Comparator.comparing(Transaction::getDate));
+    return new Dataset(linix, banco);
+  }
+
+  /**
+   * Export Linix: líneas "Concepto" tabuladas con la fecha en la columna 11,
+   * la descripción en la 15 y débito/crédito en la 17/18, en ISO-8859-1.
+   */
+  public static byte[] linixTxt(List<Transaction> transactions) {
+    StringBuilder sb = new StringBuilder(transactions.size() * 120);
+    sb.append("REPORTE DE MOVIMIENTOS CONTABLES\r\n");
+    String[] fields = new String[LINIX_FIELDS];
+    for (int i = 0; i < transactions.size(); i++) {
+      Transaction tx = transactions.get(i);
+      for (int f = 0; f < LINIX_FIELDS; f++)
+        fields[f] = "";
+      fields[0] = "Concepto " + (1 + i % 9);
+      fields[1] = "1110050" + (i % 10);
+      fields[3] = "CTA BANCOLOMBIA";
+      fields[11] = tx.getDate().format(LINIX_DATE);
+      fields[15] = " " + tx.getDescription() + " ";
+      String amount = String.format(Locale.US, "%,.2f", tx.getAmount());
+      fields[17] = tx.getTransactionType() == TransactionType.DEBIT ? amount : "";
+      fields[18] = tx.getTransactionType() == TransactionType.CREDIT ? amount : "";
+      fields[19] = "0";
+      sb.append(String.join("\t", fields)).append("\tFIN\r\n");
+    }
+    return sb.toString().getBytes(StandardCharsets.ISO_8859_1);
+  }
+
+  /**
+   * Extracto Bancolombia: saldos en las filas 10 a 13, encabezado en la 14 y
+   * un movimiento por fila con el valor negativo para los cargos.
+   */
+  public static byte[] bancolombiaXlsx(List<Transaction> transactions) throws IOException {
+    BancolombiaStatement statement = bancolombiaStatement(transactions);
+
+    // SXSSF escribe las filas a disco por ventanas para no tener la hoja completa en memoria
+    try (SXSSFWorkbook workbook = new SXSSFWorkbook(500);
+        ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+      Sheet sheet = workbook.createSheet("Extracto");
+      Row labels = sheet.createRow(9);
+      labels.createCell(0).setCellValue("SALDO ANTERIOR");
+      labels.createCell(2).setCellValue("TOTAL ABONOS");
+      labels.createCell(3).setCellValue("TOTAL CARGOS");
+      labels.createCell(4).setCellValue("SALDO ACTUAL");
+      Row values = sheet.createRow(10);
+      values.createCell(0).setCellValue(statement.getStartingBalance().doubleValue());
+      values.createCell(2).setCellValue(statement.getTotalCredits().doubleValue());
+      values.createCell(3).setCellValue(statement.getTotalDebits().doubleValue());
+      values.createCell(4).setCellValue(statement.getEndingBalance().doubleValue());
+
+      Row header = sheet.createRow(13);
+      header.createCell(0).setCellValue("FECHA");
+      header.createCell(1).setCellValue("DESCRIPCIÓN");
+      header.createCell(2).setCellValue("SUCURSAL");
+      header.createCell(3).setCellValue("DCTO.");
+      header.createCell(4).setCellValue("VALOR");
+
+      for (int i = 0; i < transactions.size(); i++) {
+        Transaction tx = transactions.get(i);
+        Row row = sheet.createRow(14 + i);
+        row.createCell(0).setCellValue(tx.getDate().format(BANCOLOMBIA_DATE));
+        row.createCell(1).setCellValue(tx.getDescription());
+        row.createCell(2).setCellValue("PRINCIPAL");
+        BigDecimal signed = tx.getTransactionType() == TransactionType.DEBIT ? tx.getAmount().negate() : tx.getAmount();
+        row.createCell(4).setCellValue(signed.doubleValue());
+      }
+
+      workbook.write(out);
+      workbook.dispose();
+      return out.toByteArray();
+    }
+  }
+
+  /**
+   * Extracto con los mismos saldos que escribe {@link #bancolombiaXlsx}.
+   */
+  public static BancolombiaStatement bancolombiaStatement(List<Transaction> transactions) {
+    BigDecimal credits = BigDecimal.ZERO;
+    BigDecimal debits = BigDecimal.ZERO;
+    for (Transaction tx : transactions) {
+      if (tx.getTransactionType() == TransactionType.DEBIT)
+        debits = debits.add(tx.getAmount());
+      else
+        credits = credits.add(tx.getAmount());
+    }
+    return BancolombiaStatement.builder()
+        .transactions(transactions)
+        .startingBalance(STARTING_BALANCE)
+        .totalCredits(credits)
+        .totalDebits(debits)
+        .endingBalance(STARTING_BALANCE.add(credits).subtract(debits))
+        .build();
+  }
+
+  private Transaction randomTransaction(SourceSystem source) {
+    return Transaction.builder()
+        .date(PERIOD_START.plusDays(random.nextInt(PERIOD_DAYS)))
+        .description(DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)] + " " + (10000 + random.nextInt(90000)))
+        .amount(randomAmount())
+        .transactionType(random.nextInt(3) == 0 ? TransactionType.CREDIT : TransactionType.DEBIT)
+        .source(source)
+        .build();
+  }
+
+  // Mismo tipo que el Linix: es el sentido por defecto (conciliation.linix.mirrored-types=false)
+  private Transaction counterpart(Transaction linix, double exactShare) {
+    LocalDate date = linix.getDate();
+    BigDecimal amount = linix.getAmount();
+    if (random.nextDouble() >= exactShare) {
+      // Pareja flexible: hasta un día y hasta 500 pesos de diferencia
+      date = date.plusDays(random.nextInt(3) - 1);
+      amount = amount.add(BigDecimal.valueOf(random.nextInt(100_001) - 50_000, 2)).abs();
+    }
+    if (date.isBefore(PERIOD_START) || !date.isBefore(PERIOD_START.plusDays(PERIOD_DAYS)))
+      date = linix.getDate();
+
+    return Transaction.builder()
+        .date(date)
+        .description(linix.getDescription())
+        .amount(amount)
+        .transactionType(linix.getTransactionType())
+        .source(SourceSystem.BANCOLOMBIA)
+        .build();
+  }
+
+  // Log-uniforme entre 1.000 y 50.000.000: muchos movimientos pequeños y pocos grandes
+  private BigDecimal randomAmount() {
+    double value = Math.exp(Math.log(1_000) + random.nextDouble() * (Math.log(50_000_000) - Math.log(1_000)));
+    int scale = random.nextInt(4) == 0 ? 2 : 0;
+    return BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP);
+  }
+
+  public record Dataset(List<Transaction> linix, List<Transaction> bancolombia) {
+  }
+}
@@ -0,0 +1,71 @@
+package com.vengalsas.core.conciliation.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.vengalsas.core.conciliation.application.matching.MatchOutcome;
+import com.vengalsas.core.conciliation.application.matching.MatchingEngine;
+import com.vengalsas.core.conciliation.application.service.BalanceDivergenceLocator;
+import com.vengalsas.core.conciliation.domain.model.DailyBalances;
+import com.vengalsas.core.conciliation.domain.model.BancolombiaStatement;
+import com.vengalsas.core.conciliation.domain.model.Transaction;
+import com.vengalsas.core.conciliation.infrastructure.adapter.BancolombiaExcelReader;
+import com.vengalsas.core.conciliation.infrastructure.adapter.LinixTxtReader;
+import com.vengalsas.core.conciliation.web.dto.ReconciliationSummaryDTO;
+
+class SyntheticDataGeneratorTest {
+
+  @Test
+  void generatedFilesRoundTripThroughTheReaders() throws Exception {
+    SyntheticDataGenerator.Dataset dataset = new SyntheticDataGenerator(42).generate(2_000, 0.9);
+
+    List<Transaction> linix = new LinixTxtReader()
+        .read(new ByteArrayInputStream(SyntheticDataGenerator.linixTxt(dataset.linix())));
+    BancolombiaStatement statement = new BancolombiaExcelReader()
+        .read(new ByteArrayInputStream(SyntheticDataGenerator.bancolombiaXlsx(dataset.bancolombia())));
+
+    assertEquals(2_000, linix.size());
+    assertEquals(2_000, statement.getTransactions().size());
+    BancolombiaStatement expected = SyntheticDataGenerator.bancolombiaStatement(dataset.bancolombia());
+    assertEquals(0, expected.getTotalCredits().compareTo(statement.getTotalCredits()));
+    assertEquals(0, expected.getEndingBalance().compareTo(statement.getEndingBalance()));
+
+    // Las parejas generadas caen dentro de las reglas del motor; las filas al azar casi nunca
+    MatchOutcome outcome = new MatchingEngine().match(linix, statement.getTransactions());
+    assertTrue(outcome.getMatchedCount() >= 1_800, "matched " + outcome.getMatchedCount());
+  }
+
+  @Test
+  void exactPairsShowNoBalanceDivergenceWithTheDefaultTypeSense() {
+    SyntheticDataGenerator.Dataset dataset = new SyntheticDataGenerator(11).generate(2_000, 1.0, 1.0);
+    BancolombiaStatement statement = SyntheticDataGenerator.bancolombiaStatement(dataset.bancolombia());
+    DailyBalances balances = DailyBalances.of(dataset.linix(), dataset.bancolombia());
+
+    ReconciliationSummaryDTO summary = ReconciliationSummaryDTO.builder().build();
+    new BalanceDivergenceLocator(false).apply(summary, balances, statement);
+
+    assertTrue(summary.getDivergenciasSaldo().isEmpty(), "divergences " + summary.getDivergenciasSaldo());
+    assertNull(summary.getFechaPrimeraDivergencia());
+  }
+
+  @Test
+  void sameSeedProducesSameData() {
+    SyntheticDataGenerator.Dataset first = new SyntheticDataGenerator(7).generate(500, 0.5);
+    SyntheticDataGenerator.Dataset second = new SyntheticDataGenerator(7).generate(500, 0.5);
+
+    assertEquals(fingerprint(first.linix()), fingerprint(second.linix()));
+    assertEquals(fingerprint(first.bancolombia()), fingerprint(second.bancolombia()));
+  }
+
+  private static List<String> fingerprint(List<Transaction> txs) {
+    return txs.stream()
+        .map(tx -> tx.getDate() + "|" + tx.getAmount() + "|" + tx.getTransactionType() + "|" + tx.getDescription())
+        .toList();
+  }
+}
@@ -0,0 +1,102 @@
+package com.vengalsas.core.conciliation.application.classification;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import com.vengalsas.core.conciliation.domain.model.SourceSystem;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Asigna el tipo de discrepancia de un movimiento no conciliado según las
+ * palabras clave de su descripción. Las reglas se leen de un archivo de texto
+ * (una por línea, en orden de prioridad) y se compilan en un solo
+ * {@link KeywordAutomaton}. Como las descripciones bancarias se repiten mucho,
+ * el resultado se recuerda por descripción.
+ */
+@Component
+@Slf4j
+public class DiscrepancyClassifier {
+
+  static final String UNRECORDED_BANK_MOVEMENT = "Movimiento bancario no registrado en contabilidad";
+  static final String UNREFLECTED_LEDGER_MOVEMENT = "Movimiento contable no reflejado en banco";
+
+  private final List<String> labels;
+  private final KeywordAutomaton automaton;
+  private final int memoMaxEntries;
+  // Índice de la regla por descripción; KeywordAutomaton.NO_MATCH si ninguna aplica
+  private final Map<String, Integer> memo = new ConcurrentHashMap<>();
+
+  public DiscrepancyClassifier(
+      ResourceLoader resourceLoader,
+      @Value("${conciliation.classifier.rules-location:classpath:discrepancy-rules.txt}") String rulesLocation,
+      @Value("${conciliation.classifier.memo-max-entries:100000}") int memoMaxEntries) throws IOException {
+    this(readRules(resourceLoader.getResource(rulesLocation)), memoMaxEntries);
+    log.info("Clasificador de discrepancias: {} reglas cargadas de {}", labels.size(), rulesLocation);
+  }
+
+  DiscrepancyClassifier(List<Rule> rules, int memoMaxEntries) {
+    this.labels = rules.stream().map(Rule::label).toList();
+    this.automaton = new KeywordAutomaton(rules.stream().map(Rule::keywords).toList());
+    this.memoMaxEntries = memoMaxEntries;
+  }
+
+  public String classify(String description, SourceSystem source) {
+    int rule = description == null ? KeywordAutomaton.NO_MATCH : ruleFor(description);
+    if (rule != KeywordAutomaton.NO_MATCH)
+      return labels.get(rule);
+    return source == SourceSystem.BANCOLOMBIA ? UNRECORDED_BANK_MOVEMENT : UNREFLECTED_LEDGER_MOVEMENT;
+  }
+
+  private int ruleFor(String description) {
+    Integer cached = memo.get(description);
+    if (cached != null)
+      return cached;
+    int rule = automaton.firstRule(description);
+    // Sin LRU: al llenarse se vacía, basta para acotar la memoria ante descripciones únicas
+    if (memo.size() >= memoMaxEntries)
+      memo.clear();
+    memo.put(description, rule);
+    return rule;
+  }
+
+  static List<Rule> readRules(Resource resource) throws IOException {
+    List<Rule> rules = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+      String line;
+      int lineNumber = 0;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        line = line.strip();
+        if (line.isEmpty() || line.startsWith("#"))
+          continue;
+        int separator = line.indexOf('=');
+        if (separator <= 0)
+          throw new IllegalStateException("Regla inválida en la línea " + lineNumber + ": " + line);
+        String label = line.substring(0, separator).strip();
+        List<String> keywords = Arrays.stream(line.substring(separator + 1).split(","))
+            .map(String::strip)
+            .filter(keyword -> !keyword.isEmpty())
+            .toList();
+        rules.add(new Rule(label, keywords));
+      }
+    }
+    return rules;
+  }
+
+  record Rule(String label, List<String> keywords) {
+  }
+}
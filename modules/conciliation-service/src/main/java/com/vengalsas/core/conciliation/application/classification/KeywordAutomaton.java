@@ -0,0 +1,159 @@
+package com.vengalsas.core.conciliation.application.classification;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Autómata Aho-Corasick sobre las palabras clave de todas las reglas: recorre
+ * el texto una sola vez y devuelve la regla de mayor prioridad (menor índice)
+ * con alguna palabra contenida en él. Texto y palabras se comparan plegados
+ * a minúsculas y sin tildes, de modo que "COMISION" y "comisión" coinciden.
+ */
+final class KeywordAutomaton {
+
+  static final int NO_MATCH = Integer.MAX_VALUE;
+
+  // Columna 0: cualquier carácter que no aparece en las palabras clave
+  private final int[] asciiClass = new int[128];
+  private final Map<Character, Integer> otherClass = new HashMap<>();
+  private final int alphabetSize;
+  private final int[] transitions;
+  private final int[] output;
+
+  /**
+   * @param keywordsByRule palabras clave de cada regla, en orden de prioridad
+   */
+  KeywordAutomaton(List<List<String>> keywordsByRule) {
+    List<String> folded = new ArrayList<>();
+    List<Integer> ruleOf = new ArrayList<>();
+    int classes = 1;
+    for (int rule = 0; rule < keywordsByRule.size(); rule++) {
+      for (String keyword : keywordsByRule.get(rule)) {
+        String key = fold(keyword.trim());
+        if (key.isEmpty())
+          continue;
+        folded.add(key);
+        ruleOf.add(rule);
+        for (int i = 0; i < key.length(); i++) {
+          char c = key.charAt(i);
+          if (classOf(c) == 0) {
+            if (c < 128)
+              asciiClass[c] = classes++;
+            else
+              otherClass.put(c, classes++);
+          }
+        }
+      }
+    }
+    this.alphabetSize = classes;
+
+    // Trie con las transiciones explícitas; -1 = sin hijo
+    List<int[]> trie = new ArrayList<>();
+    List<Integer> out = new ArrayList<>();
+    trie.add(newRow());
+    out.add(NO_MATCH);
+    for (int k = 0; k < folded.size(); k++) {
+      String key = folded.get(k);
+      int state = 0;
+      for (int i = 0; i < key.length(); i++) {
+        int c = classOf(key.charAt(i));
+        if (trie.get(state)[c] < 0) {
+          trie.get(state)[c] = trie.size();
+          trie.add(newRow());
+          out.add(NO_MATCH);
+        }
+        state = trie.get(state)[c];
+      }
+      out.set(state, Math.min(out.get(state), ruleOf.get(k)));
+    }
+
+    // BFS: completa las transiciones con los enlaces de fallo (DFA) y hereda la salida del sufijo
+    int states = trie.size();
+    this.transitions = new int[states * alphabetSize];
+    this.output = new int[states];
+    int[] fail = new int[states];
+    for (int s = 0; s < states; s++)
+      output[s] = out.get(s);
+
+    ArrayDeque<Integer> queue = new ArrayDeque<>();
+    for (int c = 0; c < alphabetSize; c++) {
+      int child = trie.get(0)[c];
+      if (child > 0) {
+        transitions[c] = child;
+        fail[child] = 0;
+        queue.add(child);
+      }
+    }
+    while (!queue.isEmpty()) {
+      int state = queue.poll();
+      output[state] = Math.min(output[state], output[fail[state]]);
+      int[] row = trie.get(state);
+      for (int c = 0; c < alphabetSize; c++) {
+        int child = row[c];
+        int viaFail = transitions[fail[state] * alphabetSize + c];
+        if (child > 0) {
+          transitions[state * alphabetSize + c] = child;
+          fail[child] = viaFail;
+          queue.add(child);
+        } else {
+          transitions[state * alphabetSize + c] = viaFail;
+        }
+      }
+    }
+  }
+
+  /**
+   * Índice de la regla de mayor prioridad presente en el texto, o
+   * {@link #NO_MATCH} si ninguna aparece.
+   */
+  int firstRule(String text) {
+    if (text == null)
+      return NO_MATCH;
+    int state = 0;
+    int best = NO_MATCH;
+    for (int i = 0; i < text.length(); i++) {
+      state = transitions[state * alphabetSize + classOf(fold(text.charAt(i)))];
+      int rule = output[state];
+      if (rule < best) {
+        best = rule;
+        if (best == 0)
+          break;
+      }
+    }
+    return best;
+  }
+
+  private int[] newRow() {
+    int[] row = new int[alphabetSize];
+    Arrays.fill(row, -1);
+    return row;
+  }
+
+  private int classOf(char c) {
+    return c < 128 ? asciiClass[c] : otherClass.getOrDefault(c, 0);
+  }
+
+  static String fold(String value) {
+    StringBuilder sb = new StringBuilder(value.length());
+    for (int i = 0; i < value.length(); i++)
+      sb.append(fold(value.charAt(i)));
+    return sb.toString();
+  }
+
+  // Minúsculas sin tilde, diéresis ni circunflejo; la ñ se conserva
+  static char fold(char c) {
+    char lower = Character.toLowerCase(c);
+    return switch (lower) {
+      case 'á', 'à', 'ä', 'â' -> 'a';
+      case 'é', 'è', 'ë', 'ê' -> 'e';
+      case 'í', 'ì', 'ï', 'î' -> 'i';
+      case 'ó', 'ò', 'ö', 'ô' -> 'o';
+      case 'ú', 'ù', 'ü', 'û' -> 'u';
+      default -> lower;
+    };
+  }
+}
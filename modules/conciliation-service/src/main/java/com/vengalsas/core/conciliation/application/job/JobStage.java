@@ -0,0 +1,14 @@
+package com.vengalsas.core.conciliation.application.job;
+
+public enum JobStage {
+  QUEUED,
+  READING_FILES,
+  MATCHING,
+  SUMMARIZING,
+  COMPLETED,
+  FAILED;
+
+  public boolean isFinished() {
+    return this == COMPLETED || this == FAILED;
+  }
+}
@@ -0,0 +1,6 @@
+package com.vengalsas.core.conciliation.application.job;
+
+public enum JobType {
+  UPLOAD,
+  RECONCILE
+}
@@ -0,0 +1,142 @@
+package com.vengalsas.core.conciliation.application.job;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import com.vengalsas.core.conciliation.application.service.ReconciliationProgressListener;
+import com.vengalsas.core.conciliation.domain.model.SourceSystem;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * Estado de un trabajo asíncrono. Lo escribe el hilo que ejecuta el trabajo y
+ * lo leen las peticiones de consulta, por eso todos los campos mutables son
+ * volátiles o atómicos. Los suscriptores reciben el trabajo en cada cambio,
+ * en {@code events} y no en el hilo del trabajo: un cliente lento no frena la
+ * conciliación. Cada suscriptor recibe sus avisos en orden y de a uno; los
+ * cambios que llegan mientras se le entrega uno se juntan en la siguiente
+ * entrega, que siempre trae el estado más reciente.
+ */
+@Getter
+public class ReconciliationJob implements ReconciliationProgressListener {
+
+  private final UUID id = UUID.randomUUID();
+  private final JobType type;
+  private final Instant createdAt = Instant.now();
+
+  private volatile JobStage stage = JobStage.QUEUED;
+  private final AtomicLong linixRows = new AtomicLong();
+  private final AtomicLong bancolombiaRows = new AtomicLong();
+  private volatile int matchedCount;
+  private volatile UUID runId;
+  private volatile Object result;
+  private volatile String error;
+  private volatile Instant finishedAt;
+
+  @Getter(AccessLevel.NONE)
+  private final Executor events;
+  @Getter(AccessLevel.NONE)
+  private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+  public ReconciliationJob(JobType type, Executor events) {
+    this.type = type;
+    this.events = events;
+  }
+
+  @Override
+  public void onStage(JobStage stage) {
+    this.stage = stage;
+    publish();
+  }
+
+  @Override
+  public void onRowsParsed(SourceSystem source, long rows) {
+    (source == SourceSystem.LINIX ? linixRows : bancolombiaRows).addAndGet(rows);
+    publish();
+  }
+
+  @Override
+  public void onMatched(int matchedCount) {
+    this.matchedCount = matchedCount;
+    publish();
+  }
+
+  void complete(Object result, UUID runId) {
+    this.result = result;
+    this.runId = runId;
+    finish(JobStage.COMPLETED);
+  }
+
+  void fail(String error) {
+    this.error = error;
+    finish(JobStage.FAILED);
+  }
+
+  /**
+   * Registra un suscriptor y le envía el estado actual de inmediato, para que
+   * quien se suscribe tarde también reciba el estado final.
+   */
+  public Runnable subscribe(Consumer<ReconciliationJob> subscriber) {
+    Subscription subscription = new Subscription(subscriber);
+    subscriptions.add(subscription);
+    subscription.signal();
+    return () -> subscriptions.remove(subscription);
+  }
+
+  public long getLinixRows() {
+    return linixRows.get();
+  }
+
+  public long getBancolombiaRows() {
+    return bancolombiaRows.get();
+  }
+
+  private void finish(JobStage finalStage) {
+    this.finishedAt = Instant.now();
+    this.stage = finalStage;
+    publish();
+    // Las entregas pendientes siguen su curso y llevan el estado final
+    subscriptions.clear();
+  }
+
+  private void publish() {
+    for (Subscription subscription : subscriptions) {
+      subscription.signal();
+    }
+  }
+
+  private final class Subscription {
+    private final Consumer<ReconciliationJob> subscriber;
+    // Avisos sin entregar; sólo quien lo lleva de 0 a 1 programa una entrega
+    private final AtomicInteger pending = new AtomicInteger();
+
+    Subscription(Consumer<ReconciliationJob> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    void signal() {
+      if (pending.getAndIncrement() == 0)
+        events.execute(this::deliver);
+    }
+
+    private void deliver() {
+      int seen;
+      do {
+        seen = pending.get();
+        try {
+          subscriber.accept(ReconciliationJob.this);
+        } catch (RuntimeException e) {
+          // Un suscriptor que falla deja de recibir avisos sin afectar al trabajo ni a los demás
+          subscriptions.remove(this);
+        }
+      } while (pending.addAndGet(-seen) != 0);
+    }
+  }
+}
@@ -0,0 +1,9 @@
+package com.vengalsas.core.conciliation.application.job;
+
+import java.util.UUID;
+
+public class ReconciliationJobNotFoundException extends RuntimeException {
+  public ReconciliationJobNotFoundException(UUID jobId) {
+    super("Trabajo de conciliación no encontrado o expirado: " + jobId);
+  }
+}
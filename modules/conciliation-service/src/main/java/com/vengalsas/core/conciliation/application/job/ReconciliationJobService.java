@@ -0,0 +1,151 @@
+package com.vengalsas.core.conciliation.application.job;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.vengalsas.core.conciliation.application.service.ReconciliationService;
+import com.vengalsas.core.conciliation.domain.model.ParsedUpload;
+import com.vengalsas.core.conciliation.web.dto.ReconciliationRequestDTO;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ejecuta cargas y conciliaciones fuera del hilo de la petición sobre un pool
+ * acotado. Si la cola está llena el envío se rechaza con
+ * {@link RejectedExecutionException} en lugar de acumular trabajo. Los
+ * trabajos terminados se descartan pasada la retención, en una tarea
+ * programada.
+ */
+@Service
+@Slf4j
+public class ReconciliationJobService {
+
+  private final ReconciliationService reconciliationService;
+  private final ThreadPoolTaskExecutor executor;
+  private final Executor events;
+  private final Duration retention;
+  private final Map<UUID, ReconciliationJob> jobs = new ConcurrentHashMap<>();
+
+  public ReconciliationJobService(
+      ReconciliationService reconciliationService,
+      @Qualifier("reconciliationJobExecutor") ThreadPoolTaskExecutor executor,
+      @Qualifier("reconciliationJobEventsExecutor") Executor events,
+      @Value("${conciliation.jobs.retention-minutes:60}") long retentionMinutes) {
+    this.reconciliationService = reconciliationService;
+    this.executor = executor;
+    this.events = events;
+    this.retention = Duration.ofMinutes(retentionMinutes);
+  }
+
+  public ReconciliationJob submitUpload(MultipartFile bankFile, MultipartFile accountingFile) throws IOException {
+    // El contenedor borra los archivos del multipart al terminar la petición: se copian antes de encolar
+    Path bank = copyToTemp(bankFile, "bank-");
+    Path accounting;
+    try {
+      accounting = copyToTemp(accountingFile, "linix-");
+    } catch (IOException e) {
+      deleteQuietly(bank);
+      throw e;
+    }
+
+    ReconciliationJob job = new ReconciliationJob(JobType.UPLOAD, events);
+    try {
+      submit(job, () -> {
+        try {
+          ParsedUpload upload = reconciliationService.readAndNormalize(bank, accounting, job);
+          job.complete(upload, upload.getRunId());
+        } finally {
+          deleteQuietly(bank);
+          deleteQuietly(accounting);
+        }
+        return null;
+      });
+    } catch (RejectedExecutionException e) {
+      deleteQuietly(bank);
+      deleteQuietly(accounting);
+      throw e;
+    }
+    return job;
+  }
+
+  public ReconciliationJob submitReconciliation(ReconciliationRequestDTO request) {
+    ReconciliationJob job = new ReconciliationJob(JobType.RECONCILE, events);
+    submit(job, () -> {
+      job.complete(reconciliationService.reconcileTransactions(request, job), request.getRunId());
+      return null;
+    });
+    return job;
+  }
+
+  public ReconciliationJob find(UUID jobId) {
+    ReconciliationJob job = jobs.get(jobId);
+    if (job == null)
+      throw new ReconciliationJobNotFoundException(jobId);
+    return job;
+  }
+
+  private void submit(ReconciliationJob job, Callable<Void> work) {
+    jobs.put(job.getId(), job);
+    try {
+      executor.execute(() -> run(job, work));
+    } catch (RejectedExecutionException e) {
+      jobs.remove(job.getId());
+      log.warn("Trabajo {} rechazado: cola llena ({} en espera)", job.getType(),
+          executor.getThreadPoolExecutor().getQueue().size());
+      throw e;
+    }
+    log.info("Trabajo {} {} encolado", job.getType(), job.getId());
+  }
+
+  private void run(ReconciliationJob job, Callable<Void> work) {
+    long start = System.nanoTime();
+    try {
+      work.call();
+      log.info("Trabajo {} completado en {} ms", job.getId(), Duration.ofNanos(System.nanoTime() - start).toMillis());
+    } catch (Exception e) {
+      log.error("Trabajo {} falló: {}", job.getId(), e.getMessage(), e);
+      job.fail(e.getMessage());
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${conciliation.jobs.purge-interval-ms:60000}")
+  void purgeExpired() {
+    Instant cutoff = Instant.now().minus(retention);
+    jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(cutoff));
+  }
+
+  private static Path copyToTemp(MultipartFile file, String prefix) throws IOException {
+    Path temp = Files.createTempFile(prefix, ".upload");
+    try {
+      file.transferTo(temp);
+      return temp;
+    } catch (IOException e) {
+      deleteQuietly(temp);
+      throw e;
+    }
+  }
+
+  private static void deleteQuietly(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      log.warn("No se pudo borrar el archivo temporal {}: {}", file, e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package com.vengalsas.core.conciliation.application.matching;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Similitud de descripciones para desempatar candidatos flexibles: Jaccard
+ * sobre trigramas de caracteres, en escala 0..{@link #MAX_SCORE}. Cada
+ * descripción distinta de los diccionarios de ambos lotes se convierte una
+ * sola vez en un arreglo ordenado de ids de trigrama (ids compartidos por los
+ * dos lados), así que puntuar un par es recorrer dos arreglos de enteros, sin
+ * volver a tocar los textos.
+ */
+public final class DescriptionSimilarity {
+
+  public static final int MAX_SCORE = 100;
+
+  private static final int[] NO_GRAMS = new int[0];
+
+  private final int[][] linixGrams;
+  private final int[][] bancoGrams;
+
+  /**
+   * Los lotes obtenidos con {@link TransactionBatch#select(int[])} comparten
+   * el diccionario, así que el índice construido sobre los lotes completos
+   * sirve también para sus sub-lotes.
+   */
+  public DescriptionSimilarity(TransactionBatch linix, TransactionBatch banco) {
+    Map<Long, Integer> gramIds = new HashMap<>();
+    this.linixGrams = index(linix, gramIds);
+    this.bancoGrams = index(banco, gramIds);
+  }
+
+  public int score(TransactionBatch linix, int l, TransactionBatch banco, int b) {
+    int linixId = linix.descriptionId(l);
+    int bancoId = banco.descriptionId(b);
+    if (linixId < 0 || bancoId < 0)
+      return 0;
+    return jaccard(linixGrams[linixId], bancoGrams[bancoId]);
+  }
+
+  private static int[][] index(TransactionBatch batch, Map<Long, Integer> gramIds) {
+    int[][] grams = new int[batch.dictionarySize()][];
+    for (int id = 0; id < grams.length; id++)
+      grams[id] = grams(batch.dictionaryEntry(id), gramIds);
+    return grams;
+  }
+
+  // Trigramas de la descripción normalizada, con un espacio de relleno en cada extremo
+  private static int[] grams(String description, Map<Long, Integer> gramIds) {
+    String text = " " + normalize(description) + " ";
+    if (text.isBlank())
+      return NO_GRAMS;
+
+    int[] ids = new int[Math.max(text.length() - 2, 0)];
+    for (int i = 0; i < ids.length; i++) {
+      long key = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+      ids[i] = gramIds.computeIfAbsent(key, k -> gramIds.size());
+    }
+    Arrays.sort(ids);
+
+    int distinct = 0;
+    for (int i = 0; i < ids.length; i++) {
+      if (i == 0 || ids[i] != ids[i - 1])
+        ids[distinct++] = ids[i];
+    }
+    return Arrays.copyOf(ids, distinct);
+  }
+
+  // Minúsculas, sin tildes y con un solo espacio entre palabras; la puntuación cuenta como espacio
+  private static String normalize(String description) {
+    String decomposed = Normalizer.normalize(description, Normalizer.Form.NFD);
+    StringBuilder sb = new StringBuilder(decomposed.length());
+    boolean space = true;
+    for (int i = 0; i < decomposed.length(); i++) {
+      char c = decomposed.charAt(i);
+      if (Character.getType(c) == Character.NON_SPACING_MARK)
+        continue;
+      if (Character.isLetterOrDigit(c)) {
+        sb.append(Character.toLowerCase(c));
+        space = false;
+      } else if (!space) {
+        sb.append(' ');
+        space = true;
+      }
+    }
+    int end = sb.length();
+    if (end > 0 && sb.charAt(end - 1) == ' ')
+      sb.setLength(end - 1);
+    return sb.toString();
+  }
+
+  private static int jaccard(int[] a, int[] b) {
+    if (a.length == 0 || b.length == 0)
+      return 0;
+    int i = 0;
+    int j = 0;
+    int common = 0;
+    while (i < a.length && j < b.length) {
+      if (a[i] < b[j]) {
+        i++;
+      } else if (a[i] > b[j]) {
+        j++;
+      } else {
+        common++;
+        i++;
+        j++;
+      }
+    }
+    int union = a.length + b.length - common;
+    return common * MAX_SCORE / union;
+  }
+}
@@ -0,0 +1,247 @@
+package com.vengalsas.core.conciliation.application.matching;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+import com.vengalsas.core.conciliation.domain.model.Transaction;
+import com.vengalsas.core.conciliation.infrastructure.spill.ExternalSorter;
+import com.vengalsas.core.conciliation.infrastructure.spill.RowSource;
+import com.vengalsas.core.conciliation.infrastructure.spill.SpillFile;
+import com.vengalsas.core.conciliation.infrastructure.spill.SpilledRow;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Emparejamiento por mezcla de dos secuencias ordenadas por (monto, fecha),
+ * para datos que no caben en memoria. Aplica las mismas reglas que el
+ * {@link MatchingEngine} en dos recorridos, con los montos redondeados a
+ * centavos igual que {@link TransactionBatch}:
+ *
+ * <ol>
+ * <li>Exacto: merge join por (monto, fecha); dentro de una misma llave la
+ * k-ésima fila Linix toma la k-ésima Bancolombia. Lo que sobra de cada lado
+ * se escribe, ya ordenado, a un archivo de residuales.</li>
+ * <li>Flexible: se recorren los residuales Linix por monto con una ventana
+ * deslizante de los Bancolombia cuyo monto está a ±500; gana el de menor
+ * posición en el archivo entre los que están a ±1 día. Lo que sale por abajo
+ * de la ventana queda sin conciliar.</li>
+ * </ol>
+ *
+ * Los resultados se entregan a medida que se deciden, así que el orden es por
+ * monto y no el de los archivos. Como los Linix se recorren por monto y no por
+ * posición, en empates ambiguos la pareja flexible puede diferir de la del
+ * motor en memoria. La ventana está acotada por {@code windowBudgetBytes}: si
+ * un rango de ±500 tiene más filas de las que caben, las de menor monto salen
+ * como no conciliadas y quedan contadas en {@link #getWindowEvictions()}.
+ */
+@Slf4j
+public final class ExternalMergeMatcher {
+
+  private final Path workDir;
+  private final long windowBudgetBytes;
+  private long windowEvictions;
+
+  public ExternalMergeMatcher(Path workDir, long windowBudgetBytes) {
+    this.workDir = workDir;
+    this.windowBudgetBytes = windowBudgetBytes;
+  }
+
+  /**
+   * Recibe cada decisión del emparejamiento en cuanto se toma.
+   */
+  public interface ResultSink {
+    void matched(Transaction linix, Transaction banco, MatchKind kind);
+
+    void unmatchedLinix(Transaction linix);
+
+    void unmatchedBanco(Transaction banco);
+  }
+
+  /**
+   * Bancolombia que salieron de la ventana flexible llena sin haberse
+   * comparado con todos los Linix a ±500; se entregaron como no conciliados.
+   */
+  public long getWindowEvictions() {
+    return windowEvictions;
+  }
+
+  public void match(RowSource linix, RowSource banco, ResultSink sink) throws IOException {
+    Path linixResidual = workDir.resolve("linix-residual.run");
+    Path bancoResidual = workDir.resolve("banco-residual.run");
+    exactPass(linix, banco, linixResidual, bancoResidual, sink);
+
+    try (RowSource linixRest = SpillFile.reader(linixResidual);
+        RowSource bancoRest = SpillFile.reader(bancoResidual)) {
+      flexiblePass(linixRest, bancoRest, sink);
+    }
+    if (windowEvictions > 0)
+      log.warn("Ventana flexible llena: {} movimientos Bancolombia salieron sin evaluar todas sus parejas",
+          windowEvictions);
+  }
+
+  private void exactPass(RowSource linix, RowSource banco, Path linixResidual, Path bancoResidual,
+      ResultSink sink) throws IOException {
+    try (SpillFile.Writer linixRest = SpillFile.writer(linixResidual);
+        SpillFile.Writer bancoRest = SpillFile.writer(bancoResidual)) {
+      SpilledRow l = linix.peek();
+      SpilledRow b = banco.peek();
+      while (l != null && b != null) {
+        int cmp = compareKey(l.transaction(), b.transaction());
+        if (cmp < 0) {
+          linixRest.write(linix.take());
+        } else if (cmp > 0) {
+          bancoRest.write(banco.take());
+        } else {
+          sink.matched(linix.take().transaction(), banco.take().transaction(), MatchKind.EXACT);
+        }
+        l = linix.peek();
+        b = banco.peek();
+      }
+      for (SpilledRow row = linix.take(); row != null; row = linix.take())
+        linixRest.write(row);
+      for (SpilledRow row = banco.take(); row != null; row = banco.take())
+        bancoRest.write(row);
+    }
+  }
+
+  private void flexiblePass(RowSource linix, RowSource banco, ResultSink sink) throws IOException {
+    BigDecimal tolerance = MatchingEngine.FLEXIBLE_AMOUNT_TOLERANCE;
+    Window window = new Window();
+
+    for (SpilledRow row = linix.take(); row != null; row = linix.take()) {
+      Transaction tx = row.transaction();
+      BigDecimal min = amount(tx).subtract(tolerance);
+      BigDecimal max = amount(tx).add(tolerance);
+
+      // Linix viene por monto ascendente: lo que queda por debajo de min ya no tiene pareja posible
+      window.evictBelow(min, sink);
+      for (SpilledRow next = banco.peek(); next != null
+          && amount(next.transaction()).compareTo(max) <= 0; next = banco.peek()) {
+        SpilledRow candidate = banco.take();
+        if (amount(candidate.transaction()).compareTo(min) < 0)
+          sink.unmatchedBanco(candidate.transaction());
+        else
+          window.add(candidate, sink);
+      }
+
+      Slot best = window.best(tx.getDate().toEpochDay());
+      if (best != null) {
+        window.claim(best);
+        sink.matched(tx, best.row.transaction(), MatchKind.FLEXIBLE);
+      } else {
+        sink.unmatchedLinix(tx);
+      }
+    }
+
+    window.evictBelow(null, sink);
+    for (SpilledRow row = banco.take(); row != null; row = banco.take())
+      sink.unmatchedBanco(row.transaction());
+  }
+
+  private static int compareKey(Transaction a, Transaction b) {
+    int cmp = amount(a).compareTo(amount(b));
+    return cmp != 0 ? cmp : a.getDate().compareTo(b.getDate());
+  }
+
+  private static BigDecimal amount(Transaction tx) {
+    return TransactionBatch.roundAmount(tx.getAmount());
+  }
+
+  private static final class Slot {
+    private static final Comparator<Slot> BY_SEQ = Comparator.comparingLong(slot -> slot.row.seq());
+
+    private final SpilledRow row;
+    private final long epochDay;
+    private final long bytes;
+    private boolean claimed;
+
+    Slot(SpilledRow row) {
+      this.row = row;
+      this.epochDay = row.transaction().getDate().toEpochDay();
+      this.bytes = ExternalSorter.estimateBytes(row.transaction());
+    }
+  }
+
+  /**
+   * Bancolombia pendientes en orden de monto. Los reclamados se quitan de a
+   * muchos cuando son la mitad de la ventana. Como todos están a ±500 del
+   * Linix actual, los libres se indexan además por día y posición: la mejor
+   * pareja es la primera de alguno de los tres días de la tolerancia.
+   */
+  private final class Window {
+    private final ArrayDeque<Slot> slots = new ArrayDeque<>();
+    private final Map<Long, TreeSet<Slot>> freeByDay = new HashMap<>();
+    private long bytes;
+    private int claimed;
+
+    void add(SpilledRow row, ResultSink sink) {
+      Slot slot = new Slot(row);
+      slots.addLast(slot);
+      freeByDay.computeIfAbsent(slot.epochDay, day -> new TreeSet<>(Slot.BY_SEQ)).add(slot);
+      bytes += slot.bytes;
+      while (bytes > windowBudgetBytes && slots.size() > 1) {
+        if (!slots.peekFirst().claimed)
+          windowEvictions++;
+        removeFirst(sink);
+      }
+    }
+
+    // Con min null se vacía la ventana
+    void evictBelow(BigDecimal min, ResultSink sink) {
+      while (!slots.isEmpty()
+          && (min == null || slots.peekFirst().claimed
+              || amount(slots.peekFirst().row.transaction()).compareTo(min) < 0))
+        removeFirst(sink);
+    }
+
+    // Todos los de la ventana están a ±500 del Linix actual; falta la fecha
+    Slot best(long epochDay) {
+      Slot best = null;
+      for (long day = epochDay - MatchingEngine.FLEXIBLE_DATE_WINDOW_DAYS;
+          day <= epochDay + MatchingEngine.FLEXIBLE_DATE_WINDOW_DAYS; day++) {
+        TreeSet<Slot> free = freeByDay.get(day);
+        if (free != null && (best == null || Slot.BY_SEQ.compare(free.first(), best) < 0))
+          best = free.first();
+      }
+      return best;
+    }
+
+    void claim(Slot slot) {
+      slot.claimed = true;
+      unindex(slot);
+      if (++claimed > slots.size() / 2) {
+        slots.removeIf(s -> {
+          if (s.claimed)
+            bytes -= s.bytes;
+          return s.claimed;
+        });
+        claimed = 0;
+      }
+    }
+
+    private void removeFirst(ResultSink sink) {
+      Slot slot = slots.removeFirst();
+      bytes -= slot.bytes;
+      if (slot.claimed) {
+        claimed--;
+      } else {
+        unindex(slot);
+        sink.unmatchedBanco(slot.row.transaction());
+      }
+    }
+
+    // Un día sin libres sale del mapa para que best() no vea conjuntos vacíos
+    private void unindex(Slot slot) {
+      TreeSet<Slot> free = freeByDay.get(slot.epochDay);
+      free.remove(slot);
+      if (free.isEmpty())
+        freeByDay.remove(slot.epochDay);
+    }
+  }
+}
@@ -0,0 +1,299 @@
+package com.vengalsas.core.conciliation.application.matching;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.vengalsas.core.conciliation.domain.model.Transaction;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pasada posterior a las 1:1 que concilia consignaciones consolidadas: un
+ * Bancolombia contra varios recibos Linix (N:1) o un Linix contra varios
+ * abonos del banco (1:N). Para cada movimiento pendiente busca, entre los
+ * pendientes del otro lado del tipo que le corresponde y dentro de la ventana
+ * de fechas, un subconjunto de 2 a {@code maxGroupSize} filas cuya suma
+ * cuadre dentro de la tolerancia. El tipo es el mismo salvo con
+ * {@code conciliation.linix.mirrored-types}, donde un débito Linix se suma
+ * con abonos del banco y viceversa.
+ *
+ * La búsqueda es una suma de subconjuntos por profundidad sobre los
+ * candidatos ordenados por monto descendente, con poda por cota superior (lo
+ * más que suman los siguientes montos en los cupos que quedan) y sin repetir
+ * montos iguales en un mismo nivel. Los candidatos por objetivo, los nodos por
+ * objetivo y el tiempo total están acotados, así que un residual grande sólo
+ * deja grupos sin encontrar, nunca una conciliación colgada. El primer
+ * subconjunto que cuadra gana; los objetivos se recorren del monto mayor al
+ * menor.
+ */
+@Component
+@Slf4j
+public class GroupedMatcher {
+
+  private static final int MAX_NODES_PER_TARGET = 200_000;
+  // El reloj se consulta cada 1024 nodos
+  private static final int DEADLINE_CHECK_MASK = 1023;
+
+  private final int maxGroupSize;
+  private final int dateWindowDays;
+  private final BigDecimal amountTolerance;
+  private final int maxCandidates;
+  private final long timeBudgetNanos;
+  private final boolean mirroredTypes;
+
+  public GroupedMatcher(
+      @Value("${conciliation.matching.grouped.max-group-size:10}") int maxGroupSize,
+      @Value("${conciliation.matching.grouped.date-window-days:3}") int dateWindowDays,
+      @Value("${conciliation.matching.grouped.amount-tolerance:0}") BigDecimal amountTolerance,
+      @Value("${conciliation.matching.grouped.max-candidates:40}") int maxCandidates,
+      @Value("${conciliation.matching.grouped.time-budget-ms:2000}") long timeBudgetMillis,
+      @Value("${conciliation.linix.mirrored-types:false}") boolean mirroredTypes) {
+    this.maxGroupSize = Math.max(maxGroupSize, 2);
+    this.dateWindowDays = Math.max(dateWindowDays, 0);
+    this.amountTolerance = amountTolerance.abs();
+    this.maxCandidates = Math.max(maxCandidates, 2);
+    this.timeBudgetNanos = timeBudgetMillis * 1_000_000L;
+    this.mirroredTypes = mirroredTypes;
+  }
+
+  /**
+   * Registra en {@code outcome} los grupos encontrados entre las filas que
+   * las pasadas 1:1 dejaron sin pareja.
+   *
+   * @return cantidad de grupos
+   */
+  public int apply(List<Transaction> linixTxs, List<Transaction> bancoTxs, MatchOutcome outcome) {
+    long start = System.nanoTime();
+    int[] linixRows = residual(linixTxs, outcome::isLinixMatched);
+    int[] bancoRows = residual(bancoTxs, outcome::isBancoMatched);
+    int found = 0;
+
+    if (linixRows.length > 0 && bancoRows.length > 0) {
+      List<Transaction> linixResidual = select(linixTxs, linixRows);
+      List<Transaction> bancoResidual = select(bancoTxs, bancoRows);
+      TransactionBatch linix = TransactionBatch.of(linixResidual);
+      TransactionBatch banco = TransactionBatch.of(bancoResidual);
+
+      Search search = new Search(start + timeBudgetNanos, linix.toUnits(amountTolerance));
+      boolean[] linixClaimed = new boolean[linix.size()];
+      boolean[] bancoClaimed = new boolean[banco.size()];
+
+      // Primero la consignación consolidada (un Bancolombia, varios Linix) y luego al revés
+      found += search.run(banco, bancoClaimed, linix, linixClaimed,
+          (target, members) -> outcome.linkGroup(map(linixRows, members), new int[] { bancoRows[target] }));
+      found += search.run(linix, linixClaimed, banco, bancoClaimed,
+          (target, members) -> outcome.linkGroup(new int[] { linixRows[target] }, map(bancoRows, members)));
+
+      if (search.timedOut)
+        log.warn("Búsqueda de grupos detenida por tiempo ({} ms): {} grupos encontrados",
+            timeBudgetNanos / 1_000_000L, found);
+    }
+
+    outcome.addGroupedPassNanos(System.nanoTime() - start);
+    log.info("Grouped matching: {} groups over {} Linix and {} Bancolombia pending rows", found, linixRows.length,
+        bancoRows.length);
+    return found;
+  }
+
+  // Pendientes con fecha, tipo y monto positivo; un monto cero cuadraría cualquier grupo
+  private static int[] residual(List<Transaction> txs, IntPredicate matched) {
+    IntList rows = new IntList();
+    for (int i = 0; i < txs.size(); i++) {
+      Transaction tx = txs.get(i);
+      if (!matched.test(i) && tx.getDate() != null && tx.getTransactionType() != null
+          && tx.getAmount() != null && tx.getAmount().signum() > 0)
+        rows.add(i);
+    }
+    return rows.toArray();
+  }
+
+  private static List<Transaction> select(List<Transaction> txs, int[] rows) {
+    List<Transaction> selected = new ArrayList<>(rows.length);
+    for (int row : rows)
+      selected.add(txs.get(row));
+    return selected;
+  }
+
+  private static int[] map(int[] rows, int[] indexes) {
+    int[] mapped = new int[indexes.length];
+    for (int i = 0; i < indexes.length; i++)
+      mapped[i] = rows[indexes[i]];
+    return mapped;
+  }
+
+  @FunctionalInterface
+  private interface GroupSink {
+    void accept(int target, int[] members);
+  }
+
+  /**
+   * Estado de una ejecución: plazo, tolerancia en unidades del lote y los
+   * candidatos del objetivo en curso.
+   */
+  private final class Search {
+    private final long deadline;
+    private final long tolerance;
+    private final int[] chosen = new int[maxGroupSize];
+    private long[] amounts = new long[0];
+    private long[] prefix = new long[1];
+    private int count;
+    private int nodes;
+    private boolean timedOut;
+
+    Search(long deadline, long tolerance) {
+      this.deadline = deadline;
+      this.tolerance = tolerance;
+    }
+
+    int run(TransactionBatch targets, boolean[] targetClaimed, TransactionBatch members, boolean[] memberClaimed,
+        GroupSink sink) {
+      int[] byDay = new int[members.size()];
+      for (int i = 0; i < byDay.length; i++)
+        byDay[i] = i;
+      IndexSort.sort(byDay, 0, byDay.length, (a, b) -> Integer.compare(members.epochDay(a), members.epochDay(b)));
+
+      int[] order = new int[targets.size()];
+      for (int i = 0; i < order.length; i++)
+        order[i] = i;
+      IndexSort.sort(order, 0, order.length, (a, b) -> Long.compare(targets.amount(b), targets.amount(a)));
+
+      int groups = 0;
+      IntList candidates = new IntList();
+      for (int target : order) {
+        if (timedOut || System.nanoTime() > deadline) {
+          timedOut = true;
+          break;
+        }
+        if (targetClaimed[target])
+          continue;
+
+        collect(targets, target, members, memberClaimed, byDay, candidates);
+        int[] found = search(members, candidates, targets.amount(target), targets.epochDay(target));
+        if (found == null)
+          continue;
+
+        targetClaimed[target] = true;
+        for (int member : found)
+          memberClaimed[member] = true;
+        sink.accept(target, found);
+        groups++;
+      }
+      return groups;
+    }
+
+    private void collect(TransactionBatch targets, int target, TransactionBatch members, boolean[] memberClaimed,
+        int[] byDay, IntList candidates) {
+      candidates.clear();
+      int day = targets.epochDay(target);
+      long max = targets.amount(target) + tolerance;
+      byte type = counterpartType(targets.type(target));
+
+      for (int s = firstOnOrAfter(members, byDay, day - dateWindowDays); s < byDay.length; s++) {
+        int m = byDay[s];
+        if (members.epochDay(m) > day + dateWindowDays)
+          break;
+        if (!memberClaimed[m] && members.type(m) == type && members.amount(m) <= max)
+          candidates.add(m);
+      }
+    }
+
+    // Los dos tipos son DEBIT y CREDIT: en espejo, el del otro lado es el opuesto
+    private byte counterpartType(byte type) {
+      return mirroredTypes ? (byte) (1 - type) : type;
+    }
+
+    private int[] search(TransactionBatch members, IntList candidates, long targetAmount, int targetDay) {
+      if (candidates.size() < 2)
+        return null;
+
+      int[] sorted = candidates.toArray();
+      if (sorted.length > maxCandidates) {
+        // Se quedan los más cercanos en fecha; el orden estable desempata por índice
+        IndexSort.sort(sorted, 0, sorted.length, (a, b) -> Integer.compare(
+            Math.abs(members.epochDay(a) - targetDay), Math.abs(members.epochDay(b) - targetDay)));
+        sorted = Arrays.copyOf(sorted, maxCandidates);
+      }
+      IndexSort.sort(sorted, 0, sorted.length, (a, b) -> Long.compare(members.amount(b), members.amount(a)));
+
+      count = sorted.length;
+      if (amounts.length < count) {
+        amounts = new long[count];
+        prefix = new long[count + 1];
+      }
+      for (int i = 0; i < count; i++) {
+        amounts[i] = members.amount(sorted[i]);
+        prefix[i + 1] = prefix[i] + amounts[i];
+      }
+      if (upperBound(0, maxGroupSize) < targetAmount - tolerance)
+        return null;
+
+      nodes = 0;
+      int depth = depthFirst(0, targetAmount, 0);
+      if (depth < 0)
+        return null;
+
+      int[] found = new int[depth];
+      for (int i = 0; i < depth; i++)
+        found[i] = sorted[chosen[i]];
+      return found;
+    }
+
+    // Devuelve el tamaño del grupo encontrado o -1
+    private int depthFirst(int from, long remaining, int depth) {
+      if (depth >= 2 && Math.abs(remaining) <= tolerance)
+        return depth;
+      if (depth == maxGroupSize || !spendNode())
+        return -1;
+
+      int slots = maxGroupSize - depth;
+      for (int j = from; j < count; j++) {
+        long amount = amounts[j];
+        if (amount > remaining + tolerance)
+          continue;
+        // Con montos descendentes, si desde j no alcanza tampoco alcanza desde más adelante
+        if (upperBound(j, slots) < remaining - tolerance)
+          return -1;
+        if (j > from && amount == amounts[j - 1])
+          continue;
+
+        chosen[depth] = j;
+        int found = depthFirst(j + 1, remaining - amount, depth + 1);
+        if (found > 0 || timedOut || nodes > MAX_NODES_PER_TARGET)
+          return found;
+      }
+      return -1;
+    }
+
+    // Lo más que suman hasta slots montos a partir de from
+    private long upperBound(int from, int slots) {
+      return prefix[Math.min(from + slots, count)] - prefix[from];
+    }
+
+    private boolean spendNode() {
+      if (++nodes > MAX_NODES_PER_TARGET)
+        return false;
+      if ((nodes & DEADLINE_CHECK_MASK) == 0 && System.nanoTime() > deadline)
+        timedOut = true;
+      return !timedOut;
+    }
+
+    private int firstOnOrAfter(TransactionBatch members, int[] byDay, int day) {
+      int lo = 0;
+      int hi = byDay.length;
+      while (lo < hi) {
+        int mid = (lo + hi) >>> 1;
+        if (members.epochDay(byDay[mid]) < day)
+          lo = mid + 1;
+        else
+          hi = mid;
+      }
+      return lo;
+    }
+  }
+}
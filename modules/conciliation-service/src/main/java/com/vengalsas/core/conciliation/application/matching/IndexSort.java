@@ -0,0 +1,47 @@
+package com.vengalsas.core.conciliation.application.matching;
+
+/**
+ * Ordenamiento estable de arreglos de índices con un comparador primitivo,
+ * para no encajonar en {@code Integer} ni crear comparadores sobre objetos.
+ */
+final class IndexSort {
+
+  @FunctionalInterface
+  interface IndexComparator {
+    int compare(int a, int b);
+  }
+
+  private IndexSort() {
+  }
+
+  // Merge sort de abajo hacia arriba: estable y O(n log n) sin recursión
+  static void sort(int[] indexes, int from, int to, IndexComparator comparator) {
+    int n = to - from;
+    if (n < 2)
+      return;
+
+    int[] src = new int[n];
+    System.arraycopy(indexes, from, src, 0, n);
+    int[] dst = new int[n];
+
+    for (int width = 1; width < n; width <<= 1) {
+      for (int lo = 0; lo < n; lo += width << 1) {
+        int mid = Math.min(lo + width, n);
+        int hi = Math.min(lo + (width << 1), n);
+        int i = lo;
+        int j = mid;
+        int k = lo;
+        while (i < mid && j < hi)
+          dst[k++] = comparator.compare(src[j], src[i]) < 0 ? src[j++] : src[i++];
+        while (i < mid)
+          dst[k++] = src[i++];
+        while (j < hi)
+          dst[k++] = src[j++];
+      }
+      int[] swap = src;
+      src = dst;
+      dst = swap;
+    }
+    System.arraycopy(src, 0, indexes, from, n);
+  }
+}
@@ -0,0 +1,46 @@
+package com.vengalsas.core.conciliation.application.matching;
+
+import java.util.Arrays;
+
+/**
+ * Lista creciente de enteros primitivos.
+ */
+final class IntList {
+
+  private int[] values;
+  private int size;
+
+  IntList() {
+    this(16);
+  }
+
+  IntList(int capacity) {
+    this.values = new int[Math.max(capacity, 1)];
+  }
+
+  void add(int value) {
+    if (size == values.length)
+      values = Arrays.copyOf(values, size * 2);
+    values[size++] = value;
+  }
+
+  int get(int i) {
+    return values[i];
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  void clear() {
+    size = 0;
+  }
+
+  int[] toArray() {
+    return Arrays.copyOf(values, size);
+  }
+}
@@ -0,0 +1,13 @@
+package com.vengalsas.core.conciliation.application.matching;
+
+/**
+ * Grupo conciliado por suma: varios Linix contra un Bancolombia (N:1) o un
+ * Linix contra varios Bancolombia (1:N). Uno de los dos arreglos tiene
+ * siempre un solo índice.
+ */
+public record MatchGroup(int[] linix, int[] banco) {
+
+  public boolean isManyLinix() {
+    return linix.length > 1;
+  }
+}
@@ -0,0 +1,17 @@
+package com.vengalsas.core.conciliation.application.matching;
+
+public enum MatchKind {
+  EXACT("Coincidencia exacta"),
+  FLEXIBLE("Coincidencia aproximada (fecha o monto)"),
+  GROUPED("Coincidencia agrupada (varios movimientos contra uno)");
+
+  private final String label;
+
+  MatchKind(String label) {
+    this.label = label;
+  }
+
+  public String getLabel() {
+    return label;
+  }
+}
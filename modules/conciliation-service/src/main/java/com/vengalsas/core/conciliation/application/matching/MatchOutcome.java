@@ -0,0 +1,168 @@
+package com.vengalsas.core.conciliation.application.matching;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Resultado de emparejar dos listas por índice: para cada movimiento Linix
+ * guarda el índice del movimiento Bancolombia asignado (o -1) y el tipo de
+ * coincidencia. Los grupos N:1 y 1:N del {@link GroupedMatcher} se guardan
+ * aparte: sus filas quedan conciliadas pero {@link #bancoFor(int)} sigue en -1.
+ */
+public class MatchOutcome {
+
+  public static final int UNMATCHED = -1;
+
+  private final int[] bancoForLinix;
+  private final MatchKind[] kinds;
+  private final boolean[] bancoMatched;
+  private final MatchingMode mode;
+  private final List<MatchGroup> groups = new ArrayList<>();
+  // Grupo de cada fila; se crean con el primer grupo
+  private int[] linixGroup;
+  private int[] bancoGroup;
+  private int matchedCount;
+  private int groupedLinixCount;
+  private int groupedBancoCount;
+  private int differencesFromGreedy;
+  // Componentes del modo OPTIMAL que excedieron el límite y se resolvieron con la asignación voraz
+  private int greedyFallbackComponents;
+  // Tiempo de cada pasada; en el motor particionado es la suma de todas las ventanas
+  private long exactPassNanos;
+  private long flexiblePassNanos;
+  private long groupedPassNanos;
+
+  public MatchOutcome(int linixSize, int bancoSize) {
+    this(linixSize, bancoSize, MatchingMode.GREEDY);
+  }
+
+  public MatchOutcome(int linixSize, int bancoSize, MatchingMode mode) {
+    this.mode = mode;
+    this.bancoForLinix = new int[linixSize];
+    this.kinds = new MatchKind[linixSize];
+    this.bancoMatched = new boolean[bancoSize];
+    Arrays.fill(bancoForLinix, UNMATCHED);
+  }
+
+  void link(int linixIndex, int bancoIndex, MatchKind kind) {
+    bancoForLinix[linixIndex] = bancoIndex;
+    kinds[linixIndex] = kind;
+    bancoMatched[bancoIndex] = true;
+    matchedCount++;
+  }
+
+  void linkGroup(int[] linixIndexes, int[] bancoIndexes) {
+    if (linixGroup == null) {
+      linixGroup = new int[bancoForLinix.length];
+      bancoGroup = new int[bancoMatched.length];
+      Arrays.fill(linixGroup, UNMATCHED);
+      Arrays.fill(bancoGroup, UNMATCHED);
+    }
+    int id = groups.size();
+    groups.add(new MatchGroup(linixIndexes, bancoIndexes));
+    for (int l : linixIndexes) {
+      linixGroup[l] = id;
+      kinds[l] = MatchKind.GROUPED;
+    }
+    for (int b : bancoIndexes) {
+      bancoGroup[b] = id;
+      bancoMatched[b] = true;
+    }
+    groupedLinixCount += linixIndexes.length;
+    groupedBancoCount += bancoIndexes.length;
+  }
+
+  public int bancoFor(int linixIndex) {
+    return bancoForLinix[linixIndex];
+  }
+
+  public MatchKind kindFor(int linixIndex) {
+    return kinds[linixIndex];
+  }
+
+  public boolean isLinixMatched(int linixIndex) {
+    return bancoForLinix[linixIndex] != UNMATCHED || groupOfLinix(linixIndex) != UNMATCHED;
+  }
+
+  public boolean isBancoMatched(int bancoIndex) {
+    return bancoMatched[bancoIndex];
+  }
+
+  public int groupOfLinix(int linixIndex) {
+    return linixGroup != null ? linixGroup[linixIndex] : UNMATCHED;
+  }
+
+  public int groupOfBanco(int bancoIndex) {
+    return bancoGroup != null ? bancoGroup[bancoIndex] : UNMATCHED;
+  }
+
+  public MatchGroup group(int id) {
+    return groups.get(id);
+  }
+
+  public int getGroupCount() {
+    return groups.size();
+  }
+
+  public int getGroupedLinixCount() {
+    return groupedLinixCount;
+  }
+
+  public int getGroupedBancoCount() {
+    return groupedBancoCount;
+  }
+
+  public int getLinixSize() {
+    return bancoForLinix.length;
+  }
+
+  public int getBancoSize() {
+    return bancoMatched.length;
+  }
+
+  public int getMatchedCount() {
+    return matchedCount;
+  }
+
+  public MatchingMode getMode() {
+    return mode;
+  }
+
+  public int getDifferencesFromGreedy() {
+    return differencesFromGreedy;
+  }
+
+  void setDifferencesFromGreedy(int differencesFromGreedy) {
+    this.differencesFromGreedy = differencesFromGreedy;
+  }
+
+  public int getGreedyFallbackComponents() {
+    return greedyFallbackComponents;
+  }
+
+  void addGreedyFallbackComponents(int components) {
+    this.greedyFallbackComponents += components;
+  }
+
+  public long getExactPassNanos() {
+    return exactPassNanos;
+  }
+
+  public long getFlexiblePassNanos() {
+    return flexiblePassNanos;
+  }
+
+  public long getGroupedPassNanos() {
+    return groupedPassNanos;
+  }
+
+  void addPassNanos(long exact, long flexible) {
+    this.exactPassNanos += exact;
+    this.flexiblePassNanos += flexible;
+  }
+
+  void addGroupedPassNanos(long grouped) {
+    this.groupedPassNanos += grouped;
+  }
+}
@@ -0,0 +1,290 @@
+package com.vengalsas.core.conciliation.application.matching;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+import org.springframework.stereotype.Component;
+
+import com.vengalsas.core.conciliation.domain.model.Transaction;
+
+/**
+ * Motor de emparejamiento por pasadas: primero un sort-merge sobre (fecha,
+ * monto) para las coincidencias exactas y luego un índice ordenado por monto,
+ * agrupado por día, para la ventana flexible de ±1 día / ±500. Trabaja sobre
+ * un {@link TransactionBatch} para comparar enteros en lugar de BigDecimal y
+ * LocalDate. Con {@link DescriptionSimilarity}, entre los candidatos flexibles
+ * gana el de descripción más parecida; sin ella, el de menor índice.
+ */
+@Component
+public class MatchingEngine {
+
+  public static final BigDecimal FLEXIBLE_AMOUNT_TOLERANCE = new BigDecimal("500");
+  public static final int FLEXIBLE_DATE_WINDOW_DAYS = 1;
+
+  public MatchOutcome match(List<Transaction> linixTxs, List<Transaction> bancoTxs) {
+    return match(linixTxs, bancoTxs, MatchingMode.GREEDY);
+  }
+
+  public MatchOutcome match(List<Transaction> linixTxs, List<Transaction> bancoTxs, MatchingMode mode) {
+    return match(linixTxs, bancoTxs, mode, false);
+  }
+
+  public MatchOutcome match(List<Transaction> linixTxs, List<Transaction> bancoTxs, MatchingMode mode,
+      boolean descriptionTieBreak) {
+    TransactionBatch linix = TransactionBatch.of(linixTxs);
+    TransactionBatch banco = TransactionBatch.of(bancoTxs);
+    return match(linix, banco, mode, descriptionTieBreak ? new DescriptionSimilarity(linix, banco) : null);
+  }
+
+  public MatchOutcome match(TransactionBatch linix, TransactionBatch banco, MatchingMode mode) {
+    return match(linix, banco, mode, null);
+  }
+
+  /**
+   * @param similarity índice de descripciones de ambos lotes, o {@code null}
+   *                   para desempatar sólo por índice
+   */
+  public MatchOutcome match(TransactionBatch linix, TransactionBatch banco, MatchingMode mode,
+      DescriptionSimilarity similarity) {
+    MatchingMode effectiveMode = mode != null ? mode : MatchingMode.GREEDY;
+    MatchOutcome outcome = new MatchOutcome(linix.size(), banco.size(), effectiveMode);
+    long start = System.nanoTime();
+    exactPass(linix, banco, outcome);
+    long exactEnd = System.nanoTime();
+    flexiblePass(linix, banco, outcome, similarity);
+    outcome.addPassNanos(exactEnd - start, System.nanoTime() - exactEnd);
+    return outcome;
+  }
+
+  /**
+   * Ordena ambos lados por (día, monto, índice) y los recorre a la vez. Dentro
+   * de cada llave el k-ésimo Linix toma el k-ésimo banco, que es lo mismo que
+   * darle a cada Linix, en orden, el primer banco libre con su llave.
+   */
+  private void exactPass(TransactionBatch linix, TransactionBatch banco, MatchOutcome outcome) {
+    int[] l = sortedUsable(linix);
+    int[] b = sortedUsable(banco);
+
+    int i = 0;
+    int j = 0;
+    while (i < l.length && j < b.length) {
+      int cmp = compareKey(linix, l[i], banco, b[j]);
+      if (cmp < 0) {
+        i++;
+      } else if (cmp > 0) {
+        j++;
+      } else {
+        outcome.link(l[i++], b[j++], MatchKind.EXACT);
+      }
+    }
+  }
+
+  private void flexiblePass(TransactionBatch linix, TransactionBatch banco, MatchOutcome outcome,
+      DescriptionSimilarity similarity) {
+    IntList residual = new IntList(banco.size());
+    for (int i = 0; i < banco.size(); i++) {
+      if (!outcome.isBancoMatched(i) && banco.isUsable(i))
+        residual.add(i);
+    }
+    if (residual.isEmpty())
+      return;
+
+    int[] sorted = residual.toArray();
+    IndexSort.sort(sorted, 0, sorted.length, (x, y) -> compareKey(banco, x, banco, y));
+
+    // Un arreglo por día desde el primero con pendientes; el rango de fechas de un extracto es corto
+    int firstDay = banco.epochDay(sorted[0]);
+    int lastDay = banco.epochDay(sorted[sorted.length - 1]);
+    DayIndex[] index = new DayIndex[lastDay - firstDay + 1];
+    for (int from = 0; from < sorted.length;) {
+      int day = banco.epochDay(sorted[from]);
+      int to = from + 1;
+      while (to < sorted.length && banco.epochDay(sorted[to]) == day)
+        to++;
+      index[day - firstDay] = new DayIndex(banco, sorted, from, to);
+      from = to;
+    }
+
+    long tolerance = banco.toUnits(FLEXIBLE_AMOUNT_TOLERANCE);
+    if (outcome.getMode() == MatchingMode.OPTIMAL) {
+      optimalFlexiblePass(linix, banco, outcome, index, firstDay, tolerance, similarity);
+      return;
+    }
+
+    for (int l = 0; l < linix.size(); l++) {
+      if (outcome.isLinixMatched(l) || !linix.isUsable(l))
+        continue;
+
+      long min = linix.amount(l) - tolerance;
+      long max = linix.amount(l) + tolerance;
+      int day = linix.epochDay(l);
+
+      int linixIndex = l;
+      IntUnaryOperator score = similarity != null
+          ? b -> similarity.score(linix, linixIndex, banco, b)
+          : null;
+
+      DayIndex bestDay = null;
+      int bestSlot = -1;
+      int bestBanco = Integer.MAX_VALUE;
+      int bestScore = -1;
+
+      for (int d = day - FLEXIBLE_DATE_WINDOW_DAYS; d <= day + FLEXIBLE_DATE_WINDOW_DAYS; d++) {
+        DayIndex dayIndex = dayAt(index, firstDay, d);
+        if (dayIndex == null)
+          continue;
+
+        int slot = score != null ? dayIndex.bestInRange(min, max, score) : dayIndex.lowestBancoInRange(min, max);
+        if (slot < 0)
+          continue;
+        int candidate = dayIndex.bancoAt(slot);
+        int candidateScore = score != null ? score.applyAsInt(candidate) : 0;
+        if (candidateScore > bestScore || (candidateScore == bestScore && candidate < bestBanco)) {
+          bestDay = dayIndex;
+          bestSlot = slot;
+          bestBanco = candidate;
+          bestScore = candidateScore;
+        }
+      }
+
+      if (bestDay != null) {
+        bestDay.claim(bestSlot);
+        outcome.link(l, bestBanco, MatchKind.FLEXIBLE);
+      }
+    }
+  }
+
+  private void optimalFlexiblePass(TransactionBatch linix, TransactionBatch banco, MatchOutcome outcome,
+      DayIndex[] index, int firstDay, long tolerance, DescriptionSimilarity similarity) {
+    OptimalFlexibleMatcher matcher = new OptimalFlexibleMatcher(linix, banco, similarity);
+    IntList candidates = new IntList();
+
+    for (int l = 0; l < linix.size(); l++) {
+      if (outcome.isLinixMatched(l) || !linix.isUsable(l))
+        continue;
+
+      long min = linix.amount(l) - tolerance;
+      long max = linix.amount(l) + tolerance;
+      int day = linix.epochDay(l);
+
+      candidates.clear();
+      for (int d = day - FLEXIBLE_DATE_WINDOW_DAYS; d <= day + FLEXIBLE_DATE_WINDOW_DAYS; d++) {
+        DayIndex dayIndex = dayAt(index, firstDay, d);
+        if (dayIndex != null)
+          dayIndex.collectInRange(min, max, candidates);
+      }
+      matcher.addCandidates(l, candidates);
+    }
+
+    outcome.setDifferencesFromGreedy(matcher.apply(outcome));
+  }
+
+  private static DayIndex dayAt(DayIndex[] index, int firstDay, int day) {
+    int slot = day - firstDay;
+    return slot >= 0 && slot < index.length ? index[slot] : null;
+  }
+
+  private static int[] sortedUsable(TransactionBatch batch) {
+    IntList usable = new IntList(batch.size());
+    for (int i = 0; i < batch.size(); i++) {
+      if (batch.isUsable(i))
+        usable.add(i);
+    }
+    int[] sorted = usable.toArray();
+    IndexSort.sort(sorted, 0, sorted.length, (x, y) -> compareKey(batch, x, batch, y));
+    return sorted;
+  }
+
+  // Los índices ya vienen en orden ascendente, así que el sort estable desempata por índice
+  private static int compareKey(TransactionBatch a, int i, TransactionBatch b, int j) {
+    int cmp = Integer.compare(a.epochDay(i), b.epochDay(j));
+    return cmp != 0 ? cmp : Long.compare(a.amount(i), b.amount(j));
+  }
+
+  /**
+   * Movimientos bancarios pendientes de un mismo día, ordenados por monto. Los
+   * slots reclamados se saltan con punteros comprimidos (union-find) para que
+   * las búsquedas no recorran una y otra vez los ya emparejados.
+   */
+  private static final class DayIndex {
+    private final long[] amounts;
+    private final int[] bancoIndexes;
+    private final int[] nextFree;
+
+    DayIndex(TransactionBatch banco, int[] sorted, int from, int to) {
+      int n = to - from;
+      this.amounts = new long[n];
+      this.bancoIndexes = new int[n];
+      this.nextFree = new int[n + 1];
+      for (int s = 0; s < n; s++) {
+        bancoIndexes[s] = sorted[from + s];
+        amounts[s] = banco.amount(bancoIndexes[s]);
+        nextFree[s] = s;
+      }
+      nextFree[n] = n;
+    }
+
+    int bancoAt(int slot) {
+      return bancoIndexes[slot];
+    }
+
+    int lowestBancoInRange(long min, long max) {
+      int best = -1;
+      for (int s = free(lowerBound(min)); s < amounts.length && amounts[s] <= max; s = free(s + 1)) {
+        if (best < 0 || bancoIndexes[s] < bancoIndexes[best])
+          best = s;
+      }
+      return best;
+    }
+
+    // Mayor puntaje y, a igual puntaje, menor índice bancario
+    int bestInRange(long min, long max, IntUnaryOperator score) {
+      int best = -1;
+      int bestScore = -1;
+      for (int s = free(lowerBound(min)); s < amounts.length && amounts[s] <= max; s = free(s + 1)) {
+        int candidateScore = score.applyAsInt(bancoIndexes[s]);
+        if (candidateScore > bestScore || (candidateScore == bestScore && bancoIndexes[s] < bancoIndexes[best])) {
+          best = s;
+          bestScore = candidateScore;
+        }
+      }
+      return best;
+    }
+
+    void collectInRange(long min, long max, IntList sink) {
+      for (int s = free(lowerBound(min)); s < amounts.length && amounts[s] <= max; s = free(s + 1)) {
+        sink.add(bancoIndexes[s]);
+      }
+    }
+
+    void claim(int slot) {
+      nextFree[slot] = slot + 1;
+    }
+
+    private int free(int slot) {
+      int root = slot;
+      while (nextFree[root] != root)
+        root = nextFree[root];
+      while (nextFree[slot] != root) {
+        int next = nextFree[slot];
+        nextFree[slot] = root;
+        slot = next;
+      }
+      return root;
+    }
+
+    private int lowerBound(long value) {
+      int lo = 0;
+      int hi = amounts.length;
+      while (lo < hi) {
+        int mid = (lo + hi) >>> 1;
+        if (amounts[mid] < value)
+          lo = mid + 1;
+        else
+          hi = mid;
+      }
+      return lo;
+    }
+  }
+}
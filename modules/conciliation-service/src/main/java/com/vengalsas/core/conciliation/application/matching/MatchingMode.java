@@ -0,0 +1,6 @@
+package com.vengalsas.core.conciliation.application.matching;
+
+public enum MatchingMode {
+  GREEDY,
+  OPTIMAL
+}
@@ -0,0 +1,282 @@
+package com.vengalsas.core.conciliation.application.matching;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pasada flexible de costo mínimo. Las aristas candidatas (±1 día / ±500) se
+ * separan en componentes conexas y cada una se resuelve con el algoritmo
+ * húngaro: primero se maximiza el número de parejas y luego se minimiza el
+ * costo total. Las componentes demasiado grandes caen a la asignación voraz
+ * y quedan contadas en {@link MatchOutcome#getGreedyFallbackComponents()}.
+ * Con {@link DescriptionSimilarity} la disimilitud de descripciones entra
+ * como la cifra menos significativa del costo: sólo decide entre
+ * asignaciones de igual diferencia de monto y fecha.
+ */
+@Slf4j
+class OptimalFlexibleMatcher {
+
+  static final int MAX_COMPONENT_SIDE = 300;
+
+  // Un día de diferencia pesa lo mismo que la tolerancia completa de monto
+  private static final long DAY_COST = MatchingEngine.FLEXIBLE_AMOUNT_TOLERANCE.movePointRight(2).longValueExact();
+
+  private final TransactionBatch linix;
+  private final TransactionBatch banco;
+  private final DescriptionSimilarity similarity;
+
+  // Aristas por Linix residual, ordenadas por índice bancario ascendente
+  private final Map<Integer, int[]> edgeBanco = new HashMap<>();
+  private final Map<Integer, long[]> edgeCost = new HashMap<>();
+  private final Map<Integer, int[]> edgeScore = new HashMap<>();
+
+  OptimalFlexibleMatcher(TransactionBatch linix, TransactionBatch banco, DescriptionSimilarity similarity) {
+    this.linix = linix;
+    this.banco = banco;
+    this.similarity = similarity;
+  }
+
+  void addCandidates(int linixIndex, IntList bancoIndexes) {
+    if (bancoIndexes.isEmpty())
+      return;
+
+    int[] candidates = bancoIndexes.toArray();
+    Arrays.sort(candidates);
+    long[] costs = new long[candidates.length];
+    int[] scores = new int[candidates.length];
+    for (int k = 0; k < candidates.length; k++) {
+      costs[k] = cost(linix, linixIndex, banco, candidates[k]);
+      if (similarity != null) {
+        scores[k] = similarity.score(linix, linixIndex, banco, candidates[k]);
+        costs[k] = costs[k] * (DescriptionSimilarity.MAX_SCORE + 1) + DescriptionSimilarity.MAX_SCORE - scores[k];
+      }
+    }
+    edgeBanco.put(linixIndex, candidates);
+    edgeCost.put(linixIndex, costs);
+    edgeScore.put(linixIndex, scores);
+  }
+
+  /**
+   * Aplica la asignación óptima sobre {@code outcome} y devuelve cuántos
+   * movimientos Linix quedaron con una pareja distinta a la voraz.
+   */
+  int apply(MatchOutcome outcome) {
+    int[] greedy = greedyAssignment();
+    int[] optimal = new int[linix.size()];
+    Arrays.fill(optimal, MatchOutcome.UNMATCHED);
+
+    int fallbacks = 0;
+    for (Component component : components()) {
+      if (component.linix.size() > MAX_COMPONENT_SIDE || component.banco.size() > MAX_COMPONENT_SIDE) {
+        log.warn("Componente de {}x{} excede el límite óptimo; se usa asignación voraz",
+            component.linix.size(), component.banco.size());
+        for (int l : component.linix)
+          optimal[l] = greedy[l];
+        fallbacks++;
+      } else {
+        solve(component, optimal);
+      }
+    }
+    outcome.addGreedyFallbackComponents(fallbacks);
+
+    int differences = 0;
+    for (int l = 0; l < optimal.length; l++) {
+      if (optimal[l] != MatchOutcome.UNMATCHED)
+        outcome.link(l, optimal[l], MatchKind.FLEXIBLE);
+      if (edgeBanco.containsKey(l) && optimal[l] != greedy[l])
+        differences++;
+    }
+    return differences;
+  }
+
+  private int[] greedyAssignment() {
+    int[] assignment = new int[linix.size()];
+    Arrays.fill(assignment, MatchOutcome.UNMATCHED);
+    boolean[] taken = new boolean[banco.size()];
+
+    for (int l = 0; l < linix.size(); l++) {
+      int[] candidates = edgeBanco.get(l);
+      if (candidates == null)
+        continue;
+      // Igual que la pasada voraz: mayor similitud y luego menor índice
+      int[] scores = edgeScore.get(l);
+      int best = -1;
+      for (int k = 0; k < candidates.length; k++) {
+        if (!taken[candidates[k]] && (best < 0 || scores[k] > scores[best]))
+          best = k;
+      }
+      if (best >= 0) {
+        taken[candidates[best]] = true;
+        assignment[l] = candidates[best];
+      }
+    }
+    return assignment;
+  }
+
+  private List<Component> components() {
+    int offset = linix.size();
+    int[] parent = new int[offset + banco.size()];
+    for (int i = 0; i < parent.length; i++)
+      parent[i] = i;
+
+    edgeBanco.forEach((l, banco) -> {
+      for (int b : banco)
+        union(parent, l, offset + b);
+    });
+
+    Map<Integer, Component> byRoot = new HashMap<>();
+    List<Component> ordered = new ArrayList<>();
+    for (int l = 0; l < offset; l++) {
+      int[] banco = edgeBanco.get(l);
+      if (banco == null)
+        continue;
+      Component component = byRoot.computeIfAbsent(find(parent, l), r -> {
+        Component c = new Component();
+        ordered.add(c);
+        return c;
+      });
+      component.linix.add(l);
+      for (int b : banco) {
+        if (!component.bancoSlot.containsKey(b)) {
+          component.bancoSlot.put(b, component.banco.size());
+          component.banco.add(b);
+        }
+      }
+    }
+    return ordered;
+  }
+
+  private void solve(Component component, int[] optimal) {
+    int rows = component.linix.size();
+    int cols = component.banco.size();
+    boolean transpose = rows > cols;
+    int n = transpose ? cols : rows;
+    int m = transpose ? rows : cols;
+
+    long maxCost = 0;
+    for (int l : component.linix)
+      for (long c : edgeCost.get(l))
+        maxCost = Math.max(maxCost, c);
+    // Penalización para pares sin arista: mayor que cualquier suma de costos reales
+    long missing = (maxCost + 1) * (n + 1);
+
+    long[][] cost = new long[n][m];
+    for (long[] row : cost)
+      Arrays.fill(row, missing);
+
+    for (int r = 0; r < rows; r++) {
+      int l = component.linix.get(r);
+      int[] banco = edgeBanco.get(l);
+      long[] costs = edgeCost.get(l);
+      for (int k = 0; k < banco.length; k++) {
+        int c = component.bancoSlot.get(banco[k]);
+        if (transpose)
+          cost[c][r] = costs[k];
+        else
+          cost[r][c] = costs[k];
+      }
+    }
+
+    int[] assignment = hungarian(cost, n, m);
+    for (int i = 0; i < n; i++) {
+      int j = assignment[i];
+      if (j < 0 || cost[i][j] >= missing)
+        continue;
+      int r = transpose ? j : i;
+      int c = transpose ? i : j;
+      optimal[component.linix.get(r)] = component.banco.get(c);
+    }
+  }
+
+  // Algoritmo húngaro O(n²·m) para n <= m; devuelve la columna asignada a cada fila
+  private static int[] hungarian(long[][] cost, int n, int m) {
+    long[] u = new long[n + 1];
+    long[] v = new long[m + 1];
+    int[] p = new int[m + 1];
+    int[] way = new int[m + 1];
+
+    for (int i = 1; i <= n; i++) {
+      p[0] = i;
+      int j0 = 0;
+      long[] minv = new long[m + 1];
+      boolean[] used = new boolean[m + 1];
+      Arrays.fill(minv, Long.MAX_VALUE);
+
+      do {
+        used[j0] = true;
+        int i0 = p[j0];
+        long delta = Long.MAX_VALUE;
+        int j1 = 0;
+        for (int j = 1; j <= m; j++) {
+          if (used[j])
+            continue;
+          long cur = cost[i0 - 1][j - 1] - u[i0] - v[j];
+          if (cur < minv[j]) {
+            minv[j] = cur;
+            way[j] = j0;
+          }
+          if (minv[j] < delta) {
+            delta = minv[j];
+            j1 = j;
+          }
+        }
+        for (int j = 0; j <= m; j++) {
+          if (used[j]) {
+            u[p[j]] += delta;
+            v[j] -= delta;
+          } else {
+            minv[j] -= delta;
+          }
+        }
+        j0 = j1;
+      } while (p[j0] != 0);
+
+      do {
+        int j1 = way[j0];
+        p[j0] = p[j1];
+        j0 = j1;
+      } while (j0 != 0);
+    }
+
+    int[] assignment = new int[n];
+    Arrays.fill(assignment, -1);
+    for (int j = 1; j <= m; j++) {
+      if (p[j] != 0)
+        assignment[p[j] - 1] = j - 1;
+    }
+    return assignment;
+  }
+
+  // Diferencia de monto en centavos (el lote ya los trae así) más el peso de los días
+  static long cost(TransactionBatch a, int i, TransactionBatch b, int j) {
+    long amountCost = Math.abs(a.amount(i) - b.amount(j));
+    long days = Math.abs((long) a.epochDay(i) - b.epochDay(j));
+    return amountCost + days * DAY_COST;
+  }
+
+  private static int find(int[] parent, int x) {
+    while (parent[x] != x) {
+      parent[x] = parent[parent[x]];
+      x = parent[x];
+    }
+    return x;
+  }
+
+  private static void union(int[] parent, int a, int b) {
+    int ra = find(parent, a);
+    int rb = find(parent, b);
+    if (ra != rb)
+      parent[Math.max(ra, rb)] = Math.min(ra, rb);
+  }
+
+  private static final class Component {
+    private final List<Integer> linix = new ArrayList<>();
+    private final List<Integer> banco = new ArrayList<>();
+    private final Map<Integer, Integer> bancoSlot = new HashMap<>();
+  }
+}
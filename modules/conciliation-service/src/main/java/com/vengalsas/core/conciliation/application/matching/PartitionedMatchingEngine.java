@@ -0,0 +1,181 @@
+package com.vengalsas.core.conciliation.application.matching;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.vengalsas.core.conciliation.domain.model.Transaction;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ejecuta el {@link MatchingEngine} en paralelo sobre ventanas de calendario.
+ * Cada movimiento pertenece a la ventana de su fecha; como las coincidencias
+ * exactas son del mismo día y las flexibles abarcan ±1 día, sólo las filas
+ * residuales en el borde de una ventana pueden emparejarse con la vecina. Esas
+ * se resuelven al final en una pasada secuencial, de modo que el resultado es
+ * determinista sin importar el orden de ejecución de los hilos.
+ *
+ * <p>El resultado no es idéntico al del motor secuencial. Las coincidencias
+ * exactas sí lo son, porque una ventana siempre contiene días completos. Las
+ * flexibles pueden diferir: una fila del borde se empareja primero dentro de
+ * su ventana, aunque en el orden secuencial el candidato de la ventana vecina
+ * le correspondería a ella o a otra fila con menor índice, y ese cambio puede
+ * propagarse hacia el interior. Sin filas en los días de borde, ambas salidas
+ * coinciden. Quien necesite el resultado secuencial exacto debe pedir la
+ * conciliación sin {@code parallel}.
+ */
+@Component
+@Slf4j
+public class PartitionedMatchingEngine {
+
+  private final MatchingEngine matchingEngine;
+  private final ForkJoinPool pool;
+  private final int bucketDays;
+
+  public PartitionedMatchingEngine(
+      MatchingEngine matchingEngine,
+      @Qualifier("reconciliationForkJoinPool") ForkJoinPool pool,
+      @Value("${conciliation.matching.parallel.bucket-days:7}") int bucketDays) {
+    this.matchingEngine = matchingEngine;
+    this.pool = pool;
+    this.bucketDays = Math.max(bucketDays, MatchingEngine.FLEXIBLE_DATE_WINDOW_DAYS * 2 + 1);
+  }
+
+  public MatchOutcome match(List<Transaction> linixTxs, List<Transaction> bancoTxs, MatchingMode mode) {
+    return match(linixTxs, bancoTxs, mode, false);
+  }
+
+  public MatchOutcome match(List<Transaction> linixTxs, List<Transaction> bancoTxs, MatchingMode mode,
+      boolean descriptionTieBreak) {
+    TransactionBatch linix = TransactionBatch.of(linixTxs);
+    TransactionBatch banco = TransactionBatch.of(bancoTxs);
+    // Un solo índice para todas las ventanas: los sub-lotes comparten diccionario
+    return match(linix, banco, mode, descriptionTieBreak ? new DescriptionSimilarity(linix, banco) : null);
+  }
+
+  public MatchOutcome match(TransactionBatch linix, TransactionBatch banco, MatchingMode mode,
+      DescriptionSimilarity similarity) {
+    MatchingMode effectiveMode = mode != null ? mode : MatchingMode.GREEDY;
+
+    // TreeMap para recorrer las ventanas en orden cronológico
+    Map<Long, Bucket> byWindow = new TreeMap<>();
+    for (int l = 0; l < linix.size(); l++) {
+      if (linix.isUsable(l))
+        byWindow.computeIfAbsent(windowOf(linix.epochDay(l)), w -> new Bucket()).linix.add(l);
+    }
+    for (int b = 0; b < banco.size(); b++) {
+      if (banco.isUsable(b))
+        byWindow.computeIfAbsent(windowOf(banco.epochDay(b)), w -> new Bucket()).banco.add(b);
+    }
+
+    List<Bucket> buckets = new ArrayList<>(byWindow.values());
+    pool.invoke(new BucketTask(buckets, 0, buckets.size(), linix, banco, effectiveMode, similarity));
+
+    MatchOutcome outcome = new MatchOutcome(linix.size(), banco.size(), effectiveMode);
+    int differences = 0;
+    for (Bucket bucket : buckets) {
+      MatchOutcome partial = bucket.outcome;
+      for (int i = 0; i < bucket.linix.size(); i++) {
+        if (partial.isLinixMatched(i))
+          outcome.link(bucket.linix.get(i), bucket.banco.get(partial.bancoFor(i)), partial.kindFor(i));
+      }
+      differences += partial.getDifferencesFromGreedy();
+      outcome.addGreedyFallbackComponents(partial.getGreedyFallbackComponents());
+      outcome.addPassNanos(partial.getExactPassNanos(), partial.getFlexiblePassNanos());
+    }
+
+    differences += stitchBoundaries(linix, banco, outcome, effectiveMode, similarity);
+    outcome.setDifferencesFromGreedy(differences);
+
+    log.info("Parallel matching over {} windows of {} days: {} matches", buckets.size(), bucketDays,
+        outcome.getMatchedCount());
+    return outcome;
+  }
+
+  private int stitchBoundaries(TransactionBatch linix, TransactionBatch banco, MatchOutcome outcome,
+      MatchingMode mode, DescriptionSimilarity similarity) {
+    IntList linixEdge = new IntList();
+    IntList bancoEdge = new IntList();
+    for (int l = 0; l < linix.size(); l++) {
+      if (!outcome.isLinixMatched(l) && linix.isUsable(l) && isNearBoundary(linix.epochDay(l)))
+        linixEdge.add(l);
+    }
+    for (int b = 0; b < banco.size(); b++) {
+      if (!outcome.isBancoMatched(b) && banco.isUsable(b) && isNearBoundary(banco.epochDay(b)))
+        bancoEdge.add(b);
+    }
+    if (linixEdge.isEmpty() || bancoEdge.isEmpty())
+      return 0;
+
+    MatchOutcome partial = matchingEngine.match(linix.select(linixEdge.toArray()), banco.select(bancoEdge.toArray()),
+        mode, similarity);
+    for (int i = 0; i < linixEdge.size(); i++) {
+      if (partial.isLinixMatched(i))
+        outcome.link(linixEdge.get(i), bancoEdge.get(partial.bancoFor(i)), partial.kindFor(i));
+    }
+    outcome.addGreedyFallbackComponents(partial.getGreedyFallbackComponents());
+    outcome.addPassNanos(partial.getExactPassNanos(), partial.getFlexiblePassNanos());
+    return partial.getDifferencesFromGreedy();
+  }
+
+  private boolean isNearBoundary(int epochDay) {
+    long offset = Math.floorMod(epochDay, bucketDays);
+    return offset < MatchingEngine.FLEXIBLE_DATE_WINDOW_DAYS
+        || offset >= bucketDays - MatchingEngine.FLEXIBLE_DATE_WINDOW_DAYS;
+  }
+
+  private long windowOf(int epochDay) {
+    return Math.floorDiv(epochDay, bucketDays);
+  }
+
+  private static final class Bucket {
+    private final IntList linix = new IntList();
+    private final IntList banco = new IntList();
+    private MatchOutcome outcome;
+  }
+
+  private final class BucketTask extends RecursiveAction {
+    private final List<Bucket> buckets;
+    private final int from;
+    private final int to;
+    private final TransactionBatch linix;
+    private final TransactionBatch banco;
+    private final MatchingMode mode;
+    private final DescriptionSimilarity similarity;
+
+    BucketTask(List<Bucket> buckets, int from, int to, TransactionBatch linix, TransactionBatch banco,
+        MatchingMode mode, DescriptionSimilarity similarity) {
+      this.buckets = buckets;
+      this.from = from;
+      this.to = to;
+      this.linix = linix;
+      this.banco = banco;
+      this.mode = mode;
+      this.similarity = similarity;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= 1) {
+        for (int i = from; i < to; i++) {
+          Bucket bucket = buckets.get(i);
+          bucket.outcome = matchingEngine.match(linix.select(bucket.linix.toArray()),
+              banco.select(bucket.banco.toArray()), mode, similarity);
+        }
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      invokeAll(
+          new BucketTask(buckets, from, mid, linix, banco, mode, similarity),
+          new BucketTask(buckets, mid, to, linix, banco, mode, similarity));
+    }
+  }
+}
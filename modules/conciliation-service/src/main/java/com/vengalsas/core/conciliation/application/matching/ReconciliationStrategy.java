@@ -0,0 +1,10 @@
+package com.vengalsas.core.conciliation.application.matching;
+
+/**
+ * Dónde se empareja una conciliación ya archivada en PostgreSQL: cargando las
+ * filas al motor en memoria o con SQL sobre tablas de staging.
+ */
+public enum ReconciliationStrategy {
+  MEMORY,
+  DATABASE
+}
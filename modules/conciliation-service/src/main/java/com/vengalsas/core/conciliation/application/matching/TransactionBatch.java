@@ -0,0 +1,172 @@
+package com.vengalsas.core.conciliation.application.matching;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.vengalsas.core.conciliation.domain.model.Transaction;
+
+/**
+ * Representación columnar de una lista de transacciones para el
+ * emparejamiento: montos como enteros en centavos, fechas como día epoch, tipo
+ * y origen como ordinal y descripciones como id de diccionario. Las pasadas
+ * comparan primitivos y sólo se vuelve a la {@link Transaction} original al
+ * construir la respuesta.
+ *
+ * Los montos se redondean half-up a {@link #AMOUNT_SCALE} decimales, como los
+ * guarda el archivo en PostgreSQL: el extracto trae montos leídos como double
+ * (18999.050000000003) que a su escala real no caben en un long junto a montos
+ * de millones. Un monto que ni en centavos cabe en un long queda fuera del
+ * emparejamiento, igual que uno sin valor.
+ */
+public final class TransactionBatch {
+
+  static final int NO_DATE = Integer.MIN_VALUE;
+  static final byte NO_ENUM = -1;
+  public static final int AMOUNT_SCALE = 2;
+
+  private final int size;
+  private final long[] amounts;
+  private final int[] epochDays;
+  private final byte[] types;
+  private final byte[] sources;
+  private final int[] descriptionIds;
+  private final String[] dictionary;
+  // Sin monto o sin fecha: no participa en el emparejamiento
+  private final boolean[] usable;
+
+  private TransactionBatch(int size, long[] amounts, int[] epochDays, byte[] types, byte[] sources,
+      int[] descriptionIds, String[] dictionary, boolean[] usable) {
+    this.size = size;
+    this.amounts = amounts;
+    this.epochDays = epochDays;
+    this.types = types;
+    this.sources = sources;
+    this.descriptionIds = descriptionIds;
+    this.dictionary = dictionary;
+    this.usable = usable;
+  }
+
+  public static TransactionBatch of(List<Transaction> txs) {
+    int n = txs.size();
+    long[] amounts = new long[n];
+    int[] epochDays = new int[n];
+    byte[] types = new byte[n];
+    byte[] sources = new byte[n];
+    int[] descriptionIds = new int[n];
+    boolean[] usable = new boolean[n];
+    Map<String, Integer> ids = new HashMap<>();
+
+    for (int i = 0; i < n; i++) {
+      Transaction tx = txs.get(i);
+      BigDecimal amount = tx.getAmount();
+      boolean fits = amount != null && fitsInUnits(amount);
+      if (fits)
+        amounts[i] = toUnitsExact(amount);
+      epochDays[i] = tx.getDate() != null ? (int) tx.getDate().toEpochDay() : NO_DATE;
+      types[i] = tx.getTransactionType() != null ? (byte) tx.getTransactionType().ordinal() : NO_ENUM;
+      sources[i] = tx.getSource() != null ? (byte) tx.getSource().ordinal() : NO_ENUM;
+      descriptionIds[i] = tx.getDescription() != null
+          ? ids.computeIfAbsent(tx.getDescription(), d -> ids.size())
+          : -1;
+      usable[i] = fits && tx.getDate() != null;
+    }
+
+    String[] dictionary = new String[ids.size()];
+    ids.forEach((description, id) -> dictionary[id] = description);
+    return new TransactionBatch(n, amounts, epochDays, types, sources, descriptionIds, dictionary, usable);
+  }
+
+  /**
+   * Sub-lote con las filas indicadas, en ese orden. Comparte el diccionario.
+   */
+  public TransactionBatch select(int[] indexes) {
+    int n = indexes.length;
+    long[] a = new long[n];
+    int[] d = new int[n];
+    byte[] t = new byte[n];
+    byte[] s = new byte[n];
+    int[] ids = new int[n];
+    boolean[] u = new boolean[n];
+    for (int k = 0; k < n; k++) {
+      int i = indexes[k];
+      a[k] = amounts[i];
+      d[k] = epochDays[i];
+      t[k] = types[i];
+      s[k] = sources[i];
+      ids[k] = descriptionIds[i];
+      u[k] = usable[i];
+    }
+    return new TransactionBatch(n, a, d, t, s, ids, dictionary, u);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int scale() {
+    return AMOUNT_SCALE;
+  }
+
+  public long amount(int i) {
+    return amounts[i];
+  }
+
+  public int epochDay(int i) {
+    return epochDays[i];
+  }
+
+  public byte type(int i) {
+    return types[i];
+  }
+
+  public byte source(int i) {
+    return sources[i];
+  }
+
+  public int descriptionId(int i) {
+    return descriptionIds[i];
+  }
+
+  public String description(int i) {
+    int id = descriptionIds[i];
+    return id >= 0 ? dictionary[id] : null;
+  }
+
+  public boolean isUsable(int i) {
+    return usable[i];
+  }
+
+  int dictionarySize() {
+    return dictionary.length;
+  }
+
+  String dictionaryEntry(int id) {
+    return dictionary[id];
+  }
+
+  /**
+   * Monto a la escala del emparejamiento; los demás emparejadores comparan
+   * con este valor para decidir igual que el lote.
+   */
+  public static BigDecimal roundAmount(BigDecimal value) {
+    return value.setScale(AMOUNT_SCALE, RoundingMode.HALF_UP);
+  }
+
+  /**
+   * Convierte una cantidad en pesos a unidades de este lote.
+   */
+  long toUnits(BigDecimal value) {
+    return toUnitsExact(value);
+  }
+
+  private static long toUnitsExact(BigDecimal value) {
+    return roundAmount(value).unscaledValue().longValueExact();
+  }
+
+  private static boolean fitsInUnits(BigDecimal value) {
+    return roundAmount(value).unscaledValue().bitLength() < Long.SIZE;
+  }
+}
@@ -0,0 +1,110 @@
+package com.vengalsas.core.conciliation.application.service;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Service;
+
+import com.vengalsas.core.conciliation.application.classification.DiscrepancyClassifier;
+import com.vengalsas.core.conciliation.application.matching.MatchOutcome;
+import com.vengalsas.core.conciliation.application.matching.MatchingEngine;
+import com.vengalsas.core.conciliation.application.matching.ReconciliationStrategy;
+import com.vengalsas.core.conciliation.domain.model.BancolombiaStatement;
+import com.vengalsas.core.conciliation.domain.model.ReconciliationRunNotFoundException;
+import com.vengalsas.core.conciliation.domain.model.SourceSystem;
+import com.vengalsas.core.conciliation.domain.model.Transaction;
+import com.vengalsas.core.conciliation.domain.repository.ReconciliationArchive;
+import com.vengalsas.core.conciliation.infrastructure.metrics.ReconciliationMetrics;
+import com.vengalsas.core.conciliation.infrastructure.persistence.JdbcArchivedTransactions;
+import com.vengalsas.core.conciliation.web.dto.ConciliationResultDTO;
+import com.vengalsas.core.conciliation.web.dto.ReconciliationSummaryDTO;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Vuelve a conciliar las transacciones que ya están archivadas en PostgreSQL.
+ * Con {@link ReconciliationStrategy#DATABASE} el emparejamiento corre en SQL y
+ * sólo se traen las filas del resultado; con {@link ReconciliationStrategy#MEMORY}
+ * se cargan ambos lados y se usa el {@link MatchingEngine}. Las dos entregan
+ * las mismas parejas, en el mismo orden y con el mismo resumen: modo GREEDY,
+ * sin desempate por descripción ni pasada agrupada.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ArchivedReconciliationService {
+
+  private final JdbcArchivedTransactions archivedTransactions;
+  private final ReconciliationArchive reconciliationArchive;
+  private final MatchingEngine matchingEngine;
+  private final DiscrepancyClassifier discrepancyClassifier;
+  private final BalanceDivergenceLocator balanceDivergenceLocator;
+  private final ReconciliationMetrics metrics;
+
+  /**
+   * Saldos de la conciliación archivada; se resuelve antes de empezar a
+   * responder para poder contestar 404.
+   *
+   * @throws IllegalStateException si el archivo está deshabilitado
+   */
+  public BancolombiaStatement resolveStatement(UUID reconciliationId) {
+    if (!reconciliationArchive.isEnabled())
+      throw new IllegalStateException("El archivo de conciliaciones está deshabilitado");
+    return archivedTransactions.findStatement(reconciliationId)
+        .orElseThrow(() -> new ReconciliationRunNotFoundException(reconciliationId));
+  }
+
+  public ReconciliationSummaryDTO reconcile(UUID reconciliationId, BancolombiaStatement statement,
+      ReconciliationStrategy strategy, boolean discrepanciesOnly, Consumer<ConciliationResultDTO> sink) {
+    ClassifyingResultSink results = new ClassifyingResultSink(discrepancyClassifier, balanceDivergenceLocator,
+        discrepanciesOnly, sink);
+    Runnable finished = metrics.reconciliationStarted();
+    long start = System.nanoTime();
+    try {
+      if (strategy == ReconciliationStrategy.MEMORY)
+        matchInMemory(reconciliationId, results);
+      else
+        matchInDatabase(reconciliationId, discrepanciesOnly, results);
+    } finally {
+      finished.run();
+    }
+
+    log.info("Conciliación archivada {} ({}) en {} ms: {} coincidencias", reconciliationId, strategy,
+        (System.nanoTime() - start) / 1_000_000L, results.getMatched());
+    return results.summary(statement);
+  }
+
+  private void matchInMemory(UUID reconciliationId, ClassifyingResultSink results) {
+    List<Transaction> linixTxs = archivedTransactions.load(reconciliationId, SourceSystem.LINIX);
+    List<Transaction> bancoTxs = archivedTransactions.load(reconciliationId, SourceSystem.BANCOLOMBIA);
+    MatchOutcome outcome = matchingEngine.match(linixTxs, bancoTxs);
+
+    for (int l = 0; l < linixTxs.size(); l++) {
+      Transaction linix = linixTxs.get(l);
+      int b = outcome.bancoFor(l);
+      results.countLinix(linix);
+      if (b >= 0) {
+        results.countBanco(bancoTxs.get(b));
+        results.matched(linix, bancoTxs.get(b), outcome.kindFor(l));
+      } else {
+        results.unmatchedLinix(linix);
+      }
+    }
+    for (int i = 0; i < bancoTxs.size(); i++) {
+      if (!outcome.isBancoMatched(i)) {
+        results.countBanco(bancoTxs.get(i));
+        results.unmatchedBanco(bancoTxs.get(i));
+      }
+    }
+  }
+
+  // Los totales salen agregados por día de la base; los conciliados sólo viajan si se van a responder
+  private void matchInDatabase(UUID reconciliationId, boolean discrepanciesOnly, ClassifyingResultSink results) {
+    for (JdbcArchivedTransactions.AmountTotal total : archivedTransactions.totals(reconciliationId))
+      results.countTotal(total.source(), total.type(), total.date(), total.amount(), total.rows());
+    int matched = archivedTransactions.match(reconciliationId, !discrepanciesOnly, results);
+    results.setMatched(matched);
+  }
+}
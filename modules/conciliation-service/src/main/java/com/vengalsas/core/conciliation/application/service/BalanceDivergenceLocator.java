@@ -0,0 +1,52 @@
+package com.vengalsas.core.conciliation.application.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.vengalsas.core.conciliation.domain.model.BancolombiaStatement;
+import com.vengalsas.core.conciliation.domain.model.DailyBalances;
+import com.vengalsas.core.conciliation.web.dto.BalanceDivergenceDTO;
+import com.vengalsas.core.conciliation.web.dto.ReconciliationSummaryDTO;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Agrega al resumen los días en que los saldos de Linix y del extracto se
+ * separan, anclados en el saldo inicial del extracto, para no tener que
+ * buscar a mano ni reconciliar por partes cuando diferenciaSaldoFinal no es
+ * cero.
+ */
+@Component
+@Slf4j
+public class BalanceDivergenceLocator {
+
+  private final boolean mirroredTypes;
+
+  public BalanceDivergenceLocator(@Value("${conciliation.linix.mirrored-types:false}") boolean mirroredTypes) {
+    this.mirroredTypes = mirroredTypes;
+  }
+
+  public void apply(ReconciliationSummaryDTO summary, DailyBalances balances, BancolombiaStatement statement) {
+    if (statement == null || statement.getStartingBalance() == null)
+      return;
+
+    List<BalanceDivergenceDTO> points = balances.divergences(statement.getStartingBalance(), mirroredTypes)
+        .stream()
+        .map(point -> BalanceDivergenceDTO.builder()
+            .fecha(point.date())
+            .saldoLinix(point.linixBalance())
+            .saldoBanco(point.bancoBalance())
+            .diferencia(point.delta())
+            .variacion(point.change())
+            .build())
+        .toList();
+    summary.setDivergenciasSaldo(points);
+    if (!points.isEmpty()) {
+      summary.setFechaPrimeraDivergencia(points.get(0).getFecha());
+      log.info("Saldos Linix y extracto separados desde {}: {} cambios de diferencia en {} días",
+          points.get(0).getFecha(), points.size(), balances.getDays());
+    }
+  }
+}
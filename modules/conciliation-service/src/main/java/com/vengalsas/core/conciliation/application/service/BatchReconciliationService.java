@@ -0,0 +1,409 @@
+package com.vengalsas.core.conciliation.application.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import com.vengalsas.core.conciliation.application.matching.MatchingMode;
+import com.vengalsas.core.conciliation.domain.model.BancolombiaStatement;
+import com.vengalsas.core.conciliation.infrastructure.adapter.BancolombiaExcelReader;
+import com.vengalsas.core.conciliation.web.dto.AccountReconciliationDTO;
+import com.vengalsas.core.conciliation.web.dto.BatchReconciliationResponseDTO;
+import com.vengalsas.core.conciliation.web.dto.ReconciliationRequestDTO;
+import com.vengalsas.core.conciliation.web.dto.ReconciliationSummaryDTO;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Concilia varias cuentas subidas en un solo ZIP. Cada entrada se extrae en
+ * streaming a un archivo temporal, que se borra al terminar el lote, así que
+ * el heap sólo guarda los archivos de las cuentas que se están conciliando;
+ * los .xlsx/.xls son extractos Bancolombia y los .txt archivos Linix. Cada archivo se asocia a una
+ * cuenta por su nombre sin el sufijo de origen ({@code 123_banco.xlsx} con
+ * {@code 123_linix.txt}) o, si el nombre es sólo el origen, por su carpeta
+ * ({@code 123/extracto.xlsx} con {@code 123/linix.txt}). Un libro sin archivo
+ * Linix de su misma cuenta se toma como una cuenta por hoja, asociada por el
+ * nombre de la hoja.
+ *
+ * Las cuentas se concilian en {@code reconciliationBatchExecutor}, que acota
+ * cuántas corren a la vez en todo el servicio; el fallo de una cuenta queda en
+ * su resultado y no detiene las demás. Cada cuenta lee sus archivos completos
+ * a memoria dentro de su tarea, como los endpoints de una cuenta (de un libro
+ * con varias cuentas sólo su hoja), así que cada entrada tiene el mismo tope
+ * ({@code conciliation.upload.max-in-memory-file-size}).
+ */
+@Service
+@Slf4j
+public class BatchReconciliationService {
+
+  // Sufijo que indica el origen del archivo y no forma parte de la cuenta
+  private static final Pattern SOURCE_SUFFIX = Pattern.compile(
+      "(^|[ _.-]+)(bancolombia|banco|extracto|linix|contable)$", Pattern.CASE_INSENSITIVE);
+
+  private final ReconciliationService reconciliationService;
+  private final BancolombiaExcelReader bancolombiaExcelReader;
+  private final ThreadPoolTaskExecutor executor;
+  private final long maxUncompressedBytes;
+  private final long maxEntryBytes;
+
+  public BatchReconciliationService(ReconciliationService reconciliationService,
+      BancolombiaExcelReader bancolombiaExcelReader,
+      @Qualifier("reconciliationBatchExecutor") ThreadPoolTaskExecutor executor,
+      @Value("${conciliation.batch.max-uncompressed-bytes:268435456}") long maxUncompressedBytes,
+      @Value("${conciliation.upload.max-in-memory-file-size:10MB}") DataSize maxEntrySize) {
+    this.reconciliationService = reconciliationService;
+    this.bancolombiaExcelReader = bancolombiaExcelReader;
+    this.executor = executor;
+    this.maxUncompressedBytes = maxUncompressedBytes;
+    this.maxEntryBytes = maxEntrySize.toBytes();
+  }
+
+  /**
+   * @param options modo de emparejamiento y pasadas opcionales, iguales para
+   *                todas las cuentas
+   * @throws IllegalArgumentException si el ZIP no trae archivos para conciliar,
+   *                                  supera el tamaño descomprimido permitido o
+   *                                  una entrada supera el tope por archivo
+   */
+  public BatchReconciliationResponseDTO reconcile(InputStream archive, ReconciliationRequestDTO options)
+      throws IOException, InterruptedException {
+    long start = System.nanoTime();
+    Archive files = new Archive();
+    try {
+      readArchive(archive, files);
+      return reconcile(files, options, start);
+    } finally {
+      files.extracted.forEach(BatchReconciliationService::deleteQuietly);
+    }
+  }
+
+  private BatchReconciliationResponseDTO reconcile(Archive files, ReconciliationRequestDTO options, long start)
+      throws InterruptedException {
+    if (files.bank.isEmpty() && files.linix.isEmpty())
+      throw new IllegalArgumentException("El ZIP no trae extractos (.xlsx, .xls) ni archivos Linix (.txt)");
+
+    List<AccountReconciliationDTO> results = new ArrayList<>();
+    List<AccountTask> tasks = plan(files, options, results);
+
+    List<Future<ReconciliationSummaryDTO>> futures = new ArrayList<>(tasks.size());
+    for (AccountTask task : tasks) {
+      try {
+        futures.add(executor.submit(task.work()));
+      } catch (RejectedExecutionException e) {
+        futures.add(null);
+      }
+    }
+
+    for (int i = 0; i < tasks.size(); i++) {
+      AccountTask task = tasks.get(i);
+      Future<ReconciliationSummaryDTO> future = futures.get(i);
+      if (future == null) {
+        results.add(failure(task.account(), task.bankFile(), task.accountingFile(),
+            "El servicio tiene demasiadas conciliaciones en cola; reintente la cuenta más tarde"));
+        continue;
+      }
+      try {
+        results.add(AccountReconciliationDTO.builder()
+            .account(task.account())
+            .bankFile(task.bankFile())
+            .accountingFile(task.accountingFile())
+            .summary(future.get())
+            .build());
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        log.warn("Falló la conciliación de la cuenta {}: {}", task.account(), cause.getMessage(), cause);
+        results.add(failure(task.account(), task.bankFile(), task.accountingFile(),
+            cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName()));
+      } catch (InterruptedException e) {
+        futures.forEach(pending -> {
+          if (pending != null)
+            pending.cancel(true);
+        });
+        throw e;
+      }
+    }
+
+    results.sort(Comparator.comparing(AccountReconciliationDTO::getAccount));
+    List<ReconciliationSummaryDTO> summaries = results.stream()
+        .map(AccountReconciliationDTO::getSummary)
+        .filter(summary -> summary != null)
+        .toList();
+    long elapsed = (System.nanoTime() - start) / 1_000_000L;
+
+    log.info("Lote de {} cuentas conciliado en {} ms: {} conciliadas, {} con error, {} archivos ignorados",
+        results.size(), elapsed, summaries.size(), results.size() - summaries.size(), files.ignored.size());
+    return BatchReconciliationResponseDTO.builder()
+        .accounts(results.size())
+        .reconciled(summaries.size())
+        .failed(results.size() - summaries.size())
+        .results(results)
+        .combined(combine(summaries, options.getMatchingMode()))
+        .ignoredFiles(files.ignored)
+        .elapsedMillis(elapsed)
+        .build();
+  }
+
+  private record ArchiveFile(String name, Path content) {
+  }
+
+  private record AccountTask(String account, String bankFile, String accountingFile,
+      Callable<ReconciliationSummaryDTO> work) {
+  }
+
+  private static final class Archive {
+    private final Map<String, ArchiveFile> bank = new LinkedHashMap<>();
+    private final Map<String, ArchiveFile> linix = new LinkedHashMap<>();
+    // Cuenta -> archivos repetidos; la cuenta no se concilia
+    private final Map<String, List<String>> duplicated = new LinkedHashMap<>();
+    private final List<String> ignored = new ArrayList<>();
+    // Todo lo extraído a disco, para borrarlo al terminar
+    private final List<Path> extracted = new ArrayList<>();
+  }
+
+  private void readArchive(InputStream input, Archive archive) throws IOException {
+    long total = 0;
+    try (ZipInputStream zip = new ZipInputStream(input)) {
+      ZipEntry entry;
+      while ((entry = zip.getNextEntry()) != null) {
+        String name = entry.getName().replace('\\', '/');
+        if (entry.isDirectory() || isHidden(name))
+          continue;
+        Map<String, ArchiveFile> target = isBankFile(name) ? archive.bank : isLinixFile(name) ? archive.linix : null;
+        if (target == null) {
+          archive.ignored.add(name);
+          continue;
+        }
+
+        Path content = Files.createTempFile("batch-", ".entry");
+        archive.extracted.add(content);
+        long size = extractEntry(zip, name, content, maxUncompressedBytes - total);
+        total += size;
+        if (size == 0) {
+          archive.ignored.add(name);
+          continue;
+        }
+        String account = accountKey(name);
+        ArchiveFile previous = target.putIfAbsent(account, new ArchiveFile(name, content));
+        if (previous != null)
+          archive.duplicated.computeIfAbsent(account, k -> new ArrayList<>(List.of(previous.name()))).add(name);
+      }
+    }
+  }
+
+  // Copia la entrada actual del ZIP a disco y devuelve su tamaño descomprimido
+  private long extractEntry(ZipInputStream zip, String name, Path target, long remaining) throws IOException {
+    long size = 0;
+    try (OutputStream out = Files.newOutputStream(target)) {
+      byte[] buffer = new byte[64 * 1024];
+      int read;
+      while ((read = zip.read(buffer)) != -1) {
+        size += read;
+        if (size > maxEntryBytes)
+          throw new IllegalArgumentException(
+              "La entrada " + name + " supera el máximo de " + maxEntryBytes + " bytes por archivo");
+        if (size > remaining)
+          throw new IllegalArgumentException(
+              "El ZIP supera el máximo de " + maxUncompressedBytes + " bytes descomprimidos");
+        out.write(buffer, 0, read);
+      }
+    }
+    return size;
+  }
+
+  // Arma una tarea por cuenta con sus dos archivos; lo que no se puede asociar queda como error o ignorado
+  private List<AccountTask> plan(Archive files, ReconciliationRequestDTO options,
+      List<AccountReconciliationDTO> results) {
+    List<AccountTask> tasks = new ArrayList<>();
+    Set<String> pairedLinix = new HashSet<>();
+
+    files.duplicated.forEach((account, names) -> results.add(failure(account, null, null,
+        "Hay más de un archivo del mismo origen para la cuenta: " + String.join(", ", names))));
+
+    List<ArchiveFile> workbooks = new ArrayList<>();
+    files.bank.forEach((account, bank) -> {
+      if (files.duplicated.containsKey(account))
+        return;
+      ArchiveFile linix = files.linix.get(account);
+      if (linix == null) {
+        workbooks.add(bank);
+        return;
+      }
+      pairedLinix.add(account);
+      tasks.add(new AccountTask(account, bank.name(), linix.name(),
+          () -> reconciliationService.reconcileAccount(bank.content(), linix.content(), options)));
+    });
+
+    // Aquí sólo se leen los nombres de las hojas; cada hoja se lee en la tarea de su cuenta
+    for (ArchiveFile workbook : workbooks) {
+      List<String> sheets;
+      try {
+        sheets = bancolombiaExcelReader.sheetNames(workbook.content());
+      } catch (Exception e) {
+        log.warn("No se pudo leer el libro {}: {}", workbook.name(), e.getMessage());
+        results.add(failure(accountKey(workbook.name()), workbook.name(), null,
+            "No se pudo leer el extracto: " + e.getMessage()));
+        continue;
+      }
+
+      int paired = 0;
+      for (String sheet : sheets) {
+        String account = sheet.trim();
+        ArchiveFile linix = files.linix.get(account);
+        String sheetName = workbook.name() + "#" + sheet;
+        if (linix == null || files.duplicated.containsKey(account) || !pairedLinix.add(account)) {
+          files.ignored.add(sheetName);
+          continue;
+        }
+        paired++;
+        tasks.add(new AccountTask(account, sheetName, linix.name(), () -> {
+          BancolombiaStatement statement = bancolombiaExcelReader.readSheet(workbook.content(), sheet);
+          return reconciliationService.reconcileAccount(statement, linix.content(), options);
+        }));
+      }
+      if (paired == 0) {
+        files.ignored.removeIf(name -> name.startsWith(workbook.name() + "#"));
+        results.add(failure(accountKey(workbook.name()), workbook.name(), null,
+            "No hay archivo Linix para la cuenta ni para las hojas del libro"));
+      }
+    }
+
+    files.linix.forEach((account, linix) -> {
+      if (!files.duplicated.containsKey(account) && !pairedLinix.contains(account))
+        results.add(failure(account, null, linix.name(), "No hay extracto Bancolombia para la cuenta"));
+    });
+    return tasks;
+  }
+
+  private static void deleteQuietly(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      log.warn("No se pudo borrar el archivo temporal {}: {}", file, e.getMessage());
+    }
+  }
+
+  private static AccountReconciliationDTO failure(String account, String bankFile, String accountingFile,
+      String error) {
+    return AccountReconciliationDTO.builder()
+        .account(account)
+        .bankFile(bankFile)
+        .accountingFile(accountingFile)
+        .error(error)
+        .build();
+  }
+
+  /**
+   * Cuenta de una entrada del ZIP: el nombre del archivo sin extensión ni
+   * sufijo de origen; si no queda nada, la carpeta que lo contiene.
+   */
+  static String accountKey(String entryName) {
+    String path = entryName.replace('\\', '/');
+    int slash = path.lastIndexOf('/');
+    String file = path.substring(slash + 1);
+    int dot = file.lastIndexOf('.');
+    String account = SOURCE_SUFFIX.matcher(dot > 0 ? file.substring(0, dot) : file).replaceFirst("").trim();
+    if (!account.isEmpty() || slash <= 0)
+      return account.isEmpty() ? file : account;
+    String folder = path.substring(0, slash);
+    return folder.substring(folder.lastIndexOf('/') + 1).trim();
+  }
+
+  // Metadatos de macOS y archivos ocultos que traen algunos compresores
+  private static boolean isHidden(String name) {
+    for (String segment : name.split("/")) {
+      if (segment.startsWith(".") || segment.equals("__MACOSX"))
+        return true;
+    }
+    return false;
+  }
+
+  private static boolean isBankFile(String name) {
+    String lower = name.toLowerCase(Locale.ROOT);
+    return lower.endsWith(".xlsx") || lower.endsWith(".xls");
+  }
+
+  private static boolean isLinixFile(String name) {
+    return name.toLowerCase(Locale.ROOT).endsWith(".txt");
+  }
+
+  /**
+   * Suma los resúmenes de las cuentas. Los montos y saldos suman sólo las
+   * cuentas que los traen; los totales del extracto cuadran si cuadran en
+   * todas, y la primera divergencia es la más temprana. El detalle día a día
+   * queda en el resumen de cada cuenta.
+   */
+  static ReconciliationSummaryDTO combine(List<ReconciliationSummaryDTO> summaries, MatchingMode matchingMode) {
+    ReconciliationSummaryDTO combined = ReconciliationSummaryDTO.builder().matchingMode(matchingMode).build();
+    for (ReconciliationSummaryDTO summary : summaries) {
+      combined.setTotalLinix(combined.getTotalLinix() + summary.getTotalLinix());
+      combined.setTotalBancolombia(combined.getTotalBancolombia() + summary.getTotalBancolombia());
+      combined.setMatchedCount(combined.getMatchedCount() + summary.getMatchedCount());
+      combined.setGroupedMatches(combined.getGroupedMatches() + summary.getGroupedMatches());
+      combined.setGroupedLinix(combined.getGroupedLinix() + summary.getGroupedLinix());
+      combined.setGroupedBancolombia(combined.getGroupedBancolombia() + summary.getGroupedBancolombia());
+      combined.setUnmatchedLinix(combined.getUnmatchedLinix() + summary.getUnmatchedLinix());
+      combined.setUnmatchedBancolombia(combined.getUnmatchedBancolombia() + summary.getUnmatchedBancolombia());
+      combined.setMatchesDifferentFromGreedy(
+          combined.getMatchesDifferentFromGreedy() + summary.getMatchesDifferentFromGreedy());
+      combined.setGreedyFallbackComponents(
+          combined.getGreedyFallbackComponents() + summary.getGreedyFallbackComponents());
+
+      combined.setTotalLinixAmount(sum(combined.getTotalLinixAmount(), summary.getTotalLinixAmount()));
+      combined.setTotalBancolombiaAmount(
+          sum(combined.getTotalBancolombiaAmount(), summary.getTotalBancolombiaAmount()));
+      combined.setLinixDebits(sum(combined.getLinixDebits(), summary.getLinixDebits()));
+      combined.setLinixCredits(sum(combined.getLinixCredits(), summary.getLinixCredits()));
+      combined.setBancolombiaDebits(sum(combined.getBancolombiaDebits(), summary.getBancolombiaDebits()));
+      combined.setBancolombiaCredits(sum(combined.getBancolombiaCredits(), summary.getBancolombiaCredits()));
+
+      combined.setSaldoInicialBanco(sum(combined.getSaldoInicialBanco(), summary.getSaldoInicialBanco()));
+      combined.setSaldoFinalBanco(sum(combined.getSaldoFinalBanco(), summary.getSaldoFinalBanco()));
+      combined.setSaldoFinalCalculado(sum(combined.getSaldoFinalCalculado(), summary.getSaldoFinalCalculado()));
+      combined.setDiferenciaSaldoFinal(sum(combined.getDiferenciaSaldoFinal(), summary.getDiferenciaSaldoFinal()));
+      combined.setTotalAbonosExtracto(sum(combined.getTotalAbonosExtracto(), summary.getTotalAbonosExtracto()));
+      combined.setTotalCargosExtracto(sum(combined.getTotalCargosExtracto(), summary.getTotalCargosExtracto()));
+      combined.setDiferenciaAbonos(sum(combined.getDiferenciaAbonos(), summary.getDiferenciaAbonos()));
+      combined.setDiferenciaCargos(sum(combined.getDiferenciaCargos(), summary.getDiferenciaCargos()));
+
+      if (summary.getTotalesExtractoCuadran() != null)
+        combined.setTotalesExtractoCuadran(
+            !Boolean.FALSE.equals(combined.getTotalesExtractoCuadran()) && summary.getTotalesExtractoCuadran());
+      LocalDate divergence = summary.getFechaPrimeraDivergencia();
+      if (divergence != null && (combined.getFechaPrimeraDivergencia() == null
+          || divergence.isBefore(combined.getFechaPrimeraDivergencia())))
+        combined.setFechaPrimeraDivergencia(divergence);
+    }
+    return combined;
+  }
+
+  private static BigDecimal sum(BigDecimal total, BigDecimal value) {
+    if (value == null)
+      return total;
+    return total == null ? value : total.add(value);
+  }
+}
@@ -0,0 +1,138 @@
+package com.vengalsas.core.conciliation.application.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+import com.vengalsas.core.conciliation.application.classification.DiscrepancyClassifier;
+import com.vengalsas.core.conciliation.application.matching.ExternalMergeMatcher;
+import com.vengalsas.core.conciliation.application.matching.MatchKind;
+import com.vengalsas.core.conciliation.application.matching.MatchingMode;
+import com.vengalsas.core.conciliation.domain.model.BancolombiaStatement;
+import com.vengalsas.core.conciliation.domain.model.DailyBalances;
+import com.vengalsas.core.conciliation.domain.model.SourceSystem;
+import com.vengalsas.core.conciliation.domain.model.Transaction;
+import com.vengalsas.core.conciliation.domain.model.TransactionTotals;
+import com.vengalsas.core.conciliation.domain.model.TransactionType;
+import com.vengalsas.core.conciliation.web.dto.ConciliationResultDTO;
+import com.vengalsas.core.conciliation.web.dto.ReconciliationSummaryDTO;
+
+/**
+ * Salida de las conciliaciones que no pasan por un {@code MatchOutcome}
+ * (fuera de memoria y sobre el archivo): recibe cada decisión, clasifica los
+ * no conciliados, omite los conciliados si sólo se piden discrepancias y lleva
+ * los conteos y totales del resumen.
+ */
+final class ClassifyingResultSink implements ExternalMergeMatcher.ResultSink {
+
+  private final DiscrepancyClassifier discrepancyClassifier;
+  private final BalanceDivergenceLocator balanceDivergenceLocator;
+  private final boolean discrepanciesOnly;
+  private final Consumer<ConciliationResultDTO> sink;
+  private final TransactionTotals linix = new TransactionTotals();
+  private final TransactionTotals banco = new TransactionTotals();
+  private final DailyBalances daily = new DailyBalances();
+  private int linixRows;
+  private int bancoRows;
+  private int matched;
+
+  ClassifyingResultSink(DiscrepancyClassifier discrepancyClassifier, BalanceDivergenceLocator balanceDivergenceLocator,
+      boolean discrepanciesOnly, Consumer<ConciliationResultDTO> sink) {
+    this.discrepancyClassifier = discrepancyClassifier;
+    this.balanceDivergenceLocator = balanceDivergenceLocator;
+    this.discrepanciesOnly = discrepanciesOnly;
+    this.sink = sink;
+  }
+
+  void countLinix(Transaction tx) {
+    linix.add(tx);
+    daily.add(SourceSystem.LINIX, tx);
+    linixRows++;
+  }
+
+  void countBanco(Transaction tx) {
+    banco.add(tx);
+    daily.add(SourceSystem.BANCOLOMBIA, tx);
+    bancoRows++;
+  }
+
+  // Para totales ya agregados: suma de un tipo en un día y cuántas filas la forman
+  void countTotal(SourceSystem source, TransactionType type, LocalDate date, BigDecimal amount, int rows) {
+    daily.add(source, date, type, amount);
+    if (source == SourceSystem.LINIX) {
+      linix.add(type, amount);
+      linixRows += rows;
+    } else {
+      banco.add(type, amount);
+      bancoRows += rows;
+    }
+  }
+
+  // Cuando los conciliados no pasan por aquí, el conteo viene de quien emparejó
+  void setMatched(int matched) {
+    this.matched = matched;
+  }
+
+  int getLinixRows() {
+    return linixRows;
+  }
+
+  int getBancoRows() {
+    return bancoRows;
+  }
+
+  int getMatched() {
+    return matched;
+  }
+
+  @Override
+  public void matched(Transaction linixTx, Transaction bancoTx, MatchKind kind) {
+    matched++;
+    if (!discrepanciesOnly)
+      emit(linixTx, bancoTx, true, kind.getLabel());
+  }
+
+  @Override
+  public void unmatchedLinix(Transaction linixTx) {
+    emit(linixTx, null, false, discrepancyClassifier.classify(linixTx.getDescription(), SourceSystem.LINIX));
+  }
+
+  @Override
+  public void unmatchedBanco(Transaction bancoTx) {
+    emit(null, bancoTx, false, discrepancyClassifier.classify(bancoTx.getDescription(), SourceSystem.BANCOLOMBIA));
+  }
+
+  /**
+   * Resumen con los conteos y totales acumulados; los saldos y los días en que
+   * se separan se agregan si {@code statement} los trae.
+   */
+  ReconciliationSummaryDTO summary(BancolombiaStatement statement) {
+    ReconciliationSummaryDTO summary = ReconciliationSummaryDTO.builder()
+        .totalLinix(linixRows)
+        .totalBancolombia(bancoRows)
+        .matchedCount(matched)
+        .unmatchedLinix(linixRows - matched)
+        .unmatchedBancolombia(bancoRows - matched)
+        .matchingMode(MatchingMode.GREEDY)
+        .totalLinixAmount(linix.getTotal())
+        .totalBancolombiaAmount(banco.getTotal())
+        .linixDebits(linix.getDebits())
+        .linixCredits(linix.getCredits())
+        .bancolombiaDebits(banco.getDebits())
+        .bancolombiaCredits(banco.getCredits())
+        .build();
+    if (statement != null && statement.getStartingBalance() != null && statement.getEndingBalance() != null)
+      ReconciliationService.applyStatement(summary, banco, statement);
+    balanceDivergenceLocator.apply(summary, daily, statement);
+    return summary;
+  }
+
+  private void emit(Transaction linixTx, Transaction bancoTx, boolean isMatched, String type) {
+    sink.accept(ConciliationResultDTO.builder()
+        .linixTransaction(linixTx)
+        .bancolombiaTransaction(bancoTx)
+        .matched(isMatched)
+        .discrepancyType(type)
+        .build());
+  }
+}
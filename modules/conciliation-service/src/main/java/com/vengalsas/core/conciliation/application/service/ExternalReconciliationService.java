@@ -0,0 +1,187 @@
+package com.vengalsas.core.conciliation.application.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.vengalsas.core.conciliation.application.classification.DiscrepancyClassifier;
+import com.vengalsas.core.conciliation.application.matching.ExternalMergeMatcher;
+import com.vengalsas.core.conciliation.domain.model.BancolombiaStatement;
+import com.vengalsas.core.conciliation.domain.model.SourceSystem;
+import com.vengalsas.core.conciliation.domain.model.Transaction;
+import com.vengalsas.core.conciliation.infrastructure.adapter.BancolombiaExcelReader;
+import com.vengalsas.core.conciliation.infrastructure.adapter.LinixTxtReader;
+import com.vengalsas.core.conciliation.infrastructure.metrics.ReconciliationMetrics;
+import com.vengalsas.core.conciliation.infrastructure.spill.ExternalSorter;
+import com.vengalsas.core.conciliation.infrastructure.spill.RowSource;
+import com.vengalsas.core.conciliation.infrastructure.spill.SpillFile;
+import com.vengalsas.core.conciliation.web.dto.ConciliationResultDTO;
+import com.vengalsas.core.conciliation.web.dto.ReconciliationSummaryDTO;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Conciliación fuera de memoria para auditorías de varios años, con más filas
+ * de las que caben en el heap como {@link Transaction}. Los dos archivos se
+ * leen en streaming hacia un {@link ExternalSorter} por lado, que vuelca
+ * corridas ordenadas por (monto, fecha) a un directorio temporal; luego el
+ * {@link ExternalMergeMatcher} las empareja y cada resultado sale al sink en
+ * cuanto se decide.
+ *
+ * La memoria queda acotada por {@code conciliation.external.heap-budget-bytes}:
+ * la mitad para el búfer de cada lado mientras se lee y, en la mezcla, un
+ * cuarto para los búferes de las corridas abiertas y otro para la ventana
+ * flexible. No hay sesión, archivo en PostgreSQL ni pasada agrupada.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExternalReconciliationService {
+
+  static final String WINDOW_EVICTIONS_NOTICE = "%d movimientos Bancolombia quedaron sin conciliar porque la "
+      + "ventana flexible se llenó; aumente conciliation.external.heap-budget-bytes";
+
+  private final BancolombiaExcelReader bancolombiaExcelReader;
+  private final LinixTxtReader linixTxtReader;
+  private final DiscrepancyClassifier discrepancyClassifier;
+  private final BalanceDivergenceLocator balanceDivergenceLocator;
+  private final ReconciliationMetrics metrics;
+
+  // Vacío = directorio temporal del sistema
+  @Value("${conciliation.external.spill-dir:}")
+  private String spillDir;
+
+  @Value("${conciliation.external.heap-budget-bytes:67108864}")
+  private long heapBudgetBytes;
+
+  @Value("${conciliation.external.merge-fan-in:64}")
+  private int mergeFanIn;
+
+  /**
+   * Copia los archivos subidos al directorio de trabajo y concilia desde ahí;
+   * el directorio se borra al terminar, con o sin error.
+   */
+  public ReconciliationSummaryDTO reconcile(MultipartFile bankFile, MultipartFile accountingFile,
+      boolean discrepanciesOnly, Consumer<ConciliationResultDTO> sink) throws Exception {
+    metrics.recordUploadSize(SourceSystem.BANCOLOMBIA, bankFile.getSize());
+    metrics.recordUploadSize(SourceSystem.LINIX, accountingFile.getSize());
+    return inWorkDir(workDir -> {
+      Path bank = workDir.resolve("bancolombia.xlsx");
+      Path accounting = workDir.resolve("linix.txt");
+      bankFile.transferTo(bank);
+      accountingFile.transferTo(accounting);
+      return reconcile(workDir, bank, accounting, discrepanciesOnly, sink);
+    });
+  }
+
+  public ReconciliationSummaryDTO reconcile(Path bankFile, Path accountingFile, boolean discrepanciesOnly,
+      Consumer<ConciliationResultDTO> sink) throws Exception {
+    return inWorkDir(workDir -> reconcile(workDir, bankFile, accountingFile, discrepanciesOnly, sink));
+  }
+
+  private ReconciliationSummaryDTO reconcile(Path workDir, Path bankFile, Path accountingFile,
+      boolean discrepanciesOnly, Consumer<ConciliationResultDTO> sink) throws Exception {
+    long start = System.nanoTime();
+    long sortBudget = heapBudgetBytes / 2;
+    // Dos lados de corridas abiertas en un cuarto del presupuesto
+    int fanIn = (int) Math.max(2, Math.min(mergeFanIn, heapBudgetBytes / 4 / (2L * SpillFile.BUFFER_BYTES)));
+    ExternalSorter linixSorter = new ExternalSorter(workDir, "linix", sortBudget, fanIn);
+    ExternalSorter bancoSorter = new ExternalSorter(workDir, "banco", sortBudget, fanIn);
+    ClassifyingResultSink results = new ClassifyingResultSink(discrepancyClassifier, balanceDivergenceLocator,
+        discrepanciesOnly, sink);
+
+    try (InputStream in = Files.newInputStream(accountingFile);
+        Stream<Transaction> rows = linixTxtReader.stream(in)) {
+      long seq = 0;
+      for (Iterator<Transaction> it = rows.iterator(); it.hasNext();) {
+        Transaction tx = it.next();
+        results.countLinix(tx);
+        if (isSortable(tx))
+          linixSorter.add(seq++, tx);
+        else
+          results.unmatchedLinix(tx);
+      }
+    }
+
+    long[] bancoSeq = { 0 };
+    BancolombiaStatement statement = bancolombiaExcelReader.read(bankFile, tx -> {
+      results.countBanco(tx);
+      if (!isSortable(tx)) {
+        results.unmatchedBanco(tx);
+        return;
+      }
+      try {
+        bancoSorter.add(bancoSeq[0]++, tx);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+
+    log.info("Conciliación externa: {} Linix y {} Bancolombia leídas, {} y {} corridas volcadas durante la lectura",
+        results.getLinixRows(), results.getBancoRows(), linixSorter.getRuns(), bancoSorter.getRuns());
+
+    ExternalMergeMatcher matcher = new ExternalMergeMatcher(workDir, heapBudgetBytes / 4);
+    try (RowSource linix = linixSorter.sorted(); RowSource banco = bancoSorter.sorted()) {
+      matcher.match(linix, banco, results);
+    }
+
+    ReconciliationSummaryDTO summary = results.summary(statement);
+    summary.setWindowEvictions(matcher.getWindowEvictions());
+    if (matcher.getWindowEvictions() > 0)
+      summary.setAvisos(List.of(String.format(WINDOW_EVICTIONS_NOTICE, matcher.getWindowEvictions())));
+
+    log.info("Conciliación externa completada en {} ms: {} coincidencias",
+        (System.nanoTime() - start) / 1_000_000L, results.getMatched());
+    return summary;
+  }
+
+  // Sin fecha o sin monto no se puede ordenar ni emparejar: sale directo como no conciliada
+  private static boolean isSortable(Transaction tx) {
+    return tx.getDate() != null && tx.getAmount() != null;
+  }
+
+  @FunctionalInterface
+  private interface WorkDirTask {
+    ReconciliationSummaryDTO run(Path workDir) throws Exception;
+  }
+
+  private ReconciliationSummaryDTO inWorkDir(WorkDirTask task) throws Exception {
+    Path base = spillDir == null || spillDir.isBlank()
+        ? Path.of(System.getProperty("java.io.tmpdir"))
+        : Files.createDirectories(Path.of(spillDir));
+    Path workDir = Files.createTempDirectory(base, "conciliation-");
+    Runnable finished = metrics.reconciliationStarted();
+    try {
+      return task.run(workDir);
+    } finally {
+      finished.run();
+      deleteRecursively(workDir);
+    }
+  }
+
+  private static void deleteRecursively(Path dir) {
+    try (Stream<Path> files = Files.walk(dir)) {
+      files.sorted(Comparator.reverseOrder()).forEach(file -> {
+        try {
+          Files.deleteIfExists(file);
+        } catch (IOException e) {
+          log.warn("No se pudo borrar el archivo de volcado {}: {}", file, e.getMessage());
+        }
+      });
+    } catch (IOException e) {
+      log.warn("No se pudo limpiar el directorio de volcado {}: {}", dir, e.getMessage());
+    }
+  }
+}
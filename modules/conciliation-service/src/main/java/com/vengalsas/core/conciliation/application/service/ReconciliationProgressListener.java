@@ -0,0 +1,24 @@
+package com.vengalsas.core.conciliation.application.service;
+
+import com.vengalsas.core.conciliation.application.job.JobStage;
+import com.vengalsas.core.conciliation.domain.model.SourceSystem;
+
+/**
+ * Recibe el avance de una carga o conciliación. Los métodos se invocan desde
+ * los hilos que hacen el trabajo, por lo que las implementaciones deben ser
+ * seguras para concurrencia y no bloquear.
+ */
+public interface ReconciliationProgressListener {
+
+  ReconciliationProgressListener NONE = new ReconciliationProgressListener() {
+  };
+
+  default void onStage(JobStage stage) {
+  }
+
+  default void onRowsParsed(SourceSystem source, long rows) {
+  }
+
+  default void onMatched(int matchedCount) {
+  }
+}
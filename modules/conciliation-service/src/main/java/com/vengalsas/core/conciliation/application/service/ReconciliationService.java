@@ -1,19 +1,57 @@
 package com.vengalsas.core.conciliation.application.service;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
-
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.vengalsas.core.conciliation.application.classification.DiscrepancyClassifier;
+import com.vengalsas.core.conciliation.application.job.JobStage;
+import com.vengalsas.core.conciliation.application.matching.GroupedMatcher;
+import com.vengalsas.core.conciliation.application.matching.MatchGroup;
+import com.vengalsas.core.conciliation.application.matching.MatchKind;
+import com.vengalsas.core.conciliation.application.matching.MatchOutcome;
+import com.vengalsas.core.conciliation.application.matching.MatchingEngine;
+import com.vengalsas.core.conciliation.application.matching.MatchingMode;
+import com.vengalsas.core.conciliation.application.matching.PartitionedMatchingEngine;
 import com.vengalsas.core.conciliation.domain.model.BancolombiaStatement;
+import com.vengalsas.core.conciliation.domain.model.DailyBalances;
+import com.vengalsas.core.conciliation.domain.model.IncrementalState;
+import com.vengalsas.core.conciliation.domain.model.LinixParseResult;
+import com.vengalsas.core.conciliation.domain.model.ParsedUpload;
+import com.vengalsas.core.conciliation.domain.model.ReconciliationRecord;
+import com.vengalsas.core.conciliation.domain.model.ReconciliationRun;
+import com.vengalsas.core.conciliation.domain.model.ReconciliationRunNotFoundException;
+import com.vengalsas.core.conciliation.domain.model.SourceSystem;
 import com.vengalsas.core.conciliation.domain.model.Transaction;
+import com.vengalsas.core.conciliation.domain.model.TransactionTotals;
+import com.vengalsas.core.conciliation.domain.repository.IncrementalStateStore;
+import com.vengalsas.core.conciliation.domain.repository.ReconciliationArchive;
+import com.vengalsas.core.conciliation.domain.repository.ReconciliationRunStore;
 import com.vengalsas.core.conciliation.infrastructure.adapter.BancolombiaExcelReader;
 import com.vengalsas.core.conciliation.infrastructure.adapter.LinixTxtReader;
+import com.vengalsas.core.conciliation.infrastructure.cache.ParsedFileCache;
+import com.vengalsas.core.conciliation.infrastructure.metrics.ReconciliationMetrics;
 import com.vengalsas.core.conciliation.web.dto.ConciliationResultDTO;
 import com.vengalsas.core.conciliation.web.dto.ReconciliationRequestDTO;
 import com.vengalsas.core.conciliation.web.dto.ReconciliationResponseDTO;
@@ -27,166 +65,641 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class ReconciliationService {
 
+  private static final int MAX_LOGGED_PARSE_ERRORS = 50;
+  static final String NO_STATEMENT_NOTICE = "Sin runId: el resumen no incluye los saldos del extracto ni sus "
+      + "divergencias; envíe el runId que devuelve /upload";
+
   private final BancolombiaExcelReader bancolombiaExcelReader;
   private final LinixTxtReader linixTxtReader;
+  private final MatchingEngine matchingEngine;
+  private final PartitionedMatchingEngine partitionedMatchingEngine;
+  private final GroupedMatcher groupedMatcher;
+  private final ReconciliationRunStore runStore;
+  private final ReconciliationArchive reconciliationArchive;
+  private final ParsedFileCache parsedFileCache;
+  private final IncrementalStateStore incrementalStateStore;
+  private final DiscrepancyClassifier discrepancyClassifier;
+  private final ReconciliationMetrics metrics;
+  private final BalanceDivergenceLocator balanceDivergenceLocator;
+
+  @Value("${conciliation.linix.parallel-threshold-bytes:4194304}")
+  private long linixParallelThresholdBytes;
+
+  public ParsedUpload readAndNormalize(MultipartFile bankFile, MultipartFile accountingFile) throws Exception {
+    return readAndNormalize(bankFile, accountingFile, ReconciliationProgressListener.NONE);
+  }
 
-  private BancolombiaStatement lastBancolombiaStatement;
+  public ParsedUpload readAndNormalize(MultipartFile bankFile, MultipartFile accountingFile,
+      ReconciliationProgressListener listener) throws Exception {
+    ParseProgress bankProgress = new ParseProgress(listener, SourceSystem.BANCOLOMBIA);
+    ParseProgress linixProgress = new ParseProgress(listener, SourceSystem.LINIX);
+    return readAndNormalize(() -> readBancolombia(bankFile, bankProgress), bankProgress,
+        () -> readLinix(accountingFile, linixProgress), linixProgress, listener);
+  }
 
-  public List<Transaction> readAndNormalize(MultipartFile bankFile, MultipartFile accountingFile) throws Exception {
-    try (
-        InputStream bankInput = bankFile.getInputStream();
-        InputStream accountingInput = accountingFile.getInputStream()) {
+  /**
+   * Variante para archivos ya copiados a disco, usada por los trabajos
+   * asíncronos que se ejecutan después de que termina la petición HTTP.
+   */
+  public ParsedUpload readAndNormalize(Path bankFile, Path accountingFile, ReconciliationProgressListener listener)
+      throws Exception {
+    ParseProgress bankProgress = new ParseProgress(listener, SourceSystem.BANCOLOMBIA);
+    ParseProgress linixProgress = new ParseProgress(listener, SourceSystem.LINIX);
+    return readAndNormalize(() -> readBancolombia(bankFile, bankProgress), bankProgress,
+        () -> readLinix(accountingFile, linixProgress), linixProgress, listener);
+  }
 
-      this.lastBancolombiaStatement = bancolombiaExcelReader.read(bankInput);
-      List<Transaction> bancolombia = lastBancolombiaStatement.getTransactions();
-      List<Transaction> linix = linixTxtReader.read(accountingInput);
+  /**
+   * Lee ambos archivos al mismo tiempo en hilos virtuales. Si uno falla se
+   * cancela el otro y se propaga el error; la llamada no retorna hasta que
+   * ambas tareas terminan. El avance de filas llega por tandas mientras se
+   * analiza cada archivo; lo que falte (todo, si vino de la caché) al final.
+   */
+  private ParsedUpload readAndNormalize(Callable<BancolombiaStatement> bankReader, ParseProgress bankProgress,
+      Callable<List<Transaction>> linixReader, ParseProgress linixProgress,
+      ReconciliationProgressListener listener) throws Exception {
+    listener.onStage(JobStage.READING_FILES);
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      ExecutorCompletionService<Object> completion = new ExecutorCompletionService<>(executor);
+      Future<Object> bankTask = completion.submit(() -> {
+        Timed<BancolombiaStatement> timed = timed(bankReader);
+        bankProgress.finish(timed.value().getTransactions().size());
+        return timed;
+      });
+      Future<Object> linixTask = completion.submit(() -> {
+        Timed<List<Transaction>> timed = timed(linixReader);
+        linixProgress.finish(timed.value().size());
+        return timed;
+      });
+
+      try {
+        for (int pending = 2; pending > 0; pending--) {
+          completion.take().get();
+        }
+      } catch (ExecutionException | InterruptedException e) {
+        bankTask.cancel(true);
+        linixTask.cancel(true);
+        if (e instanceof InterruptedException)
+          Thread.currentThread().interrupt();
+        throw unwrap(e);
+      }
 
-      log.info("Bancolombia transactions loaded: {}", bancolombia.size());
-      log.info("Linix transactions loaded: {}", linix.size());
+      @SuppressWarnings("unchecked")
+      Timed<BancolombiaStatement> bank = (Timed<BancolombiaStatement>) bankTask.get();
+      @SuppressWarnings("unchecked")
+      Timed<List<Transaction>> linix = (Timed<List<Transaction>>) linixTask.get();
+
+      ReconciliationRun run = runStore.save(ReconciliationRun.builder()
+          .id(UUID.randomUUID())
+          .bancolombiaStatement(header(bank.value()))
+          .createdAt(Instant.now())
+          .build());
+
+      log.info("Bancolombia transactions loaded: {} in {} ms", bank.value().getTransactions().size(), bank.millis());
+      log.info("Linix transactions loaded: {} in {} ms", linix.value().size(), linix.millis());
+
+      return ParsedUpload.builder()
+          .runId(run.getId())
+          .bancolombiaStatement(bank.value())
+          .linixTransactions(linix.value())
+          .bankReadMillis(bank.millis())
+          .accountingReadMillis(linix.millis())
+          .build();
+    }
+  }
+
+  // Los archivos se buscan primero en la caché por el hash de su contenido
+  private BancolombiaStatement readBancolombia(MultipartFile bankFile, ParseProgress progress) throws Exception {
+    return readBancolombia(bankFile, bankFile.getSize(), progress);
+  }
+
+  private BancolombiaStatement readBancolombia(Path bankFile, ParseProgress progress) throws Exception {
+    return readBancolombia(() -> Files.newInputStream(bankFile), Files.size(bankFile), progress);
+  }
+
+  private BancolombiaStatement readBancolombia(InputStreamSource source, long size, ParseProgress progress)
+      throws Exception {
+    metrics.recordUploadSize(SourceSystem.BANCOLOMBIA, size);
+    return parsedFileCache.getOrParseStatement(source, size,
+        in -> timedParse(SourceSystem.BANCOLOMBIA, () -> parseBancolombia(in, progress)),
+        bancolombiaExcelReader::checkTotals);
+  }
+
+  // Sólo se mide el análisis real; los aciertos de la caché no pasan por aquí
+  private <T> T timedParse(SourceSystem source, Callable<T> parser) throws Exception {
+    return metrics.parseTimer(source).recordCallable(parser);
+  }
+
+  private BancolombiaStatement parseBancolombia(InputStream bankInput, ParseProgress progress) throws Exception {
+    List<Transaction> transactions = new ArrayList<>();
+    BancolombiaStatement statement = bancolombiaExcelReader.read(bankInput, tx -> {
+      transactions.add(tx);
+      progress.accept(tx);
+    });
+    statement.setTransactions(transactions);
+    return statement;
+  }
+
+  private List<Transaction> readLinix(MultipartFile accountingFile, ParseProgress progress) throws Exception {
+    long size = accountingFile.getSize();
+    metrics.recordUploadSize(SourceSystem.LINIX, size);
+    return parsedFileCache.getOrParseLinix(accountingFile, size,
+        in -> timedParse(SourceSystem.LINIX, () -> parseLinix(in, size, progress)));
+  }
+
+  private List<Transaction> readLinix(Path accountingFile, ParseProgress progress) throws Exception {
+    long size = Files.size(accountingFile);
+    metrics.recordUploadSize(SourceSystem.LINIX, size);
+    // El lector paralelo mapea el archivo por su cuenta; la caché lee el contenido después sólo para el hash
+    return parsedFileCache.getOrParseLinix(() -> Files.newInputStream(accountingFile), size,
+        in -> timedParse(SourceSystem.LINIX, () -> size < linixParallelThresholdBytes
+            ? linixTxtReader.read(in, progress)
+            : readLinixParallel(accountingFile, progress)));
+  }
+
+  private List<Transaction> parseLinix(InputStream in, long size, ParseProgress progress) throws IOException {
+    if (size < linixParallelThresholdBytes) {
+      return linixTxtReader.read(in, progress);
+    }
 
-      List<Transaction> all = new ArrayList<>(bancolombia);
-      all.addAll(linix);
-      return all;
+    // Archivos grandes: se llevan a disco para mapearlos y analizarlos por bloques en paralelo
+    Path tempFile = Files.createTempFile("linix-", ".txt");
+    try {
+      Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+      return readLinixParallel(tempFile, progress);
+    } finally {
+      Files.deleteIfExists(tempFile);
     }
   }
 
+  private List<Transaction> readLinixParallel(Path file, ParseProgress progress) throws IOException {
+    LinixParseResult result = linixTxtReader.readParallel(file, progress::add);
+    log.info("Linix parsed in {} chunks, {} lines", result.getChunks(), result.getTotalLines());
+    if (!result.getErrors().isEmpty()) {
+      log.warn("Linix: {} líneas ignoradas por error de formato", result.getErrors().size());
+      result.getErrors().stream()
+          .limit(MAX_LOGGED_PARSE_ERRORS)
+          .forEach(error -> log.warn("Bloque {}, línea {}: {}", error.getChunk(), error.getLineNumber(),
+              error.getMessage()));
+    }
+    return result.getTransactions();
+  }
+
+  /**
+   * Lee y concilia una cuenta del lote por cuentas, con los archivos ya
+   * extraídos a disco. No crea sesión ni devuelve resultados: sólo el resumen,
+   * con el id del archivo para consultarlos después. {@code options} aporta el
+   * modo y las pasadas opcionales.
+   */
+  public ReconciliationSummaryDTO reconcileAccount(Path bankFile, Path accountingFile,
+      ReconciliationRequestDTO options) throws Exception {
+    return reconcileAccount(readBancolombia(bankFile, ParseProgress.NONE), accountingFile, options);
+  }
+
+  /**
+   * Igual que {@link #reconcileAccount(Path, Path, ReconciliationRequestDTO)}
+   * con el extracto ya leído, como las hojas de un libro con varias cuentas.
+   */
+  public ReconciliationSummaryDTO reconcileAccount(BancolombiaStatement statement, Path accountingFile,
+      ReconciliationRequestDTO options) throws Exception {
+    ReconciliationRequestDTO request = new ReconciliationRequestDTO();
+    request.setMatchingMode(options.getMatchingMode());
+    request.setParallel(options.isParallel());
+    request.setDescriptionTieBreak(options.isDescriptionTieBreak());
+    request.setGroupedMatching(options.isGroupedMatching());
+    // Los resultados no se devuelven: así no se arman los de las filas conciliadas
+    request.setDiscrepanciesOnly(true);
+    request.setLinixTransactions(readLinix(accountingFile, ParseProgress.NONE));
+    request.setBancolombiaTransactions(statement.getTransactions());
+    return reconcile(request, statement, ReconciliationProgressListener.NONE, result -> {
+    });
+  }
+
   public ReconciliationResponseDTO reconcileTransactions(ReconciliationRequestDTO request) {
-    List<Transaction> linixTxs = request.getLinixTransactions();
-    List<Transaction> bancoTxs = request.getBancolombiaTransactions();
+    return reconcileTransactions(request, ReconciliationProgressListener.NONE);
+  }
+
+  public ReconciliationResponseDTO reconcileTransactions(ReconciliationRequestDTO request,
+      ReconciliationProgressListener listener) {
+    return reconcile(request, resolveStatement(request.getRunId()), listener);
+  }
 
+  /**
+   * Lee y concilia en el servidor sin devolver las transacciones normalizadas
+   * al cliente. {@code options} aporta el modo, el paralelismo y el filtro de
+   * discrepancias; las listas de transacciones se toman de los archivos.
+   */
+  public ReconciliationResponseDTO uploadAndReconcile(MultipartFile bankFile, MultipartFile accountingFile,
+      ReconciliationRequestDTO options) throws Exception {
+    ParsedUpload upload = readAndNormalize(bankFile, accountingFile);
+
+    options.setRunId(upload.getRunId());
+    options.setLinixTransactions(upload.getLinixTransactions());
+    options.setBancolombiaTransactions(upload.getBancolombiaStatement().getTransactions());
+    return reconcile(options, upload.getBancolombiaStatement(), ReconciliationProgressListener.NONE);
+  }
+
+  private ReconciliationResponseDTO reconcile(ReconciliationRequestDTO request, BancolombiaStatement statement,
+      ReconciliationProgressListener listener) {
     List<ConciliationResultDTO> results = new ArrayList<>();
-    Set<Integer> matchedIndexes = new HashSet<>();
+    ReconciliationSummaryDTO summary = reconcile(request, statement, listener, results::add);
 
-    for (Transaction linix : linixTxs) {
-      boolean matched = false;
+    return ReconciliationResponseDTO.builder()
+        .runId(request.getRunId())
+        .results(results)
+        .summary(summary)
+        .build();
+  }
 
-      for (int i = 0; i < bancoTxs.size(); i++) {
-        if (matchedIndexes.contains(i))
-          continue;
+  /**
+   * Entrega cada resultado a {@code sink} en cuanto se construye, sin acumular
+   * la lista, y devuelve el resumen al final. Pensado para respuestas en
+   * streaming; {@code statement} se obtiene antes con
+   * {@link #resolveStatement(UUID)} para poder responder 404 antes de escribir.
+   */
+  public ReconciliationSummaryDTO streamReconciliation(ReconciliationRequestDTO request,
+      BancolombiaStatement statement, Consumer<ConciliationResultDTO> sink) {
+    return reconcile(request, statement, ReconciliationProgressListener.NONE, sink);
+  }
 
-        Transaction banco = bancoTxs.get(i);
+  private ReconciliationSummaryDTO reconcile(ReconciliationRequestDTO request, BancolombiaStatement statement,
+      ReconciliationProgressListener listener, Consumer<ConciliationResultDTO> sink) {
+    Runnable finished = metrics.reconciliationStarted();
+    try {
+      ReconciliationSummaryDTO summary = request.isIncremental()
+          ? reconcileIncremental(request, statement, listener, sink)
+          : match(request, statement, listener, sink);
+      if (statement == null)
+        summary.setAvisos(List.of(NO_STATEMENT_NOTICE));
+      return summary;
+    } finally {
+      finished.run();
+    }
+  }
 
-        if (isExactMatch(linix, banco)) {
-          results.add(buildResult(linix, banco, true, "Coincidencia exacta"));
-          matchedIndexes.add(i);
-          matched = true;
-          break;
-        } else if (isFlexibleMatch(linix, banco)) {
-          results.add(buildResult(linix, banco, true, "Coincidencia aproximada (fecha o monto)"));
-          matchedIndexes.add(i);
-          matched = true;
-          break;
+  /**
+   * Concilia sólo las filas que no estaban en las cargas anteriores de la
+   * cuenta junto con lo que quedó pendiente; lo que siga sin conciliar pasa a
+   * la siguiente ejecución. Los resultados y conteos corresponden a ese
+   * subconjunto, los saldos al extracto completo.
+   */
+  private ReconciliationSummaryDTO reconcileIncremental(ReconciliationRequestDTO request,
+      BancolombiaStatement statement, ReconciliationProgressListener listener, Consumer<ConciliationResultDTO> sink) {
+    IncrementalState state = incrementalStateStore.getOrCreate(request.getAccountKey());
+
+    // Dos cargas de la misma cuenta no pueden avanzar el estado a la vez
+    synchronized (state) {
+      List<Transaction> newLinix = state.takeNewLinix(request.getLinixTransactions());
+      List<Transaction> newBanco = state.takeNewBancolombia(request.getBancolombiaTransactions());
+      int carriedLinix = state.getCarriedLinix().size();
+      int carriedBanco = state.getCarriedBancolombia().size();
+
+      ReconciliationRequestDTO delta = new ReconciliationRequestDTO();
+      delta.setRunId(request.getRunId());
+      delta.setMatchingMode(request.getMatchingMode());
+      delta.setParallel(request.isParallel());
+      delta.setDescriptionTieBreak(request.isDescriptionTieBreak());
+      delta.setGroupedMatching(request.isGroupedMatching());
+      delta.setDiscrepanciesOnly(request.isDiscrepanciesOnly());
+      delta.setLinixTransactions(concat(state.getCarriedLinix(), newLinix));
+      delta.setBancolombiaTransactions(concat(state.getCarriedBancolombia(), newBanco));
+
+      List<Transaction> pendingLinix = new ArrayList<>();
+      List<Transaction> pendingBanco = new ArrayList<>();
+      ReconciliationSummaryDTO summary = match(delta, null, listener, result -> {
+        if (!result.isMatched()) {
+          if (result.getLinixTransaction() != null)
+            pendingLinix.add(result.getLinixTransaction());
+          else
+            pendingBanco.add(result.getBancolombiaTransaction());
         }
+        sink.accept(result);
+      });
+      state.update(pendingLinix, pendingBanco, summary.getMatchedCount() + summary.getGroupedMatches());
+
+      log.info("Incremental {}: {} Linix y {} Bancolombia nuevas, {} y {} arrastradas, {} pendientes",
+          request.getAccountKey(), newLinix.size(), newBanco.size(), carriedLinix, carriedBanco,
+          pendingLinix.size() + pendingBanco.size());
+
+      summary.setNewLinix(newLinix.size());
+      summary.setNewBancolombia(newBanco.size());
+      summary.setCarriedLinix(carriedLinix);
+      summary.setCarriedBancolombia(carriedBanco);
+      summary.setMatchedTotal(state.getMatchedTotal());
+      if (statement != null) {
+        // Saldos y totales del extracto se comparan con todos sus movimientos, no sólo con los nuevos
+        applyStatement(summary, TransactionTotals.of(request.getBancolombiaTransactions()), statement);
+        balanceDivergenceLocator.apply(summary,
+            DailyBalances.of(request.getLinixTransactions(), request.getBancolombiaTransactions()), statement);
       }
+      return summary;
+    }
+  }
+
+  public boolean resetIncremental(String accountKey) {
+    return incrementalStateStore.reset(accountKey);
+  }
+
+  private static List<Transaction> concat(List<Transaction> first, List<Transaction> second) {
+    List<Transaction> all = new ArrayList<>(first.size() + second.size());
+    all.addAll(first);
+    all.addAll(second);
+    return all;
+  }
+
+  private ReconciliationSummaryDTO match(ReconciliationRequestDTO request, BancolombiaStatement statement,
+      ReconciliationProgressListener listener, Consumer<ConciliationResultDTO> sink) {
+    listener.onStage(JobStage.MATCHING);
+    List<Transaction> linixTxs = request.getLinixTransactions();
+    List<Transaction> bancoTxs = request.getBancolombiaTransactions();
 
-      if (!matched) {
-        results.add(buildResult(linix, null, false, classifyDiscrepancy(linix, "LINIX")));
+    MatchingMode mode = request.getMatchingMode();
+    boolean tieBreak = request.isDescriptionTieBreak();
+    MatchOutcome outcome = request.isParallel()
+        ? partitionedMatchingEngine.match(linixTxs, bancoTxs, mode, tieBreak)
+        : matchingEngine.match(linixTxs, bancoTxs, mode, tieBreak);
+    if (request.isGroupedMatching())
+      groupedMatcher.apply(linixTxs, bancoTxs, outcome);
+    listener.onMatched(outcome.getMatchedCount());
+    metrics.recordPasses(outcome);
+    boolean discrepanciesOnly = request.isDiscrepanciesOnly();
+    int emitted = 0;
+
+    // Índices de cada resultado para el archivo; se llenan aunque la respuesta venga filtrada
+    boolean archive = reconciliationArchive.isEnabled();
+    // Un grupo de N+1 filas produce N resultados, uno por cada fila del lado con varias
+    int resultCount = linixTxs.size() + bancoTxs.size() - outcome.getMatchedCount() - outcome.getGroupCount();
+    int[] resultLinix = archive ? new int[resultCount] : null;
+    int[] resultBanco = archive ? new int[resultCount] : null;
+    String[] resultTypes = archive ? new String[resultCount] : null;
+    int r = 0;
+    // Se mide sólo la clasificación, no la entrega al sink, que en streaming incluye la escritura
+    long linixClassifyNanos = 0;
+    long bancoClassifyNanos = 0;
+    // Cada Bancolombia se suma una vez: con su pareja en el primer ciclo o como no conciliado en el segundo
+    TransactionTotals linixTotals = new TransactionTotals();
+    TransactionTotals bancoTotals = new TransactionTotals();
+
+    for (int l = 0; l < linixTxs.size(); l++) {
+      Transaction linix = linixTxs.get(l);
+      int b = outcome.bancoFor(l);
+      linixTotals.add(linix);
+      if (b >= 0)
+        bancoTotals.add(bancoTxs.get(b));
+
+      int g = outcome.groupOfLinix(l);
+      if (g >= 0) {
+        // Cada grupo se emite desde sus filas Linix: una fila por cada pareja Linix-Bancolombia
+        MatchGroup group = outcome.group(g);
+        String type = MatchKind.GROUPED.getLabel();
+        // En N:1 el Bancolombia se suma una sola vez, con la primera fila Linix del grupo
+        boolean countBanco = !group.isManyLinix() || group.linix()[0] == l;
+        for (int member : group.banco()) {
+          if (countBanco)
+            bancoTotals.add(bancoTxs.get(member));
+          if (archive) {
+            resultLinix[r] = l;
+            resultBanco[r] = member;
+            resultTypes[r++] = type;
+          }
+          if (!discrepanciesOnly) {
+            sink.accept(buildResult(linix, bancoTxs.get(member), true, type, g));
+            emitted++;
+          }
+        }
+        continue;
       }
+      String type;
+      if (b >= 0) {
+        type = outcome.kindFor(l).getLabel();
+      } else {
+        long start = System.nanoTime();
+        type = discrepancyClassifier.classify(linix.getDescription(), SourceSystem.LINIX);
+        linixClassifyNanos += System.nanoTime() - start;
+      }
+      if (archive) {
+        resultLinix[r] = l;
+        resultBanco[r] = b;
+        resultTypes[r++] = type;
+      }
+      if (b >= 0 && discrepanciesOnly)
+        continue;
+      sink.accept(buildResult(linix, b >= 0 ? bancoTxs.get(b) : null, b >= 0, type, null));
+      emitted++;
     }
 
     for (int i = 0; i < bancoTxs.size(); i++) {
-      if (!matchedIndexes.contains(i)) {
+      if (!outcome.isBancoMatched(i)) {
         Transaction banco = bancoTxs.get(i);
-        results.add(buildResult(null, banco, false, classifyDiscrepancy(banco, "BANCOLOMBIA")));
+        bancoTotals.add(banco);
+        long start = System.nanoTime();
+        String type = discrepancyClassifier.classify(banco.getDescription(), SourceSystem.BANCOLOMBIA);
+        bancoClassifyNanos += System.nanoTime() - start;
+        if (archive) {
+          resultLinix[r] = MatchOutcome.UNMATCHED;
+          resultBanco[r] = i;
+          resultTypes[r++] = type;
+        }
+        sink.accept(buildResult(null, banco, false, type, null));
+        emitted++;
       }
     }
 
-    log.info("Conciliation completed. Total results: {}", results.size());
-
-    ReconciliationSummaryDTO summary = generateSummary(linixTxs, bancoTxs, results);
+    metrics.recordClassification(SourceSystem.LINIX, linixClassifyNanos);
+    metrics.recordClassification(SourceSystem.BANCOLOMBIA, bancoClassifyNanos);
+    log.info("Conciliation completed ({} mode). Total results: {}", outcome.getMode(), emitted);
+
+    listener.onStage(JobStage.SUMMARIZING);
+    ReconciliationSummaryDTO summary = metrics.summaryTimer()
+        .record(() -> generateSummary(linixTotals, bancoTotals, outcome, statement));
+    if (statement != null)
+      balanceDivergenceLocator.apply(summary, DailyBalances.of(linixTxs, bancoTxs), statement);
+
+    if (archive) {
+      UUID reconciliationId = UUID.randomUUID();
+      reconciliationArchive.archive(ReconciliationRecord.builder()
+          .id(reconciliationId)
+          .runId(request.getRunId())
+          .createdAt(Instant.now())
+          .matchingMode(outcome.getMode().name())
+          .linixTransactions(linixTxs)
+          .bancolombiaTransactions(bancoTxs)
+          .resultCount(resultCount)
+          .resultLinix(resultLinix)
+          .resultBancolombia(resultBanco)
+          .resultTypes(resultTypes)
+          .matchedCount(outcome.getMatchedCount())
+          .startingBalance(statement != null ? statement.getStartingBalance() : null)
+          .endingBalance(statement != null ? statement.getEndingBalance() : null)
+          .build());
+      summary.setReconciliationId(reconciliationId);
+    }
+    return summary;
+  }
 
-    return ReconciliationResponseDTO.builder()
-        .results(results)
-        .summary(summary)
+  // Sólo el encabezado: la sesión no carga las transacciones, que vuelven en el /reconcile
+  private static BancolombiaStatement header(BancolombiaStatement statement) {
+    return BancolombiaStatement.builder()
+        .startingBalance(statement.getStartingBalance())
+        .endingBalance(statement.getEndingBalance())
+        .totalCredits(statement.getTotalCredits())
+        .totalDebits(statement.getTotalDebits())
         .build();
   }
 
-  private ReconciliationSummaryDTO generateSummary(List<Transaction> linixTxs, List<Transaction> bancoTxs,
-      List<ConciliationResultDTO> results) {
-    int matched = 0;
-    int unmatchedLinix = 0;
-    int unmatchedBanco = 0;
+  private static <T> Timed<T> timed(Callable<T> task) throws Exception {
+    long start = System.nanoTime();
+    T value = task.call();
+    return new Timed<>(value, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+
+  private static Exception unwrap(Exception e) {
+    Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+    return cause instanceof Exception ex ? ex : new IllegalStateException(cause);
+  }
+
+  private record Timed<T>(T value, long millis) {
+  }
+
+  /**
+   * Filas analizadas de un archivo, reportadas al listener cada
+   * {@link #EVERY_ROWS} filas en lugar de una sola vez al terminar. El
+   * analizador secuencial llama a {@link #accept} desde un solo hilo; los
+   * bloques del paralelo llaman a {@link #add} desde varios.
+   */
+  private static class ParseProgress implements Consumer<Transaction> {
+    static final int EVERY_ROWS = 10_000;
+    // Sin estado: la comparten las cuentas del lote que se leen a la vez en varios hilos
+    static final ParseProgress NONE = new ParseProgress(ReconciliationProgressListener.NONE, SourceSystem.LINIX) {
+      @Override
+      public void accept(Transaction tx) {
+      }
+
+      @Override
+      void add(long rows) {
+      }
+
+      @Override
+      void finish(long total) {
+      }
+    };
+
+    private final ReconciliationProgressListener listener;
+    private final SourceSystem source;
+    private final AtomicLong reported = new AtomicLong();
+    private long pending;
 
-    for (ConciliationResultDTO result : results) {
-      if (result.isMatched())
-        matched++;
-      else if (result.getLinixTransaction() != null)
-        unmatchedLinix++;
-      else if (result.getBancolombiaTransaction() != null)
-        unmatchedBanco++;
+    ParseProgress(ReconciliationProgressListener listener, SourceSystem source) {
+      this.listener = listener;
+      this.source = source;
     }
 
-    BigDecimal linixDebits = sumByType(linixTxs, "DEBIT");
-    BigDecimal linixCredits = sumByType(linixTxs, "CREDIT");
+    @Override
+    public void accept(Transaction tx) {
+      if (++pending == EVERY_ROWS) {
+        add(pending);
+        pending = 0;
+      }
+    }
+
+    void add(long rows) {
+      reported.addAndGet(rows);
+      listener.onRowsParsed(source, rows);
+    }
 
-    BigDecimal bancoDebits = sumByType(bancoTxs, "DEBIT");
-    BigDecimal bancoCredits = sumByType(bancoTxs, "CREDIT");
+    // Reporta lo que falte para llegar al total: la última tanda o el archivo entero si vino de la caché
+    void finish(long total) {
+      long rest = total - reported.get();
+      if (rest > 0)
+        add(rest);
+    }
+  }
 
-    BigDecimal saldoEstimado = lastBancolombiaStatement.getStartingBalance()
-        .add(bancoCredits)
-        .subtract(bancoDebits);
+  public BancolombiaStatement resolveStatement(UUID runId) {
+    if (runId == null) {
+      log.warn("Conciliación sin runId: el resumen no incluirá los saldos del extracto");
+      return null;
+    }
+    return runStore.findById(runId)
+        .map(ReconciliationRun::getBancolombiaStatement)
+        .orElseThrow(() -> new ReconciliationRunNotFoundException(runId));
+  }
 
-    return ReconciliationSummaryDTO.builder()
-        .totalLinix(linixTxs.size())
-        .totalBancolombia(bancoTxs.size())
+  // Los conteos salen del emparejamiento y los montos de los totales acumulados al emitir los
+  // resultados, así que no se recorre ninguna lista. Visible en el paquete para medirlo aislado
+  // en conciliation-benchmarks
+  ReconciliationSummaryDTO generateSummary(TransactionTotals linixTotals, TransactionTotals bancoTotals,
+      MatchOutcome outcome, BancolombiaStatement statement) {
+    int matched = outcome.getMatchedCount();
+    int groupedLinix = outcome.getGroupedLinixCount();
+    int groupedBanco = outcome.getGroupedBancoCount();
+    BigDecimal linixDebits = linixTotals.getDebits();
+    BigDecimal linixCredits = linixTotals.getCredits();
+    BigDecimal bancoDebits = bancoTotals.getDebits();
+    BigDecimal bancoCredits = bancoTotals.getCredits();
+
+    ReconciliationSummaryDTO summary = ReconciliationSummaryDTO.builder()
+        .totalLinix(outcome.getLinixSize())
+        .totalBancolombia(outcome.getBancoSize())
         .matchedCount(matched)
-        .unmatchedLinix(unmatchedLinix)
-        .unmatchedBancolombia(unmatchedBanco)
+        .groupedMatches(outcome.getGroupCount())
+        .groupedLinix(groupedLinix)
+        .groupedBancolombia(groupedBanco)
+        .unmatchedLinix(outcome.getLinixSize() - matched - groupedLinix)
+        .unmatchedBancolombia(outcome.getBancoSize() - matched - groupedBanco)
+        .matchingMode(outcome.getMode())
+        .matchesDifferentFromGreedy(outcome.getDifferencesFromGreedy())
+        .greedyFallbackComponents(outcome.getGreedyFallbackComponents())
         .totalLinixAmount(linixDebits.add(linixCredits))
         .totalBancolombiaAmount(bancoDebits.add(bancoCredits))
         .linixDebits(linixDebits)
         .linixCredits(linixCredits)
         .bancolombiaDebits(bancoDebits)
         .bancolombiaCredits(bancoCredits)
-        .saldoInicialBanco(lastBancolombiaStatement.getStartingBalance())
-        .saldoFinalBanco(lastBancolombiaStatement.getEndingBalance())
-        .saldoFinalCalculado(saldoEstimado)
-        .diferenciaSaldoFinal(lastBancolombiaStatement.getEndingBalance().subtract(saldoEstimado))
         .build();
+
+    if (statement != null)
+      applyStatement(summary, bancoTotals, statement);
+    return summary;
   }
 
-  private BigDecimal sumByType(List<Transaction> txs, String type) {
-    return txs.stream()
-        .filter(tx -> tx.getTransactionType().name().equalsIgnoreCase(type))
-        .map(Transaction::getAmount)
-        .reduce(BigDecimal.ZERO, BigDecimal::add);
+  /**
+   * Saldo final calculado con los movimientos recibidos y comparación de sus
+   * abonos y cargos contra los totales que trae el encabezado del extracto.
+   */
+  static void applyStatement(ReconciliationSummaryDTO summary, TransactionTotals bancoTotals,
+      BancolombiaStatement statement) {
+    BigDecimal saldoEstimado = statement.getStartingBalance()
+        .add(bancoTotals.getCredits())
+        .subtract(bancoTotals.getDebits());
+    summary.setSaldoInicialBanco(statement.getStartingBalance());
+    summary.setSaldoFinalBanco(statement.getEndingBalance());
+    summary.setSaldoFinalCalculado(saldoEstimado);
+    summary.setDiferenciaSaldoFinal(statement.getEndingBalance().subtract(saldoEstimado));
+
+    if (statement.getTotalCredits() != null && statement.getTotalDebits() != null) {
+      BigDecimal diferenciaAbonos = statement.getTotalCredits().subtract(bancoTotals.getCredits());
+      BigDecimal diferenciaCargos = statement.getTotalDebits().subtract(bancoTotals.getDebits());
+      summary.setTotalAbonosExtracto(statement.getTotalCredits());
+      summary.setTotalCargosExtracto(statement.getTotalDebits());
+      summary.setDiferenciaAbonos(diferenciaAbonos);
+      summary.setDiferenciaCargos(diferenciaCargos);
+      summary.setTotalesExtractoCuadran(diferenciaAbonos.signum() == 0 && diferenciaCargos.signum() == 0);
+      if (!summary.getTotalesExtractoCuadran())
+        log.warn("Los movimientos no cuadran con el extracto: abonos difieren en {}, cargos en {}",
+            diferenciaAbonos, diferenciaCargos);
+    }
   }
 
-  private ConciliationResultDTO buildResult(Transaction linix, Transaction banco, boolean matched, String type) {
+  private ConciliationResultDTO buildResult(Transaction linix, Transaction banco, boolean matched, String type,
+      Integer groupId) {
     return ConciliationResultDTO.builder()
         .linixTransaction(linix)
         .bancolombiaTransaction(banco)
         .matched(matched)
         .discrepancyType(type)
+        .groupId(groupId)
         .build();
   }
-
-  private boolean isExactMatch(Transaction a, Transaction b) {
-    return a.getAmount().compareTo(b.getAmount()) == 0 && a.getDate().isEqual(b.getDate());
-  }
-
-  private boolean isFlexibleMatch(Transaction a, Transaction b) {
-    BigDecimal tolerance = new BigDecimal("500");
-    boolean amountClose = a.getAmount().subtract(b.getAmount()).abs().compareTo(tolerance) <= 0;
-    boolean dateClose = !a.getDate().isBefore(b.getDate().minusDays(1))
-        && !a.getDate().isAfter(b.getDate().plusDays(1));
-    return amountClose && dateClose;
-  }
-
-  private String classifyDiscrepancy(Transaction tx, String source) {
-    String d = tx.getDescription() != null ? tx.getDescription().toLowerCase() : "";
-
-    if (d.contains("comisión") || d.contains("mantenimiento"))
-      return "Comisión bancaria";
-    if (d.contains("interés") || d.contains("rendimiento"))
-      return "Intereses bancarios";
-    if (d.contains("cheque") || d.contains("pendiente"))
-      return "Cheque pendiente de cobro";
-    if (d.contains("ajuste") || d.contains("error"))
-      return "Error de digitación";
-
-    return "BANCOLOMBIA".equals(source)
-        ? "Movimiento bancario no registrado en contabilidad"
-        : "Movimiento contable no reflejado en banco";
-  }
 }
@@ -0,0 +1,28 @@
+package com.vengalsas.core.conciliation.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@ConditionalOnProperty(name = "conciliation.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class ArchiveConfig {
+
+  @Value("${conciliation.archive.queue-capacity:8}")
+  private int queueCapacity;
+
+  @Bean(name = "reconciliationArchiveExecutor")
+  public ThreadPoolTaskExecutor reconciliationArchiveExecutor() {
+    // Un solo hilo: las escrituras COPY se serializan y no compiten con las consultas
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(1);
+    executor.setMaxPoolSize(1);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadNamePrefix("reconciliation-archive-");
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    executor.setAwaitTerminationSeconds(60);
+    return executor;
+  }
+}
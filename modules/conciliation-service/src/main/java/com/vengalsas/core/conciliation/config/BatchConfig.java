@@ -0,0 +1,27 @@
+package com.vengalsas.core.conciliation.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class BatchConfig {
+
+  @Value("${conciliation.batch.concurrency:4}")
+  private int concurrency;
+
+  @Value("${conciliation.batch.queue-capacity:500}")
+  private int queueCapacity;
+
+  @Bean(name = "reconciliationBatchExecutor")
+  public ThreadPoolTaskExecutor reconciliationBatchExecutor() {
+    // Compartido por todos los lotes: limita las cuentas que se concilian a la vez en el servicio
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(concurrency);
+    executor.setMaxPoolSize(concurrency);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadNamePrefix("reconciliation-batch-");
+    return executor;
+  }
+}
@@ -0,0 +1,21 @@
+package com.vengalsas.core.conciliation.config;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MatchingConfig {
+
+  @Value("${conciliation.matching.parallel.parallelism:0}")
+  private int parallelism;
+
+  @Bean(name = "reconciliationForkJoinPool", destroyMethod = "shutdown")
+  public ForkJoinPool reconciliationForkJoinPool() {
+    // 0 = un hilo por núcleo disponible
+    int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    return new ForkJoinPool(threads);
+  }
+}
@@ -0,0 +1,38 @@
+package com.vengalsas.core.conciliation.config;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vengalsas.core.conciliation.infrastructure.metrics.ReconciliationMetrics;
+import com.vengalsas.core.conciliation.web.dto.ReconciliationResponseDTO;
+
+@Configuration
+public class MetricsConfig {
+
+  // Reemplaza el convertidor JSON de Spring Boot para medir la escritura de las respuestas de conciliación
+  @Bean
+  public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+      ReconciliationMetrics metrics) {
+    return new MappingJackson2HttpMessageConverter(objectMapper) {
+      @Override
+      protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        if (!(object instanceof ReconciliationResponseDTO)) {
+          super.writeInternal(object, type, outputMessage);
+          return;
+        }
+        long start = System.nanoTime();
+        try {
+          super.writeInternal(object, type, outputMessage);
+        } finally {
+          metrics.recordSerialization("json", System.nanoTime() - start);
+        }
+      }
+    };
+  }
+}
@@ -0,0 +1,38 @@
+package com.vengalsas.core.conciliation.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableScheduling
+public class ReconciliationJobConfig {
+
+  @Value("${conciliation.jobs.threads:2}")
+  private int threads;
+
+  @Value("${conciliation.jobs.queue-capacity:20}")
+  private int queueCapacity;
+
+  @Bean(name = "reconciliationJobExecutor")
+  public ThreadPoolTaskExecutor reconciliationJobExecutor() {
+    // Pool fijo con cola acotada; al llenarse la cola se rechaza (AbortPolicy)
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(threads);
+    executor.setMaxPoolSize(threads);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadNamePrefix("reconciliation-job-");
+    return executor;
+  }
+
+  @Bean(name = "reconciliationJobEventsExecutor")
+  public SimpleAsyncTaskExecutor reconciliationJobEventsExecutor() {
+    // Un hilo virtual por entrega a un suscriptor: un cliente SSE lento sólo bloquea el suyo
+    SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("reconciliation-job-events-");
+    executor.setVirtualThreads(true);
+    return executor;
+  }
+}
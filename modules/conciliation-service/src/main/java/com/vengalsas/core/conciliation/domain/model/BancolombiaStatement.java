@@ -3,11 +3,15 @@ package com.vengalsas.core.conciliation.domain.model;
 import java.math.BigDecimal;
 import java.util.List;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class BancolombiaStatement {
   private List<Transaction> transactions;
   private BigDecimal startingBalance;
@@ -0,0 +1,88 @@
+package com.vengalsas.core.conciliation.domain.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Movimiento neto por día de cada fuente, para ubicar la fecha en que el
+ * saldo de Linix y el del extracto se separan. Acumular es O(1) por fila; la
+ * serie ordena sólo los días distintos y la recorre una vez sumando
+ * prefijos desde el saldo inicial del extracto. Las filas sin fecha no entran
+ * en la serie.
+ */
+public final class DailyBalances {
+
+  private final Map<LocalDate, Day> days = new HashMap<>();
+
+  public static DailyBalances of(List<Transaction> linix, List<Transaction> banco) {
+    DailyBalances balances = new DailyBalances();
+    for (Transaction tx : linix)
+      balances.add(SourceSystem.LINIX, tx);
+    for (Transaction tx : banco)
+      balances.add(SourceSystem.BANCOLOMBIA, tx);
+    return balances;
+  }
+
+  public void add(SourceSystem source, Transaction tx) {
+    add(source, tx.getDate(), tx.getTransactionType(), tx.getAmount());
+  }
+
+  public void add(SourceSystem source, LocalDate date, TransactionType type, BigDecimal amount) {
+    if (date == null)
+      return;
+    Day day = days.computeIfAbsent(date, d -> new Day());
+    (source == SourceSystem.LINIX ? day.linix : day.banco).add(type, amount);
+  }
+
+  /**
+   * Un punto por cada día en que cambia la diferencia entre los saldos
+   * acumulados (extracto menos Linix): el primero es donde empiezan a
+   * separarse y uno con diferencia cero es donde vuelven a cuadrar. En el
+   * extracto los abonos suman; en Linix también, salvo con
+   * {@code mirroredTypes}, donde un débito Linix es un abono del banco (la
+   * cuenta de bancos del mayor) y son los débitos los que suman.
+   */
+  public List<Divergence> divergences(BigDecimal startingBalance, boolean mirroredTypes) {
+    LocalDate[] dates = days.keySet().toArray(new LocalDate[0]);
+    Arrays.sort(dates);
+
+    List<Divergence> points = new ArrayList<>();
+    BigDecimal linix = startingBalance;
+    BigDecimal banco = startingBalance;
+    BigDecimal previousDelta = BigDecimal.ZERO;
+    for (LocalDate date : dates) {
+      Day day = days.get(date);
+      banco = banco.add(day.banco.getCredits()).subtract(day.banco.getDebits());
+      BigDecimal linixNet = day.linix.getCredits().subtract(day.linix.getDebits());
+      linix = linix.add(mirroredTypes ? linixNet.negate() : linixNet);
+
+      BigDecimal delta = banco.subtract(linix);
+      if (delta.compareTo(previousDelta) != 0) {
+        points.add(new Divergence(date, linix, banco, delta, delta.subtract(previousDelta)));
+        previousDelta = delta;
+      }
+    }
+    return points;
+  }
+
+  public int getDays() {
+    return days.size();
+  }
+
+  /**
+   * Saldos al cierre de {@code date}, su diferencia y cuánto cambió ese día.
+   */
+  public record Divergence(LocalDate date, BigDecimal linixBalance, BigDecimal bancoBalance, BigDecimal delta,
+      BigDecimal change) {
+  }
+
+  private static final class Day {
+    private final TransactionTotals linix = new TransactionTotals();
+    private final TransactionTotals banco = new TransactionTotals();
+  }
+}
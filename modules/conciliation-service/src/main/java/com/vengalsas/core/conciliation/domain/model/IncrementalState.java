@@ -0,0 +1,90 @@
+package com.vengalsas.core.conciliation.domain.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+
+/**
+ * Estado de la conciliación incremental de una cuenta: las transacciones que
+ * quedaron sin conciliar y la huella de cada fila ya procesada. Con la huella
+ * se distinguen las filas nuevas de un archivo acumulado del mes sin depender
+ * del orden de las filas. No es seguro para concurrencia; quien lo usa debe
+ * sincronizar sobre la instancia.
+ */
+@Getter
+public class IncrementalState {
+
+  private final String accountKey;
+  private List<Transaction> carriedLinix = new ArrayList<>();
+  private List<Transaction> carriedBancolombia = new ArrayList<>();
+  private final Map<Fingerprint, Integer> seenLinix = new HashMap<>();
+  private final Map<Fingerprint, Integer> seenBancolombia = new HashMap<>();
+  private long matchedTotal;
+  private Instant updatedAt = Instant.now();
+
+  public IncrementalState(String accountKey) {
+    this.accountKey = accountKey;
+  }
+
+  /**
+   * Devuelve las filas de {@code upload} que no se habían visto y las marca
+   * como vistas. Una fila repetida cuenta como nueva sólo si aparece más
+   * veces que en las cargas anteriores.
+   */
+  public List<Transaction> takeNewLinix(List<Transaction> upload) {
+    return takeNew(upload, seenLinix);
+  }
+
+  public List<Transaction> takeNewBancolombia(List<Transaction> upload) {
+    return takeNew(upload, seenBancolombia);
+  }
+
+  public void update(List<Transaction> unmatchedLinix, List<Transaction> unmatchedBancolombia, int matched) {
+    this.carriedLinix = unmatchedLinix;
+    this.carriedBancolombia = unmatchedBancolombia;
+    this.matchedTotal += matched;
+    this.updatedAt = Instant.now();
+  }
+
+  private static List<Transaction> takeNew(List<Transaction> upload, Map<Fingerprint, Integer> seen) {
+    Map<Fingerprint, Integer> inUpload = new HashMap<>();
+    List<Transaction> fresh = new ArrayList<>();
+    LocalDate earliest = null;
+
+    for (Transaction tx : upload) {
+      Fingerprint fingerprint = Fingerprint.of(tx);
+      int occurrence = inUpload.merge(fingerprint, 1, Integer::sum);
+      if (occurrence > seen.getOrDefault(fingerprint, 0)) {
+        seen.put(fingerprint, occurrence);
+        fresh.add(tx);
+      }
+      if (tx.getDate() != null && (earliest == null || tx.getDate().isBefore(earliest)))
+        earliest = tx.getDate();
+    }
+
+    // Las huellas anteriores al archivo actual ya no pueden repetirse: al empezar
+    // un mes nuevo se descartan y sólo queda lo pendiente de conciliar
+    if (earliest != null) {
+      long cutoff = earliest.toEpochDay();
+      seen.keySet().removeIf(fingerprint -> fingerprint.epochDay() < cutoff);
+    }
+    return fresh;
+  }
+
+  private record Fingerprint(long epochDay, BigDecimal amount, TransactionType type, String description) {
+
+    static Fingerprint of(Transaction tx) {
+      return new Fingerprint(
+          tx.getDate() != null ? tx.getDate().toEpochDay() : Long.MIN_VALUE,
+          tx.getAmount() != null ? tx.getAmount().stripTrailingZeros() : null,
+          tx.getTransactionType(),
+          tx.getDescription());
+    }
+  }
+}
@@ -0,0 +1,12 @@
+package com.vengalsas.core.conciliation.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class LinixParseError {
+  private int chunk;
+  private long lineNumber;
+  private String message;
+}
@@ -0,0 +1,15 @@
+package com.vengalsas.core.conciliation.domain.model;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class LinixParseResult {
+  private List<Transaction> transactions;
+  private List<LinixParseError> errors;
+  private long totalLines;
+  private int chunks;
+}
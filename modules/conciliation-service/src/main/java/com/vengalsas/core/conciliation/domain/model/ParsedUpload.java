@@ -0,0 +1,17 @@
+package com.vengalsas.core.conciliation.domain.model;
+
+import java.util.List;
+import java.util.UUID;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ParsedUpload {
+  private UUID runId;
+  private BancolombiaStatement bancolombiaStatement;
+  private List<Transaction> linixTransactions;
+  private long bankReadMillis;
+  private long accountingReadMillis;
+}
@@ -0,0 +1,32 @@
+package com.vengalsas.core.conciliation.domain.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Foto de una conciliación terminada para archivarla. Los resultados se
+ * guardan como arreglos paralelos de índices sobre las listas de
+ * transacciones (-1 = sin contraparte) para no retener un DTO por fila.
+ */
+@Data
+@Builder
+public class ReconciliationRecord {
+  private UUID id;
+  private UUID runId;
+  private Instant createdAt;
+  private String matchingMode;
+  private List<Transaction> linixTransactions;
+  private List<Transaction> bancolombiaTransactions;
+  private int resultCount;
+  private int[] resultLinix;
+  private int[] resultBancolombia;
+  private String[] resultTypes;
+  private int matchedCount;
+  private BigDecimal startingBalance;
+  private BigDecimal endingBalance;
+}
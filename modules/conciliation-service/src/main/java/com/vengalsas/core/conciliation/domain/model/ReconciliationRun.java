@@ -0,0 +1,24 @@
+package com.vengalsas.core.conciliation.domain.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Sesión de un /upload: lo que /reconcile necesita y no viaja en la petición,
+ * es decir los saldos y totales del encabezado del extracto. Las transacciones
+ * de ambos lados las manda el cliente, así que no se guardan.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationRun {
+  private UUID id;
+  private BancolombiaStatement bancolombiaStatement;
+  private Instant createdAt;
+}
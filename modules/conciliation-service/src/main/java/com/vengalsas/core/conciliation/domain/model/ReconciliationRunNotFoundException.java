@@ -0,0 +1,9 @@
+package com.vengalsas.core.conciliation.domain.model;
+
+import java.util.UUID;
+
+public class ReconciliationRunNotFoundException extends RuntimeException {
+  public ReconciliationRunNotFoundException(UUID runId) {
+    super("Conciliación no encontrada o expirada: " + runId);
+  }
+}
@@ -4,11 +4,14 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.UUID;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -17,7 +20,8 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = @Index(name = "idx_transactions_reconciliation",
+    columnList = "reconciliation_id, source, row_index"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -41,4 +45,11 @@ public class Transaction {
   @Enumerated(EnumType.STRING)
   private SourceSystem source;
 
+  // Conciliación archivada y posición de la fila; sólo las escribe el COPY de JdbcReconciliationArchive
+  @JsonIgnore
+  private UUID reconciliationId;
+
+  @JsonIgnore
+  private Integer rowIndex;
+
 }
@@ -0,0 +1,106 @@
+package com.vengalsas.core.conciliation.domain.model;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Débitos y créditos acumulados fila a fila mientras se leen o se emparejan
+ * los movimientos, para no recorrer la lista otra vez al armar el resumen.
+ *
+ * Cada suma es de punto fijo: un entero en unidades de 10^-scale cuya escala
+ * sólo sube cuando llega un monto con más decimales. Si el total no cabe en
+ * un long se continúa en BigDecimal, así que el resultado siempre es exacto.
+ * No es seguro para uso concurrente.
+ */
+public final class TransactionTotals {
+
+  private final FixedPointSum debits = new FixedPointSum();
+  private final FixedPointSum credits = new FixedPointSum();
+  private int debitCount;
+  private int creditCount;
+
+  public static TransactionTotals of(List<Transaction> txs) {
+    TransactionTotals totals = new TransactionTotals();
+    for (Transaction tx : txs)
+      totals.add(tx);
+    return totals;
+  }
+
+  public void add(Transaction tx) {
+    add(tx.getTransactionType(), tx.getAmount());
+  }
+
+  // Sin tipo o sin monto no suma a ningún lado, igual que en el emparejamiento
+  public void add(TransactionType type, BigDecimal amount) {
+    if (type == null || amount == null)
+      return;
+    if (type == TransactionType.DEBIT) {
+      debits.add(amount);
+      debitCount++;
+    } else {
+      credits.add(amount);
+      creditCount++;
+    }
+  }
+
+  public BigDecimal getDebits() {
+    return debits.value();
+  }
+
+  public BigDecimal getCredits() {
+    return credits.value();
+  }
+
+  public BigDecimal getTotal() {
+    return getDebits().add(getCredits());
+  }
+
+  public int getDebitCount() {
+    return debitCount;
+  }
+
+  public int getCreditCount() {
+    return creditCount;
+  }
+
+  private static final class FixedPointSum {
+    // 10^18 es la mayor potencia de 10 que cabe en un long
+    private static final int MAX_SCALE = 18;
+
+    private long units;
+    private int scale;
+    // Distinto de null desde que la suma dejó de caber en un long
+    private BigDecimal overflow;
+
+    void add(BigDecimal amount) {
+      if (overflow == null) {
+        int amountScale = Math.max(amount.scale(), 0);
+        try {
+          if (amountScale > scale) {
+            if (amountScale > MAX_SCALE)
+              throw new ArithmeticException("Escala fuera de rango");
+            units = Math.multiplyExact(units, pow10(amountScale - scale));
+            scale = amountScale;
+          }
+          units = Math.addExact(units, amount.movePointRight(scale).longValueExact());
+          return;
+        } catch (ArithmeticException e) {
+          // units y scale siguen siendo consistentes: el valor acumulado no se perdió
+          overflow = BigDecimal.valueOf(units, scale);
+        }
+      }
+      overflow = overflow.add(amount);
+    }
+
+    BigDecimal value() {
+      return overflow != null ? overflow : BigDecimal.valueOf(units, scale);
+    }
+
+    private static long pow10(int exponent) {
+      long result = 1;
+      for (int i = 0; i < exponent; i++)
+        result *= 10;
+      return result;
+    }
+  }
+}
@@ -0,0 +1,12 @@
+package com.vengalsas.core.conciliation.domain.repository;
+
+import com.vengalsas.core.conciliation.domain.model.IncrementalState;
+
+public interface IncrementalStateStore {
+  /**
+   * Devuelve el estado de la cuenta, creándolo vacío si no existe.
+   */
+  IncrementalState getOrCreate(String accountKey);
+
+  boolean reset(String accountKey);
+}
@@ -0,0 +1,14 @@
+package com.vengalsas.core.conciliation.domain.repository;
+
+import com.vengalsas.core.conciliation.domain.model.ReconciliationRecord;
+
+public interface ReconciliationArchive {
+  /**
+   * Encola el guardado de la conciliación; no espera a que termine.
+   */
+  void archive(ReconciliationRecord record);
+
+  default boolean isEnabled() {
+    return true;
+  }
+}
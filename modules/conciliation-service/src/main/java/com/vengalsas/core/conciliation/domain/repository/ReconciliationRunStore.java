@@ -0,0 +1,12 @@
+package com.vengalsas.core.conciliation.domain.repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import com.vengalsas.core.conciliation.domain.model.ReconciliationRun;
+
+public interface ReconciliationRunStore {
+  ReconciliationRun save(ReconciliationRun run);
+
+  Optional<ReconciliationRun> findById(UUID id);
+}
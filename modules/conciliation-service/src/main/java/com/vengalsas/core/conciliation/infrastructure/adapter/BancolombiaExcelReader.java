@@ -2,43 +2,262 @@ package com.vengalsas.core.conciliation.infrastructure.adapter;
 
 import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
 
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.FileMagic;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.DateUtil;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
 import org.springframework.stereotype.Component;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
 
 import com.vengalsas.core.conciliation.domain.model.BancolombiaStatement;
 import com.vengalsas.core.conciliation.domain.model.SourceSystem;
 import com.vengalsas.core.conciliation.domain.model.Transaction;
+import com.vengalsas.core.conciliation.domain.model.TransactionTotals;
 import com.vengalsas.core.conciliation.domain.model.TransactionType;
+import com.vengalsas.core.conciliation.infrastructure.metrics.SkippedRows;
+
+import lombok.extern.slf4j.Slf4j;
 
 @Component
+@Slf4j
 public class BancolombiaExcelReader {
 
   private static final int HEADER_ROW_INDEX = 13; // Fila 14 en Excel (0-based)
+  private static final int BALANCE_FIRST_ROW = 8; // Filas 9 a 13 en Excel
+  private static final int BALANCE_LAST_ROW = 12;
+  private static final int DATE_COLUMN = 0;
+  private static final int DESCRIPTION_COLUMN = 1;
+  private static final int AMOUNT_COLUMN = 4;
   private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("d/M/yyyy");
 
   public BancolombiaStatement read(InputStream inputStream) throws Exception {
     List<Transaction> transactions = new ArrayList<>();
+    BancolombiaStatement statement = read(inputStream, transactions::add);
+    statement.setTransactions(transactions);
+    return statement;
+  }
+
+  /**
+   * Lee el extracto en streaming y entrega cada movimiento a {@code sink} a
+   * medida que se analiza. El estado devuelto trae sólo los saldos del
+   * encabezado; la lista de transacciones queda vacía.
+   */
+  public BancolombiaStatement read(InputStream inputStream, Consumer<Transaction> sink) throws Exception {
+    // El .xlsx es un zip: se copia a disco para que POI lo abra con ZipFile y no lo cargue en memoria
+    Path tempFile = Files.createTempFile("bancolombia-", ".xlsx");
+    try {
+      Files.copy(inputStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+      return read(tempFile, sink);
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  /**
+   * Los abonos y cargos de las filas se suman al vuelo y se comparan con los
+   * totales del encabezado; si no cuadran se registra una advertencia.
+   */
+  public BancolombiaStatement read(Path file, Consumer<Transaction> sink) throws Exception {
+    TransactionTotals totals = new TransactionTotals();
+    BancolombiaStatement statement = readStatement(file, tx -> {
+      totals.add(tx);
+      sink.accept(tx);
+    });
+    checkTotals(statement, totals);
+    return statement;
+  }
+
+  private BancolombiaStatement readStatement(Path file, Consumer<Transaction> sink) throws Exception {
+    if (FileMagic.valueOf(file.toFile()) != FileMagic.OOXML) {
+      // .xls (OLE2) no tiene modelo SAX equivalente; se usa el modelo completo
+      return readWorkbook(file, sink);
+    }
+
+    OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ);
+    try {
+      XSSFReader reader = new XSSFReader(pkg);
+      reader.setUseReadOnlySharedStringsTable(true);
+      SharedStrings strings = reader.getSharedStringsTable();
+      StylesTable styles = reader.getStylesTable();
+
+      Iterator<InputStream> sheets = reader.getSheetsData();
+      if (!sheets.hasNext())
+        return new StatementSheetHandler(sink).toStatement();
+      try (InputStream sheet = sheets.next()) {
+        return parseSheet(sheet, styles, strings, sink);
+      }
+    } finally {
+      pkg.revert();
+    }
+  }
+
+  /**
+   * Lee cada hoja de un libro con una cuenta por hoja como un extracto aparte,
+   * en el orden del libro y con el nombre de la hoja como llave. Un .xls se
+   * lee como una sola hoja con llave vacía.
+   */
+  public Map<String, BancolombiaStatement> readSheets(InputStream inputStream) throws Exception {
+    Path tempFile = Files.createTempFile("bancolombia-", ".xlsx");
+    try {
+      Files.copy(inputStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+      return readSheets(tempFile);
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  /**
+   * Igual que {@link #readSheets(InputStream)} para un libro que ya está en
+   * disco, sin copiarlo.
+   */
+  public Map<String, BancolombiaStatement> readSheets(Path file) throws Exception {
+    Map<String, BancolombiaStatement> statements = new LinkedHashMap<>();
+    if (FileMagic.valueOf(file.toFile()) != FileMagic.OOXML) {
+      List<Transaction> transactions = new ArrayList<>();
+      BancolombiaStatement statement = read(file, transactions::add);
+      statement.setTransactions(transactions);
+      statements.put("", statement);
+      return statements;
+    }
+
+    OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ);
+    try {
+      XSSFReader reader = new XSSFReader(pkg);
+      reader.setUseReadOnlySharedStringsTable(true);
+      SharedStrings strings = reader.getSharedStringsTable();
+      StylesTable styles = reader.getStylesTable();
+
+      XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+      while (sheets.hasNext()) {
+        try (InputStream sheet = sheets.next()) {
+          statements.put(sheets.getSheetName(), readSheet(sheet, styles, strings));
+        }
+      }
+      return statements;
+    } finally {
+      pkg.revert();
+    }
+  }
+
+  /**
+   * Nombres de las hojas de un libro en disco, en el orden del libro, sin leer
+   * sus filas; un .xls es una sola hoja con nombre vacío, como en
+   * {@link #readSheets(Path)}.
+   */
+  public List<String> sheetNames(Path file) throws Exception {
+    if (FileMagic.valueOf(file.toFile()) != FileMagic.OOXML)
+      return List.of("");
+
+    OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ);
+    try {
+      List<String> names = new ArrayList<>();
+      XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) new XSSFReader(pkg).getSheetsData();
+      while (sheets.hasNext()) {
+        sheets.next().close();
+        names.add(sheets.getSheetName());
+      }
+      return names;
+    } finally {
+      pkg.revert();
+    }
+  }
+
+  /**
+   * Lee sólo la hoja {@code sheetName} de un libro en disco, igual que la
+   * leería {@link #readSheets(Path)}.
+   *
+   * @throws IllegalArgumentException si el libro no tiene esa hoja
+   */
+  public BancolombiaStatement readSheet(Path file, String sheetName) throws Exception {
+    if (FileMagic.valueOf(file.toFile()) != FileMagic.OOXML) {
+      if (!sheetName.isEmpty())
+        throw new IllegalArgumentException("El libro no tiene la hoja " + sheetName);
+      List<Transaction> transactions = new ArrayList<>();
+      BancolombiaStatement statement = read(file, transactions::add);
+      statement.setTransactions(transactions);
+      return statement;
+    }
+
+    OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ);
+    try {
+      XSSFReader reader = new XSSFReader(pkg);
+      reader.setUseReadOnlySharedStringsTable(true);
+      XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+      while (sheets.hasNext()) {
+        try (InputStream sheet = sheets.next()) {
+          if (sheets.getSheetName().equals(sheetName))
+            return readSheet(sheet, reader.getStylesTable(), reader.getSharedStringsTable());
+        }
+      }
+      throw new IllegalArgumentException("El libro no tiene la hoja " + sheetName);
+    } finally {
+      pkg.revert();
+    }
+  }
+
+  // Hoja completa con sus transacciones y los totales del extracto verificados
+  private BancolombiaStatement readSheet(InputStream sheet, StylesTable styles, SharedStrings strings)
+      throws Exception {
+    List<Transaction> transactions = new ArrayList<>();
+    TransactionTotals totals = new TransactionTotals();
+    BancolombiaStatement statement = parseSheet(sheet, styles, strings, tx -> {
+      totals.add(tx);
+      transactions.add(tx);
+    });
+    statement.setTransactions(transactions);
+    checkTotals(statement, totals);
+    return statement;
+  }
+
+  private BancolombiaStatement parseSheet(InputStream sheet, StylesTable styles, SharedStrings strings,
+      Consumer<Transaction> sink) throws Exception {
+    StatementSheetHandler handler = new StatementSheetHandler(sink);
+    XMLReader parser = XMLHelper.newXMLReader();
+    parser.setContentHandler(new XSSFSheetXMLHandler(styles, strings, handler, new StatementDataFormatter(), false));
+    parser.parse(new InputSource(sheet));
+    return handler.toStatement();
+  }
+
+  private BancolombiaStatement readWorkbook(Path file, Consumer<Transaction> sink) throws Exception {
     BigDecimal startingBalance = BigDecimal.ZERO;
     BigDecimal endingBalance = BigDecimal.ZERO;
     BigDecimal totalDebits = BigDecimal.ZERO;
     BigDecimal totalCredits = BigDecimal.ZERO;
 
-    try (Workbook workbook = WorkbookFactory.create(inputStream)) {
+    try (Workbook workbook = WorkbookFactory.create(file.toFile(), null, true)) {
       Sheet sheet = workbook.getSheetAt(0);
 
       // Extraer saldos de las filas superiores
-      for (int i = 8; i <= 12; i++) {
+      for (int i = BALANCE_FIRST_ROW; i <= BALANCE_LAST_ROW; i++) {
         Row row = sheet.getRow(i);
         if (row == null)
           continue;
@@ -63,36 +282,13 @@ public class BancolombiaExcelReader {
         if (row == null)
           continue;
 
-        String rawDate = cellText(row.getCell(0));
-        String description = cellText(row.getCell(1));
-        String amountStr = cellText(row.getCell(4));
-
-        if (rawDate.isEmpty() || description.isEmpty() || amountStr.isEmpty())
-          continue;
-
-        try {
-          LocalDate date = parseDate(rawDate);
-          BigDecimal rawAmount = new BigDecimal(amountStr.replace(",", "").trim());
-          BigDecimal amount = rawAmount.abs();
-          TransactionType type = rawAmount.signum() < 0 ? TransactionType.DEBIT : TransactionType.CREDIT;
-
-          Transaction tx = Transaction.builder()
-              .date(date)
-              .description(description)
-              .amount(amount)
-              .transactionType(type)
-              .source(SourceSystem.BANCOLOMBIA)
-              .build();
-
-          transactions.add(tx);
-        } catch (Exception e) {
-          System.err.println("[WARN] Error parsing row " + i + ": " + e.getMessage());
-        }
+        emitRow(i, cellText(row.getCell(DATE_COLUMN)), cellText(row.getCell(DESCRIPTION_COLUMN)),
+            cellText(row.getCell(AMOUNT_COLUMN)), sink);
       }
     }
 
     return BancolombiaStatement.builder()
-        .transactions(transactions)
+        .transactions(List.of())
         .startingBalance(startingBalance)
         .endingBalance(endingBalance)
         .totalCredits(totalCredits)
@@ -100,6 +296,56 @@ public class BancolombiaExcelReader {
         .build();
   }
 
+  /**
+   * Compara los totales del encabezado con las filas del extracto, como al
+   * leerlo; sirve para los extractos que no se vuelven a leer, como los que
+   * salen de la caché.
+   */
+  public void checkTotals(BancolombiaStatement statement) {
+    checkTotals(statement, TransactionTotals.of(statement.getTransactions()));
+  }
+
+  private void checkTotals(BancolombiaStatement statement, TransactionTotals totals) {
+    BigDecimal creditDiff = statement.getTotalCredits().subtract(totals.getCredits());
+    BigDecimal debitDiff = statement.getTotalDebits().subtract(totals.getDebits());
+    if (creditDiff.signum() != 0 || debitDiff.signum() != 0) {
+      log.warn("Extracto descuadrado: total abonos {} vs {} en {} filas, total cargos {} vs {} en {} filas",
+          statement.getTotalCredits(), totals.getCredits(), totals.getCreditCount(),
+          statement.getTotalDebits(), totals.getDebits(), totals.getDebitCount());
+    }
+  }
+
+  private void emitRow(int rowIndex, String rawDate, String description, String amountStr,
+      Consumer<Transaction> sink) {
+    if (rawDate.isEmpty() || description.isEmpty() || amountStr.isEmpty()) {
+      // Las filas totalmente vacías no cuentan: son relleno de la hoja, no movimientos
+      if (!rawDate.isEmpty() || !description.isEmpty() || !amountStr.isEmpty())
+        SkippedRows.record(SourceSystem.BANCOLOMBIA, SkippedRows.INCOMPLETE, 1);
+      return;
+    }
+
+    Transaction tx;
+    try {
+      LocalDate date = parseDate(rawDate);
+      BigDecimal rawAmount = new BigDecimal(amountStr.replace(",", "").trim());
+      BigDecimal amount = rawAmount.abs();
+      TransactionType type = rawAmount.signum() < 0 ? TransactionType.DEBIT : TransactionType.CREDIT;
+
+      tx = Transaction.builder()
+          .date(date)
+          .description(description)
+          .amount(amount)
+          .transactionType(type)
+          .source(SourceSystem.BANCOLOMBIA)
+          .build();
+    } catch (Exception e) {
+      log.warn("Fila {} ignorada por error de formato: {}", rowIndex, e.getMessage());
+      SkippedRows.record(SourceSystem.BANCOLOMBIA, SkippedRows.FORMAT_ERROR, 1);
+      return;
+    }
+    sink.accept(tx);
+  }
+
   private String cellText(Cell cell) {
     if (cell == null)
       return "";
@@ -131,22 +377,24 @@ public class BancolombiaExcelReader {
     // 1. Buscar en celda de abajo
     if (sheet.getRow(rowIndex + 1) != null) {
       Cell below = sheet.getRow(rowIndex + 1).getCell(colIndex);
-      try {
-        String text = cellText(below).replace(",", "").trim();
-        return new BigDecimal(text);
-      } catch (Exception ignored) {
-      }
+      BigDecimal value = parseAmount(cellText(below));
+      if (value != null)
+        return value;
     }
 
     // 2. Fallback: celda a la derecha
-    Cell right = row.getCell(colIndex + 1);
+    BigDecimal value = parseAmount(cellText(row.getCell(colIndex + 1)));
+    return value != null ? value : BigDecimal.ZERO;
+  }
+
+  private static BigDecimal parseAmount(String text) {
+    if (text == null)
+      return null;
     try {
-      String text = cellText(right).replace(",", "").trim();
-      return new BigDecimal(text);
+      return new BigDecimal(text.replace(",", "").trim());
     } catch (Exception ignored) {
+      return null;
     }
-
-    return BigDecimal.ZERO;
   }
 
   private LocalDate parseDate(String raw) {
@@ -156,4 +404,153 @@ public class BancolombiaExcelReader {
     int year = (parts.length > 2) ? Integer.parseInt(parts[2]) : LocalDate.now().getYear();
     return LocalDate.of(year, month, day);
   }
+
+  private enum BalanceField {
+    STARTING, CREDITS, DEBITS, ENDING;
+
+    static BalanceField fromLabel(String text) {
+      String val = text.toLowerCase();
+      if (val.contains("saldo anterior"))
+        return STARTING;
+      if (val.contains("total abonos"))
+        return CREDITS;
+      if (val.contains("total cargos"))
+        return DEBITS;
+      if (val.contains("saldo actual"))
+        return ENDING;
+      return null;
+    }
+  }
+
+  // Etiqueta de saldo encontrada en el encabezado; su valor está abajo o, en su defecto, a la derecha
+  private static final class BalanceLabel {
+    private final BalanceField field;
+    private final int row;
+    private final int column;
+    private String below;
+    private String right;
+
+    BalanceLabel(BalanceField field, int row, int column) {
+      this.field = field;
+      this.row = row;
+      this.column = column;
+    }
+
+    BigDecimal resolve() {
+      BigDecimal value = parseAmount(below);
+      if (value == null)
+        value = parseAmount(right);
+      return value != null ? value : BigDecimal.ZERO;
+    }
+  }
+
+  /**
+   * Recibe las celdas del XML de la hoja en orden de documento. Los saldos del
+   * encabezado y los movimientos se extraen en una sola pasada y sólo se
+   * retiene la fila actual.
+   */
+  private final class StatementSheetHandler implements SheetContentsHandler {
+    private final Consumer<Transaction> sink;
+    private final List<BalanceLabel> labels = new ArrayList<>();
+
+    private int currentRow = -1;
+    private int nextColumn;
+    private String rawDate = "";
+    private String description = "";
+    private String amount = "";
+
+    StatementSheetHandler(Consumer<Transaction> sink) {
+      this.sink = sink;
+    }
+
+    @Override
+    public void startRow(int rowNum) {
+      currentRow = rowNum;
+      nextColumn = 0;
+      rawDate = "";
+      description = "";
+      amount = "";
+    }
+
+    @Override
+    public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+      int column = cellReference != null ? new CellReference(cellReference).getCol() : nextColumn;
+      nextColumn = column + 1;
+      String text = formattedValue != null ? formattedValue.trim() : "";
+
+      if (currentRow <= HEADER_ROW_INDEX) {
+        captureBalance(column, text);
+        return;
+      }
+
+      switch (column) {
+        case DATE_COLUMN -> rawDate = text;
+        case DESCRIPTION_COLUMN -> description = text;
+        case AMOUNT_COLUMN -> amount = text;
+        default -> {
+        }
+      }
+    }
+
+    @Override
+    public void endRow(int rowNum) {
+      if (Thread.currentThread().isInterrupted())
+        throw new CancellationException("Lectura del extracto Bancolombia cancelada");
+      if (rowNum > HEADER_ROW_INDEX)
+        emitRow(rowNum, rawDate, description, amount, sink);
+    }
+
+    private void captureBalance(int column, String text) {
+      for (BalanceLabel label : labels) {
+        if (label.row == currentRow && label.column + 1 == column)
+          label.right = text;
+        else if (label.row + 1 == currentRow && label.column == column)
+          label.below = text;
+      }
+
+      if (currentRow >= BALANCE_FIRST_ROW && currentRow <= BALANCE_LAST_ROW) {
+        BalanceField field = BalanceField.fromLabel(text);
+        if (field != null)
+          labels.add(new BalanceLabel(field, currentRow, column));
+      }
+    }
+
+    BancolombiaStatement toStatement() {
+      BigDecimal startingBalance = BigDecimal.ZERO;
+      BigDecimal endingBalance = BigDecimal.ZERO;
+      BigDecimal totalDebits = BigDecimal.ZERO;
+      BigDecimal totalCredits = BigDecimal.ZERO;
+
+      // Mismo orden que el recorrido por filas: si una etiqueta se repite gana la última
+      for (BalanceLabel label : labels) {
+        BigDecimal value = label.resolve();
+        switch (label.field) {
+          case STARTING -> startingBalance = value;
+          case CREDITS -> totalCredits = value;
+          case DEBITS -> totalDebits = value;
+          case ENDING -> endingBalance = value;
+        }
+      }
+
+      return BancolombiaStatement.builder()
+          .transactions(List.of())
+          .startingBalance(startingBalance)
+          .endingBalance(endingBalance)
+          .totalCredits(totalCredits)
+          .totalDebits(totalDebits)
+          .build();
+    }
+  }
+
+  // Formatea fechas como d/M/yyyy y números en notación plana, igual que cellText
+  private static final class StatementDataFormatter extends DataFormatter {
+    @Override
+    public String formatRawCellContents(double value, int formatIndex, String formatString,
+        boolean use1904Windowing) {
+      if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+        return DateUtil.getLocalDateTime(value, use1904Windowing).toLocalDate().format(DATE_FORMATTER);
+      }
+      return BigDecimal.valueOf(value).toPlainString();
+    }
+  }
 }
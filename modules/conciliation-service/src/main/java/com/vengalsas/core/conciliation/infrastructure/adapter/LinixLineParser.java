@@ -0,0 +1,202 @@
+package com.vengalsas.core.conciliation.infrastructure.adapter;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import com.vengalsas.core.conciliation.domain.model.SourceSystem;
+import com.vengalsas.core.conciliation.domain.model.Transaction;
+import com.vengalsas.core.conciliation.domain.model.TransactionType;
+
+/**
+ * Analiza una línea del export Linix directamente sobre los bytes (ISO-8859-1,
+ * un byte por carácter). Sólo ubica los tabuladores y decodifica las columnas
+ * de fecha (11), descripción (15), débito (17) y crédito (18).
+ */
+final class LinixLineParser {
+
+  static final int DATE_FIELD = 11;
+  static final int DESCRIPTION_FIELD = 15;
+  static final int DEBIT_FIELD = 17;
+  static final int CREDIT_FIELD = 18;
+  static final int MIN_FIELDS = 19;
+
+  private static final byte TAB = '\t';
+  private static final byte[] PREFIX = "Concepto".getBytes(StandardCharsets.ISO_8859_1);
+
+  private final int[] fieldStart = new int[CREDIT_FIELD + 1];
+  private final int[] fieldEnd = new int[CREDIT_FIELD + 1];
+
+  /**
+   * Devuelve la transacción de la línea {@code [start, end)} o {@code null} si
+   * la línea no es un movimiento. Lanza {@link IllegalArgumentException} si la
+   * línea es un movimiento con formato inválido.
+   */
+  Transaction parse(ByteBuffer buffer, int start, int end) {
+    if (!startsWithPrefix(buffer, start, end))
+      return null;
+
+    // Igual que String.split: los campos vacíos al final no cuentan, así que se
+    // exige algún campo no vacío en la posición 18 o posterior
+    int field = 0;
+    int fieldBegin = start;
+    boolean hasTab = false;
+    boolean tailHasContent = false;
+    for (int i = start; i <= end; i++) {
+      if (i < end && buffer.get(i) != TAB)
+        continue;
+
+      if (i < end)
+        hasTab = true;
+      if (field <= CREDIT_FIELD) {
+        fieldStart[field] = fieldBegin;
+        fieldEnd[field] = i;
+      }
+      if (field >= CREDIT_FIELD && i > fieldBegin)
+        tailHasContent = true;
+      field++;
+      fieldBegin = i + 1;
+    }
+
+    if (!hasTab || field < MIN_FIELDS || !tailHasContent)
+      return null;
+
+    LocalDate date = parseDate(buffer, fieldStart[DATE_FIELD], fieldEnd[DATE_FIELD]);
+    BigDecimal debit = parseAmount(buffer, fieldStart[DEBIT_FIELD], fieldEnd[DEBIT_FIELD]);
+    BigDecimal credit = parseAmount(buffer, fieldStart[CREDIT_FIELD], fieldEnd[CREDIT_FIELD]);
+
+    BigDecimal amount;
+    TransactionType type;
+    if (debit.signum() > 0) {
+      amount = debit;
+      type = TransactionType.DEBIT;
+    } else if (credit.signum() > 0) {
+      amount = credit;
+      type = TransactionType.CREDIT;
+    } else {
+      return null; // Transacción sin valor monetario válido
+    }
+
+    return Transaction.builder()
+        .date(date)
+        .description(decode(buffer, fieldStart[DESCRIPTION_FIELD], fieldEnd[DESCRIPTION_FIELD]))
+        .amount(amount)
+        .transactionType(type)
+        .source(SourceSystem.LINIX)
+        .build();
+  }
+
+  static String decode(ByteBuffer buffer, int start, int end) {
+    int from = trimStart(buffer, start, end);
+    int to = trimEnd(buffer, from, end);
+    char[] chars = new char[to - from];
+    for (int i = from; i < to; i++)
+      chars[i - from] = (char) (buffer.get(i) & 0xFF);
+    return new String(chars);
+  }
+
+  /**
+   * MM/dd/yyyy resuelto como el {@code DateTimeFormatter} (SMART) que usaba el
+   * lector: un día que no existe en el mes se lleva al último día del mes
+   * (02/30 es 02/28), pero un mes fuera de 1-12 o un día fuera de 1-31 es
+   * error de formato.
+   */
+  private static LocalDate parseDate(ByteBuffer buffer, int start, int end) {
+    int from = trimStart(buffer, start, end);
+    int to = trimEnd(buffer, from, end);
+    if (to - from != 10 || buffer.get(from + 2) != '/' || buffer.get(from + 5) != '/')
+      throw new IllegalArgumentException("Fecha inválida: " + decode(buffer, start, end));
+
+    int month = digits(buffer, from, from + 2);
+    int day = digits(buffer, from + 3, from + 5);
+    int year = digits(buffer, from + 6, from + 10);
+    if (month < 1 || month > 12 || day < 1 || day > 31 || year < 1)
+      throw new IllegalArgumentException("Fecha inválida: " + decode(buffer, start, end));
+    YearMonth yearMonth = YearMonth.of(year, month);
+    return yearMonth.atDay(Math.min(day, yearMonth.lengthOfMonth()));
+  }
+
+  /**
+   * Convierte un monto con separador de miles "," y punto decimal sin pasar por
+   * String. Formatos poco comunes (exponentes, etc.) caen a {@link BigDecimal}.
+   */
+  private static BigDecimal parseAmount(ByteBuffer buffer, int start, int end) {
+    int from = trimStart(buffer, start, end);
+    int to = trimEnd(buffer, from, end);
+    if (from == to)
+      return BigDecimal.ZERO;
+
+    boolean negative = false;
+    int i = from;
+    byte first = buffer.get(i);
+    if (first == '-' || first == '+') {
+      negative = first == '-';
+      i++;
+    }
+
+    long unscaled = 0;
+    int scale = -1;
+    int digits = 0;
+    for (; i < to; i++) {
+      byte b = buffer.get(i);
+      if (b >= '0' && b <= '9') {
+        if (digits >= 18)
+          return slowAmount(buffer, from, to);
+        unscaled = unscaled * 10 + (b - '0');
+        digits++;
+        if (scale >= 0)
+          scale++;
+      } else if (b == ',') {
+        continue;
+      } else if (b == '.' && scale < 0) {
+        scale = 0;
+      } else {
+        return slowAmount(buffer, from, to);
+      }
+    }
+    if (digits == 0)
+      throw new IllegalArgumentException("Monto inválido: " + decode(buffer, from, to));
+
+    return BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0));
+  }
+
+  private static BigDecimal slowAmount(ByteBuffer buffer, int from, int to) {
+    return new BigDecimal(decode(buffer, from, to).replace(",", ""));
+  }
+
+  private static int digits(ByteBuffer buffer, int from, int to) {
+    int value = 0;
+    for (int i = from; i < to; i++) {
+      int d = buffer.get(i) - '0';
+      if (d < 0 || d > 9)
+        throw new IllegalArgumentException("Fecha inválida: " + decode(buffer, from, to));
+      value = value * 10 + d;
+    }
+    return value;
+  }
+
+  private static boolean startsWithPrefix(ByteBuffer buffer, int start, int end) {
+    if (end - start < PREFIX.length)
+      return false;
+    for (int i = 0; i < PREFIX.length; i++) {
+      if (buffer.get(start + i) != PREFIX[i])
+        return false;
+    }
+    return true;
+  }
+
+  // Igual que String.trim: descarta caracteres <= ' '
+  private static int trimStart(ByteBuffer buffer, int start, int end) {
+    while (start < end && (buffer.get(start) & 0xFF) <= ' ')
+      start++;
+    return start;
+  }
+
+  private static int trimEnd(ByteBuffer buffer, int start, int end) {
+    while (end > start && (buffer.get(end - 1) & 0xFF) <= ' ')
+      end--;
+    return end;
+  }
+}
@@ -0,0 +1,137 @@
+package com.vengalsas.core.conciliation.infrastructure.adapter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+
+import com.vengalsas.core.conciliation.domain.model.SourceSystem;
+import com.vengalsas.core.conciliation.domain.model.Transaction;
+import com.vengalsas.core.conciliation.infrastructure.metrics.SkippedRows;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Recorre el export Linix por bloques de bytes y entrega una transacción por
+ * cada línea válida, sin materializar la línea como String. Es secuencial y
+ * perezoso: el consumidor empieza a recibir filas antes de terminar la lectura.
+ */
+@Slf4j
+final class LinixLineSpliterator implements Spliterator<Transaction> {
+
+  private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+  private final InputStream in;
+  private final LinixLineParser parser = new LinixLineParser();
+
+  private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+  private ByteBuffer view = ByteBuffer.wrap(buffer);
+  private int position;
+  private int limit;
+  private boolean eof;
+  private long lineNumber;
+
+  LinixLineSpliterator(InputStream in) {
+    this.in = in;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super Transaction> action) {
+    while (true) {
+      int lineEnd = nextTerminator();
+      if (lineEnd < 0) {
+        if (!eof) {
+          fill();
+          continue;
+        }
+        if (position >= limit)
+          return false;
+        lineEnd = limit;
+      } else if (buffer[lineEnd] == '\r' && lineEnd + 1 == limit && !eof) {
+        // Puede venir un '\n' en el siguiente bloque; se lee antes de cortar la línea
+        fill();
+        continue;
+      }
+
+      int start = position;
+      position = skipTerminator(lineEnd);
+      lineNumber++;
+
+      Transaction tx;
+      try {
+        tx = parser.parse(view, start, lineEnd);
+      } catch (RuntimeException e) {
+        log.warn("Línea {} ignorada por error de formato o conversión: {}", lineNumber, e.getMessage());
+        SkippedRows.record(SourceSystem.LINIX, SkippedRows.FORMAT_ERROR, 1);
+        continue;
+      }
+      if (tx != null) {
+        action.accept(tx);
+        return true;
+      }
+    }
+  }
+
+  @Override
+  public Spliterator<Transaction> trySplit() {
+    return null;
+  }
+
+  @Override
+  public long estimateSize() {
+    return Long.MAX_VALUE;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | NONNULL;
+  }
+
+  private int nextTerminator() {
+    for (int i = position; i < limit; i++) {
+      byte b = buffer[i];
+      if (b == '\n' || b == '\r')
+        return i;
+    }
+    return -1;
+  }
+
+  // Igual que BufferedReader.readLine: "\n", "\r" o "\r\n"
+  private int skipTerminator(int lineEnd) {
+    if (lineEnd >= limit)
+      return limit;
+    if (buffer[lineEnd] == '\r' && lineEnd + 1 < limit && buffer[lineEnd + 1] == '\n')
+      return lineEnd + 2;
+    return lineEnd + 1;
+  }
+
+  private void fill() {
+    if (Thread.currentThread().isInterrupted())
+      throw new CancellationException("Lectura del archivo Linix cancelada");
+
+    int pending = limit - position;
+    if (position > 0) {
+      System.arraycopy(buffer, position, buffer, 0, pending);
+    } else if (pending == buffer.length) {
+      // Línea más larga que el bloque actual
+      buffer = Arrays.copyOf(buffer, buffer.length * 2);
+      view = ByteBuffer.wrap(buffer);
+    }
+    position = 0;
+    limit = pending;
+
+    try {
+      int read = in.read(buffer, limit, buffer.length - limit);
+      if (read < 0)
+        eof = true;
+      else
+        limit += read;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -1,20 +1,29 @@
 package com.vengalsas.core.conciliation.infrastructure.adapter;
 
-import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.math.BigDecimal;
-import java.nio.charset.StandardCharsets;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.springframework.stereotype.Component;
 
+import com.vengalsas.core.conciliation.domain.model.LinixParseError;
+import com.vengalsas.core.conciliation.domain.model.LinixParseResult;
 import com.vengalsas.core.conciliation.domain.model.SourceSystem;
 import com.vengalsas.core.conciliation.domain.model.Transaction;
-import com.vengalsas.core.conciliation.domain.model.TransactionType;
+import com.vengalsas.core.conciliation.infrastructure.metrics.SkippedRows;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -22,65 +31,175 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class LinixTxtReader {
 
-  private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+  // Con el umbral paralelo de 4 MB un archivo apenas por encima ya se parte en al menos cuatro bloques
+  private static final long MIN_CHUNK_SIZE = 512L * 1024;
+  private static final long MAX_CHUNK_SIZE = 256L * 1024 * 1024;
 
   public List<Transaction> read(InputStream inputStream) {
+    return read(inputStream, tx -> {
+    });
+  }
+
+  /**
+   * Igual que {@link #read(InputStream)}, avisando a {@code onRow} de cada
+   * movimiento en cuanto se lee, por ejemplo para reportar avance.
+   */
+  public List<Transaction> read(InputStream inputStream, Consumer<Transaction> onRow) {
     List<Transaction> transactions = new ArrayList<>();
 
-    try (BufferedReader reader = new BufferedReader(
-        new InputStreamReader(inputStream, StandardCharsets.ISO_8859_1))) {
-
-      String line;
-      while ((line = reader.readLine()) != null) {
-        if (!line.startsWith("Concepto") || !line.contains("\t"))
-          continue;
-
-        String[] parts = line.split("\t");
-        if (parts.length < 19)
-          continue;
-
-        try {
-          String dateStr = parts[11].trim();
-          String description = parts[15].trim();
-          String debitStr = parts[17].trim().replace(",", "");
-          String creditStr = parts[18].trim().replace(",", "");
-
-          LocalDate date = LocalDate.parse(dateStr, DATE_FORMAT);
-          BigDecimal debit = debitStr.isEmpty() ? BigDecimal.ZERO : new BigDecimal(debitStr);
-          BigDecimal credit = creditStr.isEmpty() ? BigDecimal.ZERO : new BigDecimal(creditStr);
-
-          BigDecimal amount;
-          TransactionType type;
-
-          if (debit.compareTo(BigDecimal.ZERO) > 0) {
-            amount = debit.abs();
-            type = TransactionType.DEBIT;
-          } else if (credit.compareTo(BigDecimal.ZERO) > 0) {
-            amount = credit.abs();
-            type = TransactionType.CREDIT;
-          } else {
-            continue; // Transacción sin valor monetario válido
+    try (InputStream in = inputStream) {
+      new LinixLineSpliterator(in).forEachRemaining(tx -> {
+        transactions.add(tx);
+        onRow.accept(tx);
+      });
+    } catch (Exception e) {
+      log.error("Error al leer el archivo Linix: {}", e.getMessage(), e);
+    }
+
+    return transactions;
+  }
+
+  /**
+   * Flujo perezoso de transacciones; el archivo se va leyendo a medida que se
+   * consume. Cerrar el stream cierra {@code inputStream}.
+   */
+  public Stream<Transaction> stream(InputStream inputStream) {
+    return StreamSupport.stream(spliterator(inputStream), false)
+        .onClose(() -> {
+          try {
+            inputStream.close();
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
           }
+        });
+  }
 
-          Transaction transaction = Transaction.builder()
-              .date(date)
-              .description(description)
-              .amount(amount)
-              .transactionType(type)
-              .source(SourceSystem.LINIX)
-              .build();
+  public Spliterator<Transaction> spliterator(InputStream inputStream) {
+    return new LinixLineSpliterator(inputStream);
+  }
 
-          transactions.add(transaction);
+  /**
+   * Mapea el archivo en memoria, lo divide en bloques alineados a fin de línea
+   * y los analiza en paralelo. Las transacciones conservan el orden del archivo
+   * y los errores se reportan con el número de línea absoluto.
+   */
+  public LinixParseResult readParallel(Path file) throws IOException {
+    return readParallel(file, rows -> {
+    });
+  }
 
-        } catch (Exception e) {
-          log.warn("Línea ignorada por error de formato o conversión: {}", line);
+  /**
+   * Igual que {@link #readParallel(Path)}, avisando a {@code onChunkParsed}
+   * las filas de cada bloque al terminarlo. Se invoca desde varios hilos.
+   */
+  public LinixParseResult readParallel(Path file, LongConsumer onChunkParsed) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      List<long[]> chunks = splitOnLineBoundaries(channel);
+
+      List<ChunkResult> results = IntStream.range(0, chunks.size())
+          .parallel()
+          .mapToObj(i -> {
+            ChunkResult result = parseChunk(channel, i, chunks.get(i)[0], chunks.get(i)[1]);
+            onChunkParsed.accept(result.transactions().size());
+            return result;
+          })
+          .toList();
+
+      List<Transaction> transactions = new ArrayList<>();
+      List<LinixParseError> errors = new ArrayList<>();
+      long linesBefore = 0;
+      for (ChunkResult result : results) {
+        transactions.addAll(result.transactions());
+        for (LinixParseError error : result.errors()) {
+          error.setLineNumber(linesBefore + error.getLineNumber());
+          errors.add(error);
         }
+        linesBefore += result.lines();
       }
+      SkippedRows.record(SourceSystem.LINIX, SkippedRows.FORMAT_ERROR, errors.size());
+
+      return LinixParseResult.builder()
+          .transactions(transactions)
+          .errors(errors)
+          .totalLines(linesBefore)
+          .chunks(chunks.size())
+          .build();
+    }
+  }
 
-    } catch (Exception e) {
-      log.error("Error al leer el archivo Linix: {}", e.getMessage(), e);
+  private List<long[]> splitOnLineBoundaries(FileChannel channel) throws IOException {
+    long size = channel.size();
+    int workers = Math.max(1, Runtime.getRuntime().availableProcessors());
+    long chunkSize = Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, size / (workers * 4L)));
+
+    List<long[]> chunks = new ArrayList<>();
+    long start = 0;
+    while (start < size) {
+      long end = Math.min(size, start + chunkSize);
+      if (end < size)
+        end = nextLineStart(channel, end, size);
+      chunks.add(new long[] { start, end });
+      start = end;
     }
+    return chunks;
+  }
 
-    return transactions;
+  // Avanza hasta el byte siguiente al próximo '\n' para no partir una línea
+  private long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+    ByteBuffer probe = ByteBuffer.allocate(8 * 1024);
+    long position = from;
+    while (position < size) {
+      probe.clear();
+      int read = channel.read(probe, position);
+      if (read <= 0)
+        break;
+      for (int i = 0; i < read; i++) {
+        if (probe.get(i) == '\n')
+          return position + i + 1;
+      }
+      position += read;
+    }
+    return size;
+  }
+
+  private ChunkResult parseChunk(FileChannel channel, int chunk, long start, long end) {
+    MappedByteBuffer buffer;
+    try {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    LinixLineParser parser = new LinixLineParser();
+    List<Transaction> transactions = new ArrayList<>();
+    List<LinixParseError> errors = new ArrayList<>();
+    int limit = buffer.limit();
+    long lines = 0;
+    int position = 0;
+
+    while (position < limit) {
+      int lineEnd = position;
+      while (lineEnd < limit && buffer.get(lineEnd) != '\n' && buffer.get(lineEnd) != '\r')
+        lineEnd++;
+
+      lines++;
+      try {
+        Transaction tx = parser.parse(buffer, position, lineEnd);
+        if (tx != null)
+          transactions.add(tx);
+      } catch (RuntimeException e) {
+        errors.add(new LinixParseError(chunk, lines, e.getMessage()));
+      }
+
+      if (lineEnd < limit && buffer.get(lineEnd) == '\r' && lineEnd + 1 < limit && buffer.get(lineEnd + 1) == '\n')
+        position = lineEnd + 2;
+      else
+        position = lineEnd + 1;
+    }
+
+    return new ChunkResult(transactions, errors, lines);
+  }
+
+  private record ChunkResult(List<Transaction> transactions, List<LinixParseError> errors, long lines) {
   }
 }
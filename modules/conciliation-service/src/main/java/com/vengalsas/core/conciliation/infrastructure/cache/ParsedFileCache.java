@@ -0,0 +1,350 @@
+package com.vengalsas.core.conciliation.infrastructure.cache;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vengalsas.core.conciliation.domain.model.BancolombiaStatement;
+import com.vengalsas.core.conciliation.domain.model.Transaction;
+import com.vengalsas.core.conciliation.infrastructure.metrics.SkippedRows;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Caché de archivos ya analizados indexada por el SHA-256 de su contenido.
+ * El nivel en memoria se limita por número de transacciones y descarta la
+ * entrada menos usada recientemente; si hay directorio configurado, las
+ * entradas descartadas pasan a disco como JSON y se recuperan de ahí.
+ *
+ * El hash se calcula mientras el lector consume el archivo, así que uno nuevo
+ * se lee una sola vez. Antes de analizar se compara una huella barata (tamaño
+ * y primeros 64 KB): sólo si alguna entrada la comparte se hace una pasada de
+ * hash para buscarla. Cada entrada guarda las filas que el lector descartó,
+ * que se vuelven a contar en cada acierto.
+ */
+@Component
+@Slf4j
+public class ParsedFileCache {
+
+  private static final TypeReference<List<Transaction>> TRANSACTION_LIST = new TypeReference<>() {
+  };
+  private static final int DIGEST_BUFFER_SIZE = 64 * 1024;
+  private static final int FINGERPRINT_BYTES = 64 * 1024;
+  private static final int FINGERPRINT_HEX_LENGTH = 16;
+
+  private final boolean enabled;
+  private final long maxRows;
+  private final Path diskDir;
+  private final long diskMaxBytes;
+  private final ObjectMapper objectMapper;
+
+  private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  // Las mismas llaves en orden, para buscar por el prefijo de la huella
+  private final NavigableSet<String> keys = new TreeSet<>();
+  private long cachedRows;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong diskHits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  public ParsedFileCache(
+      ObjectMapper objectMapper,
+      @Value("${conciliation.parse-cache.enabled:true}") boolean enabled,
+      @Value("${conciliation.parse-cache.max-rows:1000000}") long maxRows,
+      @Value("${conciliation.parse-cache.disk-dir:}") String diskDir,
+      @Value("${conciliation.parse-cache.disk-max-bytes:1073741824}") long diskMaxBytes) throws IOException {
+    this.objectMapper = objectMapper;
+    this.enabled = enabled;
+    this.maxRows = maxRows;
+    this.diskMaxBytes = diskMaxBytes;
+    this.diskDir = diskDir == null || diskDir.isBlank() ? null : Files.createDirectories(Path.of(diskDir));
+  }
+
+  /**
+   * Lector que recibe el contenido del archivo. Si no lo consume completo
+   * (por ejemplo porque lee el archivo por su cuenta), la caché lee el resto
+   * al terminar sólo para completar el hash.
+   */
+  @FunctionalInterface
+  public interface Parser<T> {
+    T parse(InputStream content) throws Exception;
+  }
+
+  /**
+   * {@code onCached} recibe los extractos que salen de la caché, para repetir
+   * las validaciones que el lector hace al analizarlos.
+   */
+  public BancolombiaStatement getOrParseStatement(InputStreamSource source, long size,
+      Parser<BancolombiaStatement> parser, Consumer<BancolombiaStatement> onCached) throws Exception {
+    return getOrParse("bancolombia", source, size, parser, onCached,
+        objectMapper.constructType(BancolombiaStatement.class), statement -> statement.getTransactions().size());
+  }
+
+  public List<Transaction> getOrParseLinix(InputStreamSource source, long size, Parser<List<Transaction>> parser)
+      throws Exception {
+    return getOrParse("linix", source, size, parser, transactions -> {
+    }, objectMapper.getTypeFactory().constructType(TRANSACTION_LIST), List::size);
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getDiskHits() {
+    return diskHits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  public long getEvictions() {
+    return evictions.get();
+  }
+
+  public synchronized int getEntries() {
+    return entries.size();
+  }
+
+  public synchronized long getCachedRows() {
+    return cachedRows;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  private <T> T getOrParse(String kind, InputStreamSource source, long size, Parser<T> parser,
+      Consumer<T> onCached, JavaType type, ToIntFunction<T> rows) throws Exception {
+    if (!enabled) {
+      try (InputStream in = source.getInputStream()) {
+        return parser.parse(in);
+      }
+    }
+
+    String prefix = kind + "-" + fingerprint(source, size);
+    if (mayBeCached(prefix)) {
+      String key = prefix + "-" + sha256(source);
+
+      Entry cached = fromMemory(key);
+      if (cached != null) {
+        hits.incrementAndGet();
+        log.debug("Caché de archivos: {} desde memoria", key);
+        return served(cached, onCached);
+      }
+
+      Entry fromDisk = fromDisk(key, type, rows);
+      if (fromDisk != null) {
+        diskHits.incrementAndGet();
+        put(key, fromDisk);
+        log.debug("Caché de archivos: {} desde disco", key);
+        return served(fromDisk, onCached);
+      }
+    }
+
+    misses.incrementAndGet();
+    Map<String, Long> skipped = new HashMap<>();
+    MessageDigest digest = newDigest();
+    T parsed;
+    try (DigestInputStream in = new DigestInputStream(source.getInputStream(), digest)) {
+      // El lector no puede cerrarlo: falta leer lo que no haya consumido
+      InputStream content = new FilterInputStream(in) {
+        @Override
+        public void close() {
+        }
+      };
+      parsed = SkippedRows.counting(skipped, () -> parser.parse(content));
+      in.transferTo(OutputStream.nullOutputStream());
+    }
+    put(prefix + "-" + HexFormat.of().formatHex(digest.digest()),
+        new Entry(parsed, rows.applyAsInt(parsed), skipped));
+    return parsed;
+  }
+
+  // Un acierto cuenta las filas descartadas y valida igual que un análisis nuevo
+  @SuppressWarnings("unchecked")
+  private static <T> T served(Entry entry, Consumer<T> onCached) {
+    T value = (T) entry.value();
+    SkippedRows.replay(entry.skipped());
+    onCached.accept(value);
+    return value;
+  }
+
+  private synchronized Entry fromMemory(String key) {
+    return entries.get(key);
+  }
+
+  private boolean mayBeCached(String prefix) throws IOException {
+    synchronized (this) {
+      String candidate = keys.ceiling(prefix);
+      if (candidate != null && candidate.startsWith(prefix))
+        return true;
+    }
+    if (diskDir == null)
+      return false;
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(diskDir, prefix + "-*.json")) {
+      return files.iterator().hasNext();
+    }
+  }
+
+  private void put(String key, Entry entry) {
+    if (entry.rows() > maxRows)
+      return;
+
+    List<Map.Entry<String, Entry>> evicted = new ArrayList<>();
+    synchronized (this) {
+      Entry previous = entries.put(key, entry);
+      keys.add(key);
+      if (previous != null)
+        cachedRows -= previous.rows();
+      cachedRows += entry.rows();
+
+      Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+      while (cachedRows > maxRows && eldest.hasNext()) {
+        Map.Entry<String, Entry> candidate = eldest.next();
+        if (candidate.getKey().equals(key))
+          continue;
+        cachedRows -= candidate.getValue().rows();
+        evicted.add(Map.entry(candidate.getKey(), candidate.getValue()));
+        eldest.remove();
+        keys.remove(candidate.getKey());
+      }
+    }
+
+    evictions.addAndGet(evicted.size());
+    // La escritura a disco se hace fuera del candado
+    for (Map.Entry<String, Entry> old : evicted) {
+      toDisk(old.getKey(), old.getValue());
+    }
+  }
+
+  private <T> Entry fromDisk(String key, JavaType type, ToIntFunction<T> rows) {
+    if (diskDir == null)
+      return null;
+    Path file = diskDir.resolve(key + ".json");
+    if (!Files.exists(file))
+      return null;
+    try {
+      Stored<T> stored = objectMapper.readValue(file.toFile(),
+          objectMapper.getTypeFactory().constructParametricType(Stored.class, type));
+      Files.deleteIfExists(file); // vuelve a memoria; se reescribe si se descarta otra vez
+      return new Entry(stored.value(), rows.applyAsInt(stored.value()), stored.skipped());
+    } catch (IOException e) {
+      log.warn("Entrada de caché en disco ilegible {}: {}", file, e.getMessage());
+      return null;
+    }
+  }
+
+  private void toDisk(String key, Entry entry) {
+    if (diskDir == null)
+      return;
+    Path file = diskDir.resolve(key + ".json");
+    try {
+      Path temp = Files.createTempFile(diskDir, key, ".tmp");
+      objectMapper.writeValue(temp.toFile(), new Stored<>(entry.value(), entry.skipped()));
+      try {
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+      trimDisk();
+    } catch (IOException e) {
+      log.warn("No se pudo guardar en disco la entrada de caché {}: {}", key, e.getMessage());
+    }
+  }
+
+  // Borra los archivos más antiguos hasta quedar por debajo del límite
+  private synchronized void trimDisk() throws IOException {
+    List<Path> files;
+    try (Stream<Path> listing = Files.list(diskDir)) {
+      files = listing.filter(p -> p.getFileName().toString().endsWith(".json"))
+          .sorted(Comparator.comparingLong(ParsedFileCache::lastModified))
+          .toList();
+    }
+    long total = 0;
+    for (Path file : files)
+      total += Files.size(file);
+    for (Path file : files) {
+      if (total <= diskMaxBytes)
+        break;
+      total -= Files.size(file);
+      Files.deleteIfExists(file);
+    }
+  }
+
+  private static long lastModified(Path file) {
+    try {
+      return Files.getLastModifiedTime(file).toMillis();
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  // Tamaño y primeros bytes: descarta sin leer todo el archivo lo que no puede estar en la caché
+  private static String fingerprint(InputStreamSource source, long size) throws IOException {
+    MessageDigest digest = newDigest();
+    digest.update(ByteBuffer.allocate(Long.BYTES).putLong(size).flip());
+    try (InputStream in = source.getInputStream()) {
+      digest.update(in.readNBytes(FINGERPRINT_BYTES));
+    }
+    return HexFormat.of().formatHex(digest.digest()).substring(0, FINGERPRINT_HEX_LENGTH);
+  }
+
+  private static String sha256(InputStreamSource source) throws IOException {
+    MessageDigest digest = newDigest();
+    byte[] buffer = new byte[DIGEST_BUFFER_SIZE];
+    try (InputStream in = source.getInputStream()) {
+      int read;
+      while ((read = in.read(buffer)) > 0)
+        digest.update(buffer, 0, read);
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private record Entry(Object value, int rows, Map<String, Long> skipped) {
+  }
+
+  // Formato en disco: el valor y las filas que el lector descartó al analizarlo
+  private record Stored<T>(T value, Map<String, Long> skipped) {
+  }
+}
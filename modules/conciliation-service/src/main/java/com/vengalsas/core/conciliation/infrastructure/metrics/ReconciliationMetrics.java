@@ -0,0 +1,110 @@
+package com.vengalsas.core.conciliation.infrastructure.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.stereotype.Component;
+
+import com.vengalsas.core.conciliation.application.matching.MatchOutcome;
+import com.vengalsas.core.conciliation.domain.model.SourceSystem;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Métricas de cada etapa de la conciliación, expuestas en
+ * {@code /actuator/prometheus}. Las que dependen del archivo llevan la
+ * etiqueta {@code source} (LINIX / BANCOLOMBIA).
+ *
+ * <ul>
+ * <li>{@code conciliation.upload.size}: bytes de cada archivo recibido</li>
+ * <li>{@code conciliation.parse}: lectura de un archivo (sólo sin caché)</li>
+ * <li>{@code conciliation.rows.skipped}: filas descartadas por los lectores
+ * ({@link SkippedRows})</li>
+ * <li>{@code conciliation.match}: pasadas exacta, flexible y agrupada, por modo</li>
+ * <li>{@code conciliation.classification}: clasificación de no conciliados</li>
+ * <li>{@code conciliation.summary}: generación del resumen</li>
+ * <li>{@code conciliation.serialization}: escritura de la respuesta</li>
+ * <li>{@code conciliation.active}: conciliaciones en curso</li>
+ * </ul>
+ */
+@Component
+public class ReconciliationMetrics {
+
+  private final MeterRegistry registry;
+  private final AtomicInteger active = new AtomicInteger();
+  private final Timer summary;
+
+  public ReconciliationMetrics(MeterRegistry registry) {
+    this.registry = registry;
+    this.summary = Timer.builder("conciliation.summary")
+        .description("Generación del resumen de la conciliación")
+        .register(registry);
+    Gauge.builder("conciliation.active", active, AtomicInteger::get)
+        .description("Conciliaciones en curso")
+        .register(registry);
+  }
+
+  public void recordUploadSize(SourceSystem source, long bytes) {
+    DistributionSummary.builder("conciliation.upload.size")
+        .description("Tamaño de los archivos recibidos")
+        .baseUnit("bytes")
+        .tag("source", source.name())
+        .register(registry)
+        .record(bytes);
+  }
+
+  public Timer parseTimer(SourceSystem source) {
+    return Timer.builder("conciliation.parse")
+        .description("Lectura y normalización de un archivo")
+        .tag("source", source.name())
+        .register(registry);
+  }
+
+  public void recordPasses(MatchOutcome outcome) {
+    passTimer("exact", outcome).record(outcome.getExactPassNanos(), TimeUnit.NANOSECONDS);
+    passTimer("flexible", outcome).record(outcome.getFlexiblePassNanos(), TimeUnit.NANOSECONDS);
+    // La pasada agrupada es opcional: sin ella no se registra un cero
+    if (outcome.getGroupedPassNanos() > 0)
+      passTimer("grouped", outcome).record(outcome.getGroupedPassNanos(), TimeUnit.NANOSECONDS);
+  }
+
+  public void recordClassification(SourceSystem source, long nanos) {
+    Timer.builder("conciliation.classification")
+        .description("Clasificación de los movimientos no conciliados")
+        .tag("source", source.name())
+        .register(registry)
+        .record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  public Timer summaryTimer() {
+    return summary;
+  }
+
+  public void recordSerialization(String format, long nanos) {
+    Timer.builder("conciliation.serialization")
+        .description("Escritura de la respuesta de conciliación")
+        .tag("format", format)
+        .register(registry)
+        .record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Marca el inicio de una conciliación; el {@link Runnable} devuelto marca
+   * el fin y debe llamarse en un {@code finally}.
+   */
+  public Runnable reconciliationStarted() {
+    active.incrementAndGet();
+    return active::decrementAndGet;
+  }
+
+  private Timer passTimer(String pass, MatchOutcome outcome) {
+    return Timer.builder("conciliation.match")
+        .description("Pasadas del motor de emparejamiento")
+        .tag("pass", pass)
+        .tag("mode", outcome.getMode().name())
+        .register(registry);
+  }
+}
@@ -0,0 +1,65 @@
+package com.vengalsas.core.conciliation.infrastructure.metrics;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import com.vengalsas.core.conciliation.domain.model.SourceSystem;
+
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Contador {@code conciliation.rows.skipped} de filas descartadas por los
+ * lectores. Usa el registro global de Micrometer, al que Spring Boot agrega
+ * el de Prometheus, para que los lectores sigan creándose sin dependencias.
+ * {@link #counting} anota además lo descartado en un análisis para volver a
+ * contarlo con {@link #replay} cuando el resultado sale de la caché.
+ */
+public final class SkippedRows {
+
+  public static final String FORMAT_ERROR = "format_error";
+  public static final String INCOMPLETE = "incomplete";
+
+  private static final String KEY_SEPARATOR = ":";
+  private static final ThreadLocal<Map<String, Long>> TALLY = new ThreadLocal<>();
+
+  private SkippedRows() {
+  }
+
+  public static void record(SourceSystem source, String reason, long rows) {
+    if (rows <= 0)
+      return;
+    increment(source.name(), reason, rows);
+    Map<String, Long> tally = TALLY.get();
+    if (tally != null)
+      tally.merge(source.name() + KEY_SEPARATOR + reason, rows, Long::sum);
+  }
+
+  /**
+   * Ejecuta {@code parser} anotando en {@code tally} las filas que descarta.
+   * Sólo cuenta lo registrado desde el hilo que llama, que es donde los
+   * lectores registran los descartes.
+   */
+  public static <T> T counting(Map<String, Long> tally, Callable<T> parser) throws Exception {
+    Map<String, Long> previous = TALLY.get();
+    TALLY.set(tally);
+    try {
+      return parser.call();
+    } finally {
+      if (previous != null)
+        TALLY.set(previous);
+      else
+        TALLY.remove();
+    }
+  }
+
+  public static void replay(Map<String, Long> tally) {
+    tally.forEach((key, rows) -> {
+      int separator = key.indexOf(KEY_SEPARATOR);
+      increment(key.substring(0, separator), key.substring(separator + 1), rows);
+    });
+  }
+
+  private static void increment(String source, String reason, long rows) {
+    Metrics.counter("conciliation.rows.skipped", "source", source, "reason", reason).increment(rows);
+  }
+}
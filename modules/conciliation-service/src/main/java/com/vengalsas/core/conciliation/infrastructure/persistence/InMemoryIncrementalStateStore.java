@@ -0,0 +1,70 @@
+package com.vengalsas.core.conciliation.infrastructure.persistence;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.vengalsas.core.conciliation.domain.model.IncrementalState;
+import com.vengalsas.core.conciliation.domain.repository.IncrementalStateStore;
+
+/**
+ * Estado incremental por cuenta en memoria. Sólo guarda lo pendiente y las
+ * huellas del período actual, así que su tamaño no crece con los meses. Como
+ * la cuenta la elige el cliente, se guarda un máximo de cuentas: al llenarse
+ * se descarta la menos usada recientemente, y las que no se usan en el TTL se
+ * descartan y vuelven a empezar vacías.
+ */
+@Component
+public class InMemoryIncrementalStateStore implements IncrementalStateStore {
+
+  private record Tracked(IncrementalState state, Instant lastAccess) {
+  }
+
+  private final int maxEntries;
+  private final Duration idleTtl;
+  private final LinkedHashMap<String, Tracked> states;
+
+  public InMemoryIncrementalStateStore(
+      @Value("${conciliation.incremental.max-entries:1000}") int maxEntries,
+      @Value("${conciliation.incremental.idle-ttl-minutes:1440}") long idleTtlMinutes) {
+    this.maxEntries = maxEntries;
+    this.idleTtl = Duration.ofMinutes(idleTtlMinutes);
+    this.states = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Tracked> eldest) {
+        return size() > InMemoryIncrementalStateStore.this.maxEntries;
+      }
+    };
+  }
+
+  @Override
+  public synchronized IncrementalState getOrCreate(String accountKey) {
+    Instant now = Instant.now();
+    evictIdle(now);
+    Tracked tracked = states.get(accountKey);
+    IncrementalState state = tracked != null ? tracked.state() : new IncrementalState(accountKey);
+    states.put(accountKey, new Tracked(state, now));
+    return state;
+  }
+
+  @Override
+  public synchronized boolean reset(String accountKey) {
+    evictIdle(Instant.now());
+    return states.remove(accountKey) != null;
+  }
+
+  // El mapa va en orden de acceso, así que las inactivas están al principio
+  private void evictIdle(Instant now) {
+    Iterator<Tracked> iterator = states.values().iterator();
+    while (iterator.hasNext()) {
+      if (!iterator.next().lastAccess().plus(idleTtl).isBefore(now))
+        return;
+      iterator.remove();
+    }
+  }
+}
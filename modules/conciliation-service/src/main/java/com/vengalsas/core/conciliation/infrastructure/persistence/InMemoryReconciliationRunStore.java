@@ -0,0 +1,64 @@
+package com.vengalsas.core.conciliation.infrastructure.persistence;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.vengalsas.core.conciliation.domain.model.ReconciliationRun;
+import com.vengalsas.core.conciliation.domain.repository.ReconciliationRunStore;
+
+/**
+ * Guarda las conciliaciones en memoria con un máximo de entradas: al llenarse
+ * se descarta la menos usada recientemente y las que superan el TTL se tratan
+ * como inexistentes.
+ */
+@Component
+@ConditionalOnProperty(name = "conciliation.runs.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryReconciliationRunStore implements ReconciliationRunStore {
+
+  private final int maxEntries;
+  private final Duration ttl;
+  private final Map<UUID, ReconciliationRun> runs;
+
+  public InMemoryReconciliationRunStore(
+      @Value("${conciliation.runs.max-entries:200}") int maxEntries,
+      @Value("${conciliation.runs.ttl-minutes:120}") long ttlMinutes) {
+    this.maxEntries = maxEntries;
+    this.ttl = Duration.ofMinutes(ttlMinutes);
+    this.runs = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<UUID, ReconciliationRun> eldest) {
+        return size() > InMemoryReconciliationRunStore.this.maxEntries;
+      }
+    };
+  }
+
+  @Override
+  public synchronized ReconciliationRun save(ReconciliationRun run) {
+    runs.put(run.getId(), run);
+    return run;
+  }
+
+  @Override
+  public synchronized Optional<ReconciliationRun> findById(UUID id) {
+    ReconciliationRun run = runs.get(id);
+    if (run == null)
+      return Optional.empty();
+    if (isExpired(run)) {
+      runs.remove(id);
+      return Optional.empty();
+    }
+    return Optional.of(run);
+  }
+
+  private boolean isExpired(ReconciliationRun run) {
+    return run.getCreatedAt() != null && run.getCreatedAt().plus(ttl).isBefore(Instant.now());
+  }
+}
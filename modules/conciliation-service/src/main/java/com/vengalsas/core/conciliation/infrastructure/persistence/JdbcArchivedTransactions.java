@@ -0,0 +1,290 @@
+package com.vengalsas.core.conciliation.infrastructure.persistence;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.vengalsas.core.conciliation.application.matching.ExternalMergeMatcher;
+import com.vengalsas.core.conciliation.application.matching.MatchKind;
+import com.vengalsas.core.conciliation.application.matching.MatchingEngine;
+import com.vengalsas.core.conciliation.domain.model.BancolombiaStatement;
+import com.vengalsas.core.conciliation.domain.model.SourceSystem;
+import com.vengalsas.core.conciliation.domain.model.Transaction;
+import com.vengalsas.core.conciliation.domain.model.TransactionType;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Lectura y emparejamiento de las conciliaciones que guardó
+ * {@link JdbcReconciliationArchive}. El emparejamiento en base de datos copia
+ * las filas usables a tablas temporales indexadas por (fecha, monto) y aplica
+ * las mismas reglas que el {@link MatchingEngine} en modo GREEDY:
+ *
+ * <ol>
+ * <li>Exacto: numera las filas de cada llave (fecha, monto) por posición y
+ * une la k-ésima Linix con la k-ésima Bancolombia en un solo INSERT.</li>
+ * <li>Flexible: un range join sobre el índice produce las parejas candidatas
+ * a ±1 día / ±500 ordenadas por (Linix, Bancolombia); cada Linix toma, en
+ * orden, el primer Bancolombia libre. Esa asignación depende del orden, así
+ * que se hace en una sola pasada sobre el cursor y sólo viajan enteros.</li>
+ * </ol>
+ *
+ * Al cliente sólo llegan las transacciones del resultado; con
+ * {@code includeMatched} en falso, sólo las no conciliadas.
+ */
+@Component
+@Slf4j
+public class JdbcArchivedTransactions {
+
+  private static final int FETCH_SIZE = 5_000;
+
+  private static final String TRANSACTION_COLUMNS = "id, date, description, amount, transaction_type, source";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+
+  public JdbcArchivedTransactions(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+  }
+
+  /**
+   * Sumas archivadas de un lado, un tipo y un día, con la cantidad de filas
+   * que las forman; las filas sin tipo o sin fecha vienen con ese campo nulo.
+   */
+  public record AmountTotal(SourceSystem source, TransactionType type, LocalDate date, BigDecimal amount,
+      int rows) {
+  }
+
+  /**
+   * Saldos guardados con la conciliación, o vacío si no está archivada.
+   */
+  public Optional<BancolombiaStatement> findStatement(UUID reconciliationId) {
+    return jdbcTemplate.query(
+        "SELECT saldo_inicial_banco, saldo_final_banco FROM reconciliation_runs WHERE id = ?",
+        (rs, i) -> BancolombiaStatement.builder()
+            .startingBalance(rs.getBigDecimal(1))
+            .endingBalance(rs.getBigDecimal(2))
+            .build(),
+        reconciliationId).stream().findFirst();
+  }
+
+  /**
+   * Transacciones de un lado en el orden del archivo original.
+   */
+  public List<Transaction> load(UUID reconciliationId, SourceSystem source) {
+    return jdbcTemplate.query(
+        "SELECT " + TRANSACTION_COLUMNS + " FROM transactions WHERE reconciliation_id = ? AND source = ? "
+            + "ORDER BY row_index",
+        (rs, i) -> transaction(rs, 1), reconciliationId, source.name());
+  }
+
+  public List<AmountTotal> totals(UUID reconciliationId) {
+    return jdbcTemplate.query("""
+        SELECT source, transaction_type, date, SUM(amount), COUNT(*) FROM transactions
+        WHERE reconciliation_id = ? AND source IS NOT NULL
+        GROUP BY source, transaction_type, date""",
+        (rs, i) -> new AmountTotal(
+            SourceSystem.valueOf(rs.getString(1)),
+            rs.getString(2) != null ? TransactionType.valueOf(rs.getString(2)) : null,
+            rs.getObject(3, LocalDate.class),
+            rs.getBigDecimal(4),
+            rs.getInt(5)),
+        reconciliationId);
+  }
+
+  /**
+   * Empareja en PostgreSQL y entrega los resultados a {@code sink}: primero
+   * cada Linix en orden con su pareja, si la tiene, y luego los Bancolombia sin
+   * pareja, igual que la conciliación en memoria.
+   *
+   * @return cantidad de coincidencias
+   */
+  public int match(UUID reconciliationId, boolean includeMatched, ExternalMergeMatcher.ResultSink sink) {
+    return transactionTemplate.execute(status -> {
+      long start = System.nanoTime();
+      stage(reconciliationId);
+      long staged = System.nanoTime();
+      int exact = jdbcTemplate.update("""
+          INSERT INTO pd_pairs (linix_row, banco_row, exact)
+          SELECT l.r, b.r, TRUE
+          FROM (SELECT r, d, a, ROW_NUMBER() OVER (PARTITION BY d, a ORDER BY r) AS k FROM pd_linix) l
+          JOIN (SELECT r, d, a, ROW_NUMBER() OVER (PARTITION BY d, a ORDER BY r) AS k FROM pd_banco) b
+            ON b.d = l.d AND b.a = l.a AND b.k = l.k""");
+      long exactEnd = System.nanoTime();
+      int flexible = flexiblePass();
+      long flexibleEnd = System.nanoTime();
+      streamResults(reconciliationId, includeMatched, sink);
+
+      log.info("Conciliación {} emparejada en base de datos: {} exactas y {} flexibles "
+          + "(staging {} ms, exacto {} ms, flexible {} ms, lectura {} ms)",
+          reconciliationId, exact, flexible, millis(staged - start), millis(exactEnd - staged),
+          millis(flexibleEnd - exactEnd), millis(System.nanoTime() - flexibleEnd));
+      return exact + flexible;
+    });
+  }
+
+  // Tablas temporales de la transacción con las filas que se pueden emparejar (fecha y monto)
+  private void stage(UUID reconciliationId) {
+    for (SourceSystem source : SourceSystem.values()) {
+      String table = stagingTable(source);
+      jdbcTemplate.execute("CREATE TEMP TABLE " + table
+          + " (r INT PRIMARY KEY, d DATE NOT NULL, a NUMERIC(38, 2) NOT NULL) ON COMMIT DROP");
+      jdbcTemplate.update("INSERT INTO " + table + " (r, d, a) SELECT row_index, date, amount FROM transactions "
+          + "WHERE reconciliation_id = ? AND source = ? AND date IS NOT NULL AND amount IS NOT NULL",
+          reconciliationId, source.name());
+      jdbcTemplate.execute("CREATE INDEX ON " + table + " (d, a)");
+      jdbcTemplate.execute("ANALYZE " + table);
+    }
+    jdbcTemplate.execute("""
+        CREATE TEMP TABLE pd_pairs (
+          linix_row INT PRIMARY KEY,
+          banco_row INT NOT NULL UNIQUE,
+          exact BOOLEAN NOT NULL
+        ) ON COMMIT DROP""");
+  }
+
+  private static String stagingTable(SourceSystem source) {
+    return source == SourceSystem.LINIX ? "pd_linix" : "pd_banco";
+  }
+
+  private int flexiblePass() {
+    GreedyClaim claim = new GreedyClaim();
+    jdbcTemplate.query(con -> {
+      PreparedStatement ps = con.prepareStatement("""
+          SELECT l.r, b.r FROM pd_linix l
+          JOIN pd_banco b ON b.d BETWEEN l.d - ? AND l.d + ? AND b.a BETWEEN l.a - ? AND l.a + ?
+          WHERE NOT EXISTS (SELECT 1 FROM pd_pairs p WHERE p.linix_row = l.r)
+            AND NOT EXISTS (SELECT 1 FROM pd_pairs p WHERE p.banco_row = b.r)
+          ORDER BY l.r, b.r""");
+      ps.setFetchSize(FETCH_SIZE);
+      ps.setInt(1, MatchingEngine.FLEXIBLE_DATE_WINDOW_DAYS);
+      ps.setInt(2, MatchingEngine.FLEXIBLE_DATE_WINDOW_DAYS);
+      ps.setBigDecimal(3, MatchingEngine.FLEXIBLE_AMOUNT_TOLERANCE);
+      ps.setBigDecimal(4, MatchingEngine.FLEXIBLE_AMOUNT_TOLERANCE);
+      return ps;
+    }, (RowCallbackHandler) rs -> claim.offer(rs.getInt(1), rs.getInt(2)));
+
+    if (claim.size() == 0)
+      return 0;
+    int[] linix = claim.linix();
+    int[] banco = claim.banco();
+    jdbcTemplate.update(con -> {
+      PreparedStatement ps = con.prepareStatement(
+          "INSERT INTO pd_pairs (linix_row, banco_row, exact) SELECT l, b, FALSE FROM unnest(?, ?) AS t(l, b)");
+      PGConnection pg = con.unwrap(PGConnection.class);
+      ps.setArray(1, pg.createArrayOf("int4", linix));
+      ps.setArray(2, pg.createArrayOf("int4", banco));
+      return ps;
+    });
+    return linix.length;
+  }
+
+  private void streamResults(UUID reconciliationId, boolean includeMatched, ExternalMergeMatcher.ResultSink sink) {
+    String linixColumns = "l." + TRANSACTION_COLUMNS.replace(", ", ", l.");
+    String bancoColumns = "b." + TRANSACTION_COLUMNS.replace(", ", ", b.");
+    jdbcTemplate.query(con -> {
+      PreparedStatement ps = con.prepareStatement("SELECT " + linixColumns + ", " + bancoColumns + ", p.exact "
+          + "FROM transactions l "
+          + "LEFT JOIN pd_pairs p ON p.linix_row = l.row_index "
+          + "LEFT JOIN transactions b ON b.reconciliation_id = l.reconciliation_id AND b.source = 'BANCOLOMBIA' "
+          + "AND b.row_index = p.banco_row "
+          + "WHERE l.reconciliation_id = ? AND l.source = 'LINIX'"
+          + (includeMatched ? "" : " AND p.linix_row IS NULL")
+          + " ORDER BY l.row_index");
+      ps.setFetchSize(FETCH_SIZE);
+      ps.setObject(1, reconciliationId);
+      return ps;
+    }, (RowCallbackHandler) rs -> {
+      Transaction linix = transaction(rs, 1);
+      Transaction banco = transaction(rs, 7);
+      if (banco != null)
+        sink.matched(linix, banco, rs.getBoolean(13) ? MatchKind.EXACT : MatchKind.FLEXIBLE);
+      else
+        sink.unmatchedLinix(linix);
+    });
+
+    jdbcTemplate.query(con -> {
+      PreparedStatement ps = con.prepareStatement("SELECT " + TRANSACTION_COLUMNS + " FROM transactions b "
+          + "WHERE b.reconciliation_id = ? AND b.source = 'BANCOLOMBIA' "
+          + "AND NOT EXISTS (SELECT 1 FROM pd_pairs p WHERE p.banco_row = b.row_index) "
+          + "ORDER BY b.row_index");
+      ps.setFetchSize(FETCH_SIZE);
+      ps.setObject(1, reconciliationId);
+      return ps;
+    }, (RowCallbackHandler) rs -> sink.unmatchedBanco(transaction(rs, 1)));
+  }
+
+  // Transacción desde la columna from; null si la fila no tiene ese lado (LEFT JOIN)
+  private static Transaction transaction(ResultSet rs, int from) throws SQLException {
+    UUID id = rs.getObject(from, UUID.class);
+    if (id == null)
+      return null;
+    String type = rs.getString(from + 4);
+    String source = rs.getString(from + 5);
+    return Transaction.builder()
+        .id(id)
+        .date(rs.getObject(from + 1, LocalDate.class))
+        .description(rs.getString(from + 2))
+        .amount(rs.getBigDecimal(from + 3))
+        .transactionType(type != null ? TransactionType.valueOf(type) : null)
+        .source(source != null ? SourceSystem.valueOf(source) : null)
+        .build();
+  }
+
+  private static long millis(long nanos) {
+    return TimeUnit.NANOSECONDS.toMillis(nanos);
+  }
+
+  /**
+   * Asignación flexible sobre las candidatas ordenadas por (Linix,
+   * Bancolombia): la primera candidata libre de cada Linix es el Bancolombia
+   * de menor posición entre los que siguen libres, como en el motor en memoria.
+   */
+  static final class GreedyClaim {
+    private final BitSet claimedBanco = new BitSet();
+    private int[] linix = new int[64];
+    private int[] banco = new int[64];
+    private int size;
+    private int lastLinix = -1;
+
+    void offer(int linixRow, int bancoRow) {
+      if (linixRow == lastLinix || claimedBanco.get(bancoRow))
+        return;
+      if (size == linix.length) {
+        linix = Arrays.copyOf(linix, size * 2);
+        banco = Arrays.copyOf(banco, size * 2);
+      }
+      linix[size] = linixRow;
+      banco[size++] = bancoRow;
+      lastLinix = linixRow;
+      claimedBanco.set(bancoRow);
+    }
+
+    int size() {
+      return size;
+    }
+
+    int[] linix() {
+      return Arrays.copyOf(linix, size);
+    }
+
+    int[] banco() {
+      return Arrays.copyOf(banco, size);
+    }
+  }
+}
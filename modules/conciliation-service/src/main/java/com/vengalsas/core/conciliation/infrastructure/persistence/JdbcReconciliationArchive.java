@@ -0,0 +1,211 @@
+package com.vengalsas.core.conciliation.infrastructure.persistence;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.vengalsas.core.conciliation.domain.model.ReconciliationRecord;
+import com.vengalsas.core.conciliation.domain.model.Transaction;
+import com.vengalsas.core.conciliation.domain.repository.ReconciliationArchive;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Guarda cada conciliación en PostgreSQL con el protocolo COPY: las
+ * transacciones van a la tabla {@code transactions} de la entidad
+ * {@link Transaction} y los resultados a {@code reconciliation_results}, todo
+ * en una sola transacción. Se ejecuta en un hilo propio para no demorar la
+ * respuesta; si la cola está llena la conciliación no se archiva.
+ */
+@Component
+@ConditionalOnProperty(name = "conciliation.archive.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class JdbcReconciliationArchive implements ReconciliationArchive {
+
+  private static final int COPY_BUFFER_SIZE = 64 * 1024;
+  private static final int MAX_DESCRIPTION_LENGTH = 255;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final ThreadPoolTaskExecutor executor;
+
+  public JdbcReconciliationArchive(
+      JdbcTemplate jdbcTemplate,
+      TransactionTemplate transactionTemplate,
+      @Qualifier("reconciliationArchiveExecutor") ThreadPoolTaskExecutor executor) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.executor = executor;
+  }
+
+  // La tabla transactions, con la conciliación y la posición de cada fila, la crea JPA desde la entidad
+  @PostConstruct
+  void createTables() {
+    jdbcTemplate.execute("""
+        CREATE TABLE IF NOT EXISTS reconciliation_runs (
+          id UUID PRIMARY KEY,
+          run_id UUID,
+          created_at TIMESTAMP NOT NULL,
+          matching_mode VARCHAR(16),
+          total_linix INT NOT NULL,
+          total_bancolombia INT NOT NULL,
+          matched_count INT NOT NULL,
+          saldo_inicial_banco NUMERIC(19, 2),
+          saldo_final_banco NUMERIC(19, 2)
+        )""");
+    jdbcTemplate.execute("""
+        CREATE TABLE IF NOT EXISTS reconciliation_results (
+          reconciliation_id UUID NOT NULL,
+          row_index INT NOT NULL,
+          linix_transaction_id UUID,
+          bancolombia_transaction_id UUID,
+          matched BOOLEAN NOT NULL,
+          discrepancy_type VARCHAR(128),
+          PRIMARY KEY (reconciliation_id, row_index)
+        )""");
+  }
+
+  @Override
+  public void archive(ReconciliationRecord record) {
+    try {
+      executor.execute(() -> write(record));
+    } catch (RejectedExecutionException e) {
+      log.warn("Conciliación {} no archivada: cola de guardado llena", record.getId());
+    }
+  }
+
+  private void write(ReconciliationRecord record) {
+    long start = System.nanoTime();
+    try {
+      transactionTemplate.executeWithoutResult(status -> jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+        insertRun(record);
+        UUID[] linixIds = copyTransactions(con, record, record.getLinixTransactions());
+        UUID[] bancoIds = copyTransactions(con, record, record.getBancolombiaTransactions());
+        copyResults(con, record, linixIds, bancoIds);
+        return null;
+      }));
+
+      long rows = (long) record.getLinixTransactions().size() + record.getBancolombiaTransactions().size()
+          + record.getResultCount();
+      log.info("Conciliación {} archivada: {} filas en {} ms", record.getId(), rows,
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    } catch (RuntimeException e) {
+      log.error("No se pudo archivar la conciliación {}: {}", record.getId(), e.getMessage(), e);
+    }
+  }
+
+  private void insertRun(ReconciliationRecord record) {
+    jdbcTemplate.update("""
+        INSERT INTO reconciliation_runs (id, run_id, created_at, matching_mode, total_linix, total_bancolombia,
+          matched_count, saldo_inicial_banco, saldo_final_banco)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)""",
+        record.getId(), record.getRunId(), Timestamp.from(record.getCreatedAt()), record.getMatchingMode(),
+        record.getLinixTransactions().size(), record.getBancolombiaTransactions().size(), record.getMatchedCount(),
+        record.getStartingBalance(), record.getEndingBalance());
+  }
+
+  // Los ids se generan aquí y no se escriben en las transacciones, que siguen en uso por la respuesta
+  private UUID[] copyTransactions(Connection con, ReconciliationRecord record, List<Transaction> transactions)
+      throws SQLException {
+    UUID[] ids = new UUID[transactions.size()];
+    String sql = "COPY transactions (id, date, description, amount, transaction_type, source, reconciliation_id, "
+        + "row_index) FROM STDIN (FORMAT csv)";
+
+    try (Writer out = copyWriter(con, sql)) {
+      String reconciliationId = record.getId().toString();
+      for (int i = 0; i < ids.length; i++) {
+        Transaction tx = transactions.get(i);
+        ids[i] = UUID.randomUUID();
+        out.write(ids[i].toString());
+        out.write(',');
+        out.write(tx.getDate() != null ? tx.getDate().toString() : "");
+        out.write(',');
+        writeQuoted(out, truncate(tx.getDescription()));
+        out.write(',');
+        out.write(tx.getAmount() != null ? tx.getAmount().toPlainString() : "");
+        out.write(',');
+        out.write(tx.getTransactionType() != null ? tx.getTransactionType().name() : "");
+        out.write(',');
+        out.write(tx.getSource() != null ? tx.getSource().name() : "");
+        out.write(',');
+        out.write(reconciliationId);
+        out.write(',');
+        out.write(Integer.toString(i));
+        out.write('\n');
+      }
+    } catch (IOException e) {
+      throw new SQLException("Error en COPY de transacciones", e);
+    }
+    return ids;
+  }
+
+  private void copyResults(Connection con, ReconciliationRecord record, UUID[] linixIds, UUID[] bancoIds)
+      throws SQLException {
+    String sql = "COPY reconciliation_results (reconciliation_id, row_index, linix_transaction_id, "
+        + "bancolombia_transaction_id, matched, discrepancy_type) FROM STDIN (FORMAT csv)";
+    int[] linix = record.getResultLinix();
+    int[] banco = record.getResultBancolombia();
+    String[] types = record.getResultTypes();
+
+    try (Writer out = copyWriter(con, sql)) {
+      String reconciliationId = record.getId().toString();
+      for (int r = 0; r < record.getResultCount(); r++) {
+        out.write(reconciliationId);
+        out.write(',');
+        out.write(Integer.toString(r));
+        out.write(',');
+        out.write(linix[r] >= 0 ? linixIds[linix[r]].toString() : "");
+        out.write(',');
+        out.write(banco[r] >= 0 ? bancoIds[banco[r]].toString() : "");
+        out.write(',');
+        out.write(linix[r] >= 0 && banco[r] >= 0 ? "t" : "f");
+        out.write(',');
+        writeQuoted(out, types[r]);
+        out.write('\n');
+      }
+    } catch (IOException e) {
+      throw new SQLException("Error en COPY de resultados", e);
+    }
+  }
+
+  private static Writer copyWriter(Connection con, String sql) throws SQLException {
+    PGCopyOutputStream copy = new PGCopyOutputStream(con.unwrap(PGConnection.class), sql, COPY_BUFFER_SIZE);
+    return new BufferedWriter(new OutputStreamWriter(copy, StandardCharsets.UTF_8), COPY_BUFFER_SIZE);
+  }
+
+  // La columna es VARCHAR(255) como la crea JPA para la entidad
+  private static String truncate(String description) {
+    return description != null && description.length() > MAX_DESCRIPTION_LENGTH
+        ? description.substring(0, MAX_DESCRIPTION_LENGTH)
+        : description;
+  }
+
+  // CSV de COPY: vacío sin comillas es NULL; entre comillas las comillas se duplican
+  static void writeQuoted(Writer out, String value) throws IOException {
+    if (value == null)
+      return;
+    out.write('"');
+    out.write(value.replace("\"", "\"\""));
+    out.write('"');
+  }
+}
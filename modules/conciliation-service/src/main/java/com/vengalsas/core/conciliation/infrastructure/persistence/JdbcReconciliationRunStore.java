@@ -0,0 +1,115 @@
+package com.vengalsas.core.conciliation.infrastructure.persistence;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vengalsas.core.conciliation.domain.model.ReconciliationRun;
+import com.vengalsas.core.conciliation.domain.repository.ReconciliationRunStore;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Persiste cada conciliación como JSON en PostgreSQL para que cualquier
+ * réplica pueda atender el /reconcile. Mantiene una copia local acotada para
+ * no ir a la base en la réplica que hizo la carga. Las sesiones vencidas se
+ * borran al guardar, como mucho una vez por {@link #PURGE_INTERVAL}.
+ */
+@Component
+@ConditionalOnProperty(name = "conciliation.runs.store", havingValue = "jdbc")
+@Slf4j
+public class JdbcReconciliationRunStore implements ReconciliationRunStore {
+
+  static final Duration PURGE_INTERVAL = Duration.ofMinutes(1);
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ObjectMapper objectMapper;
+  private final InMemoryReconciliationRunStore localCache;
+  private final Duration ttl;
+  private final AtomicLong nextPurgeMillis = new AtomicLong();
+
+  public JdbcReconciliationRunStore(
+      JdbcTemplate jdbcTemplate,
+      ObjectMapper objectMapper,
+      @Value("${conciliation.runs.max-entries:200}") int maxEntries,
+      @Value("${conciliation.runs.ttl-minutes:120}") long ttlMinutes) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.objectMapper = objectMapper;
+    this.localCache = new InMemoryReconciliationRunStore(maxEntries, ttlMinutes);
+    this.ttl = Duration.ofMinutes(ttlMinutes);
+  }
+
+  @PostConstruct
+  void createTable() {
+    jdbcTemplate.execute("""
+        CREATE TABLE IF NOT EXISTS reconciliation_run_sessions (
+          id UUID PRIMARY KEY,
+          payload JSONB NOT NULL,
+          created_at TIMESTAMP NOT NULL
+        )""");
+    jdbcTemplate.execute(
+        "CREATE INDEX IF NOT EXISTS idx_run_sessions_created_at ON reconciliation_run_sessions (created_at)");
+  }
+
+  @Override
+  public ReconciliationRun save(ReconciliationRun run) {
+    purgeExpired();
+    try {
+      jdbcTemplate.update(
+          "INSERT INTO reconciliation_run_sessions (id, payload, created_at) VALUES (?, ?::jsonb, ?) "
+              + "ON CONFLICT (id) DO UPDATE SET payload = EXCLUDED.payload",
+          run.getId(), objectMapper.writeValueAsString(run), Timestamp.from(run.getCreatedAt()));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("No se pudo serializar la conciliación " + run.getId(), e);
+    }
+    return localCache.save(run);
+  }
+
+  @Override
+  public Optional<ReconciliationRun> findById(UUID id) {
+    Optional<ReconciliationRun> cached = localCache.findById(id);
+    if (cached.isPresent())
+      return cached;
+
+    List<String> payloads = jdbcTemplate.queryForList(
+        "SELECT payload::text FROM reconciliation_run_sessions WHERE id = ? AND created_at >= ?",
+        String.class, id, expiryCutoff());
+    if (payloads.isEmpty())
+      return Optional.empty();
+
+    try {
+      ReconciliationRun run = objectMapper.readValue(payloads.get(0), ReconciliationRun.class);
+      return Optional.of(localCache.save(run));
+    } catch (JsonProcessingException e) {
+      log.error("Conciliación {} con payload inválido: {}", id, e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  // Un solo hilo purga por intervalo en cada réplica; los demás guardan sin tocar las vencidas
+  private void purgeExpired() {
+    long now = System.currentTimeMillis();
+    long next = nextPurgeMillis.get();
+    if (now < next || !nextPurgeMillis.compareAndSet(next, now + PURGE_INTERVAL.toMillis()))
+      return;
+    int purged = jdbcTemplate.update("DELETE FROM reconciliation_run_sessions WHERE created_at < ?", expiryCutoff());
+    if (purged > 0)
+      log.debug("Sesiones de conciliación vencidas borradas: {}", purged);
+  }
+
+  private Timestamp expiryCutoff() {
+    return Timestamp.from(Instant.now().minus(ttl));
+  }
+}
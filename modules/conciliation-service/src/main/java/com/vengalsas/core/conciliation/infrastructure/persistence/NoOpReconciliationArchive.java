@@ -0,0 +1,21 @@
+package com.vengalsas.core.conciliation.infrastructure.persistence;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.vengalsas.core.conciliation.domain.model.ReconciliationRecord;
+import com.vengalsas.core.conciliation.domain.repository.ReconciliationArchive;
+
+@Component
+@ConditionalOnProperty(name = "conciliation.archive.enabled", havingValue = "false")
+public class NoOpReconciliationArchive implements ReconciliationArchive {
+
+  @Override
+  public void archive(ReconciliationRecord record) {
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return false;
+  }
+}
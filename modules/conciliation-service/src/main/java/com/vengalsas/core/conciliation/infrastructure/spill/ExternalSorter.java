@@ -0,0 +1,175 @@
+package com.vengalsas.core.conciliation.infrastructure.spill;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import com.vengalsas.core.conciliation.domain.model.Transaction;
+
+/**
+ * Ordenamiento externo por {@link SpilledRow#BY_AMOUNT_DATE}. Las filas se
+ * acumulan en memoria hasta el presupuesto, se ordenan y se vuelcan a disco
+ * como una corrida; al final las corridas se mezclan de a {@code fanIn}
+ * archivos abiertos a la vez. La memoria usada queda acotada por el
+ * presupuesto más un búfer de {@link SpillFile#BUFFER_BYTES} por corrida
+ * abierta, sin importar cuántas filas entren.
+ */
+public final class ExternalSorter {
+
+  // Transacción, BigDecimal, LocalDate, String y la entrada en la lista, sin contar el texto
+  private static final long ROW_OVERHEAD_BYTES = 200;
+
+  private final Path dir;
+  private final String prefix;
+  private final long budgetBytes;
+  private final int fanIn;
+  private final List<SpilledRow> buffer = new ArrayList<>();
+  private final List<Path> runs = new ArrayList<>();
+  private long bufferedBytes;
+  private long rows;
+  private int files;
+
+  public ExternalSorter(Path dir, String prefix, long budgetBytes, int fanIn) {
+    this.dir = dir;
+    this.prefix = prefix;
+    this.budgetBytes = budgetBytes;
+    this.fanIn = Math.max(fanIn, 2);
+  }
+
+  /**
+   * Tamaño aproximado en memoria de una transacción, el mismo que usa el
+   * presupuesto.
+   */
+  public static long estimateBytes(Transaction tx) {
+    String description = tx.getDescription();
+    return ROW_OVERHEAD_BYTES + (description != null ? description.length() : 0);
+  }
+
+  public void add(long seq, Transaction tx) throws IOException {
+    buffer.add(new SpilledRow(seq, tx));
+    bufferedBytes += estimateBytes(tx);
+    rows++;
+    if (bufferedBytes >= budgetBytes)
+      spill();
+  }
+
+  public long getRows() {
+    return rows;
+  }
+
+  public int getRuns() {
+    return runs.size();
+  }
+
+  /**
+   * Vuelca lo pendiente y devuelve todas las filas en orden. Mientras queden
+   * más corridas que {@code fanIn} se mezclan por tandas en corridas nuevas.
+   */
+  public RowSource sorted() throws IOException {
+    spill();
+    while (runs.size() > fanIn) {
+      List<Path> merged = new ArrayList<>();
+      for (int from = 0; from < runs.size(); from += fanIn) {
+        List<Path> group = runs.subList(from, Math.min(from + fanIn, runs.size()));
+        merged.add(group.size() == 1 ? group.get(0) : mergeToFile(group));
+      }
+      runs.clear();
+      runs.addAll(merged);
+    }
+    return merge(runs);
+  }
+
+  private void spill() throws IOException {
+    if (buffer.isEmpty())
+      return;
+    buffer.sort(SpilledRow.BY_AMOUNT_DATE);
+    try (SpillFile.Writer writer = SpillFile.writer(nextFile())) {
+      for (SpilledRow row : buffer)
+        writer.write(row);
+      runs.add(writer.getFile());
+    }
+    buffer.clear();
+    bufferedBytes = 0;
+  }
+
+  private Path mergeToFile(List<Path> group) throws IOException {
+    try (RowSource source = merge(group); SpillFile.Writer writer = SpillFile.writer(nextFile())) {
+      for (SpilledRow row = source.take(); row != null; row = source.take())
+        writer.write(row);
+      for (Path run : group)
+        Files.deleteIfExists(run);
+      return writer.getFile();
+    }
+  }
+
+  private Path nextFile() {
+    return dir.resolve(prefix + "-" + (files++) + ".run");
+  }
+
+  private static RowSource merge(List<Path> files) throws IOException {
+    List<SpillFile.Reader> readers = new ArrayList<>(files.size());
+    try {
+      for (Path file : files)
+        readers.add(SpillFile.reader(file));
+    } catch (IOException e) {
+      for (SpillFile.Reader reader : readers)
+        reader.close();
+      throw e;
+    }
+    return readers.size() == 1 ? readers.get(0) : new MergedSource(readers);
+  }
+
+  /**
+   * Mezcla k corridas ordenadas con un heap de lectores, comparando la fila
+   * que cada uno tiene al frente.
+   */
+  private static final class MergedSource implements RowSource {
+    private final List<SpillFile.Reader> readers;
+    private final PriorityQueue<SpillFile.Reader> heap;
+
+    MergedSource(List<SpillFile.Reader> readers) throws IOException {
+      this.readers = readers;
+      this.heap = new PriorityQueue<>(readers.size(),
+          (a, b) -> SpilledRow.BY_AMOUNT_DATE.compare(peekUnchecked(a), peekUnchecked(b)));
+      for (SpillFile.Reader reader : readers) {
+        if (reader.peek() != null)
+          heap.add(reader);
+      }
+    }
+
+    @Override
+    public SpilledRow peek() {
+      SpillFile.Reader head = heap.peek();
+      return head != null ? peekUnchecked(head) : null;
+    }
+
+    @Override
+    public SpilledRow take() throws IOException {
+      SpillFile.Reader head = heap.poll();
+      if (head == null)
+        return null;
+      SpilledRow row = head.take();
+      if (head.peek() != null)
+        heap.add(head);
+      return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+      for (SpillFile.Reader reader : readers)
+        reader.close();
+    }
+
+    // Los lectores en el heap ya tienen su fila leída, así que peek no toca el disco
+    private static SpilledRow peekUnchecked(SpillFile.Reader reader) {
+      try {
+        return reader.peek();
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+}
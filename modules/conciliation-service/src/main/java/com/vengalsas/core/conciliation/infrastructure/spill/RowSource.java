@@ -0,0 +1,21 @@
+package com.vengalsas.core.conciliation.infrastructure.spill;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Secuencia ordenada de filas que se consume de a una, sin cargarla entera
+ * en memoria.
+ */
+public interface RowSource extends Closeable {
+
+  /**
+   * Siguiente fila sin consumirla, o {@code null} al final.
+   */
+  SpilledRow peek() throws IOException;
+
+  /**
+   * Consume y devuelve la siguiente fila, o {@code null} al final.
+   */
+  SpilledRow take() throws IOException;
+}
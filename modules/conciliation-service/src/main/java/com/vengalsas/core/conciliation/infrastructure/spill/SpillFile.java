@@ -0,0 +1,151 @@
+package com.vengalsas.core.conciliation.infrastructure.spill;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import com.vengalsas.core.conciliation.domain.model.SourceSystem;
+import com.vengalsas.core.conciliation.domain.model.Transaction;
+import com.vengalsas.core.conciliation.domain.model.TransactionType;
+
+/**
+ * Formato binario de los archivos de volcado: por fila la posición de
+ * origen, el día epoch, el monto exacto (escala y valor sin escala), tipo,
+ * origen y descripción en UTF-8. Sólo guarda filas con fecha y monto, que son
+ * las únicas que se ordenan.
+ */
+public final class SpillFile {
+
+  // Cada archivo abierto retiene un búfer de este tamaño
+  public static final int BUFFER_BYTES = 64 * 1024;
+
+  private static final byte NO_ENUM = -1;
+  private static final TransactionType[] TYPES = TransactionType.values();
+  private static final SourceSystem[] SOURCES = SourceSystem.values();
+
+  private SpillFile() {
+  }
+
+  public static Writer writer(Path file) throws IOException {
+    return new Writer(file);
+  }
+
+  public static Reader reader(Path file) throws IOException {
+    return new Reader(file);
+  }
+
+  public static final class Writer implements Closeable {
+    private final Path file;
+    private final DataOutputStream out;
+    private long rows;
+
+    private Writer(Path file) throws IOException {
+      this.file = file;
+      this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_BYTES));
+    }
+
+    public void write(SpilledRow row) throws IOException {
+      Transaction tx = row.transaction();
+      out.writeLong(row.seq());
+      out.writeLong(tx.getDate().toEpochDay());
+      BigDecimal amount = tx.getAmount();
+      out.writeInt(amount.scale());
+      byte[] unscaled = amount.unscaledValue().toByteArray();
+      out.writeShort(unscaled.length);
+      out.write(unscaled);
+      out.writeByte(tx.getTransactionType() != null ? tx.getTransactionType().ordinal() : NO_ENUM);
+      out.writeByte(tx.getSource() != null ? tx.getSource().ordinal() : NO_ENUM);
+      if (tx.getDescription() == null) {
+        out.writeInt(-1);
+      } else {
+        byte[] description = tx.getDescription().getBytes(StandardCharsets.UTF_8);
+        out.writeInt(description.length);
+        out.write(description);
+      }
+      rows++;
+    }
+
+    public Path getFile() {
+      return file;
+    }
+
+    public long getRows() {
+      return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+      out.close();
+    }
+  }
+
+  public static final class Reader implements RowSource {
+    private final DataInputStream in;
+    private SpilledRow next;
+    private boolean done;
+
+    private Reader(Path file) throws IOException {
+      this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_BYTES));
+    }
+
+    @Override
+    public SpilledRow peek() throws IOException {
+      if (next == null && !done)
+        next = read();
+      return next;
+    }
+
+    @Override
+    public SpilledRow take() throws IOException {
+      SpilledRow row = peek();
+      next = null;
+      return row;
+    }
+
+    private SpilledRow read() throws IOException {
+      long seq;
+      try {
+        seq = in.readLong();
+      } catch (EOFException e) {
+        done = true;
+        return null;
+      }
+      LocalDate date = LocalDate.ofEpochDay(in.readLong());
+      int scale = in.readInt();
+      byte[] unscaled = new byte[in.readUnsignedShort()];
+      in.readFully(unscaled);
+      byte type = in.readByte();
+      byte source = in.readByte();
+      int descriptionLength = in.readInt();
+      String description = null;
+      if (descriptionLength >= 0) {
+        byte[] bytes = new byte[descriptionLength];
+        in.readFully(bytes);
+        description = new String(bytes, StandardCharsets.UTF_8);
+      }
+
+      return new SpilledRow(seq, Transaction.builder()
+          .date(date)
+          .amount(new BigDecimal(new BigInteger(unscaled), scale))
+          .transactionType(type != NO_ENUM ? TYPES[type] : null)
+          .source(source != NO_ENUM ? SOURCES[source] : null)
+          .description(description)
+          .build());
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package com.vengalsas.core.conciliation.infrastructure.spill;
+
+import java.util.Comparator;
+
+import com.vengalsas.core.conciliation.application.matching.TransactionBatch;
+import com.vengalsas.core.conciliation.domain.model.Transaction;
+
+/**
+ * Transacción leída de un archivo de volcado junto con su posición en el
+ * archivo de origen, que desempata las filas con la misma llave.
+ */
+public record SpilledRow(long seq, Transaction transaction) {
+
+  // Monto en centavos como el emparejamiento (100, 100.00 y 100.000000001 son iguales), fecha y posición
+  public static final Comparator<SpilledRow> BY_AMOUNT_DATE = Comparator
+      .comparing((SpilledRow row) -> TransactionBatch.roundAmount(row.transaction().getAmount()))
+      .thenComparing(row -> row.transaction().getDate())
+      .thenComparingLong(SpilledRow::seq);
+}
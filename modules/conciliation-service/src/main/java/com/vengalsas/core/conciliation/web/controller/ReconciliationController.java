@@ -1,28 +1,68 @@
 package com.vengalsas.core.conciliation.web.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.PAYLOAD_TOO_LARGE;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vengalsas.core.conciliation.application.job.JobStage;
+import com.vengalsas.core.conciliation.application.job.ReconciliationJob;
+import com.vengalsas.core.conciliation.application.job.ReconciliationJobNotFoundException;
+import com.vengalsas.core.conciliation.application.job.ReconciliationJobService;
+import com.vengalsas.core.conciliation.application.matching.MatchingMode;
+import com.vengalsas.core.conciliation.application.matching.ReconciliationStrategy;
+import com.vengalsas.core.conciliation.application.service.ArchivedReconciliationService;
+import com.vengalsas.core.conciliation.application.service.BatchReconciliationService;
+import com.vengalsas.core.conciliation.application.service.ExternalReconciliationService;
 import com.vengalsas.core.conciliation.application.service.ReconciliationService;
-import com.vengalsas.core.conciliation.domain.model.SourceSystem;
+import com.vengalsas.core.conciliation.domain.model.BancolombiaStatement;
+import com.vengalsas.core.conciliation.domain.model.ParsedUpload;
+import com.vengalsas.core.conciliation.domain.model.ReconciliationRunNotFoundException;
 import com.vengalsas.core.conciliation.domain.model.Transaction;
+import com.vengalsas.core.conciliation.infrastructure.cache.ParsedFileCache;
+import com.vengalsas.core.conciliation.infrastructure.metrics.ReconciliationMetrics;
+import com.vengalsas.core.conciliation.web.dto.BatchReconciliationResponseDTO;
+import com.vengalsas.core.conciliation.web.dto.ConciliationResultDTO;
 import com.vengalsas.core.conciliation.web.dto.NormalizedTransactionResponseDTO;
+import com.vengalsas.core.conciliation.web.dto.ParseCacheStatsDTO;
+import com.vengalsas.core.conciliation.web.dto.ReconciliationJobDTO;
 import com.vengalsas.core.conciliation.web.dto.ReconciliationRequestDTO;
 import com.vengalsas.core.conciliation.web.dto.ReconciliationResponseDTO;
+import com.vengalsas.core.conciliation.web.dto.ReconciliationSummaryDTO;
 import com.vengalsas.core.conciliation.web.dto.TransactionResponseDTO;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -38,12 +78,29 @@ import lombok.RequiredArgsConstructor;
 @Tag(name = "Conciliation", description = "Endpoints for reconciling bank and accounting transactions")
 public class ReconciliationController {
 
+  private static final long JOB_EVENTS_TIMEOUT_MILLIS = 30 * 60 * 1000L;
+  private static final int NDJSON_FLUSH_EVERY = 1000;
+
   private final ReconciliationService reconciliationService;
+  private final ExternalReconciliationService externalReconciliationService;
+  private final BatchReconciliationService batchReconciliationService;
+  private final ArchivedReconciliationService archivedReconciliationService;
+  private final ReconciliationJobService reconciliationJobService;
+  private final ParsedFileCache parsedFileCache;
+  private final ObjectMapper objectMapper;
+  private final ReconciliationMetrics metrics;
+
+  // Tope de los endpoints que leen el archivo completo en memoria; el contenedor admite hasta
+  // spring.servlet.multipart.max-file-size, que corresponde a /upload-and-reconcile/external
+  @Value("${conciliation.upload.max-in-memory-file-size:10MB}")
+  private DataSize maxInMemoryFileSize = DataSize.ofMegabytes(10);
+
   private static final Logger logger = LoggerFactory.getLogger(ReconciliationController.class);
 
   @Operation(summary = "Upload bank and accounting files", description = "Reads Bancolombia (.xlsx) and Linix (.csv or .txt) files, extracts transactions, and returns them normalized.", responses = {
       @ApiResponse(responseCode = "200", description = "Normalized transactions returned", content = @Content(schema = @Schema(implementation = NormalizedTransactionResponseDTO.class))),
-      @ApiResponse(responseCode = "400", description = "Invalid or missing files", content = @Content)
+      @ApiResponse(responseCode = "400", description = "Invalid or missing files", content = @Content),
+      @ApiResponse(responseCode = "413", description = "File larger than conciliation.upload.max-in-memory-file-size", content = @Content)
   })
   @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
   public ResponseEntity<NormalizedTransactionResponseDTO> uploadFiles(
@@ -58,37 +115,17 @@ public class ReconciliationController {
       throw new ResponseStatusException(BAD_REQUEST, "Accounting file is missing or empty.");
     }
 
+    requireInMemorySize(bankFile);
+    requireInMemorySize(accountingFile);
+
     logger.info("Received bankFile: {} ({} bytes)", bankFile.getOriginalFilename(), bankFile.getSize());
     logger.info("Received accountingFile: {} ({} bytes)", accountingFile.getOriginalFilename(),
         accountingFile.getSize());
 
     try {
-      List<Transaction> transactions = reconciliationService.readAndNormalize(bankFile, accountingFile);
-
-      List<TransactionResponseDTO> linixTransactions = transactions.stream()
-          .filter(tx -> tx.getSource() == SourceSystem.LINIX)
-          .map(this::toDto)
-          .collect(Collectors.toList());
-
-      List<TransactionResponseDTO> bancolombiaTransactions = transactions.stream()
-          .filter(tx -> tx.getSource() == SourceSystem.BANCOLOMBIA)
-          .map(this::toDto)
-          .collect(Collectors.toList());
+      ParsedUpload upload = reconciliationService.readAndNormalize(bankFile, accountingFile);
 
-      if (linixTransactions.isEmpty()) {
-        logger.warn("No Linix transactions found.");
-      }
-
-      if (bancolombiaTransactions.isEmpty()) {
-        logger.warn("No Bancolombia transactions found.");
-      }
-
-      logger.info("Normalized: {} Linix, {} Bancolombia", linixTransactions.size(), bancolombiaTransactions.size());
-
-      return ResponseEntity.ok(NormalizedTransactionResponseDTO.builder()
-          .linixTransactions(linixTransactions)
-          .bancolombiaTransactions(bancolombiaTransactions)
-          .build());
+      return ResponseEntity.ok(toResponse(upload));
 
     } catch (Exception e) {
       logger.error("Error while reading files: {}", e.getMessage(), e);
@@ -96,17 +133,14 @@ public class ReconciliationController {
     }
   }
 
-  @Operation(summary = "Reconcile transactions", description = "Receives lists of Linix and Bancolombia transactions and returns matched/unmatched results with a summary.", responses = {
+  @Operation(summary = "Reconcile transactions", description = "Receives lists of Linix and Bancolombia transactions and returns matched/unmatched results with a summary. Send the runId returned by /upload to include the statement balances; without it the summary omits them and says so in summary.avisos.", responses = {
       @ApiResponse(responseCode = "200", description = "Reconciliation results returned", content = @Content(schema = @Schema(implementation = ReconciliationResponseDTO.class))),
-      @ApiResponse(responseCode = "400", description = "Invalid request body", content = @Content)
+      @ApiResponse(responseCode = "400", description = "Invalid request body", content = @Content),
+      @ApiResponse(responseCode = "404", description = "Reconciliation run not found or expired", content = @Content)
   })
   @PostMapping(value = "/reconcile", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
   public ResponseEntity<ReconciliationResponseDTO> reconcile(@RequestBody ReconciliationRequestDTO request) {
-    if (request == null ||
-        request.getLinixTransactions() == null || request.getLinixTransactions().isEmpty() ||
-        request.getBancolombiaTransactions() == null || request.getBancolombiaTransactions().isEmpty()) {
-      throw new ResponseStatusException(BAD_REQUEST, "Reconciliation request is invalid or incomplete.");
-    }
+    validate(request);
 
     logger.info("Reconciling {} Linix and {} Bancolombia transactions",
         request.getLinixTransactions().size(), request.getBancolombiaTransactions().size());
@@ -115,12 +149,495 @@ public class ReconciliationController {
       ReconciliationResponseDTO response = reconciliationService.reconcileTransactions(request);
       logger.info("Reconciliation completed: {} results", response.getResults().size());
       return ResponseEntity.ok(response);
+    } catch (ReconciliationRunNotFoundException e) {
+      throw new ResponseStatusException(NOT_FOUND, e.getMessage());
     } catch (Exception e) {
       logger.error("Reconciliation error: {}", e.getMessage(), e);
       throw new ResponseStatusException(INTERNAL_SERVER_ERROR, "Error during reconciliation process.");
     }
   }
 
+  @Operation(summary = "Upload and reconcile in one call", description = "Reads the Bancolombia and Linix files and reconciles them on the server, returning only the results and summary instead of the normalized transactions. With parallel=true matching runs on calendar windows in parallel: exact matches are the same as the sequential run, but flexible matches near a window edge may differ.", responses = {
+      @ApiResponse(responseCode = "200", description = "Reconciliation results returned", content = @Content(schema = @Schema(implementation = ReconciliationResponseDTO.class))),
+      @ApiResponse(responseCode = "400", description = "Invalid or missing files", content = @Content),
+      @ApiResponse(responseCode = "413", description = "File larger than conciliation.upload.max-in-memory-file-size", content = @Content)
+  })
+  @PostMapping(value = "/upload-and-reconcile", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<ReconciliationResponseDTO> uploadAndReconcile(
+      @RequestPart("bankFile") MultipartFile bankFile,
+      @RequestPart("accountingFile") MultipartFile accountingFile,
+      @RequestParam(defaultValue = "GREEDY") MatchingMode matchingMode,
+      @RequestParam(defaultValue = "false") boolean parallel,
+      @RequestParam(defaultValue = "false") boolean descriptionTieBreak,
+      @RequestParam(defaultValue = "false") boolean groupedMatching,
+      @RequestParam(defaultValue = "false") boolean discrepanciesOnly,
+      @RequestParam(defaultValue = "false") boolean incremental,
+      @RequestParam(required = false) String accountKey) {
+
+    if (bankFile == null || bankFile.isEmpty()) {
+      throw new ResponseStatusException(BAD_REQUEST, "Bank file is missing or empty.");
+    }
+
+    if (accountingFile == null || accountingFile.isEmpty()) {
+      throw new ResponseStatusException(BAD_REQUEST, "Accounting file is missing or empty.");
+    }
+
+    requireInMemorySize(bankFile);
+    requireInMemorySize(accountingFile);
+
+    logger.info("Upload and reconcile: bankFile {} ({} bytes), accountingFile {} ({} bytes)",
+        bankFile.getOriginalFilename(), bankFile.getSize(), accountingFile.getOriginalFilename(),
+        accountingFile.getSize());
+
+    ReconciliationRequestDTO options = new ReconciliationRequestDTO();
+    options.setMatchingMode(matchingMode);
+    options.setParallel(parallel);
+    options.setDescriptionTieBreak(descriptionTieBreak);
+    options.setGroupedMatching(groupedMatching);
+    options.setDiscrepanciesOnly(discrepanciesOnly);
+    options.setIncremental(incremental);
+    options.setAccountKey(accountKey);
+    validateIncremental(options);
+
+    try {
+      ReconciliationResponseDTO response = reconciliationService.uploadAndReconcile(bankFile, accountingFile, options);
+      logger.info("Reconciliation completed: {} results", response.getResults().size());
+      return ResponseEntity.ok(response);
+    } catch (Exception e) {
+      logger.error("Upload and reconcile error: {}", e.getMessage(), e);
+      throw new ResponseStatusException(INTERNAL_SERVER_ERROR, "Error while processing files.");
+    }
+  }
+
+  @Operation(summary = "Reconcile transactions as NDJSON", description = "Same as /reconcile, but streams one result per line as it is produced and sends the summary as the last line.")
+  @PostMapping(value = "/reconcile", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> reconcileStream(@RequestBody ReconciliationRequestDTO request) {
+    validate(request);
+
+    BancolombiaStatement statement;
+    try {
+      statement = reconciliationService.resolveStatement(request.getRunId());
+    } catch (ReconciliationRunNotFoundException e) {
+      throw new ResponseStatusException(NOT_FOUND, e.getMessage());
+    }
+
+    logger.info("Streaming reconciliation of {} Linix and {} Bancolombia transactions",
+        request.getLinixTransactions().size(), request.getBancolombiaTransactions().size());
+    return ndjson(request, statement);
+  }
+
+  @Operation(summary = "Upload and reconcile as NDJSON", description = "Same as /upload-and-reconcile, but streams one result per line and sends the summary as the last line.")
+  @PostMapping(value = "/upload-and-reconcile", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> uploadAndReconcileStream(
+      @RequestPart("bankFile") MultipartFile bankFile,
+      @RequestPart("accountingFile") MultipartFile accountingFile,
+      @RequestParam(defaultValue = "GREEDY") MatchingMode matchingMode,
+      @RequestParam(defaultValue = "false") boolean parallel,
+      @RequestParam(defaultValue = "false") boolean descriptionTieBreak,
+      @RequestParam(defaultValue = "false") boolean groupedMatching,
+      @RequestParam(defaultValue = "false") boolean discrepanciesOnly,
+      @RequestParam(defaultValue = "false") boolean incremental,
+      @RequestParam(required = false) String accountKey) {
+
+    if (bankFile == null || bankFile.isEmpty()) {
+      throw new ResponseStatusException(BAD_REQUEST, "Bank file is missing or empty.");
+    }
+
+    if (accountingFile == null || accountingFile.isEmpty()) {
+      throw new ResponseStatusException(BAD_REQUEST, "Accounting file is missing or empty.");
+    }
+
+    requireInMemorySize(bankFile);
+    requireInMemorySize(accountingFile);
+
+    ReconciliationRequestDTO request = new ReconciliationRequestDTO();
+    request.setMatchingMode(matchingMode);
+    request.setParallel(parallel);
+    request.setDescriptionTieBreak(descriptionTieBreak);
+    request.setGroupedMatching(groupedMatching);
+    request.setDiscrepanciesOnly(discrepanciesOnly);
+    request.setIncremental(incremental);
+    request.setAccountKey(accountKey);
+    validateIncremental(request);
+
+    // Los archivos se leen antes de empezar a escribir para poder responder con error si fallan
+    ParsedUpload upload;
+    try {
+      upload = reconciliationService.readAndNormalize(bankFile, accountingFile);
+    } catch (Exception e) {
+      logger.error("Error while reading files: {}", e.getMessage(), e);
+      throw new ResponseStatusException(INTERNAL_SERVER_ERROR, "Error while processing files.");
+    }
+
+    request.setRunId(upload.getRunId());
+    request.setLinixTransactions(upload.getLinixTransactions());
+    request.setBancolombiaTransactions(upload.getBancolombiaStatement().getTransactions());
+    return ndjson(request, upload.getBancolombiaStatement());
+  }
+
+  @Operation(summary = "Upload and reconcile out of core", description = "For files larger than the heap. Both files are streamed to local disk, sorted externally by amount and date and merge-joined with the exact and ±1 day / ±500 rules. Streams one result per line in amount order and sends the summary as the last line; heap use is bounded by conciliation.external.heap-budget-bytes. Accepts files up to spring.servlet.multipart.max-file-size, well above the limit of the in-memory endpoints.")
+  @PostMapping(value = "/upload-and-reconcile/external", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> uploadAndReconcileExternal(
+      @RequestPart("bankFile") MultipartFile bankFile,
+      @RequestPart("accountingFile") MultipartFile accountingFile,
+      @RequestParam(defaultValue = "false") boolean discrepanciesOnly) {
+
+    if (bankFile == null || bankFile.isEmpty()) {
+      throw new ResponseStatusException(BAD_REQUEST, "Bank file is missing or empty.");
+    }
+
+    if (accountingFile == null || accountingFile.isEmpty()) {
+      throw new ResponseStatusException(BAD_REQUEST, "Accounting file is missing or empty.");
+    }
+
+    logger.info("External reconciliation: bankFile {} ({} bytes), accountingFile {} ({} bytes)",
+        bankFile.getOriginalFilename(), bankFile.getSize(), accountingFile.getOriginalFilename(),
+        accountingFile.getSize());
+    return ndjson(null,
+        sink -> externalReconciliationService.reconcile(bankFile, accountingFile, discrepanciesOnly, sink));
+  }
+
+  @Operation(summary = "Reconcile many accounts from one ZIP", description = "Reads a ZIP of Bancolombia statements (.xlsx/.xls) and Linix files (.txt), extracting each entry to a temporary file that is deleted when the batch ends, and pairs them by account: by file name without the source suffix (123_banco.xlsx with 123_linix.txt) or, when the name is only the source, by folder (123/extracto.xlsx with 123/linix.txt). A workbook with no Linix file of its own is read as one account per sheet, paired by sheet name. Accounts are reconciled in parallel, bounded by conciliation.batch.concurrency, and each account reads its files (or its sheet) only when its turn comes; returns each account's summary (with its reconciliationId for /rematch) or error, plus the combined summary.", responses = {
+      @ApiResponse(responseCode = "200", description = "Per-account and combined summaries returned", content = @Content(schema = @Schema(implementation = BatchReconciliationResponseDTO.class))),
+      @ApiResponse(responseCode = "400", description = "Missing, invalid or oversized archive", content = @Content)
+  })
+  @PostMapping(value = "/upload-and-reconcile/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<BatchReconciliationResponseDTO> uploadAndReconcileBatch(
+      @RequestPart("archive") MultipartFile archive,
+      @RequestParam(defaultValue = "GREEDY") MatchingMode matchingMode,
+      @RequestParam(defaultValue = "false") boolean descriptionTieBreak,
+      @RequestParam(defaultValue = "false") boolean groupedMatching) {
+
+    if (archive == null || archive.isEmpty()) {
+      throw new ResponseStatusException(BAD_REQUEST, "Archive is missing or empty.");
+    }
+
+    logger.info("Batch reconciliation: archive {} ({} bytes)", archive.getOriginalFilename(), archive.getSize());
+
+    ReconciliationRequestDTO options = new ReconciliationRequestDTO();
+    options.setMatchingMode(matchingMode);
+    options.setDescriptionTieBreak(descriptionTieBreak);
+    options.setGroupedMatching(groupedMatching);
+
+    try {
+      BatchReconciliationResponseDTO response = batchReconciliationService.reconcile(archive.getInputStream(), options);
+      logger.info("Batch reconciliation completed: {} accounts, {} failed", response.getAccounts(),
+          response.getFailed());
+      return ResponseEntity.ok(response);
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(BAD_REQUEST, e.getMessage());
+    } catch (IOException e) {
+      logger.warn("Unreadable batch archive: {}", e.getMessage());
+      throw new ResponseStatusException(BAD_REQUEST, "Archive is not a valid ZIP file.");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ResponseStatusException(SERVICE_UNAVAILABLE, "Batch reconciliation was interrupted.");
+    }
+  }
+
+  @Operation(summary = "Re-run an archived reconciliation", description = "Matches again the transactions archived for a reconciliation (summary.reconciliationId) and streams one result per line, with the summary as the last line. strategy=DATABASE runs the exact and flexible passes as SQL over indexed staging tables and only fetches the result rows; strategy=MEMORY loads both sides into the in-memory engine. Both return the same pairs, order and summary (greedy mode, no description tie-break or grouped matching).", responses = {
+      @ApiResponse(responseCode = "200", description = "Results streamed"),
+      @ApiResponse(responseCode = "404", description = "Reconciliation not archived", content = @Content),
+      @ApiResponse(responseCode = "409", description = "Archive disabled", content = @Content)
+  })
+  @PostMapping(value = "/reconciliations/{reconciliationId}/rematch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> rematchArchived(
+      @PathVariable UUID reconciliationId,
+      @RequestParam(defaultValue = "DATABASE") ReconciliationStrategy strategy,
+      @RequestParam(defaultValue = "false") boolean discrepanciesOnly) {
+
+    BancolombiaStatement statement;
+    try {
+      statement = archivedReconciliationService.resolveStatement(reconciliationId);
+    } catch (ReconciliationRunNotFoundException e) {
+      throw new ResponseStatusException(NOT_FOUND, e.getMessage());
+    } catch (IllegalStateException e) {
+      throw new ResponseStatusException(CONFLICT, "Reconciliation archive is disabled.");
+    }
+
+    logger.info("Re-running archived reconciliation {} with strategy {}", reconciliationId, strategy);
+    return ndjson(null, sink -> archivedReconciliationService.reconcile(reconciliationId, statement, strategy,
+        discrepanciesOnly, sink));
+  }
+
+  @Operation(summary = "Upload files asynchronously", description = "Queues the reading of the Bancolombia and Linix files and returns a job ID immediately. Poll the job or subscribe to its events, then fetch the result.", responses = {
+      @ApiResponse(responseCode = "202", description = "Job accepted", content = @Content(schema = @Schema(implementation = ReconciliationJobDTO.class))),
+      @ApiResponse(responseCode = "400", description = "Invalid or missing files", content = @Content),
+      @ApiResponse(responseCode = "413", description = "File larger than conciliation.upload.max-in-memory-file-size", content = @Content),
+      @ApiResponse(responseCode = "503", description = "Job queue is full", content = @Content)
+  })
+  @PostMapping(value = "/jobs/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<ReconciliationJobDTO> submitUpload(
+      @RequestPart("bankFile") MultipartFile bankFile,
+      @RequestPart("accountingFile") MultipartFile accountingFile) {
+
+    if (bankFile == null || bankFile.isEmpty()) {
+      throw new ResponseStatusException(BAD_REQUEST, "Bank file is missing or empty.");
+    }
+
+    if (accountingFile == null || accountingFile.isEmpty()) {
+      throw new ResponseStatusException(BAD_REQUEST, "Accounting file is missing or empty.");
+    }
+
+    requireInMemorySize(bankFile);
+    requireInMemorySize(accountingFile);
+
+    try {
+      return accepted(reconciliationJobService.submitUpload(bankFile, accountingFile));
+    } catch (RejectedExecutionException e) {
+      throw new ResponseStatusException(SERVICE_UNAVAILABLE, "Too many jobs in progress, try again later.");
+    } catch (IOException e) {
+      logger.error("Error while storing uploaded files: {}", e.getMessage(), e);
+      throw new ResponseStatusException(INTERNAL_SERVER_ERROR, "Error while processing files.");
+    }
+  }
+
+  @Operation(summary = "Reconcile asynchronously", description = "Queues a reconciliation and returns a job ID immediately.", responses = {
+      @ApiResponse(responseCode = "202", description = "Job accepted", content = @Content(schema = @Schema(implementation = ReconciliationJobDTO.class))),
+      @ApiResponse(responseCode = "400", description = "Invalid request body", content = @Content),
+      @ApiResponse(responseCode = "503", description = "Job queue is full", content = @Content)
+  })
+  @PostMapping(value = "/jobs/reconcile", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<ReconciliationJobDTO> submitReconciliation(@RequestBody ReconciliationRequestDTO request) {
+    validate(request);
+
+    try {
+      return accepted(reconciliationJobService.submitReconciliation(request));
+    } catch (RejectedExecutionException e) {
+      throw new ResponseStatusException(SERVICE_UNAVAILABLE, "Too many jobs in progress, try again later.");
+    }
+  }
+
+  @Operation(summary = "Get job progress", description = "Returns the stage, parsed rows and matched count of a job.", responses = {
+      @ApiResponse(responseCode = "200", description = "Job status returned", content = @Content(schema = @Schema(implementation = ReconciliationJobDTO.class))),
+      @ApiResponse(responseCode = "404", description = "Job not found or expired", content = @Content)
+  })
+  @GetMapping(value = "/jobs/{jobId}", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<ReconciliationJobDTO> getJob(@PathVariable UUID jobId) {
+    return ResponseEntity.ok(toJobDto(findJob(jobId)));
+  }
+
+  @Operation(summary = "Stream job progress", description = "Server-Sent Events with the job status on every change; the stream ends when the job finishes.")
+  @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamJob(@PathVariable UUID jobId) {
+    ReconciliationJob job = findJob(jobId);
+    SseEmitter emitter = new SseEmitter(JOB_EVENTS_TIMEOUT_MILLIS);
+
+    AtomicReference<Runnable> unsubscribe = new AtomicReference<>(() -> {
+    });
+    emitter.onCompletion(() -> unsubscribe.get().run());
+    emitter.onTimeout(() -> unsubscribe.get().run());
+    emitter.onError(e -> unsubscribe.get().run());
+
+    unsubscribe.set(job.subscribe(current -> {
+      try {
+        emitter.send(SseEmitter.event().name(current.getStage().name().toLowerCase()).data(toJobDto(current)));
+        if (current.getStage().isFinished())
+          emitter.complete();
+      } catch (IOException | IllegalStateException e) {
+        // Cliente desconectado o stream ya cerrado
+        unsubscribe.get().run();
+      }
+    }));
+    return emitter;
+  }
+
+  @Operation(summary = "Get job result", description = "Returns the upload or reconciliation result once the job has completed.", responses = {
+      @ApiResponse(responseCode = "200", description = "Job result returned", content = @Content),
+      @ApiResponse(responseCode = "404", description = "Job not found or expired", content = @Content),
+      @ApiResponse(responseCode = "409", description = "Job still running", content = @Content),
+      @ApiResponse(responseCode = "500", description = "Job failed", content = @Content)
+  })
+  @GetMapping(value = "/jobs/{jobId}/result", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<?> getJobResult(@PathVariable UUID jobId) {
+    ReconciliationJob job = findJob(jobId);
+
+    if (job.getStage() == JobStage.FAILED) {
+      throw new ResponseStatusException(INTERNAL_SERVER_ERROR, "Job failed: " + job.getError());
+    }
+
+    if (job.getStage() != JobStage.COMPLETED) {
+      throw new ResponseStatusException(CONFLICT, "Job is still running (" + job.getStage() + ").");
+    }
+
+    Object result = job.getResult();
+    return ResponseEntity.ok(result instanceof ParsedUpload upload ? toResponse(upload) : result);
+  }
+
+  /**
+   * Una línea JSON por resultado y, al final, una línea con runId y summary.
+   * Se vacía el buffer cada {@code NDJSON_FLUSH_EVERY} líneas para que el
+   * cliente pueda empezar a procesar sin esperar al final. Si la conciliación
+   * falla con la respuesta ya empezada, la última línea trae {@code error} en
+   * lugar del summary, para que el cliente no tome el resultado parcial como
+   * completo.
+   */
+  private ResponseEntity<StreamingResponseBody> ndjson(ReconciliationRequestDTO request,
+      BancolombiaStatement statement) {
+    return ndjson(request.getRunId(), sink -> reconciliationService.streamReconciliation(request, statement, sink));
+  }
+
+  @FunctionalInterface
+  private interface ResultProducer {
+    ReconciliationSummaryDTO produce(Consumer<ConciliationResultDTO> sink) throws Exception;
+  }
+
+  private ResponseEntity<StreamingResponseBody> ndjson(UUID runId, ResultProducer producer) {
+    StreamingResponseBody body = out -> {
+      JsonGenerator json = objectMapper.createGenerator(out);
+      json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      json.setRootValueSeparator(new SerializedString("\n"));
+
+      int[] lines = { 0 };
+      long[] writeNanos = { 0 };
+      ReconciliationSummaryDTO summary;
+      try {
+        summary = producer.produce(result -> {
+          try {
+            long start = System.nanoTime();
+            json.writeObject(result);
+            if (++lines[0] % NDJSON_FLUSH_EVERY == 0)
+              json.flush();
+            writeNanos[0] += System.nanoTime() - start;
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+      } catch (UncheckedIOException e) {
+        // No se pudo escribir (el cliente cortó): tampoco se puede avisar
+        throw e.getCause();
+      } catch (Exception e) {
+        logger.error("Streaming reconciliation failed after {} results: {}", lines[0], e.getMessage(), e);
+        json.writeObject(ReconciliationResponseDTO.builder()
+            .runId(runId)
+            .error("Error during reconciliation process.")
+            .build());
+        json.writeRaw('\n');
+        json.close();
+        return;
+      }
+
+      json.writeObject(ReconciliationResponseDTO.builder()
+          .runId(runId)
+          .summary(summary)
+          .build());
+      json.writeRaw('\n');
+      json.close();
+      metrics.recordSerialization("ndjson", writeNanos[0]);
+      logger.info("Streamed {} reconciliation results", lines[0]);
+    };
+
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .body(body);
+  }
+
+  @Operation(summary = "Reset incremental state", description = "Drops the carried-over unmatched transactions and seen rows of an account, so the next incremental reconciliation starts from scratch.", responses = {
+      @ApiResponse(responseCode = "204", description = "State removed", content = @Content),
+      @ApiResponse(responseCode = "404", description = "No incremental state for the account", content = @Content)
+  })
+  @DeleteMapping("/incremental/{accountKey}")
+  public ResponseEntity<Void> resetIncremental(@PathVariable String accountKey) {
+    if (!reconciliationService.resetIncremental(accountKey)) {
+      throw new ResponseStatusException(NOT_FOUND, "No incremental state for account " + accountKey + ".");
+    }
+    return ResponseEntity.noContent().build();
+  }
+
+  @Operation(summary = "Parsed file cache statistics", description = "Hit, miss and eviction counts of the cache of already parsed bank and accounting files.")
+  @GetMapping(value = "/parse-cache", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<ParseCacheStatsDTO> parseCacheStats() {
+    return ResponseEntity.ok(ParseCacheStatsDTO.builder()
+        .enabled(parsedFileCache.isEnabled())
+        .hits(parsedFileCache.getHits())
+        .diskHits(parsedFileCache.getDiskHits())
+        .misses(parsedFileCache.getMisses())
+        .evictions(parsedFileCache.getEvictions())
+        .entries(parsedFileCache.getEntries())
+        .cachedRows(parsedFileCache.getCachedRows())
+        .build());
+  }
+
+  private void validate(ReconciliationRequestDTO request) {
+    if (request == null ||
+        request.getLinixTransactions() == null || request.getLinixTransactions().isEmpty() ||
+        request.getBancolombiaTransactions() == null || request.getBancolombiaTransactions().isEmpty()) {
+      throw new ResponseStatusException(BAD_REQUEST, "Reconciliation request is invalid or incomplete.");
+    }
+    validateIncremental(request);
+  }
+
+  private void requireInMemorySize(MultipartFile file) {
+    if (file.getSize() > maxInMemoryFileSize.toBytes()) {
+      throw new ResponseStatusException(PAYLOAD_TOO_LARGE, "File " + file.getOriginalFilename() + " exceeds "
+          + maxInMemoryFileSize.toMegabytes() + "MB; use /upload-and-reconcile/external for larger files.");
+    }
+  }
+
+  private void validateIncremental(ReconciliationRequestDTO request) {
+    if (request.isIncremental() && (request.getAccountKey() == null || request.getAccountKey().isBlank())) {
+      throw new ResponseStatusException(BAD_REQUEST, "Incremental reconciliation requires an accountKey.");
+    }
+  }
+
+  private ReconciliationJob findJob(UUID jobId) {
+    try {
+      return reconciliationJobService.find(jobId);
+    } catch (ReconciliationJobNotFoundException e) {
+      throw new ResponseStatusException(NOT_FOUND, e.getMessage());
+    }
+  }
+
+  private ResponseEntity<ReconciliationJobDTO> accepted(ReconciliationJob job) {
+    return ResponseEntity.accepted()
+        .location(URI.create("/api/v1/conciliation/jobs/" + job.getId()))
+        .body(toJobDto(job));
+  }
+
+  private ReconciliationJobDTO toJobDto(ReconciliationJob job) {
+    return ReconciliationJobDTO.builder()
+        .jobId(job.getId())
+        .type(job.getType())
+        .stage(job.getStage())
+        .linixRows(job.getLinixRows())
+        .bancolombiaRows(job.getBancolombiaRows())
+        .matchedCount(job.getMatchedCount())
+        .runId(job.getRunId())
+        .error(job.getError())
+        .createdAt(job.getCreatedAt())
+        .finishedAt(job.getFinishedAt())
+        .build();
+  }
+
+  private NormalizedTransactionResponseDTO toResponse(ParsedUpload upload) {
+    List<TransactionResponseDTO> linixTransactions = upload.getLinixTransactions().stream()
+        .map(this::toDto)
+        .collect(Collectors.toList());
+
+    List<TransactionResponseDTO> bancolombiaTransactions = upload.getBancolombiaStatement().getTransactions().stream()
+        .map(this::toDto)
+        .collect(Collectors.toList());
+
+    if (linixTransactions.isEmpty()) {
+      logger.warn("No Linix transactions found.");
+    }
+
+    if (bancolombiaTransactions.isEmpty()) {
+      logger.warn("No Bancolombia transactions found.");
+    }
+
+    logger.info("Normalized: {} Linix ({} ms), {} Bancolombia ({} ms)", linixTransactions.size(),
+        upload.getAccountingReadMillis(), bancolombiaTransactions.size(), upload.getBankReadMillis());
+
+    return NormalizedTransactionResponseDTO.builder()
+        .runId(upload.getRunId())
+        .linixTransactions(linixTransactions)
+        .bancolombiaTransactions(bancolombiaTransactions)
+        .bankReadMillis(upload.getBankReadMillis())
+        .accountingReadMillis(upload.getAccountingReadMillis())
+        .build();
+  }
+
   private TransactionResponseDTO toDto(Transaction tx) {
     return TransactionResponseDTO.builder()
         .date(tx.getDate())
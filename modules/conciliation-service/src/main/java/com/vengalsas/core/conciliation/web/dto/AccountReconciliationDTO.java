@@ -0,0 +1,16 @@
+package com.vengalsas.core.conciliation.web.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class AccountReconciliationDTO {
+  private String account;
+  // Entrada del ZIP; para un libro con una cuenta por hoja, "libro.xlsx#hoja"
+  private String bankFile;
+  private String accountingFile;
+  // null si la cuenta falló; en ese caso error trae el motivo
+  private ReconciliationSummaryDTO summary;
+  private String error;
+}
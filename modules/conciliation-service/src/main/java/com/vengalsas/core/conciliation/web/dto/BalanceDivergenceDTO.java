@@ -0,0 +1,19 @@
+package com.vengalsas.core.conciliation.web.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BalanceDivergenceDTO {
+  private LocalDate fecha;
+  private BigDecimal saldoLinix;
+  private BigDecimal saldoBanco;
+  // Saldo del extracto menos saldo Linix al cierre del día
+  private BigDecimal diferencia;
+  // Cuánto cambió la diferencia ese día: lo que hay que buscar en los movimientos de la fecha
+  private BigDecimal variacion;
+}
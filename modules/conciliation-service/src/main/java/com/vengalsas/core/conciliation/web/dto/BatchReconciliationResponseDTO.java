@@ -0,0 +1,21 @@
+package com.vengalsas.core.conciliation.web.dto;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BatchReconciliationResponseDTO {
+  private int accounts;
+  private int reconciled;
+  private int failed;
+  // Ordenadas por cuenta
+  private List<AccountReconciliationDTO> results;
+  // Suma de los resúmenes de las cuentas conciliadas
+  private ReconciliationSummaryDTO combined;
+  // Entradas del ZIP y hojas del libro que no se pudieron asociar a una cuenta
+  private List<String> ignoredFiles;
+  private long elapsedMillis;
+}
@@ -12,4 +12,6 @@ public class ConciliationResultDTO {
   private Transaction bancolombiaTransaction;
   private boolean matched;
   private String discrepancyType;
+  // Grupo N:1 o 1:N al que pertenece la pareja; null en las coincidencias 1:1 y las discrepancias
+  private Integer groupId;
 }
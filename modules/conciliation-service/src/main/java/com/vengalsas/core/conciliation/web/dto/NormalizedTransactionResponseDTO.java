@@ -1,6 +1,7 @@
 package com.vengalsas.core.conciliation.web.dto;
 
 import java.util.List;
+import java.util.UUID;
 
 import lombok.Builder;
 import lombok.Data;
@@ -8,6 +9,9 @@ import lombok.Data;
 @Data
 @Builder
 public class NormalizedTransactionResponseDTO {
+  private UUID runId;
   private List<TransactionResponseDTO> linixTransactions;
   private List<TransactionResponseDTO> bancolombiaTransactions;
+  private long bankReadMillis;
+  private long accountingReadMillis;
 }
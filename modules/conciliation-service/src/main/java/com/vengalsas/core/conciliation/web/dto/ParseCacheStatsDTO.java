@@ -0,0 +1,16 @@
+package com.vengalsas.core.conciliation.web.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ParseCacheStatsDTO {
+  private boolean enabled;
+  private long hits;
+  private long diskHits;
+  private long misses;
+  private long evictions;
+  private int entries;
+  private long cachedRows;
+}
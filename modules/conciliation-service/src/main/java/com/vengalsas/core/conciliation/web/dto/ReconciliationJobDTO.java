@@ -0,0 +1,25 @@
+package com.vengalsas.core.conciliation.web.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import com.vengalsas.core.conciliation.application.job.JobStage;
+import com.vengalsas.core.conciliation.application.job.JobType;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ReconciliationJobDTO {
+  private UUID jobId;
+  private JobType type;
+  private JobStage stage;
+  private long linixRows;
+  private long bancolombiaRows;
+  private int matchedCount;
+  private UUID runId;
+  private String error;
+  private Instant createdAt;
+  private Instant finishedAt;
+}
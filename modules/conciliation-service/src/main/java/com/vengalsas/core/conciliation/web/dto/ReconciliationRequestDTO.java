@@ -1,13 +1,27 @@
 package com.vengalsas.core.conciliation.web.dto;
 
 import java.util.List;
+import java.util.UUID;
 
+import com.vengalsas.core.conciliation.application.matching.MatchingMode;
 import com.vengalsas.core.conciliation.domain.model.Transaction;
 
 import lombok.Data;
 
 @Data
 public class ReconciliationRequestDTO {
+  private UUID runId;
   private List<Transaction> linixTransactions;
   private List<Transaction> bancolombiaTransactions;
+  private MatchingMode matchingMode = MatchingMode.GREEDY;
+  private boolean parallel;
+  // Entre candidatos flexibles prefiere el de descripción más parecida
+  private boolean descriptionTieBreak;
+  // Tras las pasadas 1:1 busca grupos de pendientes cuya suma cuadre con un movimiento del otro lado
+  private boolean groupedMatching;
+  // Devuelve sólo los resultados no conciliados; el resumen sigue contando todo
+  private boolean discrepanciesOnly;
+  // Conciliación incremental: sólo las filas nuevas de la cuenta más lo pendiente
+  private boolean incremental;
+  private String accountKey;
 }
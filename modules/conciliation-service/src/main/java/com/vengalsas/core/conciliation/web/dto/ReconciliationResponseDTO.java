@@ -1,6 +1,9 @@
 package com.vengalsas.core.conciliation.web.dto;
 
 import java.util.List;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -11,7 +14,11 @@ import lombok.NoArgsConstructor;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class ReconciliationResponseDTO {
+  private UUID runId;
   private List<ConciliationResultDTO> results;
   private ReconciliationSummaryDTO summary;
+  // Sólo en la última línea de un NDJSON que falló a mitad de camino, en lugar del summary
+  private String error;
 }
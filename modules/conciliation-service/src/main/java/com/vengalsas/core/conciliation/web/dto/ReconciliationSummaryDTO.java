@@ -1,6 +1,11 @@
 package com.vengalsas.core.conciliation.web.dto;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import com.vengalsas.core.conciliation.application.matching.MatchingMode;
 
 import lombok.Builder;
 import lombok.Data;
@@ -8,12 +13,34 @@ import lombok.Data;
 @Data
 @Builder
 public class ReconciliationSummaryDTO {
+  // Id con el que quedó archivada; null si el archivo está deshabilitado
+  private UUID reconciliationId;
+
   private int totalLinix;
   private int totalBancolombia;
   private int matchedCount;
+  // Conciliados por suma en grupos N:1 o 1:N; no cuentan en matchedCount
+  private int groupedMatches;
+  private int groupedLinix;
+  private int groupedBancolombia;
   private int unmatchedLinix;
   private int unmatchedBancolombia;
 
+  private MatchingMode matchingMode;
+  private int matchesDifferentFromGreedy;
+  // Componentes flexibles demasiado grandes para el modo OPTIMAL, resueltas con la asignación voraz
+  private int greedyFallbackComponents;
+  // Sólo en la conciliación externa: Bancolombia que salieron de la ventana flexible llena sin
+  // compararse con todas sus posibles parejas; ya cuentan en unmatchedBancolombia
+  private Long windowEvictions;
+
+  // Sólo en modo incremental
+  private Integer newLinix;
+  private Integer newBancolombia;
+  private Integer carriedLinix;
+  private Integer carriedBancolombia;
+  private Long matchedTotal;
+
   private BigDecimal totalLinixAmount;
   private BigDecimal totalBancolombiaAmount;
 
@@ -27,4 +54,18 @@ public class ReconciliationSummaryDTO {
   private BigDecimal saldoFinalBanco;
   private BigDecimal saldoFinalCalculado;
   private BigDecimal diferenciaSaldoFinal;
+
+  // Totales del encabezado del extracto contra la suma de sus movimientos
+  private BigDecimal totalAbonosExtracto;
+  private BigDecimal totalCargosExtracto;
+  private BigDecimal diferenciaAbonos;
+  private BigDecimal diferenciaCargos;
+  private Boolean totalesExtractoCuadran;
+
+  // Días en que cambia la diferencia entre el saldo Linix y el del extracto; vacío si cuadran día a día
+  private LocalDate fechaPrimeraDivergencia;
+  private List<BalanceDivergenceDTO> divergenciasSaldo;
+
+  // Datos que faltan en el resumen y por qué; null si está completo
+  private List<String> avisos;
 }
@@ -0,0 +1,41 @@
+package com.vengalsas.core.conciliation.application.classification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import com.vengalsas.core.conciliation.domain.model.SourceSystem;
+
+class DiscrepancyClassifierTest {
+
+  @Test
+  void defaultRulesKeepPriorityAndIgnoreAccents() throws Exception {
+    DiscrepancyClassifier classifier = new DiscrepancyClassifier(
+        DiscrepancyClassifier.readRules(new ClassPathResource("discrepancy-rules.txt")), 100);
+
+    assertEquals("Comisión bancaria", classifier.classify("COBRO COMISION MANEJO", SourceSystem.BANCOLOMBIA));
+    assertEquals("Intereses bancarios", classifier.classify("Abono Interés ahorros", SourceSystem.BANCOLOMBIA));
+    // "error" y "cheque": gana la regla anterior en el archivo
+    assertEquals("Cheque pendiente de cobro", classifier.classify("error en cheque 123", SourceSystem.LINIX));
+    assertEquals(DiscrepancyClassifier.UNRECORDED_BANK_MOVEMENT,
+        classifier.classify("TRANSFERENCIA", SourceSystem.BANCOLOMBIA));
+    assertEquals(DiscrepancyClassifier.UNREFLECTED_LEDGER_MOVEMENT, classifier.classify(null, SourceSystem.LINIX));
+  }
+
+  @Test
+  void automatonFindsOverlappingKeywords() {
+    // "ana" sólo aparece a través del enlace de fallo de "banana"
+    KeywordAutomaton automaton = new KeywordAutomaton(List.of(
+        List.of("bananas"),
+        List.of("nab"),
+        List.of("ana")));
+
+    assertEquals(2, automaton.firstRule("xbanana"));
+    assertEquals(1, automaton.firstRule("bananab"));
+    assertEquals(0, automaton.firstRule("BANANAS"));
+    assertEquals(KeywordAutomaton.NO_MATCH, automaton.firstRule("banca"));
+  }
+}
@@ -0,0 +1,150 @@
+package com.vengalsas.core.conciliation.application.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.vengalsas.core.conciliation.application.service.ReconciliationProgressListener;
+import com.vengalsas.core.conciliation.application.service.ReconciliationService;
+import com.vengalsas.core.conciliation.web.dto.ReconciliationRequestDTO;
+import com.vengalsas.core.conciliation.web.dto.ReconciliationResponseDTO;
+
+class ReconciliationJobServiceTest {
+
+  private final ReconciliationService reconciliationService = mock(ReconciliationService.class);
+  private final ExecutorService events = Executors.newVirtualThreadPerTaskExecutor();
+  private ThreadPoolTaskExecutor executor;
+  private ReconciliationJobService jobService;
+
+  @BeforeEach
+  void setUp() {
+    executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(1);
+    executor.setMaxPoolSize(1);
+    executor.setQueueCapacity(1);
+    executor.initialize();
+    jobService = new ReconciliationJobService(reconciliationService, executor, events, 60);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdown();
+    events.shutdownNow();
+  }
+
+  @Test
+  void reportsProgressAndExposesTheResult() throws Exception {
+    ReconciliationResponseDTO response = ReconciliationResponseDTO.builder().results(List.of()).build();
+    when(reconciliationService.reconcileTransactions(any(), any())).thenAnswer(invocation -> {
+      ReconciliationProgressListener listener = invocation.getArgument(1);
+      listener.onStage(JobStage.MATCHING);
+      listener.onMatched(7);
+      return response;
+    });
+
+    ReconciliationJob job = jobService.submitReconciliation(new ReconciliationRequestDTO());
+    List<JobStage> stages = new CopyOnWriteArrayList<>();
+    CountDownLatch finished = new CountDownLatch(1);
+    job.subscribe(current -> {
+      stages.add(current.getStage());
+      if (current.getStage().isFinished())
+        finished.countDown();
+    });
+
+    assertTrue(finished.await(5, TimeUnit.SECONDS));
+    assertEquals(JobStage.COMPLETED, job.getStage());
+    assertEquals(7, job.getMatchedCount());
+    assertSame(response, jobService.find(job.getId()).getResult());
+    assertEquals(JobStage.COMPLETED, stages.get(stages.size() - 1));
+  }
+
+  @Test
+  void aSlowSubscriberDoesNotHoldTheWorker() throws Exception {
+    when(reconciliationService.reconcileTransactions(any(), any())).thenAnswer(invocation -> {
+      ReconciliationProgressListener listener = invocation.getArgument(1);
+      for (int i = 1; i <= 100; i++)
+        listener.onMatched(i);
+      return ReconciliationResponseDTO.builder().build();
+    });
+
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch delivered = new CountDownLatch(1);
+    List<JobStage> stages = new CopyOnWriteArrayList<>();
+    ReconciliationJob job = jobService.submitReconciliation(new ReconciliationRequestDTO());
+    job.subscribe(current -> {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      stages.add(current.getStage());
+      if (current.getStage().isFinished())
+        delivered.countDown();
+    });
+
+    // El trabajo termina aunque el suscriptor siga bloqueado en el primer evento
+    for (int i = 0; i < 500 && !job.getStage().isFinished(); i++)
+      Thread.sleep(10);
+    assertEquals(JobStage.COMPLETED, job.getStage());
+    assertEquals(100, job.getMatchedCount());
+    assertTrue(stages.isEmpty());
+
+    release.countDown();
+    assertTrue(delivered.await(5, TimeUnit.SECONDS));
+    assertEquals(JobStage.COMPLETED, stages.get(stages.size() - 1));
+  }
+
+  @Test
+  void purgesFinishedJobsPastTheRetention() throws Exception {
+    when(reconciliationService.reconcileTransactions(any(), any()))
+        .thenReturn(ReconciliationResponseDTO.builder().build());
+    ReconciliationJobService shortLived = new ReconciliationJobService(reconciliationService, executor, events, 0);
+
+    ReconciliationJob job = shortLived.submitReconciliation(new ReconciliationRequestDTO());
+    for (int i = 0; i < 500 && !job.getStage().isFinished(); i++)
+      Thread.sleep(10);
+    Thread.sleep(5);
+    shortLived.purgeExpired();
+
+    assertThrows(ReconciliationJobNotFoundException.class, () -> shortLived.find(job.getId()));
+  }
+
+  @Test
+  void rejectsWhenTheQueueIsFull() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    when(reconciliationService.reconcileTransactions(any(), any())).thenAnswer(invocation -> {
+      release.await();
+      return ReconciliationResponseDTO.builder().build();
+    });
+
+    jobService.submitReconciliation(new ReconciliationRequestDTO()); // en ejecución
+    jobService.submitReconciliation(new ReconciliationRequestDTO()); // en cola
+
+    assertThrows(RejectedExecutionException.class,
+        () -> jobService.submitReconciliation(new ReconciliationRequestDTO()));
+    release.countDown();
+  }
+
+  @Test
+  void unknownJobsAreNotFound() {
+    assertThrows(ReconciliationJobNotFoundException.class, () -> jobService.find(UUID.randomUUID()));
+  }
+}
@@ -0,0 +1,164 @@
+package com.vengalsas.core.conciliation.application.matching;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.vengalsas.core.conciliation.domain.model.SourceSystem;
+import com.vengalsas.core.conciliation.domain.model.Transaction;
+import com.vengalsas.core.conciliation.domain.model.TransactionType;
+import com.vengalsas.core.conciliation.infrastructure.spill.ExternalSorter;
+import com.vengalsas.core.conciliation.infrastructure.spill.RowSource;
+
+class ExternalMergeMatcherTest {
+
+  @TempDir
+  Path workDir;
+
+  @Test
+  void matchesAcrossSeveralSpilledRunsLikeTheInMemoryEngine() throws IOException {
+    List<Transaction> linix = new ArrayList<>();
+    List<Transaction> banco = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      String day = "2025-03-" + (10 + i % 10);
+      linix.add(tx(day, Integer.toString(10_000 + i * 1_000), SourceSystem.LINIX));
+      // Un tercio exacto, un tercio a +200 y un día después, un tercio sin pareja
+      if (i % 3 == 0)
+        banco.add(tx(day, Integer.toString(10_000 + i * 1_000), SourceSystem.BANCOLOMBIA));
+      else if (i % 3 == 1)
+        banco.add(tx(LocalDate.parse(day).plusDays(1).toString(), Integer.toString(10_200 + i * 1_000),
+            SourceSystem.BANCOLOMBIA));
+      else
+        banco.add(tx(day, Integer.toString(10_700 + i * 1_000), SourceSystem.BANCOLOMBIA));
+    }
+
+    // Presupuesto de ~10 filas por corrida y fan-in 3: fuerza varias pasadas de mezcla
+    ExternalSorter linixSorter = new ExternalSorter(workDir, "linix", 2_000, 3);
+    ExternalSorter bancoSorter = new ExternalSorter(workDir, "banco", 2_000, 3);
+    for (int i = 0; i < linix.size(); i++)
+      linixSorter.add(i, linix.get(i));
+    for (int i = 0; i < banco.size(); i++)
+      bancoSorter.add(i, banco.get(i));
+    assertTrue(linixSorter.getRuns() > 3);
+
+    Recorder recorder = new Recorder();
+    try (RowSource l = linixSorter.sorted(); RowSource b = bancoSorter.sorted()) {
+      new ExternalMergeMatcher(workDir, 1_000_000).match(l, b, recorder);
+    }
+
+    MatchOutcome expected = new MatchingEngine().match(linix, banco);
+    int expectedExact = 0;
+    for (int i = 0; i < linix.size(); i++) {
+      if (expected.kindFor(i) == MatchKind.EXACT)
+        expectedExact++;
+    }
+    assertEquals(100, recorder.exact);
+    assertEquals(expectedExact, recorder.exact);
+    assertEquals(expected.getMatchedCount() - expectedExact, recorder.flexible);
+    assertEquals(linix.size() - recorder.exact - recorder.flexible, recorder.unmatchedLinix);
+    assertEquals(banco.size() - recorder.exact - recorder.flexible, recorder.unmatchedBanco);
+  }
+
+  @Test
+  void countsTheRowsEvictedFromAFullWindow() throws IOException {
+    // Un solo Linix y 50 Bancolombia a ±500 de él, pero a un mes: ninguno empareja
+    List<Transaction> banco = new ArrayList<>();
+    for (int i = 0; i < 50; i++)
+      banco.add(tx("2025-04-10", Integer.toString(1_001 + i), SourceSystem.BANCOLOMBIA));
+    Transaction linix = tx("2025-03-10", "1000", SourceSystem.LINIX);
+
+    ExternalSorter linixSorter = new ExternalSorter(workDir, "linix", 1_000_000, 3);
+    ExternalSorter bancoSorter = new ExternalSorter(workDir, "banco", 1_000_000, 3);
+    linixSorter.add(0, linix);
+    for (int i = 0; i < banco.size(); i++)
+      bancoSorter.add(i, banco.get(i));
+
+    // La ventana sólo admite tres filas: las otras 47 salen sin compararse con todos los Linix
+    ExternalMergeMatcher matcher = new ExternalMergeMatcher(workDir, 3 * ExternalSorter.estimateBytes(banco.get(0)));
+    Recorder recorder = new Recorder();
+    try (RowSource l = linixSorter.sorted(); RowSource b = bancoSorter.sorted()) {
+      matcher.match(l, b, recorder);
+    }
+
+    assertEquals(47, matcher.getWindowEvictions());
+    assertEquals(50, recorder.unmatchedBanco);
+    assertEquals(1, recorder.unmatchedLinix);
+  }
+
+  @Test
+  void roundsDoubleArtefactsToCentsLikeTheInMemoryEngine() throws IOException {
+    // Montos leídos como double del extracto; el de menor valor crudo tiene la fecha posterior
+    List<Transaction> linix = List.of(
+        tx("2025-03-10", "18999.05", SourceSystem.LINIX),
+        tx("2025-03-12", "18999.05", SourceSystem.LINIX),
+        tx("2025-03-14", "700.10", SourceSystem.LINIX));
+    List<Transaction> banco = List.of(
+        tx("2025-03-12", "18999.049999999997", SourceSystem.BANCOLOMBIA),
+        tx("2025-03-10", "18999.050000000003", SourceSystem.BANCOLOMBIA),
+        tx("2025-03-14", "700.0999999999999", SourceSystem.BANCOLOMBIA));
+
+    ExternalSorter linixSorter = new ExternalSorter(workDir, "linix", 1_000_000, 3);
+    ExternalSorter bancoSorter = new ExternalSorter(workDir, "banco", 1_000_000, 3);
+    for (int i = 0; i < linix.size(); i++)
+      linixSorter.add(i, linix.get(i));
+    for (int i = 0; i < banco.size(); i++)
+      bancoSorter.add(i, banco.get(i));
+
+    Recorder recorder = new Recorder();
+    try (RowSource l = linixSorter.sorted(); RowSource b = bancoSorter.sorted()) {
+      new ExternalMergeMatcher(workDir, 1_000_000).match(l, b, recorder);
+    }
+
+    MatchOutcome expected = new MatchingEngine().match(linix, banco);
+    for (int i = 0; i < linix.size(); i++)
+      assertEquals(MatchKind.EXACT, expected.kindFor(i));
+    assertEquals(3, recorder.exact);
+    assertEquals(0, recorder.flexible);
+    assertEquals(0, recorder.unmatchedLinix);
+    assertEquals(0, recorder.unmatchedBanco);
+  }
+
+  private Transaction tx(String date, String amount, SourceSystem source) {
+    return Transaction.builder()
+        .date(LocalDate.parse(date))
+        .amount(new BigDecimal(amount))
+        .description("MOV")
+        .transactionType(TransactionType.CREDIT)
+        .source(source)
+        .build();
+  }
+
+  private static final class Recorder implements ExternalMergeMatcher.ResultSink {
+    private int exact;
+    private int flexible;
+    private int unmatchedLinix;
+    private int unmatchedBanco;
+
+    @Override
+    public void matched(Transaction linix, Transaction banco, MatchKind kind) {
+      if (kind == MatchKind.EXACT)
+        exact++;
+      else
+        flexible++;
+    }
+
+    @Override
+    public void unmatchedLinix(Transaction linix) {
+      unmatchedLinix++;
+    }
+
+    @Override
+    public void unmatchedBanco(Transaction banco) {
+      unmatchedBanco++;
+    }
+  }
+}
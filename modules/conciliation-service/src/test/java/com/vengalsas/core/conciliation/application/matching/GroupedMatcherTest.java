@@ -0,0 +1,119 @@
+package com.vengalsas.core.conciliation.application.matching;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.vengalsas.core.conciliation.domain.model.SourceSystem;
+import com.vengalsas.core.conciliation.domain.model.Transaction;
+import com.vengalsas.core.conciliation.domain.model.TransactionType;
+
+class GroupedMatcherTest {
+
+  private final MatchingEngine engine = new MatchingEngine();
+  private final GroupedMatcher matcher = new GroupedMatcher(10, 3, BigDecimal.ZERO, 40, 2000, false);
+
+  @Test
+  void consolidatedDepositMatchesSeveralReceipts() {
+    List<Transaction> linix = List.of(
+        tx("2025-03-10", "120000", SourceSystem.LINIX),
+        tx("2025-03-10", "80000", SourceSystem.LINIX),
+        tx("2025-03-11", "55000", SourceSystem.LINIX),
+        tx("2025-03-11", "7000", SourceSystem.LINIX));
+    List<Transaction> banco = List.of(tx("2025-03-12", "255000", SourceSystem.BANCOLOMBIA));
+
+    MatchOutcome outcome = engine.match(linix, banco);
+    assertEquals(1, matcher.apply(linix, banco, outcome));
+
+    MatchGroup group = outcome.group(0);
+    int[] members = group.linix().clone();
+    Arrays.sort(members);
+    assertArrayEquals(new int[] { 0, 1, 2 }, members);
+    assertArrayEquals(new int[] { 0 }, group.banco());
+    assertEquals(MatchKind.GROUPED, outcome.kindFor(0));
+    assertTrue(outcome.isBancoMatched(0));
+    assertEquals(MatchOutcome.UNMATCHED, outcome.groupOfLinix(3));
+    assertEquals(3, outcome.getGroupedLinixCount());
+  }
+
+  @Test
+  void oneReceiptCanCoverSeveralBankMovements() {
+    List<Transaction> linix = List.of(tx("2025-03-10", "300000.50", SourceSystem.LINIX));
+    List<Transaction> banco = List.of(
+        tx("2025-03-09", "100000", SourceSystem.BANCOLOMBIA),
+        tx("2025-03-10", "200000.50", SourceSystem.BANCOLOMBIA));
+
+    MatchOutcome outcome = engine.match(linix, banco);
+    assertEquals(1, matcher.apply(linix, banco, outcome));
+
+    assertEquals(0, outcome.groupOfBanco(0));
+    assertEquals(0, outcome.groupOfBanco(1));
+    assertTrue(outcome.isLinixMatched(0));
+    assertEquals(MatchOutcome.UNMATCHED, outcome.bancoFor(0));
+  }
+
+  @Test
+  void groupsFollowTheConfiguredTypeSense() {
+    // Tipos como los asignan los lectores: débito por columna en Linix, abono por signo en el extracto
+    List<Transaction> linix = List.of(
+        tx("2025-03-10", "40000", SourceSystem.LINIX, TransactionType.DEBIT),
+        tx("2025-03-10", "60000", SourceSystem.LINIX, TransactionType.DEBIT));
+    List<Transaction> banco = List.of(tx("2025-03-10", "100000", SourceSystem.BANCOLOMBIA, TransactionType.CREDIT));
+
+    MatchOutcome sameSense = engine.match(linix, banco);
+    assertEquals(0, matcher.apply(linix, banco, sameSense));
+
+    MatchOutcome mirrored = engine.match(linix, banco);
+    assertEquals(1, new GroupedMatcher(10, 3, BigDecimal.ZERO, 40, 2000, true).apply(linix, banco, mirrored));
+    assertTrue(mirrored.isBancoMatched(0));
+
+    // En espejo, dos débitos Linix no se suman contra un cargo del banco
+    List<Transaction> charge = List.of(tx("2025-03-10", "100000", SourceSystem.BANCOLOMBIA, TransactionType.DEBIT));
+    MatchOutcome mirroredCharge = engine.match(linix, charge);
+    assertEquals(0, new GroupedMatcher(10, 3, BigDecimal.ZERO, 40, 2000, true).apply(linix, charge, mirroredCharge));
+    assertEquals(1, matcher.apply(linix, charge, engine.match(linix, charge)));
+  }
+
+  @Test
+  void searchWithoutSolutionStopsWithinTheTimeBudget() {
+    // Montos pares contra objetivos impares: ningún subconjunto cuadra y la poda casi no ayuda
+    Random random = new Random(7);
+    List<Transaction> linix = new ArrayList<>();
+    List<Transaction> banco = new ArrayList<>();
+    for (int i = 0; i < 3000; i++) {
+      linix.add(tx("2025-03-1" + random.nextInt(5), Integer.toString(2 * (1000 + random.nextInt(50000))),
+          SourceSystem.LINIX));
+      banco.add(tx("2025-03-1" + random.nextInt(5), Integer.toString(2 * (50000 + random.nextInt(50000)) + 1),
+          SourceSystem.BANCOLOMBIA));
+    }
+    GroupedMatcher bounded = new GroupedMatcher(10, 3, BigDecimal.ZERO, 40, 200, false);
+    MatchOutcome outcome = engine.match(linix, banco);
+
+    long start = System.nanoTime();
+    assertEquals(0, bounded.apply(linix, banco, outcome));
+    assertTrue(System.nanoTime() - start < 5_000_000_000L);
+  }
+
+  private Transaction tx(String date, String amount, SourceSystem source) {
+    return tx(date, amount, source, TransactionType.CREDIT);
+  }
+
+  private Transaction tx(String date, String amount, SourceSystem source, TransactionType type) {
+    return Transaction.builder()
+        .date(LocalDate.parse(date))
+        .amount(new BigDecimal(amount))
+        .description("MOV")
+        .transactionType(type)
+        .source(source)
+        .build();
+  }
+}
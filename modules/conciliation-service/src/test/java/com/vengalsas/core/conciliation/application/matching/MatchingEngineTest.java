@@ -0,0 +1,269 @@
+package com.vengalsas.core.conciliation.application.matching;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.vengalsas.core.conciliation.domain.model.SourceSystem;
+import com.vengalsas.core.conciliation.domain.model.Transaction;
+import com.vengalsas.core.conciliation.domain.model.TransactionType;
+
+class MatchingEngineTest {
+
+  private final MatchingEngine engine = new MatchingEngine();
+
+  @Test
+  void exactPassRunsBeforeFlexiblePass() {
+    List<Transaction> linix = List.of(
+        tx("2025-03-10", "1000", SourceSystem.LINIX),
+        tx("2025-03-11", "1200", SourceSystem.LINIX));
+    List<Transaction> banco = List.of(
+        tx("2025-03-11", "1200", SourceSystem.BANCOLOMBIA),
+        tx("2025-03-10", "1000.00", SourceSystem.BANCOLOMBIA));
+
+    MatchOutcome outcome = engine.match(linix, banco);
+
+    assertEquals(1, outcome.bancoFor(0));
+    assertEquals(MatchKind.EXACT, outcome.kindFor(0));
+    assertEquals(0, outcome.bancoFor(1));
+    assertEquals(MatchKind.EXACT, outcome.kindFor(1));
+  }
+
+  @Test
+  void flexiblePassRespectsAmountAndDateWindow() {
+    List<Transaction> linix = List.of(
+        tx("2025-03-10", "1000", SourceSystem.LINIX),
+        tx("2025-03-10", "5000", SourceSystem.LINIX));
+    List<Transaction> banco = List.of(
+        tx("2025-03-12", "1000", SourceSystem.BANCOLOMBIA),
+        tx("2025-03-11", "1500", SourceSystem.BANCOLOMBIA),
+        tx("2025-03-10", "5500.01", SourceSystem.BANCOLOMBIA));
+
+    MatchOutcome outcome = engine.match(linix, banco);
+
+    assertEquals(1, outcome.bancoFor(0));
+    assertEquals(MatchKind.FLEXIBLE, outcome.kindFor(0));
+    assertFalse(outcome.isLinixMatched(1));
+    assertEquals(1, outcome.getMatchedCount());
+  }
+
+  @Test
+  void exactPassComparesAmountsInCents() {
+    // 1000.005 se redondea a 1000.01: 1000.00 y 1000.000 siguen siendo iguales y 1000.005 no
+    List<Transaction> linix = List.of(
+        tx("2025-03-10", "1000.005", SourceSystem.LINIX),
+        tx("2025-03-10", "1000.00", SourceSystem.LINIX));
+    List<Transaction> banco = List.of(
+        tx("2025-03-10", "1000.000", SourceSystem.BANCOLOMBIA),
+        tx("2025-03-10", "1000.005", SourceSystem.BANCOLOMBIA));
+
+    MatchOutcome outcome = engine.match(linix, banco);
+
+    assertEquals(1, outcome.bancoFor(0));
+    assertEquals(MatchKind.EXACT, outcome.kindFor(0));
+    assertEquals(0, outcome.bancoFor(1));
+    assertEquals(MatchKind.EXACT, outcome.kindFor(1));
+  }
+
+  @Test
+  void highScaleAmountsFromTheSpreadsheetDoNotOverflow() {
+    // Monto leído como double junto a uno de millones: a escala 12 no cabe en un long
+    List<Transaction> linix = List.of(
+        tx("2025-03-10", "18999.05", SourceSystem.LINIX),
+        tx("2025-03-10", "25000000", SourceSystem.LINIX));
+    List<Transaction> banco = List.of(
+        tx("2025-03-10", "25000000", SourceSystem.BANCOLOMBIA),
+        tx("2025-03-10", "18999.050000000003", SourceSystem.BANCOLOMBIA));
+
+    for (MatchingMode mode : MatchingMode.values()) {
+      MatchOutcome outcome = engine.match(linix, banco, mode);
+      assertEquals(1, outcome.bancoFor(0));
+      assertEquals(MatchKind.EXACT, outcome.kindFor(0));
+      assertEquals(0, outcome.bancoFor(1));
+    }
+  }
+
+  @Test
+  void amountsThatDoNotFitInCentsStayUnmatched() {
+    List<Transaction> linix = List.of(tx("2025-03-10", "1E+20", SourceSystem.LINIX));
+    List<Transaction> banco = List.of(tx("2025-03-10", "1E+20", SourceSystem.BANCOLOMBIA));
+
+    MatchOutcome outcome = engine.match(linix, banco);
+
+    assertFalse(outcome.isLinixMatched(0));
+    assertEquals(0, outcome.getMatchedCount());
+  }
+
+  @Test
+  void descriptionTieBreakPrefersSimilarCandidate() {
+    List<Transaction> linix = List.of(
+        tx("2025-03-10", "1000", SourceSystem.LINIX, "Pago proveedor ACME"),
+        tx("2025-03-10", "1000", SourceSystem.LINIX, "Recaudo cuota Pérez"));
+    List<Transaction> banco = List.of(
+        tx("2025-03-11", "1100", SourceSystem.BANCOLOMBIA, "ABONO RECAUDO CUOTA PEREZ"),
+        tx("2025-03-09", "1050", SourceSystem.BANCOLOMBIA, "PAGO PROV ACME SAS"));
+
+    MatchOutcome byIndex = engine.match(linix, banco, MatchingMode.GREEDY, false);
+    assertEquals(0, byIndex.bancoFor(0));
+
+    for (MatchingMode mode : MatchingMode.values()) {
+      MatchOutcome outcome = engine.match(linix, banco, mode, true);
+      assertEquals(1, outcome.bancoFor(0), mode.name());
+      assertEquals(0, outcome.bancoFor(1), mode.name());
+    }
+  }
+
+  @Test
+  void optimalModeAvoidsGreedyCascade() {
+    List<Transaction> linix = List.of(
+        tx("2025-03-10", "1000", SourceSystem.LINIX),
+        tx("2025-03-10", "1450", SourceSystem.LINIX));
+    List<Transaction> banco = List.of(
+        tx("2025-03-10", "1400", SourceSystem.BANCOLOMBIA),
+        tx("2025-03-11", "900", SourceSystem.BANCOLOMBIA));
+
+    MatchOutcome greedy = engine.match(linix, banco, MatchingMode.GREEDY);
+    MatchOutcome optimal = engine.match(linix, banco, MatchingMode.OPTIMAL);
+
+    assertEquals(1, greedy.getMatchedCount());
+    assertEquals(2, optimal.getMatchedCount());
+    assertEquals(1, optimal.bancoFor(0));
+    assertEquals(0, optimal.bancoFor(1));
+    assertEquals(2, optimal.getDifferencesFromGreedy());
+  }
+
+  @Test
+  void componentsOverTheOptimalCapFallBackToGreedyAndAreReported() {
+    List<Transaction> linix = new ArrayList<>();
+    List<Transaction> banco = new ArrayList<>();
+    // Una componente flexible de 301x301, por encima del límite del húngaro
+    for (int i = 0; i <= OptimalFlexibleMatcher.MAX_COMPONENT_SIDE; i++) {
+      linix.add(tx("2025-03-10", "1000", SourceSystem.LINIX));
+      banco.add(tx("2025-03-10", "1100", SourceSystem.BANCOLOMBIA));
+    }
+    // Y la cascada de optimalModeAvoidsGreedyCascade, lejos de la anterior
+    linix.add(tx("2025-04-10", "1000", SourceSystem.LINIX));
+    linix.add(tx("2025-04-10", "1450", SourceSystem.LINIX));
+    banco.add(tx("2025-04-10", "1400", SourceSystem.BANCOLOMBIA));
+    banco.add(tx("2025-04-11", "900", SourceSystem.BANCOLOMBIA));
+
+    MatchOutcome greedy = engine.match(linix, banco, MatchingMode.GREEDY);
+    MatchOutcome optimal = engine.match(linix, banco, MatchingMode.OPTIMAL);
+
+    assertEquals(1, optimal.getGreedyFallbackComponents());
+    assertEquals(0, greedy.getGreedyFallbackComponents());
+    for (int l = 0; l <= OptimalFlexibleMatcher.MAX_COMPONENT_SIDE; l++)
+      assertEquals(greedy.bancoFor(l), optimal.bancoFor(l), "linix " + l);
+    // La componente pequeña sí se resuelve de forma óptima
+    assertEquals(greedy.getMatchedCount() + 1, optimal.getMatchedCount());
+    int small = linix.size() - 2;
+    assertEquals(0, engine.match(linix.subList(small, linix.size()), banco.subList(small, banco.size()),
+        MatchingMode.OPTIMAL).getGreedyFallbackComponents());
+  }
+
+  @Test
+  void optimalModeNeverMatchesLessThanGreedy() {
+    Random random = new Random(7);
+    for (int round = 0; round < 30; round++) {
+      List<Transaction> linix = randomTransactions(random, 40, SourceSystem.LINIX);
+      List<Transaction> banco = randomTransactions(random, 40, SourceSystem.BANCOLOMBIA);
+
+      MatchOutcome greedy = engine.match(linix, banco, MatchingMode.GREEDY);
+      MatchOutcome optimal = engine.match(linix, banco, MatchingMode.OPTIMAL);
+
+      assertTrue(optimal.getMatchedCount() >= greedy.getMatchedCount(), "round " + round);
+    }
+  }
+
+  @Test
+  void matchesBruteForceReferenceOnRandomData() {
+    Random random = new Random(42);
+    for (int round = 0; round < 50; round++) {
+      List<Transaction> linix = randomTransactions(random, 60, SourceSystem.LINIX);
+      List<Transaction> banco = randomTransactions(random, 60, SourceSystem.BANCOLOMBIA);
+
+      MatchOutcome outcome = engine.match(linix, banco);
+      int[] expected = reference(linix, banco);
+
+      for (int l = 0; l < linix.size(); l++) {
+        assertEquals(expected[l], outcome.bancoFor(l), "round " + round + ", linix " + l);
+      }
+    }
+  }
+
+  // Implementación cuadrática de las mismas reglas: pasada exacta y luego flexible, primer banco libre
+  private int[] reference(List<Transaction> linix, List<Transaction> banco) {
+    int[] result = new int[linix.size()];
+    boolean[] used = new boolean[banco.size()];
+    Arrays.fill(result, MatchOutcome.UNMATCHED);
+
+    for (int l = 0; l < linix.size(); l++) {
+      for (int b = 0; b < banco.size(); b++) {
+        if (!used[b] && linix.get(l).getAmount().compareTo(banco.get(b).getAmount()) == 0
+            && linix.get(l).getDate().isEqual(banco.get(b).getDate())) {
+          result[l] = b;
+          used[b] = true;
+          break;
+        }
+      }
+    }
+
+    for (int l = 0; l < linix.size(); l++) {
+      if (result[l] != MatchOutcome.UNMATCHED)
+        continue;
+      Transaction a = linix.get(l);
+      for (int b = 0; b < banco.size(); b++) {
+        Transaction c = banco.get(b);
+        boolean amountClose = a.getAmount().subtract(c.getAmount()).abs()
+            .compareTo(MatchingEngine.FLEXIBLE_AMOUNT_TOLERANCE) <= 0;
+        boolean dateClose = !a.getDate().isBefore(c.getDate().minusDays(1))
+            && !a.getDate().isAfter(c.getDate().plusDays(1));
+        if (!used[b] && amountClose && dateClose) {
+          result[l] = b;
+          used[b] = true;
+          break;
+        }
+      }
+    }
+    return result;
+  }
+
+  private List<Transaction> randomTransactions(Random random, int count, SourceSystem source) {
+    List<Transaction> txs = new ArrayList<>();
+    LocalDate base = LocalDate.of(2025, 3, 1);
+    for (int i = 0; i < count; i++) {
+      BigDecimal amount = BigDecimal.valueOf(1000 + random.nextInt(20) * 250L);
+      txs.add(Transaction.builder()
+          .date(base.plusDays(random.nextInt(6)))
+          .amount(amount)
+          .description("MOV " + i)
+          .transactionType(random.nextBoolean() ? TransactionType.DEBIT : TransactionType.CREDIT)
+          .source(source)
+          .build());
+    }
+    return txs;
+  }
+
+  private Transaction tx(String date, String amount, SourceSystem source) {
+    return tx(date, amount, source, "MOV");
+  }
+
+  private Transaction tx(String date, String amount, SourceSystem source, String description) {
+    return Transaction.builder()
+        .date(LocalDate.parse(date))
+        .amount(new BigDecimal(amount))
+        .description(description)
+        .transactionType(TransactionType.CREDIT)
+        .source(source)
+        .build();
+  }
+}
@@ -0,0 +1,137 @@
+package com.vengalsas.core.conciliation.application.matching;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.vengalsas.core.conciliation.domain.model.SourceSystem;
+import com.vengalsas.core.conciliation.domain.model.Transaction;
+import com.vengalsas.core.conciliation.domain.model.TransactionType;
+
+class PartitionedMatchingEngineTest {
+
+  private final ForkJoinPool pool = new ForkJoinPool(4);
+  private final MatchingEngine sequential = new MatchingEngine();
+  private final PartitionedMatchingEngine partitioned = new PartitionedMatchingEngine(sequential, pool, 7);
+
+  @AfterEach
+  void shutdown() {
+    pool.shutdown();
+  }
+
+  @Test
+  void matchesAcrossWindowBoundaries() {
+    // Último día de una ventana de 7 días; el movimiento bancario cae en la ventana siguiente
+    LocalDate last = LocalDate.ofEpochDay(Math.floorDiv(LocalDate.of(2025, 3, 5).toEpochDay(), 7) * 7 + 6);
+    List<Transaction> linix = List.of(tx(last, "1000", SourceSystem.LINIX));
+    List<Transaction> banco = List.of(tx(last.plusDays(1), "1200", SourceSystem.BANCOLOMBIA));
+
+    MatchOutcome outcome = partitioned.match(linix, banco, MatchingMode.GREEDY);
+
+    assertEquals(0, outcome.bancoFor(0));
+    assertEquals(MatchKind.FLEXIBLE, outcome.kindFor(0));
+  }
+
+  @Test
+  void isDeterministicAndRespectsMatchingRules() {
+    Random random = new Random(11);
+    List<Transaction> linix = randomTransactions(random, 2000, SourceSystem.LINIX);
+    List<Transaction> banco = randomTransactions(random, 2000, SourceSystem.BANCOLOMBIA);
+
+    MatchOutcome first = partitioned.match(linix, banco, MatchingMode.GREEDY);
+    MatchOutcome second = partitioned.match(linix, banco, MatchingMode.GREEDY);
+
+    boolean[] used = new boolean[banco.size()];
+    for (int l = 0; l < linix.size(); l++) {
+      assertEquals(first.bancoFor(l), second.bancoFor(l));
+      if (!first.isLinixMatched(l))
+        continue;
+
+      int b = first.bancoFor(l);
+      assertFalse(used[b], "banco " + b + " emparejado dos veces");
+      used[b] = true;
+
+      Transaction a = linix.get(l);
+      Transaction c = banco.get(b);
+      assertTrue(a.getAmount().subtract(c.getAmount()).abs()
+          .compareTo(MatchingEngine.FLEXIBLE_AMOUNT_TOLERANCE) <= 0);
+      assertTrue(Math.abs(a.getDate().toEpochDay() - c.getDate().toEpochDay()) <= 1);
+    }
+  }
+
+  @Test
+  void matchesTheSequentialEngineWhenNoRowFallsOnAWindowEdge() {
+    Random random = new Random(5);
+    List<Transaction> linix = randomInteriorTransactions(random, 2000, SourceSystem.LINIX);
+    List<Transaction> banco = randomInteriorTransactions(random, 2000, SourceSystem.BANCOLOMBIA);
+
+    for (MatchingMode mode : MatchingMode.values()) {
+      MatchOutcome expected = sequential.match(linix, banco, mode, true);
+      MatchOutcome actual = partitioned.match(linix, banco, mode, true);
+
+      assertEquals(expected.getMatchedCount(), actual.getMatchedCount(), mode.name());
+      for (int l = 0; l < linix.size(); l++) {
+        assertEquals(expected.bancoFor(l), actual.bancoFor(l), mode + " linix " + l);
+        assertEquals(expected.kindFor(l), actual.kindFor(l), mode + " linix " + l);
+      }
+    }
+  }
+
+  @Test
+  void exactMatchesAreTheSameAsTheSequentialEngine() {
+    Random random = new Random(11);
+    List<Transaction> linix = randomTransactions(random, 2000, SourceSystem.LINIX);
+    List<Transaction> banco = randomTransactions(random, 2000, SourceSystem.BANCOLOMBIA);
+
+    MatchOutcome expected = sequential.match(linix, banco, MatchingMode.GREEDY);
+    MatchOutcome actual = partitioned.match(linix, banco, MatchingMode.GREEDY);
+
+    // Las flexibles del borde pueden diferir (ver PartitionedMatchingEngine); las exactas no
+    for (int l = 0; l < linix.size(); l++) {
+      boolean exact = expected.isLinixMatched(l) && expected.kindFor(l) == MatchKind.EXACT;
+      assertEquals(exact, actual.isLinixMatched(l) && actual.kindFor(l) == MatchKind.EXACT, "linix " + l);
+      if (exact)
+        assertEquals(expected.bancoFor(l), actual.bancoFor(l), "linix " + l);
+    }
+  }
+
+  // Sólo días interiores de las ventanas de 7 días: ninguna fila queda a ±1 día de la vecina
+  private List<Transaction> randomInteriorTransactions(Random random, int count, SourceSystem source) {
+    long firstWindow = Math.floorDiv(LocalDate.of(2025, 1, 1).toEpochDay(), 7);
+    List<Transaction> txs = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      long day = (firstWindow + random.nextInt(12)) * 7 + 2 + random.nextInt(3);
+      txs.add(tx(LocalDate.ofEpochDay(day), String.valueOf(1000 + random.nextInt(40) * 250L), source));
+    }
+    return txs;
+  }
+
+  private List<Transaction> randomTransactions(Random random, int count, SourceSystem source) {
+    List<Transaction> txs = new ArrayList<>();
+    LocalDate base = LocalDate.of(2025, 1, 1);
+    for (int i = 0; i < count; i++) {
+      txs.add(tx(base.plusDays(random.nextInt(90)), String.valueOf(1000 + random.nextInt(40) * 250L), source));
+    }
+    return txs;
+  }
+
+  private Transaction tx(LocalDate date, String amount, SourceSystem source) {
+    return Transaction.builder()
+        .date(date)
+        .amount(new BigDecimal(amount))
+        .description("MOV")
+        .transactionType(TransactionType.DEBIT)
+        .source(source)
+        .build();
+  }
+}
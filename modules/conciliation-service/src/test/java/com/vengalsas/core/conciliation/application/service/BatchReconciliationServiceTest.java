@@ -0,0 +1,175 @@
+package com.vengalsas.core.conciliation.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.unit.DataSize;
+
+import com.vengalsas.core.conciliation.application.matching.MatchingMode;
+import com.vengalsas.core.conciliation.domain.model.BancolombiaStatement;
+import com.vengalsas.core.conciliation.infrastructure.adapter.BancolombiaExcelReader;
+import com.vengalsas.core.conciliation.web.dto.AccountReconciliationDTO;
+import com.vengalsas.core.conciliation.web.dto.BatchReconciliationResponseDTO;
+import com.vengalsas.core.conciliation.web.dto.ReconciliationRequestDTO;
+import com.vengalsas.core.conciliation.web.dto.ReconciliationSummaryDTO;
+
+class BatchReconciliationServiceTest {
+
+  private final ReconciliationService reconciliationService = mock(ReconciliationService.class);
+  private final BancolombiaExcelReader bancolombiaExcelReader = mock(BancolombiaExcelReader.class);
+  private ThreadPoolTaskExecutor executor;
+  private BatchReconciliationService batchService;
+
+  @BeforeEach
+  void setUp() {
+    executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(2);
+    executor.setMaxPoolSize(2);
+    executor.setQueueCapacity(10);
+    executor.initialize();
+    batchService = new BatchReconciliationService(reconciliationService, bancolombiaExcelReader, executor, 1_000,
+        DataSize.ofBytes(600));
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdown();
+  }
+
+  @Test
+  void derivesTheAccountFromTheFileNameOrItsFolder() {
+    assertEquals("123", BatchReconciliationService.accountKey("123_banco.xlsx"));
+    assertEquals("123", BatchReconciliationService.accountKey("marzo/123-Linix.txt"));
+    assertEquals("456", BatchReconciliationService.accountKey("marzo/456/extracto.xlsx"));
+    assertEquals("456", BatchReconciliationService.accountKey("456\\linix.txt"));
+    assertEquals("ahorros", BatchReconciliationService.accountKey("ahorros.xlsx"));
+  }
+
+  @Test
+  void pairsFilesAndWorkbookSheetsByAccount() throws Exception {
+    when(bancolombiaExcelReader.sheetNames(any(Path.class))).thenReturn(List.of("789", "999"));
+    when(bancolombiaExcelReader.readSheet(any(Path.class), eq("789"))).thenReturn(new BancolombiaStatement());
+    when(reconciliationService.reconcileAccount(any(Path.class), any(Path.class), any()))
+        .thenReturn(summary(3, "100", true));
+    when(reconciliationService.reconcileAccount(any(BancolombiaStatement.class), any(Path.class), any()))
+        .thenReturn(summary(2, "50", false));
+
+    byte[] zip = zip(Map.of(
+        "123_banco.xlsx", "x",
+        "123_linix.txt", "l",
+        "456/extracto.xlsx", "x",
+        "456/linix.txt", "l",
+        "cuentas.xlsx", "x",
+        "789.txt", "l",
+        "555_linix.txt", "l",
+        "__MACOSX/._123_banco.xlsx", "x",
+        "notas.pdf", "p"));
+
+    BatchReconciliationResponseDTO response = batchService.reconcile(new ByteArrayInputStream(zip),
+        new ReconciliationRequestDTO());
+
+    List<AccountReconciliationDTO> results = response.getResults();
+    assertEquals(List.of("123", "456", "555", "789"), results.stream().map(AccountReconciliationDTO::getAccount).toList());
+    assertEquals(3, response.getReconciled());
+    assertEquals(1, response.getFailed());
+    assertNull(results.get(2).getSummary());
+    assertEquals("cuentas.xlsx#789", results.get(3).getBankFile());
+    assertEquals(List.of("notas.pdf", "cuentas.xlsx#999"), response.getIgnoredFiles());
+
+    ReconciliationSummaryDTO combined = response.getCombined();
+    assertEquals(8, combined.getMatchedCount());
+    assertEquals(0, new BigDecimal("250").compareTo(combined.getTotalLinixAmount()));
+    assertEquals(Boolean.FALSE, combined.getTotalesExtractoCuadran());
+    assertEquals(MatchingMode.GREEDY, combined.getMatchingMode());
+    // Sólo la hoja emparejada se lee, y dentro de la tarea de su cuenta
+    verify(bancolombiaExcelReader, never()).readSheets(any(Path.class));
+    verify(bancolombiaExcelReader, never()).readSheet(any(Path.class), eq("999"));
+  }
+
+  @Test
+  void rejectsArchivesOverTheUncompressedLimit() throws Exception {
+    byte[] zip = zip(Map.of("123_linix.txt", "l".repeat(550), "456_linix.txt", "l".repeat(550)));
+
+    IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+        () -> batchService.reconcile(new ByteArrayInputStream(zip), new ReconciliationRequestDTO()));
+    assertTrue(error.getMessage().contains("descomprimidos"));
+  }
+
+  @Test
+  void rejectsEntriesOverThePerFileLimit() throws Exception {
+    byte[] zip = zip(Map.of("123_linix.txt", "l".repeat(700)));
+
+    IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+        () -> batchService.reconcile(new ByteArrayInputStream(zip), new ReconciliationRequestDTO()));
+    assertTrue(error.getMessage().contains("123_linix.txt"));
+  }
+
+  @Test
+  void extractsEntriesToTemporaryFilesAndDeletesThemAfterwards() throws Exception {
+    List<Path> seen = new ArrayList<>();
+    when(reconciliationService.reconcileAccount(any(Path.class), any(Path.class), any())).thenAnswer(invocation -> {
+      Path bank = invocation.getArgument(0);
+      Path linix = invocation.getArgument(1);
+      assertEquals("x", Files.readString(bank));
+      assertEquals("l", Files.readString(linix));
+      seen.add(bank);
+      seen.add(linix);
+      return summary(1, "10", true);
+    });
+
+    byte[] zip = zip(Map.of("123_banco.xlsx", "x", "123_linix.txt", "l"));
+    BatchReconciliationResponseDTO response = batchService.reconcile(new ByteArrayInputStream(zip),
+        new ReconciliationRequestDTO());
+
+    assertEquals(1, response.getReconciled());
+    assertEquals(2, seen.size());
+    seen.forEach(file -> assertFalse(Files.exists(file), file.toString()));
+  }
+
+  private ReconciliationSummaryDTO summary(int matched, String linixAmount, boolean totalsMatch) {
+    return ReconciliationSummaryDTO.builder()
+        .matchedCount(matched)
+        .totalLinixAmount(new BigDecimal(linixAmount))
+        .totalesExtractoCuadran(totalsMatch)
+        .build();
+  }
+
+  private byte[] zip(Map<String, String> entries) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (ZipOutputStream zip = new ZipOutputStream(out)) {
+      for (Map.Entry<String, String> entry : new TreeMap<>(entries).entrySet()) {
+        zip.putNextEntry(new ZipEntry(entry.getKey()));
+        zip.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+      }
+    }
+    return out.toByteArray();
+  }
+}
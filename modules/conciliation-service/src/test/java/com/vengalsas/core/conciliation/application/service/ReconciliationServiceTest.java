@@ -0,0 +1,243 @@
+package com.vengalsas.core.conciliation.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vengalsas.core.conciliation.application.classification.DiscrepancyClassifier;
+import com.vengalsas.core.conciliation.application.matching.GroupedMatcher;
+import com.vengalsas.core.conciliation.application.matching.MatchingEngine;
+import com.vengalsas.core.conciliation.application.matching.PartitionedMatchingEngine;
+import com.vengalsas.core.conciliation.domain.model.LinixParseResult;
+import com.vengalsas.core.conciliation.domain.model.ParsedUpload;
+import com.vengalsas.core.conciliation.domain.model.SourceSystem;
+import com.vengalsas.core.conciliation.domain.model.Transaction;
+import com.vengalsas.core.conciliation.infrastructure.adapter.BancolombiaExcelReader;
+import com.vengalsas.core.conciliation.infrastructure.adapter.LinixTxtReader;
+import com.vengalsas.core.conciliation.infrastructure.cache.ParsedFileCache;
+import com.vengalsas.core.conciliation.infrastructure.metrics.ReconciliationMetrics;
+import com.vengalsas.core.conciliation.infrastructure.metrics.SkippedRows;
+import com.vengalsas.core.conciliation.infrastructure.persistence.InMemoryIncrementalStateStore;
+import com.vengalsas.core.conciliation.infrastructure.persistence.InMemoryReconciliationRunStore;
+import com.vengalsas.core.conciliation.infrastructure.persistence.NoOpReconciliationArchive;
+import com.vengalsas.core.conciliation.web.dto.ReconciliationRequestDTO;
+import com.vengalsas.core.conciliation.web.dto.ReconciliationSummaryDTO;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ReconciliationServiceTest {
+
+  private final LinixTxtReader linixTxtReader = spy(new LinixTxtReader());
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private ReconciliationService service;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    // Las filas descartadas se cuentan en el registro global, como en producción
+    Metrics.addRegistry(registry);
+    MatchingEngine matchingEngine = new MatchingEngine();
+    service = new ReconciliationService(
+        new BancolombiaExcelReader(),
+        linixTxtReader,
+        matchingEngine,
+        new PartitionedMatchingEngine(matchingEngine, ForkJoinPool.commonPool(), 7),
+        new GroupedMatcher(10, 3, BigDecimal.ZERO, 40, 2000, false),
+        new InMemoryReconciliationRunStore(10, 60),
+        new NoOpReconciliationArchive(),
+        new ParsedFileCache(new ObjectMapper(), false, 0, "", 0),
+        new InMemoryIncrementalStateStore(100, 60),
+        new DiscrepancyClassifier(new DefaultResourceLoader(), "classpath:discrepancy-rules.txt", 100_000),
+        new ReconciliationMetrics(registry),
+        new BalanceDivergenceLocator(false));
+    // Sin Spring el @Value queda en cero: se usa el valor de application.properties
+    ReflectionTestUtils.setField(service, "linixParallelThresholdBytes", 4_194_304L);
+  }
+
+  @AfterEach
+  void tearDown() {
+    Metrics.removeRegistry(registry);
+  }
+
+  @Test
+  void readsBothFilesAndReconcilesThemEndToEnd() throws Exception {
+    // Una fila exacta, una flexible (un día y 200 de diferencia) y una sin pareja de cada lado
+    String linix = String.join("\n",
+        linixLine("03/14/2025", "Recaudo cuota", "100000", ""),
+        linixLine("03/16/2025", "Pago proveedor", "", "50200"),
+        linixLine("03/25/2025", "Nota contable", "777777", ""),
+        linixLine("99/99/2025", "Fecha invalida", "10", "")) + "\n";
+
+    ParsedUpload upload = service.readAndNormalize(
+        new MockMultipartFile("bankFile", "extracto.xlsx", null, statement()),
+        new MockMultipartFile("accountingFile", "linix.txt", null, linix.getBytes(StandardCharsets.ISO_8859_1)));
+    ReconciliationSummaryDTO summary = service.reconcileTransactions(request(upload, upload.getRunId()))
+        .getSummary();
+
+    assertEquals(3, summary.getTotalLinix());
+    assertEquals(3, summary.getTotalBancolombia());
+    assertEquals(2, summary.getMatchedCount());
+    assertEquals(1, summary.getUnmatchedLinix());
+    assertEquals(1, summary.getUnmatchedBancolombia());
+    assertEquals(0, new BigDecimal("1000000").compareTo(summary.getSaldoInicialBanco()));
+    assertEquals(0, new BigDecimal("1040100").compareTo(summary.getSaldoFinalBanco()));
+    assertNull(summary.getAvisos());
+
+    assertEquals(1, registry.get("conciliation.upload.size").tag("source", "LINIX").summary().count());
+    assertEquals(1, registry.get("conciliation.upload.size").tag("source", "BANCOLOMBIA").summary().count());
+    assertEquals(1, registry.get("conciliation.parse").tag("source", "LINIX").timer().count());
+    assertEquals(1, registry.get("conciliation.parse").tag("source", "BANCOLOMBIA").timer().count());
+    assertEquals(1, registry.get("conciliation.match").tag("pass", "exact").timer().count());
+    assertEquals(1, registry.get("conciliation.match").tag("pass", "flexible").timer().count());
+    assertEquals(1, registry.get("conciliation.summary").timer().count());
+    assertEquals(1, skipped(SourceSystem.LINIX, SkippedRows.FORMAT_ERROR));
+    assertEquals(1, skipped(SourceSystem.BANCOLOMBIA, SkippedRows.INCOMPLETE));
+  }
+
+  @Test
+  void warnsWhenReconcilingWithoutARunId() throws Exception {
+    ParsedUpload upload = service.readAndNormalize(
+        new MockMultipartFile("bankFile", "extracto.xlsx", null, statement()),
+        new MockMultipartFile("accountingFile", "linix.txt", null,
+            linixLine("03/14/2025", "Recaudo cuota", "100000", "").getBytes(StandardCharsets.ISO_8859_1)));
+
+    ReconciliationSummaryDTO summary = service.reconcileTransactions(request(upload, null)).getSummary();
+
+    assertEquals(1, summary.getMatchedCount());
+    assertNull(summary.getSaldoInicialBanco());
+    assertEquals(List.of(ReconciliationService.NO_STATEMENT_NOTICE), summary.getAvisos());
+  }
+
+  @Test
+  void parallelThresholdIsBelowTheInMemoryUploadLimit() throws Exception {
+    // Si el umbral supera el límite de /upload, el lector paralelo nunca se usa en las subidas HTTP
+    Properties properties = new Properties();
+    try (InputStream in = getClass().getResourceAsStream("/application.properties")) {
+      properties.load(in);
+    }
+    long threshold = Long.parseLong(properties.getProperty("conciliation.linix.parallel-threshold-bytes"));
+    DataSize limit = DataSize.parse(properties.getProperty("conciliation.upload.max-in-memory-file-size"));
+
+    assertTrue(threshold < limit.toBytes());
+  }
+
+  @Test
+  void uploadsOverTheThresholdAreParsedInSeveralChunks() throws Exception {
+    AtomicInteger chunks = new AtomicInteger();
+    doAnswer(invocation -> {
+      LinixParseResult result = (LinixParseResult) invocation.callRealMethod();
+      chunks.set(result.getChunks());
+      return result;
+    }).when(linixTxtReader).readParallel(any(Path.class), any(LongConsumer.class));
+
+    // Apenas por encima del umbral de 4 MB, muy por debajo del límite de /upload
+    StringBuilder linix = new StringBuilder();
+    int lines = 0;
+    while (linix.length() <= 4_194_304) {
+      lines++;
+      linix.append(linixLine("03/14/2025", "Movimiento " + lines, String.valueOf(lines), "")).append('\n');
+    }
+
+    ParsedUpload upload = service.readAndNormalize(
+        new MockMultipartFile("bankFile", "extracto.xlsx", null, statement()),
+        new MockMultipartFile("accountingFile", "linix.txt", null,
+            linix.toString().getBytes(StandardCharsets.ISO_8859_1)));
+
+    verify(linixTxtReader).readParallel(any(Path.class), any(LongConsumer.class));
+    assertTrue(chunks.get() > 1);
+    List<Transaction> txs = upload.getLinixTransactions();
+    assertEquals(lines, txs.size());
+    assertEquals("Movimiento 1", txs.get(0).getDescription());
+    assertEquals("Movimiento " + lines, txs.get(lines - 1).getDescription());
+  }
+
+  private static ReconciliationRequestDTO request(ParsedUpload upload, UUID runId) {
+    ReconciliationRequestDTO request = new ReconciliationRequestDTO();
+    request.setRunId(runId);
+    request.setLinixTransactions(upload.getLinixTransactions());
+    request.setBancolombiaTransactions(upload.getBancolombiaStatement().getTransactions());
+    return request;
+  }
+
+  private double skipped(SourceSystem source, String reason) {
+    return registry.get("conciliation.rows.skipped").tags("source", source.name(), "reason", reason).counter()
+        .count();
+  }
+
+  private static byte[] statement() throws Exception {
+    try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+      Sheet sheet = workbook.createSheet("Extracto");
+      Row labels = sheet.createRow(9);
+      labels.createCell(0).setCellValue("SALDO ANTERIOR");
+      labels.createCell(2).setCellValue("TOTAL ABONOS");
+      Row values = sheet.createRow(10);
+      values.createCell(0).setCellValue(1000000);
+      values.createCell(2).setCellValue(100000);
+      Row debits = sheet.createRow(11);
+      debits.createCell(0).setCellValue("TOTAL CARGOS");
+      debits.createCell(1).setCellValue(59900);
+      Row ending = sheet.createRow(12);
+      ending.createCell(3).setCellValue("SALDO ACTUAL");
+      ending.createCell(4).setCellValue(1040100);
+
+      Row header = sheet.createRow(13);
+      header.createCell(0).setCellValue("FECHA");
+      header.createCell(1).setCellValue("DESCRIPCIÓN");
+      header.createCell(4).setCellValue("VALOR");
+      bankRow(sheet, 14, "14/3/2025", "ABONO TRANSFERENCIA", 100000);
+      bankRow(sheet, 15, "15/3/2025", "PAGO PROVEEDOR", -50000);
+      bankRow(sheet, 16, "20/3/2025", "COMISION MANEJO", -9900);
+      sheet.createRow(17).createCell(1).setCellValue("SIN FECHA");
+      workbook.write(out);
+      return out.toByteArray();
+    }
+  }
+
+  private static void bankRow(Sheet sheet, int index, String date, String description, double amount) {
+    Row row = sheet.createRow(index);
+    row.createCell(0).setCellValue(date);
+    row.createCell(1).setCellValue(description);
+    row.createCell(4).setCellValue(amount);
+  }
+
+  private static String linixLine(String date, String description, String debit, String credit) {
+    String[] fields = new String[20];
+    Arrays.fill(fields, "x");
+    fields[0] = "Concepto 01";
+    fields[11] = date;
+    fields[15] = " " + description + " ";
+    fields[17] = debit;
+    fields[18] = credit;
+    fields[19] = "";
+    return String.join("\t", fields) + "\tFIN";
+  }
+}
@@ -0,0 +1,61 @@
+package com.vengalsas.core.conciliation.domain.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class DailyBalancesTest {
+
+  private static final BigDecimal START = new BigDecimal("1000000");
+
+  @Test
+  void locatesTheDayTheBalancesSplitAndTheDayTheyMeetAgain() {
+    DailyBalances balances = new DailyBalances();
+    // Día 1 cuadra; día 2 falta un abono en Linix; día 3 entra con un día de atraso; día 4 un cargo sólo en el banco
+    add(balances, SourceSystem.BANCOLOMBIA, 1, TransactionType.CREDIT, "50000");
+    add(balances, SourceSystem.LINIX, 1, TransactionType.CREDIT, "50000");
+    add(balances, SourceSystem.BANCOLOMBIA, 2, TransactionType.CREDIT, "20000");
+    add(balances, SourceSystem.LINIX, 3, TransactionType.CREDIT, "20000");
+    add(balances, SourceSystem.BANCOLOMBIA, 4, TransactionType.DEBIT, "3500");
+    balances.add(SourceSystem.LINIX, null, TransactionType.CREDIT, new BigDecimal("999"));
+
+    List<DailyBalances.Divergence> points = balances.divergences(START, false);
+
+    assertEquals(3, points.size());
+    assertEquals(LocalDate.of(2025, 3, 2), points.get(0).date());
+    assertEquals(0, new BigDecimal("20000").compareTo(points.get(0).delta()));
+    assertEquals(0, new BigDecimal("1070000").compareTo(points.get(0).bancoBalance()));
+    assertEquals(LocalDate.of(2025, 3, 3), points.get(1).date());
+    assertEquals(0, points.get(1).delta().signum());
+    assertEquals(LocalDate.of(2025, 3, 4), points.get(2).date());
+    assertEquals(0, new BigDecimal("-3500").compareTo(points.get(2).change()));
+  }
+
+  @Test
+  void matchingSeriesHaveNoDivergence() {
+    DailyBalances balances = new DailyBalances();
+    add(balances, SourceSystem.BANCOLOMBIA, 5, TransactionType.DEBIT, "700.50");
+    add(balances, SourceSystem.LINIX, 5, TransactionType.DEBIT, "700.50");
+
+    assertTrue(balances.divergences(START, false).isEmpty());
+  }
+
+  @Test
+  void mirroredTypesCountLinixDebitsAsDeposits() {
+    DailyBalances balances = new DailyBalances();
+    add(balances, SourceSystem.BANCOLOMBIA, 5, TransactionType.CREDIT, "80000");
+    add(balances, SourceSystem.LINIX, 5, TransactionType.DEBIT, "80000");
+
+    assertTrue(balances.divergences(START, true).isEmpty());
+    assertEquals(0, new BigDecimal("160000").compareTo(balances.divergences(START, false).get(0).delta()));
+  }
+
+  private static void add(DailyBalances balances, SourceSystem source, int day, TransactionType type, String amount) {
+    balances.add(source, LocalDate.of(2025, 3, day), type, new BigDecimal(amount));
+  }
+}
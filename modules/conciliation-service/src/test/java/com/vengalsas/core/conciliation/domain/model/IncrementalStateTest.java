@@ -0,0 +1,60 @@
+package com.vengalsas.core.conciliation.domain.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class IncrementalStateTest {
+
+  @Test
+  void onlyAppendedRowsAreNew() {
+    IncrementalState state = new IncrementalState("cuenta-1");
+    Transaction first = tx(1, "100", "Recaudo");
+    Transaction second = tx(2, "200", "Pago");
+
+    assertEquals(2, state.takeNewLinix(List.of(first, second)).size());
+
+    Transaction third = tx(3, "300", "Abono");
+    List<Transaction> fresh = state.takeNewLinix(List.of(tx(1, "100.00", "Recaudo"), tx(2, "200", "Pago"), third));
+
+    assertEquals(1, fresh.size());
+    assertSame(third, fresh.get(0));
+  }
+
+  @Test
+  void repeatedRowsAreNewOnlyBeyondThePreviousCount() {
+    IncrementalState state = new IncrementalState("cuenta-1");
+    state.takeNewBancolombia(List.of(tx(1, "50", "Comisión")));
+
+    List<Transaction> fresh = state.takeNewBancolombia(
+        List.of(tx(1, "50", "Comisión"), tx(1, "50", "Comisión")));
+
+    assertEquals(1, fresh.size());
+  }
+
+  @Test
+  void rowsBeforeTheCurrentFileAreForgotten() {
+    IncrementalState state = new IncrementalState("cuenta-1");
+    state.takeNewLinix(List.of(tx(1, "100", "Recaudo")));
+
+    // Archivo del mes siguiente: la huella del mes anterior se descarta
+    state.takeNewLinix(List.of(tx(40, "100", "Recaudo")));
+
+    assertEquals(1, state.takeNewLinix(List.of(tx(1, "100", "Recaudo"))).size());
+  }
+
+  private static Transaction tx(int day, String amount, String description) {
+    return Transaction.builder()
+        .date(LocalDate.of(2025, 3, 1).plusDays(day - 1))
+        .amount(new BigDecimal(amount))
+        .description(description)
+        .transactionType(TransactionType.CREDIT)
+        .source(SourceSystem.LINIX)
+        .build();
+  }
+}
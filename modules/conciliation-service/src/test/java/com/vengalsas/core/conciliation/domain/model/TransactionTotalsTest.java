@@ -0,0 +1,46 @@
+package com.vengalsas.core.conciliation.domain.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+class TransactionTotalsTest {
+
+  @Test
+  void scaleGrowsWithTheAmountsWithoutLosingCents() {
+    TransactionTotals totals = new TransactionTotals();
+    totals.add(TransactionType.CREDIT, new BigDecimal("1000"));
+    totals.add(TransactionType.CREDIT, new BigDecimal("0.05"));
+    totals.add(TransactionType.CREDIT, new BigDecimal("2.5"));
+    totals.add(TransactionType.DEBIT, new BigDecimal("1E+3"));
+
+    assertEquals(0, new BigDecimal("1002.55").compareTo(totals.getCredits()));
+    assertEquals(0, new BigDecimal("1000").compareTo(totals.getDebits()));
+    assertEquals(3, totals.getCreditCount());
+    assertEquals(1, totals.getDebitCount());
+  }
+
+  @Test
+  void sumBeyondLongRangeStaysExact() {
+    TransactionTotals totals = new TransactionTotals();
+    BigDecimal big = new BigDecimal("50000000000000000.01");
+    BigDecimal expected = BigDecimal.ZERO;
+    for (int i = 0; i < 500; i++) {
+      totals.add(TransactionType.DEBIT, big);
+      expected = expected.add(big);
+    }
+
+    assertEquals(0, expected.compareTo(totals.getDebits()));
+  }
+
+  @Test
+  void rowsWithoutTypeOrAmountAreIgnored() {
+    TransactionTotals totals = new TransactionTotals();
+    totals.add(null, BigDecimal.TEN);
+    totals.add(TransactionType.DEBIT, null);
+
+    assertEquals(BigDecimal.ZERO, totals.getTotal());
+  }
+}
@@ -0,0 +1,145 @@
+package com.vengalsas.core.conciliation.infrastructure.adapter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import com.vengalsas.core.conciliation.domain.model.BancolombiaStatement;
+import com.vengalsas.core.conciliation.domain.model.Transaction;
+import com.vengalsas.core.conciliation.domain.model.TransactionType;
+
+class BancolombiaExcelReaderTest {
+
+  private final BancolombiaExcelReader reader = new BancolombiaExcelReader();
+
+  @Test
+  void readsHeaderBalancesAndTransactionsFromXlsx() throws Exception {
+    BancolombiaStatement statement = reader.read(new ByteArrayInputStream(statement(new XSSFWorkbook())));
+    assertStatement(statement);
+  }
+
+  @Test
+  void streamingAndLegacyReadersAgree() throws Exception {
+    BancolombiaStatement xlsx = reader.read(new ByteArrayInputStream(statement(new XSSFWorkbook())));
+    BancolombiaStatement xls = reader.read(new ByteArrayInputStream(statement(new HSSFWorkbook())));
+
+    assertStatement(xls);
+    assertEquals(xlsx.getTransactions().size(), xls.getTransactions().size());
+  }
+
+  @Test
+  void emitsTransactionsToSinkAsTheyAreParsed() throws Exception {
+    List<Transaction> emitted = new ArrayList<>();
+    BancolombiaStatement statement = reader.read(new ByteArrayInputStream(statement(new XSSFWorkbook())),
+        emitted::add);
+
+    assertEquals(0, statement.getTransactions().size());
+    assertEquals(2, emitted.size());
+  }
+
+  @Test
+  void readsEachSheetOfAMultiAccountWorkbook() throws Exception {
+    byte[] workbook;
+    try (XSSFWorkbook book = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+      fillStatement(book, book.createSheet("123"));
+      fillStatement(book, book.createSheet("456"));
+      book.write(out);
+      workbook = out.toByteArray();
+    }
+
+    Map<String, BancolombiaStatement> sheets = reader.readSheets(new ByteArrayInputStream(workbook));
+
+    assertEquals(List.of("123", "456"), List.copyOf(sheets.keySet()));
+    for (BancolombiaStatement statement : sheets.values())
+      assertStatement(statement);
+
+    Path file = Files.createTempFile("bancolombia-", ".xlsx");
+    try {
+      Files.write(file, workbook);
+      assertEquals(List.of("123", "456"), reader.sheetNames(file));
+      assertStatement(reader.readSheet(file, "456"));
+      assertThrows(IllegalArgumentException.class, () -> reader.readSheet(file, "789"));
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  private void assertStatement(BancolombiaStatement statement) {
+    assertEquals(0, new BigDecimal("1000000").compareTo(statement.getStartingBalance()));
+    assertEquals(0, new BigDecimal("250000").compareTo(statement.getTotalCredits()));
+    assertEquals(0, new BigDecimal("75000.5").compareTo(statement.getTotalDebits()));
+    assertEquals(0, new BigDecimal("1174999.5").compareTo(statement.getEndingBalance()));
+
+    List<Transaction> txs = statement.getTransactions();
+    assertEquals(2, txs.size());
+    assertEquals(LocalDate.of(2025, 3, 4), txs.get(0).getDate());
+    assertEquals(TransactionType.CREDIT, txs.get(0).getTransactionType());
+    assertEquals(0, new BigDecimal("250000").compareTo(txs.get(0).getAmount()));
+    assertEquals(LocalDate.of(2025, 3, 5), txs.get(1).getDate());
+    assertEquals(TransactionType.DEBIT, txs.get(1).getTransactionType());
+    assertEquals(0, new BigDecimal("75000.5").compareTo(txs.get(1).getAmount()));
+  }
+
+  private byte[] statement(Workbook workbook) throws Exception {
+    try (workbook; ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+      fillStatement(workbook, workbook.createSheet("Extracto"));
+      workbook.write(out);
+      return out.toByteArray();
+    }
+  }
+
+  private void fillStatement(Workbook workbook, Sheet sheet) {
+    // Saldo anterior y total abonos con el valor debajo; total cargos y saldo actual a la derecha
+    Row labels = sheet.createRow(9);
+    labels.createCell(0).setCellValue("SALDO ANTERIOR");
+    labels.createCell(2).setCellValue("TOTAL ABONOS");
+    Row values = sheet.createRow(10);
+    values.createCell(0).setCellValue(1000000);
+    values.createCell(2).setCellValue(250000);
+    Row debits = sheet.createRow(11);
+    debits.createCell(0).setCellValue("TOTAL CARGOS");
+    debits.createCell(1).setCellValue("75,000.50");
+    Row ending = sheet.createRow(12);
+    ending.createCell(3).setCellValue("SALDO ACTUAL");
+    ending.createCell(4).setCellValue(1174999.5);
+
+    Row header = sheet.createRow(13);
+    header.createCell(0).setCellValue("FECHA");
+    header.createCell(1).setCellValue("DESCRIPCIÓN");
+    header.createCell(4).setCellValue("VALOR");
+
+    CellStyle dateStyle = workbook.createCellStyle();
+    dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("dd/mm/yyyy"));
+
+    Row first = sheet.createRow(14);
+    first.createCell(0).setCellValue("4/3/2025");
+    first.createCell(1).setCellValue("ABONO TRANSFERENCIA");
+    first.createCell(4).setCellValue(250000);
+
+    Row second = sheet.createRow(15);
+    second.createCell(0).setCellValue(LocalDate.of(2025, 3, 5));
+    second.getCell(0).setCellStyle(dateStyle);
+    second.createCell(1).setCellValue("COMISION MANEJO");
+    second.createCell(4).setCellValue(-75000.5);
+
+    Row incomplete = sheet.createRow(16);
+    incomplete.createCell(1).setCellValue("SIN FECHA");
+  }
+}
@@ -0,0 +1,139 @@
+package com.vengalsas.core.conciliation.infrastructure.adapter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.vengalsas.core.conciliation.domain.model.LinixParseError;
+import com.vengalsas.core.conciliation.domain.model.LinixParseResult;
+import com.vengalsas.core.conciliation.domain.model.SourceSystem;
+import com.vengalsas.core.conciliation.domain.model.Transaction;
+import com.vengalsas.core.conciliation.domain.model.TransactionType;
+
+class LinixTxtReaderTest {
+
+  private final LinixTxtReader reader = new LinixTxtReader();
+
+  @Test
+  void readsOnlyValidConceptoLines() {
+    String content = String.join("\r\n",
+        "Encabezado\tdel\treporte",
+        line("03/14/2025", "Recaudo cuota", "1,250,000.50", ""),
+        line("03/15/2025", "Pago proveedor", "", "80,000"),
+        line("03/16/2025", "Sin valor", "0", "0"),
+        line("13/45/2025", "Fecha invalida", "100", ""),
+        "Concepto\tcorto\tsin\tcolumnas");
+
+    List<Transaction> txs = reader.read(input(content + "\n"));
+
+    assertEquals(2, txs.size());
+    Transaction debit = txs.get(0);
+    assertEquals(LocalDate.of(2025, 3, 14), debit.getDate());
+    assertEquals("Recaudo cuota", debit.getDescription());
+    assertEquals(0, new BigDecimal("1250000.50").compareTo(debit.getAmount()));
+    assertEquals(TransactionType.DEBIT, debit.getTransactionType());
+    assertEquals(SourceSystem.LINIX, debit.getSource());
+
+    Transaction credit = txs.get(1);
+    assertEquals(TransactionType.CREDIT, credit.getTransactionType());
+    assertEquals(0, new BigDecimal("80000").compareTo(credit.getAmount()));
+  }
+
+  @Test
+  void clampsDaysPastTheEndOfTheMonthLikeTheFormatterDid() {
+    String content = String.join("\n",
+        line("02/30/2025", "Fin de febrero", "100", ""),
+        line("04/31/2024", "Fin de abril", "200", ""),
+        line("02/29/2024", "Bisiesto", "300", ""),
+        line("02/32/2025", "Dia invalido", "400", ""));
+
+    List<Transaction> txs = reader.read(input(content + "\n"));
+
+    assertEquals(List.of(LocalDate.of(2025, 2, 28), LocalDate.of(2024, 4, 30), LocalDate.of(2024, 2, 29)),
+        txs.stream().map(Transaction::getDate).toList());
+  }
+
+  @Test
+  void skipsLinesWhoseTrailingColumnsAreEmpty() {
+    // String.split descarta los campos vacíos finales: sin crédito ni columnas extra la línea no llega a 19 campos
+    String content = line("03/14/2025", "Solo debito", "500", "").replace("\t\tFIN", "");
+
+    assertEquals(0, reader.read(input(content)).size());
+  }
+
+  @Test
+  void streamsLinesLongerThanTheInternalBuffer() {
+    String longDescription = "X".repeat(200_000);
+    String content = line("03/14/2025", longDescription, "10", "") + "\r" + line("03/15/2025", "Otra", "", "20");
+
+    try (Stream<Transaction> stream = reader.stream(input(content))) {
+      List<Transaction> txs = stream.toList();
+      assertEquals(2, txs.size());
+      assertEquals(longDescription.length(), txs.get(0).getDescription().length());
+      assertEquals(LocalDate.of(2025, 3, 15), txs.get(1).getDate());
+    }
+  }
+
+  @Test
+  void parallelReaderPreservesOrderAndReportsAbsoluteLineNumbers(@TempDir Path dir) throws Exception {
+    // Suficientes líneas para superar el tamaño mínimo de bloque y forzar varios bloques
+    StringBuilder content = new StringBuilder();
+    int lines = 150_000;
+    for (int i = 1; i <= lines; i++) {
+      String date = i % 50_000 == 0 ? "99/99/2025" : "03/14/2025";
+      content.append(line(date, "Movimiento " + i, String.valueOf(i), "")).append('\n');
+    }
+    Path file = dir.resolve("linix.txt");
+    Files.writeString(file, content, StandardCharsets.ISO_8859_1);
+
+    LongAdder reported = new LongAdder();
+    AtomicInteger reports = new AtomicInteger();
+    LinixParseResult result = reader.readParallel(file, rows -> {
+      reported.add(rows);
+      reports.incrementAndGet();
+    });
+    List<Transaction> sequential = reader.read(Files.newInputStream(file));
+
+    assertTrue(result.getChunks() > 1);
+    // El avance llega bloque a bloque, no al final del archivo
+    assertEquals(result.getChunks(), reports.get());
+    assertEquals(result.getTransactions().size(), reported.sum());
+    assertEquals(lines, result.getTotalLines());
+    assertEquals(sequential.size(), result.getTransactions().size());
+    for (int i = 0; i < sequential.size(); i++) {
+      assertEquals(sequential.get(i).getDescription(), result.getTransactions().get(i).getDescription());
+    }
+    assertEquals(List.of(50_000L, 100_000L, 150_000L),
+        result.getErrors().stream().map(LinixParseError::getLineNumber).toList());
+  }
+
+  private static ByteArrayInputStream input(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.ISO_8859_1));
+  }
+
+  private static String line(String date, String description, String debit, String credit) {
+    String[] fields = new String[20];
+    Arrays.fill(fields, "x");
+    fields[0] = "Concepto 01";
+    fields[11] = date;
+    fields[15] = " " + description + " ";
+    fields[17] = debit;
+    fields[18] = credit;
+    fields[19] = "";
+    return String.join("\t", fields) + "\tFIN";
+  }
+}
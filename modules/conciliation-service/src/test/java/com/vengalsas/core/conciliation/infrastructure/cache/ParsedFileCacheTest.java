@@ -0,0 +1,176 @@
+package com.vengalsas.core.conciliation.infrastructure.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.InputStreamSource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vengalsas.core.conciliation.domain.model.BancolombiaStatement;
+import com.vengalsas.core.conciliation.domain.model.SourceSystem;
+import com.vengalsas.core.conciliation.domain.model.Transaction;
+import com.vengalsas.core.conciliation.domain.model.TransactionType;
+import com.vengalsas.core.conciliation.infrastructure.metrics.SkippedRows;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ParsedFileCacheTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+  @Test
+  void parsesOnlyOncePerContent() throws Exception {
+    ParsedFileCache cache = new ParsedFileCache(objectMapper, true, 100, "", 0);
+    AtomicInteger parses = new AtomicInteger();
+
+    List<Transaction> first = cache.getOrParseLinix(file("contenido"), 9, in -> parse(parses, 2));
+    List<Transaction> second = cache.getOrParseLinix(file("contenido"), 9, in -> parse(parses, 2));
+    cache.getOrParseLinix(file("otro contenido"), 14, in -> parse(parses, 2));
+
+    assertSame(first, second);
+    assertEquals(2, parses.get());
+    assertEquals(1, cache.getHits());
+    assertEquals(2, cache.getMisses());
+  }
+
+  @Test
+  void evictsLeastRecentlyUsedAndRecoversFromDisk(@TempDir Path dir) throws Exception {
+    ParsedFileCache cache = new ParsedFileCache(objectMapper, true, 3, dir.toString(), 1_000_000);
+    AtomicInteger parses = new AtomicInteger();
+
+    cache.getOrParseLinix(file("a"), 1, in -> parse(parses, 2));
+    cache.getOrParseLinix(file("b"), 1, in -> parse(parses, 2)); // supera 3 filas: "a" pasa a disco
+
+    List<Transaction> fromDisk = cache.getOrParseLinix(file("a"), 1, in -> parse(parses, 2));
+
+    assertEquals(2, parses.get());
+    assertEquals(1, cache.getDiskHits());
+    assertEquals(2, cache.getEvictions());
+    assertEquals(LocalDate.of(2025, 3, 14), fromDisk.get(0).getDate());
+    assertEquals(0, new BigDecimal("10.50").compareTo(fromDisk.get(1).getAmount()));
+  }
+
+  @Test
+  void hashesNewFilesWhileTheyAreParsed() throws Exception {
+    ParsedFileCache cache = new ParsedFileCache(objectMapper, true, 100, "", 0);
+    byte[] content = new byte[1 << 20];
+    AtomicLong bytesRead = new AtomicLong();
+    InputStreamSource source = () -> counting(new ByteArrayInputStream(content), bytesRead);
+
+    cache.getOrParseLinix(source, content.length, in -> {
+      in.transferTo(OutputStream.nullOutputStream());
+      return parse(new AtomicInteger(), 2);
+    });
+
+    // Sólo la huella (64 KB) se lee aparte; el hash sale de la misma lectura del análisis
+    assertEquals(content.length + 64 * 1024, bytesRead.get());
+
+    bytesRead.set(0);
+    cache.getOrParseLinix(source, content.length, in -> parse(new AtomicInteger(), 2));
+    assertEquals(1, cache.getHits());
+  }
+
+  @Test
+  void hitsValidateAndCountSkippedRowsLikeAParse() throws Exception {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    Metrics.addRegistry(registry);
+    try {
+      ParsedFileCache cache = new ParsedFileCache(objectMapper, true, 100, "", 0);
+      BancolombiaStatement statement = BancolombiaStatement.builder().transactions(List.of()).build();
+      AtomicInteger validations = new AtomicInteger();
+
+      for (int i = 0; i < 3; i++) {
+        cache.getOrParseStatement(file("extracto"), 8, in -> {
+          SkippedRows.record(SourceSystem.BANCOLOMBIA, SkippedRows.INCOMPLETE, 2);
+          return statement;
+        }, cached -> validations.incrementAndGet());
+      }
+
+      assertEquals(2, cache.getHits());
+      assertEquals(2, validations.get());
+      assertEquals(6, registry.get("conciliation.rows.skipped")
+          .tags("source", "BANCOLOMBIA", "reason", SkippedRows.INCOMPLETE).counter().count());
+    } finally {
+      Metrics.removeRegistry(registry);
+    }
+  }
+
+  @Test
+  void skippedRowsSurviveTheTripToDisk(@TempDir Path dir) throws Exception {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    Metrics.addRegistry(registry);
+    try {
+      ParsedFileCache cache = new ParsedFileCache(objectMapper, true, 3, dir.toString(), 1_000_000);
+      AtomicInteger parses = new AtomicInteger();
+      ParsedFileCache.Parser<List<Transaction>> withErrors = in -> {
+        SkippedRows.record(SourceSystem.LINIX, SkippedRows.FORMAT_ERROR, 1);
+        return parse(parses, 2);
+      };
+
+      cache.getOrParseLinix(file("a"), 1, withErrors);
+      cache.getOrParseLinix(file("b"), 1, withErrors); // "a" pasa a disco
+      cache.getOrParseLinix(file("a"), 1, withErrors);
+
+      assertEquals(1, cache.getDiskHits());
+      assertEquals(2, parses.get());
+      assertEquals(3, registry.get("conciliation.rows.skipped")
+          .tags("source", "LINIX", "reason", SkippedRows.FORMAT_ERROR).counter().count());
+    } finally {
+      Metrics.removeRegistry(registry);
+    }
+  }
+
+  private static InputStream counting(InputStream in, AtomicLong bytesRead) {
+    return new FilterInputStream(in) {
+      @Override
+      public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0)
+          bytesRead.incrementAndGet();
+        return b;
+      }
+
+      @Override
+      public int read(byte[] buffer, int off, int len) throws IOException {
+        int read = super.read(buffer, off, len);
+        if (read > 0)
+          bytesRead.addAndGet(read);
+        return read;
+      }
+    };
+  }
+
+  private static InputStreamSource file(String content) {
+    return () -> new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static List<Transaction> parse(AtomicInteger parses, int rows) {
+    parses.incrementAndGet();
+    return IntStream.range(0, rows)
+        .mapToObj(i -> Transaction.builder()
+            .date(LocalDate.of(2025, 3, 14))
+            .description("Movimiento " + i)
+            .amount(new BigDecimal("10.50"))
+            .transactionType(TransactionType.DEBIT)
+            .source(SourceSystem.LINIX)
+            .build())
+        .toList();
+  }
+}
@@ -0,0 +1,34 @@
+package com.vengalsas.core.conciliation.infrastructure.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+import com.vengalsas.core.conciliation.domain.model.IncrementalState;
+
+class InMemoryIncrementalStateStoreTest {
+
+  @Test
+  void evictsTheLeastRecentlyUsedAccountWhenFull() {
+    InMemoryIncrementalStateStore store = new InMemoryIncrementalStateStore(2, 60);
+    IncrementalState first = store.getOrCreate("123");
+    IncrementalState second = store.getOrCreate("456");
+
+    // Usar la primera la deja como la más reciente: sale la segunda
+    assertSame(first, store.getOrCreate("123"));
+    store.getOrCreate("789");
+
+    assertSame(first, store.getOrCreate("123"));
+    assertNotSame(second, store.getOrCreate("456"));
+  }
+
+  @Test
+  void idleAccountsStartOverEmpty() throws InterruptedException {
+    InMemoryIncrementalStateStore store = new InMemoryIncrementalStateStore(10, 0);
+    IncrementalState idle = store.getOrCreate("123");
+    Thread.sleep(5);
+
+    assertNotSame(idle, store.getOrCreate("123"));
+  }
+}
@@ -0,0 +1,41 @@
+package com.vengalsas.core.conciliation.infrastructure.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.vengalsas.core.conciliation.domain.model.ReconciliationRun;
+
+class InMemoryReconciliationRunStoreTest {
+
+  @Test
+  void evictsTheLeastRecentlyUsedRunWhenFull() {
+    InMemoryReconciliationRunStore store = new InMemoryReconciliationRunStore(2, 60);
+    ReconciliationRun first = store.save(run(Instant.now()));
+    ReconciliationRun second = store.save(run(Instant.now()));
+
+    // Leer la primera la deja como la más reciente: sale la segunda
+    assertTrue(store.findById(first.getId()).isPresent());
+    store.save(run(Instant.now()));
+
+    assertTrue(store.findById(first.getId()).isPresent());
+    assertFalse(store.findById(second.getId()).isPresent());
+  }
+
+  @Test
+  void expiredRunsAreNotFound() {
+    InMemoryReconciliationRunStore store = new InMemoryReconciliationRunStore(10, 60);
+    ReconciliationRun old = store.save(run(Instant.now().minus(Duration.ofMinutes(61))));
+
+    assertFalse(store.findById(old.getId()).isPresent());
+  }
+
+  private static ReconciliationRun run(Instant createdAt) {
+    return ReconciliationRun.builder().id(UUID.randomUUID()).createdAt(createdAt).build();
+  }
+}
@@ -0,0 +1,77 @@
+package com.vengalsas.core.conciliation.infrastructure.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.vengalsas.core.conciliation.application.matching.MatchKind;
+import com.vengalsas.core.conciliation.application.matching.MatchOutcome;
+import com.vengalsas.core.conciliation.application.matching.MatchingEngine;
+import com.vengalsas.core.conciliation.domain.model.SourceSystem;
+import com.vengalsas.core.conciliation.domain.model.Transaction;
+import com.vengalsas.core.conciliation.domain.model.TransactionType;
+
+class JdbcArchivedTransactionsTest {
+
+  @Test
+  void greedyClaimOverOrderedCandidatesMatchesTheFlexiblePass() {
+    Random random = new Random(11);
+    List<Transaction> linix = new ArrayList<>();
+    List<Transaction> banco = new ArrayList<>();
+    // Montos y días muy concentrados para que cada Linix tenga varias candidatas
+    for (int i = 0; i < 400; i++) {
+      linix.add(tx(10 + random.nextInt(4), 10_000 + random.nextInt(40) * 100, SourceSystem.LINIX));
+      banco.add(tx(10 + random.nextInt(4), 10_000 + random.nextInt(40) * 100, SourceSystem.BANCOLOMBIA));
+    }
+    MatchOutcome outcome = new MatchingEngine().match(linix, banco);
+
+    // Lo que produce el range join tras la pasada exacta, en el orden del ORDER BY
+    boolean[] exactBanco = new boolean[banco.size()];
+    for (int l = 0; l < linix.size(); l++) {
+      if (outcome.kindFor(l) == MatchKind.EXACT)
+        exactBanco[outcome.bancoFor(l)] = true;
+    }
+    JdbcArchivedTransactions.GreedyClaim claim = new JdbcArchivedTransactions.GreedyClaim();
+    for (int l = 0; l < linix.size(); l++) {
+      if (outcome.kindFor(l) == MatchKind.EXACT)
+        continue;
+      for (int b = 0; b < banco.size(); b++) {
+        if (!exactBanco[b] && isCandidate(linix.get(l), banco.get(b)))
+          claim.offer(l, b);
+      }
+    }
+
+    List<int[]> expected = new ArrayList<>();
+    for (int l = 0; l < linix.size(); l++) {
+      if (outcome.kindFor(l) == MatchKind.FLEXIBLE)
+        expected.add(new int[] { l, outcome.bancoFor(l) });
+    }
+    assertTrue(expected.size() > 20);
+    assertArrayEquals(expected.stream().mapToInt(p -> p[0]).toArray(), claim.linix());
+    assertArrayEquals(expected.stream().mapToInt(p -> p[1]).toArray(), claim.banco());
+  }
+
+  private static boolean isCandidate(Transaction linix, Transaction banco) {
+    long days = Math.abs(linix.getDate().toEpochDay() - banco.getDate().toEpochDay());
+    BigDecimal difference = linix.getAmount().subtract(banco.getAmount()).abs();
+    return days <= MatchingEngine.FLEXIBLE_DATE_WINDOW_DAYS
+        && difference.compareTo(MatchingEngine.FLEXIBLE_AMOUNT_TOLERANCE) <= 0;
+  }
+
+  private Transaction tx(int day, int amount, SourceSystem source) {
+    return Transaction.builder()
+        .date(LocalDate.of(2025, 3, day))
+        .amount(BigDecimal.valueOf(amount))
+        .description("MOV")
+        .transactionType(TransactionType.CREDIT)
+        .source(source)
+        .build();
+  }
+}
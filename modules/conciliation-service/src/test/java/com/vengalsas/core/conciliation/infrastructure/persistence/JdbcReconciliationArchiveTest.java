@@ -0,0 +1,33 @@
+package com.vengalsas.core.conciliation.infrastructure.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Test;
+
+class JdbcReconciliationArchiveTest {
+
+  @Test
+  void nullIsWrittenUnquotedSoCopyReadsItAsNull() throws IOException {
+    assertEquals("", quoted(null));
+  }
+
+  @Test
+  void emptyStringsAreQuotedToKeepThemApartFromNull() throws IOException {
+    assertEquals("\"\"", quoted(""));
+  }
+
+  @Test
+  void quotesAreDoubledAndSeparatorsStayInsideTheField() throws IOException {
+    assertEquals("\"PAGO \"\"NÓMINA\"\", MARZO\"", quoted("PAGO \"NÓMINA\", MARZO"));
+    assertEquals("\"LÍNEA 1\nLÍNEA 2\r\\N\"", quoted("LÍNEA 1\nLÍNEA 2\r\\N"));
+  }
+
+  private static String quoted(String value) throws IOException {
+    StringWriter out = new StringWriter();
+    JdbcReconciliationArchive.writeQuoted(out, value);
+    return out.toString();
+  }
+}
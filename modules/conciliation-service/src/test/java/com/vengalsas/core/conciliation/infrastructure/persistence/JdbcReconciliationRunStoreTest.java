@@ -0,0 +1,70 @@
+package com.vengalsas.core.conciliation.infrastructure.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vengalsas.core.conciliation.domain.model.BancolombiaStatement;
+import com.vengalsas.core.conciliation.domain.model.ReconciliationRun;
+
+class JdbcReconciliationRunStoreTest {
+
+  private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+  private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+  @Test
+  void savesTheStatementHeaderAndPurgesAtMostOncePerInterval() throws Exception {
+    JdbcReconciliationRunStore store = new JdbcReconciliationRunStore(jdbcTemplate, objectMapper, 10, 60);
+
+    ReconciliationRun run = run();
+    store.save(run);
+    store.save(run());
+
+    verify(jdbcTemplate, times(1)).update(startsWith("DELETE"), any(Object.class));
+    ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+    verify(jdbcTemplate, times(2)).update(startsWith("INSERT"), any(), payload.capture(), any());
+    ReconciliationRun stored = objectMapper.readValue((String) payload.getAllValues().get(0), ReconciliationRun.class);
+    assertEquals(0, new BigDecimal("1000").compareTo(stored.getBancolombiaStatement().getStartingBalance()));
+  }
+
+  @Test
+  void otherReplicasReadTheRunFromTheDatabase() throws Exception {
+    ReconciliationRun run = run();
+    when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(run.getId()), any()))
+        .thenReturn(List.of(objectMapper.writeValueAsString(run)));
+    JdbcReconciliationRunStore store = new JdbcReconciliationRunStore(jdbcTemplate, objectMapper, 10, 60);
+
+    BancolombiaStatement statement = store.findById(run.getId()).orElseThrow().getBancolombiaStatement();
+
+    assertEquals(0, new BigDecimal("1500").compareTo(statement.getEndingBalance()));
+    assertFalse(store.findById(UUID.randomUUID()).isPresent());
+  }
+
+  private static ReconciliationRun run() {
+    return ReconciliationRun.builder()
+        .id(UUID.randomUUID())
+        .bancolombiaStatement(BancolombiaStatement.builder()
+            .startingBalance(new BigDecimal("1000"))
+            .endingBalance(new BigDecimal("1500"))
+            .build())
+        .createdAt(Instant.now())
+        .build();
+  }
+}
@@ -0,0 +1,138 @@
+package com.vengalsas.core.conciliation.web.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vengalsas.core.conciliation.application.job.ReconciliationJobService;
+import com.vengalsas.core.conciliation.application.service.ArchivedReconciliationService;
+import com.vengalsas.core.conciliation.application.service.BatchReconciliationService;
+import com.vengalsas.core.conciliation.application.service.ExternalReconciliationService;
+import com.vengalsas.core.conciliation.application.service.ReconciliationService;
+import com.vengalsas.core.conciliation.domain.model.SourceSystem;
+import com.vengalsas.core.conciliation.domain.model.Transaction;
+import com.vengalsas.core.conciliation.domain.model.TransactionType;
+import com.vengalsas.core.conciliation.infrastructure.cache.ParsedFileCache;
+import com.vengalsas.core.conciliation.infrastructure.metrics.ReconciliationMetrics;
+import com.vengalsas.core.conciliation.web.dto.ConciliationResultDTO;
+import com.vengalsas.core.conciliation.web.dto.ReconciliationRequestDTO;
+import com.vengalsas.core.conciliation.web.dto.ReconciliationSummaryDTO;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ReconciliationControllerTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+  private final ReconciliationService reconciliationService = mock(ReconciliationService.class);
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() {
+    ReconciliationController controller = new ReconciliationController(reconciliationService,
+        mock(ExternalReconciliationService.class), mock(BatchReconciliationService.class),
+        mock(ArchivedReconciliationService.class), mock(ReconciliationJobService.class),
+        mock(ParsedFileCache.class), objectMapper, new ReconciliationMetrics(new SimpleMeterRegistry()));
+    mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+  }
+
+  @Test
+  void streamsOneLinePerResultAndTheSummaryLast() throws Exception {
+    when(reconciliationService.streamReconciliation(any(), any(), any())).thenAnswer(invocation -> {
+      Consumer<ConciliationResultDTO> sink = invocation.getArgument(2);
+      sink.accept(ConciliationResultDTO.builder().matched(true).discrepancyType("Exacta").build());
+      sink.accept(ConciliationResultDTO.builder().matched(false).discrepancyType("Sin pareja").build());
+      return ReconciliationSummaryDTO.builder().matchedCount(1).build();
+    });
+
+    List<JsonNode> lines = stream();
+
+    assertEquals(3, lines.size());
+    assertEquals("Exacta", lines.get(0).get("discrepancyType").asText());
+    assertEquals(1, lines.get(2).get("summary").get("matchedCount").asInt());
+    assertNull(lines.get(2).get("error"));
+  }
+
+  @Test
+  void aFailureHalfwayEndsTheStreamWithAnErrorLine() throws Exception {
+    when(reconciliationService.streamReconciliation(any(), any(), any())).thenAnswer(invocation -> {
+      Consumer<ConciliationResultDTO> sink = invocation.getArgument(2);
+      sink.accept(ConciliationResultDTO.builder().matched(true).build());
+      throw new IllegalStateException("boom");
+    });
+
+    List<JsonNode> lines = stream();
+
+    assertEquals(2, lines.size());
+    assertNull(lines.get(1).get("summary"));
+    assertEquals("Error during reconciliation process.", lines.get(1).get("error").asText());
+  }
+
+  @Test
+  void inMemoryEndpointsRejectFilesOverTheirLimit() throws Exception {
+    MockMultipartFile bank = new MockMultipartFile("bankFile", "extracto.xlsx", null, new byte[] { 1 });
+    MockMultipartFile accounting = new MockMultipartFile("accountingFile", "linix.txt", null,
+        new byte[(int) DataSize.ofMegabytes(10).toBytes() + 1]);
+
+    mockMvc.perform(multipart("/api/v1/conciliation/upload").file(bank).file(accounting))
+        .andExpect(status().isPayloadTooLarge());
+    verifyNoInteractions(reconciliationService);
+  }
+
+  private List<JsonNode> stream() throws Exception {
+    ReconciliationRequestDTO request = new ReconciliationRequestDTO();
+    request.setLinixTransactions(List.of(tx(SourceSystem.LINIX)));
+    request.setBancolombiaTransactions(List.of(tx(SourceSystem.BANCOLOMBIA)));
+
+    MvcResult started = mockMvc.perform(post("/api/v1/conciliation/reconcile")
+        .contentType(MediaType.APPLICATION_JSON)
+        .accept(MediaType.APPLICATION_NDJSON)
+        .content(objectMapper.writeValueAsString(request)))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    String body = mockMvc.perform(asyncDispatch(started))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+
+    return body.lines().map(line -> {
+      try {
+        return objectMapper.readTree(line);
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+    }).toList();
+  }
+
+  private static Transaction tx(SourceSystem source) {
+    return Transaction.builder()
+        .date(LocalDate.of(2025, 3, 10))
+        .amount(new BigDecimal("1000"))
+        .description("MOV")
+        .transactionType(TransactionType.CREDIT)
+        .source(source)
+        .build();
+  }
+}